@@ -20,8 +20,8 @@
 
 package com.ohrasys.cad.bnf;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Vector;
 
 /**
  * Abstract Backus-Naur test.  This is the base for all the concrete test
@@ -38,21 +38,42 @@ public abstract class BNFAbstractTest implements BNFTestImplementor {
     /** A flag indicating whether data collection is turned on */
     protected boolean collecting;
 
+    /** The tokens committed by the last call to the fast path */
+    protected BNFTokenList committableTokens;
+
     /** A list of all subtokens successfully processed by the sub-tests */
     protected List<BNFTestableObject> committed;
 
+    /** The tokens successfully processed by the sub-tests in the fast path */
+    protected BNFTokenList committedTokens;
+
     /** A pointer to the sub-test being evaluated */
     protected int nextTest;
 
     /** A list of tokens to be evaluated by this test */
     protected List<BNFTestableObject> playable;
 
+    /** The tokens to be evaluated by this test in the fast path */
+    protected BNFTokenList playableTokens;
+
+    /** The tokens handed back by the last call to the fast path */
+    protected BNFTokenList replayableTokens;
+
     /** The result object for this test */
     protected BNFTestResult result;
 
+    /** A flag indicating that the test has evaluated tokens since its reset */
+    protected boolean tested;
+
     /** The list of sub-tests that comprise this test */
     protected BNFTestImplementor tests[];
 
+    /**
+     * A flag indicating that the fast path evaluated tokens on the object
+     * path since the last reset
+     */
+    private boolean wrapped;
+
     /**
      * Creates a new BNFAbstractTest object.
      *
@@ -65,9 +86,13 @@ public abstract class BNFAbstractTest implements BNFTestImplementor {
         this.collecting = false;
         this.tests = tests;
         this.result = new BNFTestResult();
-        this.playable = new Vector<BNFTestableObject>();
-        this.committed = new Vector<BNFTestableObject>();
-        this.collectedData = new Vector<Object>();
+        this.playable = new ArrayList<BNFTestableObject>();
+        this.committed = new ArrayList<BNFTestableObject>();
+        this.collectedData = new ArrayList<Object>();
+        this.playableTokens = new BNFTokenList();
+        this.committedTokens = new BNFTokenList();
+        this.committableTokens = new BNFTokenList();
+        this.replayableTokens = new BNFTokenList();
         checkTests();
         reset();
     }
@@ -85,6 +110,55 @@ public abstract class BNFAbstractTest implements BNFTestImplementor {
     @Override
     public abstract BNFTestResult test(BNFTestableObject obj);
 
+    /**
+     * The fast path of the test.  It evaluates a bare token the same way as
+     * <code>test(BNFTestableObject)</code>, but it never collects data and
+     * its token lists and result are reused from one call to the next, so a
+     * test that has warmed up allocates nothing.  The tokens to replay are
+     * counted by <code>getReplayCount</code>.  Every sub-test must extend
+     * this class.
+     *
+     * <p>This implementation wraps the token in a new testable object and
+     * evaluates it on the object path, so subclasses that only implement
+     * <code>test(BNFTestableObject)</code> still work, without the speed.
+     * The tests of this package override it.</p>
+     *
+     * @param   token  The token
+     *
+     * @return  <code>BNFTestResult.FINISHED</code>, <code>
+     *          BNFTestResult.UNFINISHED</code> or <code>
+     *          BNFTestResult.FAILED</code>
+     */
+    public int test(final int token) {
+        this.tested = true;
+        this.wrapped = true;
+        this.committableTokens.clear();
+        this.replayableTokens.clear();
+
+        /* A new object per token, the object path may keep it */
+        BNFTestResult outcome = test(new BNFTestableObject(null) {
+                    @Override
+                    public int getToken() {
+                        return token;
+                    }
+                });
+        List<BNFTestableObject> tokens = outcome.getCommittableTokens();
+        for (int i = 0; i < tokens.size(); i++) {
+            this.committableTokens.add(tokens.get(i).getToken());
+        }
+        tokens = outcome.getReplayableTokens();
+        for (int i = 0; i < tokens.size(); i++) {
+            this.replayableTokens.add(tokens.get(i).getToken());
+        }
+
+        if (outcome.isFinished()) {
+            return BNFTestResult.FINISHED;
+        }
+
+        return outcome.isUnfinished() ? BNFTestResult.UNFINISHED
+                                      : BNFTestResult.FAILED;
+    } // end method test
+
     /**
      * A method to retrieve data collected during the evaluation of this test
      *
@@ -96,19 +170,30 @@ public abstract class BNFAbstractTest implements BNFTestImplementor {
         List<Object> result;
         if (this.collecting) {
             result = this.collectedData;
-            this.collectedData = new Vector<Object>();
+            this.collectedData = new ArrayList<Object>();
         }
         else {
-            result = new Vector<Object>(0);
+            result = new ArrayList<Object>(0);
         }
 
         return result;
     }
 
+    /**
+     * Returns the number of tokens handed back by the last call to the fast
+     * path.  The calling test must evaluate them again, before any other
+     * token.
+     *
+     * @return  The number of tokens to replay
+     */
+    public int getReplayCount() {
+        return this.replayableTokens.size();
+    }
+
     /** Resets the test state */
     @Override
     public void reset() {
-        this.nextTest = 0;
+        resetState();
         if (this.tests != null) {
             for (int i = 0; i < this.tests.length; i++) {
                 if (this.tests[i] != null) {
@@ -204,6 +289,55 @@ public abstract class BNFAbstractTest implements BNFTestImplementor {
     protected boolean isNotLastTest() {
         return !isLastTest();
     }
+
+    /**
+     * Resets the state of this test alone, leaving the sub-tests untouched.
+     * Both <code>reset</code> and <code>rewind</code> clear a test through
+     * this method.
+     */
+    protected void resetState() {
+        this.tested = false;
+        this.wrapped = false;
+        this.nextTest = 0;
+        this.playableTokens.clear();
+        this.committedTokens.clear();
+    }
+
+    /**
+     * Resets the test after the fast path finished or failed.  Unlike <code>
+     * reset</code> this skips every test that has not evaluated a token since
+     * it was last reset, along with its sub-tests, which can only have been
+     * evaluated through it.  Resetting the whole tree on every result made
+     * resets cost more than the tests themselves.
+     *
+     * <p>The sub-tests are rewound through <code>resetState</code>, so a
+     * subclass that keeps state of its own for the fast path must clear it
+     * by overriding <code>resetState</code> rather than <code>reset</code>.
+     * The object path still resets through <code>reset</code>, and so does a
+     * test whose fast path fell back to it.</p>
+     */
+    protected void rewind() {
+        if (!this.tested) {
+            return;
+        }
+        if (this.wrapped) {
+            reset();
+
+            return;
+        }
+
+        resetState();
+        if (this.tests != null) {
+            for (int i = 0; i < this.tests.length; i++) {
+                if (this.tests[i] instanceof BNFAbstractTest) {
+                    ((BNFAbstractTest) this.tests[i]).rewind();
+                }
+                else if (this.tests[i] != null) {
+                    this.tests[i].reset();
+                }
+            }
+        }
+    }
 } // end class BNFAbstractTest
 
 /* This material is distributed under the GNU General Public License.
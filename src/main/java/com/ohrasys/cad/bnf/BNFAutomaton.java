@@ -0,0 +1,286 @@
+/*
+ * Copyright (C) 2004 Thomas N. Valine
+ * tvaline@users.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA
+ * 02111-1307, USA.
+ */
+
+package com.ohrasys.cad.bnf;
+
+import java.util.Arrays;
+
+/**
+ * A test tree compiled into a state transition table by
+ * <code>BNFCompiler</code>.  Each token costs one table lookup and nothing is
+ * allocated while testing.  The automaton reports the same status for every
+ * token as the tree it was compiled from, but it does not collect any data.
+ *
+ * <p>When a test finishes on a token it cannot accept, the tree hands that
+ * token back to its caller along with any tokens it had only accepted
+ * tentatively.  The automaton keeps no tokens, it only counts them: after
+ * such a result <code>getReplayCount</code> tells how many of the last tokens
+ * tested must be tested again by whatever follows.</p>
+ *
+ * @author   $Author: tvaline $
+ * @version  $Revision: 1.1 $
+ * @since    1.5
+ */
+public class BNFAutomaton {
+
+    /** The state flag of states where the tokens so far form a sentence */
+    static final byte ACCEPTING = 0x1;
+
+    /** The state flag of states without any transition */
+    static final byte CLOSED = 0x2;
+
+    /** Whether a sentence has been seen since the last reset */
+    private boolean accepted;
+
+    /** The smallest token of the alphabet */
+    private int base;
+
+    /** The column of each token from <code>base</code> on, or -1 */
+    private int columns[];
+
+    /** The number of tokens tested since the last reset */
+    private int consumed;
+
+    /** The flags of each state */
+    private byte flags[];
+
+    /** The number of tokens tested since the last sentence was seen */
+    private int pending;
+
+    /** The state the last rejected token was tested in, or -1 */
+    private int rejected;
+
+    /** The number of tokens to test again after the last result */
+    private int replayCount;
+
+    /** The current state */
+    private int state;
+
+    /** The next state for each state and column, or -1 */
+    private int transitions[];
+
+    /** The number of columns of the transition table */
+    private int width;
+
+    /**
+     * Creates a new BNFAutomaton object.
+     *
+     * @param  base         The smallest token of the alphabet
+     * @param  columns      The column of each token from base on, or -1
+     * @param  width        The number of columns
+     * @param  transitions  The next state for each state and column, or -1
+     * @param  flags        The flags of each state
+     */
+    BNFAutomaton(int base, int columns[], int width, int transitions[],
+            byte flags[]) {
+        this.base = base;
+        this.columns = columns;
+        this.width = width;
+        this.transitions = transitions;
+        this.flags = flags;
+        this.rejected = -1;
+        reset();
+    }
+
+    /**
+     * Creates a new BNFAutomaton object sharing the tables of another one.  The
+     * tables are never modified, so each thread may test its own copy.
+     *
+     * @param  automaton  The automaton to copy
+     */
+    public BNFAutomaton(BNFAutomaton automaton) {
+        this(automaton.base, automaton.columns, automaton.width,
+            automaton.transitions, automaton.flags);
+    }
+
+    /**
+     * Returns the tokens that would have been accepted instead of the last
+     * token rejected, that is the last token that ended a test with a failed
+     * result or with a finished result it was not part of.
+     *
+     * @return  The tokens in ascending order, empty if no token was rejected
+     */
+    public int[] getExpectedTokens() {
+        if (this.rejected < 0) {
+            return new int[0];
+        }
+
+        int count = 0;
+        int tokens[] = new int[this.width];
+        for (int i = 0; i < this.columns.length; i++) {
+            if ((this.columns[i] >= 0) &&
+                    (this.transitions[(this.rejected * this.width) +
+                        this.columns[i]] >= 0)) {
+                tokens[count++] = this.base + i;
+            }
+        }
+
+        return Arrays.copyOf(tokens, count);
+    }
+
+    /**
+     * Returns the number of tokens the caller must test again after the last
+     * result.  This is zero after an unfinished result, and after a finished
+     * result if the last token completed the sentence.  Otherwise it counts
+     * the last token and every token accepted since the end of the sentence.
+     * After a failure it counts every token tested since the last reset.
+     *
+     * @return  The number of tokens to test again
+     */
+    public int getReplayCount() {
+        return this.replayCount;
+    }
+
+    /**
+     * Returns the number of states of the automaton.
+     *
+     * @return  The number of states
+     */
+    public int getStateCount() {
+        return this.flags.length;
+    }
+
+    /**
+     * Returns the automaton to its start state, as if no token had been tested.
+     */
+    public void reset() {
+        this.state = 0;
+        this.consumed = 0;
+        this.pending = 0;
+        this.accepted = (this.flags[0] & ACCEPTING) != 0;
+    }
+
+    /**
+     * Moves the automaton to the state a token leads to, as if the tokens of
+     * a sentence up to and including that token had been tested.  This lets
+     * a caller that skipped tokens after a failure resume at a token with a
+     * single meaning in the grammar, such as the token closing a group.
+     * Replay counts start over from the resumed token.
+     *
+     * @param   token  The token
+     *
+     * @return  false if the token leads to no state or to several states, in
+     *          which case the automaton is left alone
+     */
+    public boolean resume(int token) {
+        int column = token - this.base;
+        if ((column < 0) || (column >= this.columns.length) ||
+                (this.columns[column] < 0)) {
+            return false;
+        }
+
+        int target = -1;
+        for (int i = 0; i < this.flags.length; i++) {
+            int next = this.transitions[(i * this.width) +
+                    this.columns[column]];
+            if ((next >= 0) && (target >= 0) && (next != target)) {
+                return false;
+            }
+            if (next >= 0) {
+                target = next;
+            }
+        }
+        if (target < 0) {
+            return false;
+        }
+
+        this.state = target;
+        this.consumed = 0;
+        this.pending = 0;
+        this.accepted = (this.flags[target] & ACCEPTING) != 0;
+
+        return true;
+    } // end method resume
+
+    /**
+     * Tests a token.  After a finished or failed result the automaton resets
+     * itself, like the tests it was compiled from.
+     *
+     * @param   token  The token
+     *
+     * @return  <code>BNFTestResult.FINISHED</code>, <code>
+     *          BNFTestResult.UNFINISHED</code> or <code>
+     *          BNFTestResult.FAILED</code>
+     */
+    public int test(int token) {
+        int column = token - this.base;
+        int next = -1;
+        if ((column >= 0) && (column < this.columns.length) &&
+                (this.columns[column] >= 0)) {
+            next = this.transitions[(this.state * this.width) +
+                    this.columns[column]];
+        }
+
+        if (next < 0) {
+            int status = BNFTestResult.FAILED;
+            this.rejected = this.state;
+            this.replayCount = this.consumed + 1;
+            if (this.accepted) {
+                status = BNFTestResult.FINISHED;
+                this.replayCount = this.pending + 1;
+            }
+            reset();
+
+            return status;
+        }
+
+        this.state = next;
+        this.consumed++;
+        this.pending++;
+        this.replayCount = 0;
+        if ((this.flags[next] & ACCEPTING) != 0) {
+            this.accepted = true;
+            this.pending = 0;
+            if ((this.flags[next] & CLOSED) != 0) {
+                reset();
+
+                return BNFTestResult.FINISHED;
+            }
+        }
+
+        return BNFTestResult.UNFINISHED;
+    } // end method test
+
+    /**
+     * Tests the token of a testable object.
+     *
+     * @param   obj  The testable object
+     *
+     * @return  <code>BNFTestResult.FINISHED</code>, <code>
+     *          BNFTestResult.UNFINISHED</code> or <code>
+     *          BNFTestResult.FAILED</code>
+     */
+    public int test(BNFTestableObject obj) {
+        return test(obj.getToken());
+    }
+
+    /**
+     * Returns a string representation of this class
+     *
+     * @return  The physical address of this instance
+     */
+    @Override
+    public String toString() {
+        return super.toString();
+    }
+} // end class BNFAutomaton
+
+/* This material is distributed under the GNU General Public License.
+ * For more information please go to http://www.gnu.org/copyleft/gpl.html */
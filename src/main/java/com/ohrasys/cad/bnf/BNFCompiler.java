@@ -0,0 +1,593 @@
+/*
+ * Copyright (C) 2004 Thomas N. Valine
+ * tvaline@users.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA
+ * 02111-1307, USA.
+ */
+
+package com.ohrasys.cad.bnf;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Compiles a tree of tests into a <code>BNFAutomaton</code>.
+ *
+ * <p>A tree of tests has no recursion, so the sentences it accepts form a
+ * regular language and the nesting of the tree can be resolved once, at
+ * compile time.  Every token test becomes a position, the positions that may
+ * follow each other are worked out from the structure of the tree, and the
+ * sets of positions reachable by the same tokens become the states of the
+ * automaton.  States that cannot be told apart by any sequence of tokens are
+ * then merged, so that a token always leads to the same state whenever the
+ * grammar gives it a single meaning, as it does for the closing token of a
+ * group.</p>
+ *
+ * <p>The tests are greedy: an optional or repeated group that accepts a token
+ * keeps it even if what follows would have accepted it too, and the first
+ * choice that finishes is kept even if a later one would have accepted more
+ * tokens.  An automaton cannot mimic such decisions, so trees in which they
+ * matter are refused.  Only the tests of this package can be compiled,
+ * subclasses are accepted as long as they do not change how tokens are
+ * tested.</p>
+ *
+ * @author   $Author: tvaline $
+ * @version  $Revision: 1.1 $
+ * @since    1.5
+ */
+public class BNFCompiler {
+
+    /** The node kind of a choice between its children */
+    private static final int CHOICE = 0;
+
+    /** The largest span of tokens covered by the column table */
+    private static final int MAX_SPAN = 0x10000;
+
+    /** The node kind of an optional sequence of its children */
+    private static final int OPTION = 1;
+
+    /** The node kind of a sequence of its children repeated at least once */
+    private static final int PLUS = 2;
+
+    /** The node kind of a sequence of its children */
+    private static final int SEQUENCE = 3;
+
+    /** The node kind of an optional repeated sequence of its children */
+    private static final int STAR = 4;
+
+    /** The node kind of a single token */
+    private static final int SYMBOL = 5;
+
+    /**
+     * Compiles a tree of tests.
+     *
+     * @param   test  The root of the tree
+     *
+     * @return  The automaton
+     *
+     * @throws  BNFTestException  If the tree contains a test that cannot be
+     *                            compiled, or if the automaton could not
+     *                            behave like the tree
+     */
+    public BNFAutomaton compile(BNFTestImplementor test) throws BNFTestException {
+        TreeSet<Integer> tokens = new TreeSet<Integer>();
+        Node root = convert(test, tokens);
+
+        int base = tokens.first();
+        if (((long) tokens.last() - base) >= MAX_SPAN) {
+            throw new BNFTestException(String.format(
+                    BNFI18NFactory.getString(BNFI18NFactory.i18n_NO_CMPL),
+                    root.name));
+        }
+
+        int columns[] = new int[(tokens.last() - base) + 1];
+        int alphabet[] = new int[tokens.size()];
+        Arrays.fill(columns, -1);
+        int column = 0;
+        for (Integer token : tokens) {
+            alphabet[column] = token;
+            columns[token - base] = column++;
+        }
+
+        analyze(root, columns, base);
+        check(root, new BitSet(), alphabet);
+
+        Table table = minimize(build(root, alphabet.length), alphabet.length);
+
+        return new BNFAutomaton(base, columns, alphabet.length,
+                table.transitions, table.flags);
+    } // end method compile
+
+    /**
+     * Returns a string representation of this class
+     *
+     * @return  The physical address of this instance
+     */
+    @Override
+    public String toString() {
+        return super.toString();
+    }
+
+    /**
+     * Works out the column, the nullability and the first tokens of a node
+     * and its descendants.
+     *
+     * @param  node     The node
+     * @param  columns  The column of each token from base on
+     * @param  base     The smallest token
+     */
+    private void analyze(Node node, int columns[], int base) {
+        node.first = new BitSet();
+        if (node.kind == SYMBOL) {
+            node.column = columns[node.token - base];
+            node.first.set(node.column);
+
+            return;
+        }
+
+        boolean prefix = true;
+        node.nullable = (node.kind != CHOICE);
+        for (int i = 0; i < node.children.length; i++) {
+            Node child = node.children[i];
+            analyze(child, columns, base);
+            if (node.kind == CHOICE) {
+                node.first.or(child.first);
+                node.nullable |= child.nullable;
+            }
+            else {
+                if (prefix) {
+                    node.first.or(child.first);
+                }
+                prefix &= child.nullable;
+                node.nullable &= child.nullable;
+            }
+        }
+        node.empty = node.nullable;
+        if ((node.kind == OPTION) || (node.kind == STAR)) {
+            node.nullable = true;
+        }
+    } // end method analyze
+
+    /**
+     * Builds the state transition table of a node.  The states are the sets
+     * of positions, that is token tests, that may have accepted the last
+     * token; state 0 holds the single extra position standing for the start.
+     *
+     * @param   root   The node
+     * @param   width  The number of columns
+     *
+     * @return  The table
+     */
+    private Table build(Node root, int width) {
+        List<Node> symbols = new ArrayList<Node>();
+        List<BitSet> follows = new ArrayList<BitSet>();
+        BitSet ends[] = positions(root, symbols, follows);
+        int start = symbols.size();
+
+        List<BitSet> states = new ArrayList<BitSet>();
+        List<int[]> rows = new ArrayList<int[]>();
+        Map<BitSet, Integer> ids = new HashMap<BitSet, Integer>();
+        BitSet initial = new BitSet();
+        initial.set(start);
+        states.add(initial);
+        ids.put(initial, 0);
+
+        for (int i = 0; i < states.size(); i++) {
+            BitSet state = states.get(i);
+            BitSet reachable = new BitSet();
+            if (i == 0) {
+                reachable.or(ends[0]);
+            }
+            else {
+                for (int p = state.nextSetBit(0); p >= 0;
+                        p = state.nextSetBit(p + 1)) {
+                    reachable.or(follows.get(p));
+                }
+            }
+
+            int row[] = new int[width];
+            Arrays.fill(row, -1);
+            BitSet next[] = new BitSet[width];
+            for (int p = reachable.nextSetBit(0); p >= 0;
+                    p = reachable.nextSetBit(p + 1)) {
+                int column = symbols.get(p).column;
+                if (next[column] == null) {
+                    next[column] = new BitSet();
+                }
+                next[column].set(p);
+            }
+            for (int column = 0; column < width; column++) {
+                if (next[column] != null) {
+                    Integer id = ids.get(next[column]);
+                    if (id == null) {
+                        id = states.size();
+                        states.add(next[column]);
+                        ids.put(next[column], id);
+                    }
+                    row[column] = id;
+                }
+            }
+            rows.add(row);
+        } // end for
+
+        Table result = new Table();
+        result.transitions = new int[states.size() * width];
+        result.flags = new byte[states.size()];
+        for (int i = 0; i < states.size(); i++) {
+            boolean closed = true;
+            for (int column = 0; column < width; column++) {
+                result.transitions[(i * width) + column] = rows.get(i)[column];
+                closed &= (rows.get(i)[column] < 0);
+            }
+            if (states.get(i).intersects(ends[1]) ||
+                    ((i == 0) && root.nullable)) {
+                result.flags[i] |= BNFAutomaton.ACCEPTING;
+            }
+            if (closed) {
+                result.flags[i] |= BNFAutomaton.CLOSED;
+            }
+        }
+
+        return result;
+    } // end method build
+
+    /**
+     * Checks that a node and its descendants make the same decisions as the
+     * greedy tests they were converted from.
+     *
+     * @param   node      The node
+     * @param   follow    The columns of the tokens that may follow the node
+     * @param   alphabet  The token of each column
+     *
+     * @throws  BNFTestException  If a decision differs
+     */
+    private void check(Node node, BitSet follow, int alphabet[]) throws BNFTestException {
+        if (node.kind == SYMBOL) {
+            return;
+        }
+
+        if (node.kind == CHOICE) {
+            for (int i = 0; i < node.children.length; i++) {
+                check(node.children[i], follow, alphabet);
+            }
+            for (int i = 0; i < node.children.length; i++) {
+                for (int j = i + 1; j < node.children.length; j++) {
+                    int column = overlap(build(node.children[i], alphabet.length),
+                            build(node.children[j], alphabet.length),
+                            alphabet.length);
+                    if (column >= 0) {
+                        throw ambiguous(node, alphabet[column]);
+                    }
+                }
+            }
+
+            return;
+        }
+
+        if (((node.kind == STAR) || (node.kind == PLUS)) && node.empty) {
+            throw new BNFTestException(String.format(
+                    BNFI18NFactory.getString(BNFI18NFactory.i18n_EMPTY_LOOP),
+                    node.name));
+        }
+
+        BitSet inner = (BitSet) follow.clone();
+        if (node.kind != SEQUENCE) {
+            BitSet both = (BitSet) node.first.clone();
+            both.and(follow);
+            if (!both.isEmpty()) {
+                throw ambiguous(node, alphabet[both.nextSetBit(0)]);
+            }
+            if (node.kind != OPTION) {
+                inner.or(node.first);
+            }
+        }
+
+        for (int i = node.children.length - 1; i >= 0; i--) {
+            Node child = node.children[i];
+            check(child, inner, alphabet);
+            if (!child.nullable) {
+                inner = new BitSet();
+            }
+            inner.or(child.first);
+        }
+    } // end method check
+
+    /**
+     * Creates the exception thrown when a tree cannot be compiled because of a
+     * greedy decision.
+     *
+     * @param   node   The node making the decision
+     * @param   token  A token on which the decision is made
+     *
+     * @return  The exception
+     */
+    private BNFTestException ambiguous(Node node, int token) {
+        return new BNFTestException(String.format(
+                    BNFI18NFactory.getString(BNFI18NFactory.i18n_AMBIG),
+                    node.name, token));
+    }
+
+    /**
+     * Converts a test and its descendants to nodes.
+     *
+     * @param   test    The test
+     * @param   tokens  The set receiving the tokens of the tree
+     *
+     * @return  The node
+     *
+     * @throws  BNFTestException  If the test cannot be compiled
+     */
+    private Node convert(BNFTestImplementor test, TreeSet<Integer> tokens) throws BNFTestException {
+        Node node = new Node();
+        node.name = test.getClass().getName();
+
+        Class<?> kind;
+        try {
+            kind = test.getClass().getMethod("test" /* NOI18N */,
+                    BNFTestableObject.class).getDeclaringClass();
+
+            /* Both evaluators must be the known ones */
+            if (kind != test.getClass().getMethod("test" /* NOI18N */,
+                        int.class).getDeclaringClass()) {
+                kind = null;
+            }
+        }
+        catch (NoSuchMethodException ex) {
+            kind = null;
+        }
+
+        if (kind == BNFNoFallthruTest.class) {
+            node.kind = SYMBOL;
+            node.token = ((BNFNoFallthruTest) test).requirement;
+            tokens.add(node.token);
+
+            return node;
+        }
+        else if (kind == BNFOneOfManyRequiredTest.class) {
+            node.kind = CHOICE;
+        }
+        else if (kind == BNFOneOrMoreOptionalTest.class) {
+            node.kind = STAR;
+        }
+        else if (kind == BNFOneOrMoreRequiredTest.class) {
+            node.kind = PLUS;
+        }
+        else if (kind == BNFOptionalTest.class) {
+            node.kind = OPTION;
+        }
+        else if (kind == BNFRequiredTest.class) {
+            node.kind = SEQUENCE;
+        }
+        else {
+            throw new BNFTestException(String.format(
+                    BNFI18NFactory.getString(BNFI18NFactory.i18n_NO_CMPL),
+                    node.name));
+        }
+
+        BNFTestImplementor tests[] = ((BNFAbstractTest) test).tests;
+        node.children = new Node[tests.length];
+        for (int i = 0; i < tests.length; i++) {
+            node.children[i] = convert(tests[i], tokens);
+        }
+
+        return node;
+    } // end method convert
+
+    /**
+     * Merges the states of a table that accept the same sentences and flag
+     * the same prefixes.  The states are split by their flags, then again by
+     * the groups their transitions lead to, until no group splits any more.
+     * Groups are numbered in the order of their first state, so the start
+     * state stays state 0.
+     *
+     * @param   table  The table
+     * @param   width  The number of columns
+     *
+     * @return  The table with one state per group
+     */
+    private Table minimize(Table table, int width) {
+        int states = table.flags.length;
+        int groups[] = new int[states];
+        int count = 0;
+        for (int i = 0; i < states; i++) {
+            groups[i] = table.flags[i];
+        }
+
+        while (true) {
+            Map<List<Integer>, Integer> ids = new HashMap<List<Integer>, Integer>();
+            int next[] = new int[states];
+            for (int i = 0; i < states; i++) {
+                List<Integer> signature = new ArrayList<Integer>(width + 1);
+                signature.add(groups[i]);
+                for (int column = 0; column < width; column++) {
+                    int target = table.transitions[(i * width) + column];
+                    signature.add((target < 0) ? -1 : groups[target]);
+                }
+
+                Integer id = ids.get(signature);
+                if (id == null) {
+                    id = ids.size();
+                    ids.put(signature, id);
+                }
+                next[i] = id;
+            }
+            groups = next;
+            if (ids.size() == count) {
+                break;
+            }
+            count = ids.size();
+        } // end while
+
+        Table result = new Table();
+        result.transitions = new int[count * width];
+        result.flags = new byte[count];
+        for (int i = states - 1; i >= 0; i--) {
+            result.flags[groups[i]] = table.flags[i];
+            for (int column = 0; column < width; column++) {
+                int target = table.transitions[(i * width) + column];
+                result.transitions[(groups[i] * width) + column] = (target < 0)
+                    ? -1 : groups[target];
+            }
+        }
+
+        return result;
+    } // end method minimize
+
+    /**
+     * Looks for a sentence of one table that is the start of a longer
+     * sentence of another table.
+     *
+     * @param   first   The table of the earlier choice
+     * @param   second  The table of the later choice
+     * @param   width   The number of columns
+     *
+     * @return  The column of a token extending such a sentence, or -1
+     */
+    private int overlap(Table first, Table second, int width) {
+        int states = second.flags.length;
+        boolean seen[] = new boolean[first.flags.length * states];
+        List<Integer> queue = new ArrayList<Integer>();
+        queue.add(0);
+        seen[0] = true;
+        for (int i = 0; i < queue.size(); i++) {
+            int a = queue.get(i) / states;
+            int b = queue.get(i) % states;
+            for (int column = 0; column < width; column++) {
+                int nb = second.transitions[(b * width) + column];
+                if (nb < 0) {
+                    continue;
+                }
+                if ((first.flags[a] & BNFAutomaton.ACCEPTING) != 0) {
+                    return column;
+                }
+
+                int na = first.transitions[(a * width) + column];
+                if ((na >= 0) && !seen[(na * states) + nb]) {
+                    seen[(na * states) + nb] = true;
+                    queue.add((na * states) + nb);
+                }
+            }
+        }
+
+        return -1;
+    } // end method overlap
+
+    /**
+     * Numbers the token tests of a node and links each of them to the tests
+     * that may follow it inside the node.
+     *
+     * @param   node     The node
+     * @param   symbols  The list receiving the token tests in position order
+     * @param   follows  The list receiving the positions following each
+     *                   position
+     *
+     * @return  The positions the node may start with and end with
+     */
+    private BitSet[] positions(Node node, List<Node> symbols, List<BitSet> follows) {
+        BitSet first = new BitSet();
+        BitSet last = new BitSet();
+        if (node.kind == SYMBOL) {
+            first.set(symbols.size());
+            last.set(symbols.size());
+            symbols.add(node);
+            follows.add(new BitSet());
+        }
+        else if (node.kind == CHOICE) {
+            for (int i = 0; i < node.children.length; i++) {
+                BitSet ends[] = positions(node.children[i], symbols, follows);
+                first.or(ends[0]);
+                last.or(ends[1]);
+            }
+        }
+        else {
+            boolean prefix = true;
+            for (int i = 0; i < node.children.length; i++) {
+                Node child = node.children[i];
+                BitSet ends[] = positions(child, symbols, follows);
+                for (int p = last.nextSetBit(0); p >= 0;
+                        p = last.nextSetBit(p + 1)) {
+                    follows.get(p).or(ends[0]);
+                }
+                if (prefix) {
+                    first.or(ends[0]);
+                }
+                prefix &= child.nullable;
+                if (!child.nullable) {
+                    last.clear();
+                }
+                last.or(ends[1]);
+            }
+            if ((node.kind == STAR) || (node.kind == PLUS)) {
+                for (int p = last.nextSetBit(0); p >= 0;
+                        p = last.nextSetBit(p + 1)) {
+                    follows.get(p).or(first);
+                }
+            }
+        } // end if-else
+
+        return new BitSet[] { first, last };
+    } // end method positions
+
+    /**
+     * A test of the tree being compiled.
+     */
+    private static class Node {
+
+        /** The children, null for a token test */
+        private Node children[];
+
+        /** The column of the token of a token test */
+        private int column;
+
+        /** Whether the children in sequence may accept no token at all */
+        private boolean empty;
+
+        /** The columns of the tokens the node may start with */
+        private BitSet first;
+
+        /** One of the node kinds */
+        private int kind;
+
+        /** The class name of the test */
+        private String name;
+
+        /** Whether the node may accept no token at all */
+        private boolean nullable;
+
+        /** The token of a token test */
+        private int token;
+    } // end class Node
+
+    /**
+     * A state transition table being compiled.
+     */
+    private static class Table {
+
+        /** The flags of each state */
+        private byte flags[];
+
+        /** The next state for each state and column, or -1 */
+        private int transitions[];
+    } // end class Table
+} // end class BNFCompiler
+
+/* This material is distributed under the GNU General Public License.
+ * For more information please go to http://www.gnu.org/copyleft/gpl.html */
@@ -37,12 +37,21 @@ final class BNFI18NFactory {
     protected static final ResourceBundle bundle = ResourceBundle.getBundle(
             res);
 
+    /** The ambiguous grammar localized message */
+    protected static final String i18n_AMBIG = "I18N_AMBIG" /*NOI18N*/;
+
     /** The child tests localized message */
     protected static final String i18n_CHLD_TSTS = "I18N_CHLD_TSTS" /*NOI18N*/;
 
+    /** The empty repetition localized message */
+    protected static final String i18n_EMPTY_LOOP = "I18N_EMPTY_LOOP" /*NOI18N*/;
+
     /** The first fallthru localized message */
     protected static final String i18n_FIRST_FTHRU = "I18N_FIRST_FTHRU" /*NOI18N*/;
 
+    /** The not compilable localized message */
+    protected static final String i18n_NO_CMPL = "I18N_NO_CMPL" /*NOI18N*/;
+
     /** The no fallthru localized message */
     protected static final String i18n_NO_FTHRU = "I18N_NO_FTHRU" /*NOI18N*/;
 
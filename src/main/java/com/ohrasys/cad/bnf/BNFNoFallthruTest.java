@@ -76,6 +76,27 @@ public class BNFNoFallthruTest extends BNFAbstractTest {
         return testResult;
     }
 
+    /**
+     * The fast path of the test, see <code>BNFAbstractTest.test(int)</code>.
+     *
+     * @param   token  The token
+     *
+     * @return  The completion status of the test
+     */
+    @Override
+    public int test(int token) {
+        this.committableTokens.clear();
+        this.replayableTokens.clear();
+        if (token == this.requirement) {
+            this.committableTokens.add(token);
+
+            return BNFTestResult.FINISHED;
+        }
+        this.replayableTokens.add(token);
+
+        return BNFTestResult.FAILED;
+    }
+
     /**
      * Returns a text representation of this test
      *
@@ -20,8 +20,8 @@
 
 package com.ohrasys.cad.bnf;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Vector;
 
 /**
  * A test in which all of the sub-tests must occur zero or more times
@@ -31,6 +31,12 @@ import java.util.Vector;
  */
 public class BNFOneOrMoreOptionalTest extends BNFAbstractTest {
 
+    /**
+     * The buffer used by the fast path to store tokens until the current pass
+     * can be committed
+     */
+    private BNFTokenList bufferTokens;
+
     /**
      * The buffer used to store data until the current pass can be committed
      */
@@ -52,8 +58,20 @@ public class BNFOneOrMoreOptionalTest extends BNFAbstractTest {
      */
     public BNFOneOrMoreOptionalTest(BNFTestImplementor tests[]) throws BNFTestException {
         super(tests);
-        this.tokenBuffer = new Vector<BNFTestableObject>();
-        this.dataBuffer = new Vector<Object>();
+        this.tokenBuffer = new ArrayList<BNFTestableObject>();
+        this.dataBuffer = new ArrayList<Object>();
+        this.bufferTokens = new BNFTokenList();
+    }
+
+    /** Resets the state of this test alone */
+    @Override
+    protected void resetState() {
+        super.resetState();
+
+        /* The buffer does not exist yet when the super constructor resets */
+        if (this.bufferTokens != null) {
+            this.bufferTokens.clear();
+        }
     }
 
     /**
@@ -75,6 +93,7 @@ public class BNFOneOrMoreOptionalTest extends BNFAbstractTest {
      */
     @Override
     public BNFTestResult test(BNFTestableObject obj) {
+        this.tested = true;
         this.playable.add(0, obj);
         while (this.playable.size() > 0) {
             BNFTestableObject crntToken = this.playable.remove(0);
@@ -133,6 +152,53 @@ public class BNFOneOrMoreOptionalTest extends BNFAbstractTest {
         return testResult;
     } // end method test
 
+    /**
+     * The fast path of the test, see <code>BNFAbstractTest.test(int)</code>.
+     *
+     * @param   token  The token
+     *
+     * @return  The completion status of the test
+     */
+    @Override
+    public int test(int token) {
+        this.tested = true;
+        this.committableTokens.clear();
+        this.replayableTokens.clear();
+        int status = BNFTestResult.UNFINISHED;
+        this.playableTokens.addFirst(token);
+        while (!this.playableTokens.isEmpty()) {
+            BNFAbstractTest child = (BNFAbstractTest) this.tests[this.nextTest];
+            int childStatus = child.test(this.playableTokens.removeFirst());
+            if (childStatus == BNFTestResult.UNFINISHED) {
+                status = BNFTestResult.UNFINISHED;
+            }
+            else if (childStatus == BNFTestResult.FINISHED) {
+                this.bufferTokens.addAll(child.committableTokens);
+                this.playableTokens.addAllFirst(child.replayableTokens);
+                status = BNFTestResult.UNFINISHED;
+                if (isLastTest()) {
+                    this.nextTest = 0;
+                    this.committedTokens.addAll(this.bufferTokens);
+                    this.bufferTokens.clear();
+                }
+                else {
+                    this.nextTest++;
+                }
+            }
+            else {
+                this.playableTokens.addAll(child.committableTokens);
+                this.playableTokens.addAllFirst(child.replayableTokens);
+                this.committableTokens.addAll(this.committedTokens);
+                this.replayableTokens.addAll(this.bufferTokens);
+                this.replayableTokens.addAll(this.playableTokens);
+                status = BNFTestResult.FINISHED;
+                rewind();
+            }
+        } // end while
+
+        return status;
+    } // end method test
+
     /**
      * Returns a text representation of this test
      *
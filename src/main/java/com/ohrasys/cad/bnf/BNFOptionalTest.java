@@ -59,6 +59,7 @@ public class BNFOptionalTest extends BNFAbstractTest {
      */
     @Override
     public BNFTestResult test(BNFTestableObject obj) {
+        this.tested = true;
         this.playable.add(0, obj);
         while (this.playable.size() > 0) {
             BNFTestableObject crntToken = this.playable.remove(0);
@@ -105,6 +106,53 @@ public class BNFOptionalTest extends BNFAbstractTest {
         return testResult;
     } // end method test
 
+    /**
+     * The fast path of the test, see <code>BNFAbstractTest.test(int)</code>.
+     *
+     * @param   token  The token
+     *
+     * @return  The completion status of the test
+     */
+    @Override
+    public int test(int token) {
+        this.tested = true;
+        this.committableTokens.clear();
+        this.replayableTokens.clear();
+        int status = BNFTestResult.UNFINISHED;
+        this.playableTokens.addFirst(token);
+        while (!this.playableTokens.isEmpty()) {
+            BNFAbstractTest child = (BNFAbstractTest) this.tests[this.nextTest];
+            int childStatus = child.test(this.playableTokens.removeFirst());
+            if (childStatus == BNFTestResult.UNFINISHED) {
+                status = BNFTestResult.UNFINISHED;
+            }
+            else if (childStatus == BNFTestResult.FINISHED) {
+                this.committedTokens.addAll(child.committableTokens);
+                this.playableTokens.addAllFirst(child.replayableTokens);
+                if (isLastTest()) {
+                    this.committableTokens.addAll(this.committedTokens);
+                    this.replayableTokens.addAll(this.playableTokens);
+                    status = BNFTestResult.FINISHED;
+                    rewind();
+                }
+                else {
+                    status = BNFTestResult.UNFINISHED;
+                    this.nextTest++;
+                }
+            }
+            else {
+                this.committedTokens.addAll(child.committableTokens);
+                this.playableTokens.addAllFirst(child.replayableTokens);
+                this.replayableTokens.addAll(this.committedTokens);
+                this.replayableTokens.addAll(this.playableTokens);
+                status = BNFTestResult.FINISHED;
+                rewind();
+            }
+        } // end while
+
+        return status;
+    } // end method test
+
     /**
      * Returns a text representation of this test
      *
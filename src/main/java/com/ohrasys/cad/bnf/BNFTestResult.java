@@ -51,8 +51,8 @@ public class BNFTestResult {
    * Creates a new BNFTestResult object.
    */
   public BNFTestResult() {
-    committable = new Stack<BNFTestableObject>();
-    replayable  = new Stack<BNFTestableObject>();
+    committable = new ArrayList<BNFTestableObject>();
+    replayable  = new ArrayList<BNFTestableObject>();
     setResult(UNFINISHED);
   }
 
@@ -108,7 +108,7 @@ public class BNFTestResult {
    */
   public List<BNFTestableObject> getCommittableTokens() {
     List<BNFTestableObject> result = committable;
-    committable = new Vector<BNFTestableObject>();
+    committable = new ArrayList<BNFTestableObject>();
 
     return result;
   }
@@ -121,7 +121,7 @@ public class BNFTestResult {
    */
   public List<BNFTestableObject> getReplayableTokens() {
     List<BNFTestableObject> result = replayable;
-    replayable = new Vector<BNFTestableObject>();
+    replayable = new ArrayList<BNFTestableObject>();
 
     return result;
   }
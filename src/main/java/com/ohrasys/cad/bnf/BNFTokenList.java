@@ -0,0 +1,188 @@
+/*
+ * Copyright (C) 2004 Thomas N. Valine
+ * tvaline@users.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA
+ * 02111-1307, USA.
+ */
+
+package com.ohrasys.cad.bnf;
+
+/**
+ * An unsynchronized list of tokens used by the fast path of the tests.  Tokens
+ * can be added and removed at both ends; the backing array only grows, so a
+ * list that is cleared and refilled stops allocating once it has reached its
+ * largest size.
+ *
+ * @author   $Author: tvaline $
+ * @version  $Revision: 1.1 $
+ * @since    1.5
+ */
+final class BNFTokenList {
+
+    /** The index of the first token in <code>tokens</code> */
+    private int head;
+
+    /** The number of tokens */
+    private int size;
+
+    /** The backing array */
+    private int tokens[];
+
+    /**
+     * Creates a new BNFTokenList object.
+     */
+    BNFTokenList() {
+        this.tokens = new int[8];
+    }
+
+    /**
+     * Returns a string representation of this class
+     *
+     * @return  The physical address of this instance
+     */
+    @Override
+    public String toString() {
+        return super.toString();
+    }
+
+    /**
+     * Appends a token.
+     *
+     * @param  token  The token
+     */
+    void add(int token) {
+        if ((this.head + this.size) == this.tokens.length) {
+            makeRoom(0, 1);
+        }
+        this.tokens[this.head + this.size++] = token;
+    }
+
+    /**
+     * Appends the tokens of another list.
+     *
+     * @param  list  The other list
+     */
+    void addAll(BNFTokenList list) {
+        if ((this.head + this.size + list.size) > this.tokens.length) {
+            makeRoom(0, list.size);
+        }
+        System.arraycopy(list.tokens, list.head, this.tokens,
+            this.head + this.size, list.size);
+        this.size += list.size;
+    }
+
+    /**
+     * Inserts the tokens of another list in front of this one.
+     *
+     * @param  list  The other list
+     */
+    void addAllFirst(BNFTokenList list) {
+        if (this.head < list.size) {
+            makeRoom(list.size, 0);
+        }
+        this.head -= list.size;
+        this.size += list.size;
+        System.arraycopy(list.tokens, list.head, this.tokens, this.head,
+            list.size);
+    }
+
+    /**
+     * Inserts a token in front of the list.
+     *
+     * @param  token  The token
+     */
+    void addFirst(int token) {
+        if (this.head == 0) {
+            makeRoom(1, 0);
+        }
+        this.tokens[--this.head] = token;
+        this.size++;
+    }
+
+    /**
+     * Removes all tokens.
+     */
+    void clear() {
+        this.head = 0;
+        this.size = 0;
+    }
+
+    /**
+     * Returns a token.
+     *
+     * @param   index  The position of the token
+     *
+     * @return  The token
+     */
+    int get(int index) {
+        return this.tokens[this.head + index];
+    }
+
+    /**
+     * Tells whether the list is empty.
+     *
+     * @return  true if the list holds no token
+     */
+    boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Removes the first token.
+     *
+     * @return  The token
+     */
+    int removeFirst() {
+        this.size--;
+
+        return this.tokens[this.head++];
+    }
+
+    /**
+     * Returns the number of tokens.
+     *
+     * @return  The number of tokens
+     */
+    int size() {
+        return this.size;
+    }
+
+    /**
+     * Moves the tokens so that there is room for some tokens in front of and
+     * behind them, growing the array if needed.
+     *
+     * @param  front  The number of free slots needed in front
+     * @param  back   The number of free slots needed behind
+     */
+    private void makeRoom(int front, int back) {
+        /* Grow unless half the array stays free, so that moving the tokens
+         * costs amortized constant time per token */
+        int needed = front + this.size + back;
+        int target[] = this.tokens;
+        if ((needed * 2) > this.tokens.length) {
+            target = new int[Math.max(needed * 2, this.tokens.length * 2)];
+        }
+
+        /* Keep any spare room in front, where replayed tokens are inserted */
+        int start = Math.max(front, (target.length - this.size - back) / 2);
+        System.arraycopy(this.tokens, this.head, target, start, this.size);
+        this.tokens = target;
+        this.head = start;
+    }
+} // end class BNFTokenList
+
+/* This material is distributed under the GNU General Public License.
+ * For more information please go to http://www.gnu.org/copyleft/gpl.html */
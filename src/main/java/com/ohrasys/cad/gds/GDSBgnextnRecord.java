@@ -74,7 +74,7 @@ public class GDSBgnextnRecord extends GDSRecord {
     public GDSBgnextnRecord(int length, byte rectype, byte dattype, byte data[]) throws GDSRecordException {
         super(length, rectype, dattype, data);
         validateIntRec(BGNEXTN);
-        this.bgnextn = GDSByteConverter.toInt(data);
+        this.bgnextn = GDSBufferCodec.getInt32(data, 0);
     }
 
     /**
@@ -93,7 +93,7 @@ public class GDSBgnextnRecord extends GDSRecord {
      */
     public void setBgnextn(int bgnextn) {
         this.bgnextn = bgnextn;
-        this.data = GDSByteConverter.writeInt(bgnextn);
+        this.data = GDSBufferCodec.putInt32(new byte[4], 0, bgnextn);
     }
 
     /**
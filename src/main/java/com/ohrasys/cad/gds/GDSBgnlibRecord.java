@@ -20,8 +20,6 @@
 
 package com.ohrasys.cad.gds;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.GregorianCalendar;
@@ -38,6 +36,12 @@ import java.util.GregorianCalendar;
  */
 public class GDSBgnlibRecord extends GDSRecord {
 
+    /**
+     * Indicates that the date fields have been decoded from the record data.
+     * Records read from a stream defer decoding until a date is requested.
+     */
+    private boolean decoded;
+
     /** The last accessed day */
     private short la_day;
 
@@ -98,6 +102,7 @@ public class GDSBgnlibRecord extends GDSRecord {
         this.length = (short) 28;
         this.rectype = BGNLIB;
         this.dattype = SHORT_TYPE;
+        this.decoded = true;
         setLastAccessedDate(access);
         setModificationDate(mod);
     }
@@ -115,20 +120,7 @@ public class GDSBgnlibRecord extends GDSRecord {
     public GDSBgnlibRecord(int length, byte rectype, byte dattype, byte data[]) throws GDSRecordException {
         super(length, rectype, dattype, data);
         validateShortRec(BGNLIB, 24);
-
-        ByteArrayInputStream bais = new ByteArrayInputStream(data);
-        this.lm_year = (short) (GDSByteConverter.readShort(bais) + 1900);
-        this.lm_month = GDSByteConverter.readShort(bais);
-        this.lm_day = GDSByteConverter.readShort(bais);
-        this.lm_hour = GDSByteConverter.readShort(bais);
-        this.lm_minute = GDSByteConverter.readShort(bais);
-        this.lm_second = GDSByteConverter.readShort(bais);
-        this.la_year = (short) (GDSByteConverter.readShort(bais) + 1900);
-        this.la_month = GDSByteConverter.readShort(bais);
-        this.la_day = GDSByteConverter.readShort(bais);
-        this.la_hour = GDSByteConverter.readShort(bais);
-        this.la_minute = GDSByteConverter.readShort(bais);
-        this.la_second = GDSByteConverter.readShort(bais);
+        this.decoded = false;
     }
 
     /**
@@ -137,6 +129,7 @@ public class GDSBgnlibRecord extends GDSRecord {
      * @return  The date the library was last accessed.
      */
     public Date getLastAccessedDate() {
+        decode();
         Calendar cal = GregorianCalendar.getInstance();
         cal.set(this.la_year, this.la_month - 1, this.la_day, this.la_hour, this.la_minute, this.la_second);
 
@@ -149,6 +142,7 @@ public class GDSBgnlibRecord extends GDSRecord {
      * @return  The date the library was last modified.
      */
     public Date getModificationDate() {
+        decode();
         Calendar cal = GregorianCalendar.getInstance();
         cal.set(this.lm_year, this.lm_month - 1, this.lm_day, this.lm_hour, this.lm_minute, this.lm_second);
 
@@ -161,6 +155,7 @@ public class GDSBgnlibRecord extends GDSRecord {
      * @param  date  The date the library was last accessed.
      */
     public void setLastAccessedDate(Date date) {
+        decode();
         Calendar cal = GregorianCalendar.getInstance();
         cal.setTime(date);
         this.la_year = (short) cal.get(Calendar.YEAR);
@@ -178,6 +173,7 @@ public class GDSBgnlibRecord extends GDSRecord {
      * @param  date  The date the library was last modified.
      */
     public void setModificationDate(Date date) {
+        decode();
         Calendar cal = GregorianCalendar.getInstance();
         cal.setTime(date);
         this.lm_year = (short) cal.get(Calendar.YEAR);
@@ -196,32 +192,58 @@ public class GDSBgnlibRecord extends GDSRecord {
      */
     @Override
     public String toString() {
+        decode();
+
         return GDSStringUtil.sprintf(GDSI18NFactory.getString(GDSI18NFactory.i18n_BGNLIB_TOSTRING),
                 this.lm_month, this.lm_day, this.lm_year, this.lm_hour, this.lm_minute, this.lm_second,
                 this.la_month, this.la_day, this.la_year, this.la_hour, this.la_minute, this.la_second);
     }
 
+    /**
+     * Decodes the date fields from the record data if this has not been done
+     * yet.
+     */
+    private void decode() {
+        if (this.decoded) {
+            return;
+        }
+
+        this.lm_year = (short) (GDSBufferCodec.getInt16(this.data, 0) + 1900);
+        this.lm_month = GDSBufferCodec.getInt16(this.data, 2);
+        this.lm_day = GDSBufferCodec.getInt16(this.data, 4);
+        this.lm_hour = GDSBufferCodec.getInt16(this.data, 6);
+        this.lm_minute = GDSBufferCodec.getInt16(this.data, 8);
+        this.lm_second = GDSBufferCodec.getInt16(this.data, 10);
+        this.la_year = (short) (GDSBufferCodec.getInt16(this.data, 12) + 1900);
+        this.la_month = GDSBufferCodec.getInt16(this.data, 14);
+        this.la_day = GDSBufferCodec.getInt16(this.data, 16);
+        this.la_hour = GDSBufferCodec.getInt16(this.data, 18);
+        this.la_minute = GDSBufferCodec.getInt16(this.data, 20);
+        this.la_second = GDSBufferCodec.getInt16(this.data, 22);
+        this.decoded = true;
+    }
+
     /**
      * A method used to update the byte data of the record
      *
      * @return  The updated byte data
      */
     private byte[] updateData() {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        GDSByteConverter.fromShort((short) (this.lm_year - 1900), baos);
-        GDSByteConverter.fromShort(this.lm_month, baos);
-        GDSByteConverter.fromShort(this.lm_day, baos);
-        GDSByteConverter.fromShort(this.lm_hour, baos);
-        GDSByteConverter.fromShort(this.lm_minute, baos);
-        GDSByteConverter.fromShort(this.lm_second, baos);
-        GDSByteConverter.fromShort((short) (this.la_year - 1900), baos);
-        GDSByteConverter.fromShort(this.la_month, baos);
-        GDSByteConverter.fromShort(this.la_day, baos);
-        GDSByteConverter.fromShort(this.la_hour, baos);
-        GDSByteConverter.fromShort(this.la_minute, baos);
-        GDSByteConverter.fromShort(this.la_second, baos);
-
-        return baos.toByteArray();
+        byte result[] = new byte[24];
+        GDSBufferCodec.putInt16(result, 0, this.lm_year - 1900);
+        GDSBufferCodec.putInt16(result, 2, this.lm_month);
+        GDSBufferCodec.putInt16(result, 4, this.lm_day);
+        GDSBufferCodec.putInt16(result, 6, this.lm_hour);
+        GDSBufferCodec.putInt16(result, 8, this.lm_minute);
+        GDSBufferCodec.putInt16(result, 10, this.lm_second);
+        GDSBufferCodec.putInt16(result, 12, this.la_year - 1900);
+        GDSBufferCodec.putInt16(result, 14, this.la_month);
+        GDSBufferCodec.putInt16(result, 16, this.la_day);
+        GDSBufferCodec.putInt16(result, 18, this.la_hour);
+        GDSBufferCodec.putInt16(result, 20, this.la_minute);
+        GDSBufferCodec.putInt16(result, 22, this.la_second);
+
+        return result;
     }
 } // end class GDSBgnlibRecord
 
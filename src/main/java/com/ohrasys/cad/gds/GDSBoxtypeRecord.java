@@ -74,7 +74,7 @@ public class GDSBoxtypeRecord extends GDSRecord {
     public GDSBoxtypeRecord(int length, byte rectype, byte dattype, byte data[]) throws GDSRecordException {
         super(length, rectype, dattype, data);
         validateShortRec(BOXTYPE);
-        this.boxtype = validate(GDSByteConverter.toShort(data));
+        this.boxtype = validate(GDSBufferCodec.getInt16(data, 0));
     }
 
     /**
@@ -95,7 +95,7 @@ public class GDSBoxtypeRecord extends GDSRecord {
      */
     public void setBoxtype(short boxtype) throws GDSRecordException {
         this.boxtype = validate(boxtype);
-        this.data = GDSByteConverter.writeShort(boxtype);
+        this.data = GDSBufferCodec.putInt16(new byte[2], 0, boxtype);
     }
 
     /**
@@ -0,0 +1,213 @@
+/*
+ * Copyright (C) 2004 Thomas N. Valine
+ * tvaline@users.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA
+ * 02111-1307, USA.
+ */
+
+package com.ohrasys.cad.gds;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Encodes and decodes the big endian integer types of the GDSII stream format
+ * directly in byte arrays and byte buffers.  Unlike
+ * <code>GDSByteConverter</code>, which wraps every value in a pair of
+ * streams, these methods perform no allocation and are meant for use on the
+ * record decoding and encoding paths.
+ *
+ * @author   $Author: tvaline $
+ * @version  $Revision: 1.1 $
+ * @since    1.5
+ */
+public class GDSBufferCodec {
+
+    /**
+     * Decodes a 2 byte signed integer.
+     *
+     * @param   src  The bytes to decode
+     * @param   off  The offset of the value in the array
+     *
+     * @return  The decoded value
+     */
+    public static short getInt16(byte src[], int off) {
+        return (short) ((src[off] << 8) | (src[off + 1] & 0xFF));
+    }
+
+    /**
+     * Decodes a 2 byte signed integer.
+     *
+     * @param   src  The buffer to decode
+     * @param   off  The absolute index of the value in the buffer
+     *
+     * @return  The decoded value
+     */
+    public static short getInt16(ByteBuffer src, int off) {
+        return (short) ((src.get(off) << 8) | (src.get(off + 1) & 0xFF));
+    }
+
+    /**
+     * Decodes a 4 byte signed integer.
+     *
+     * @param   src  The bytes to decode
+     * @param   off  The offset of the value in the array
+     *
+     * @return  The decoded value
+     */
+    public static int getInt32(byte src[], int off) {
+        return (src[off] << 24) | ((src[off + 1] & 0xFF) << 16) |
+            ((src[off + 2] & 0xFF) << 8) | (src[off + 3] & 0xFF);
+    }
+
+    /**
+     * Decodes a 4 byte signed integer.
+     *
+     * @param   src  The buffer to decode
+     * @param   off  The absolute index of the value in the buffer
+     *
+     * @return  The decoded value
+     */
+    public static int getInt32(ByteBuffer src, int off) {
+        return (src.get(off) << 24) | ((src.get(off + 1) & 0xFF) << 16) |
+            ((src.get(off + 2) & 0xFF) << 8) | (src.get(off + 3) & 0xFF);
+    }
+
+    /**
+     * Decodes an 8 byte integer.  This is the raw form of a GDSII 8 byte real.
+     *
+     * @param   src  The bytes to decode
+     * @param   off  The offset of the value in the array
+     *
+     * @return  The decoded value
+     */
+    public static long getInt64(byte src[], int off) {
+        return ((long) getInt32(src, off) << 32) |
+            (getInt32(src, off + 4) & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Decodes consecutive 4 byte signed integers until the destination array is
+     * full.
+     *
+     * @param  src  The bytes to decode
+     * @param  off  The offset of the first value in the array
+     * @param  dst  The array receiving the decoded values
+     */
+    public static void getInt32s(byte src[], int off, int dst[]) {
+        for (int i = 0; i < dst.length; i++, off += 4) {
+            dst[i] = (src[off] << 24) | ((src[off + 1] & 0xFF) << 16) |
+                ((src[off + 2] & 0xFF) << 8) | (src[off + 3] & 0xFF);
+        }
+    }
+
+    /**
+     * Decodes consecutive 4 byte signed integers until the destination array is
+     * full.
+     *
+     * @param  src  The buffer to decode
+     * @param  off  The absolute index of the first value in the buffer
+     * @param  dst  The array receiving the decoded values
+     */
+    public static void getInt32s(ByteBuffer src, int off, int dst[]) {
+        for (int i = 0; i < dst.length; i++, off += 4) {
+            dst[i] = src.getInt(off);
+        }
+    }
+
+    /**
+     * Encodes a 2 byte signed integer.
+     *
+     * @param   dst    The array receiving the encoded value
+     * @param   off    The offset of the value in the array
+     * @param   value  The value to encode, only the low 16 bits are used
+     *
+     * @return  The destination array
+     */
+    public static byte[] putInt16(byte dst[], int off, int value) {
+        dst[off] = (byte) (value >> 8);
+        dst[off + 1] = (byte) value;
+
+        return dst;
+    }
+
+    /**
+     * Encodes a 4 byte signed integer.
+     *
+     * @param   dst    The array receiving the encoded value
+     * @param   off    The offset of the value in the array
+     * @param   value  The value to encode
+     *
+     * @return  The destination array
+     */
+    public static byte[] putInt32(byte dst[], int off, int value) {
+        dst[off] = (byte) (value >> 24);
+        dst[off + 1] = (byte) (value >> 16);
+        dst[off + 2] = (byte) (value >> 8);
+        dst[off + 3] = (byte) value;
+
+        return dst;
+    }
+
+    /**
+     * Encodes an 8 byte integer.  This is the raw form of a GDSII 8 byte real.
+     *
+     * @param   dst    The array receiving the encoded value
+     * @param   off    The offset of the value in the array
+     * @param   value  The value to encode
+     *
+     * @return  The destination array
+     */
+    public static byte[] putInt64(byte dst[], int off, long value) {
+        putInt32(dst, off, (int) (value >> 32));
+        putInt32(dst, off + 4, (int) value);
+
+        return dst;
+    }
+
+    /**
+     * Encodes an array of 4 byte signed integers as consecutive values.
+     *
+     * @param   src  The values to encode
+     * @param   dst  The array receiving the encoded values
+     * @param   off  The offset of the first value in the destination array
+     *
+     * @return  The destination array
+     */
+    public static byte[] putInt32s(int src[], byte dst[], int off) {
+        for (int i = 0; i < src.length; i++, off += 4) {
+            int value = src[i];
+            dst[off] = (byte) (value >> 24);
+            dst[off + 1] = (byte) (value >> 16);
+            dst[off + 2] = (byte) (value >> 8);
+            dst[off + 3] = (byte) value;
+        }
+
+        return dst;
+    }
+
+    /**
+     * Returns a string representation of this class
+     *
+     * @return  The physical address of this instance
+     */
+    @Override
+    public String toString() {
+        return super.toString();
+    }
+} // end class GDSBufferCodec
+
+/* This material is distributed under the GNU General Public License.
+ * For more information please go to http://www.gnu.org/copyleft/gpl.html */
@@ -20,9 +20,6 @@
 
 package com.ohrasys.cad.gds;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-
 /**
  * Represents a GDSII COLROW record.
  *
@@ -84,9 +81,8 @@ public class GDSColrowRecord extends GDSRecord {
         super(length, rectype, dattype, data);
         validateShortRec(COLROW, 4);
 
-        ByteArrayInputStream bais = new ByteArrayInputStream(data);
-        this.numcol = validate(GDSByteConverter.readShort(bais));
-        this.numrow = validate(GDSByteConverter.readShort(bais));
+        this.numcol = validate(GDSBufferCodec.getInt16(data, 0));
+        this.numrow = validate(GDSBufferCodec.getInt16(data, 2));
     }
 
     /**
@@ -150,11 +146,11 @@ public class GDSColrowRecord extends GDSRecord {
      * @return  The updated byte data of the record
      */
     private byte[] updateData() {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        GDSByteConverter.fromShort(this.numcol, baos);
-        GDSByteConverter.fromShort(this.numrow, baos);
+        byte result[] = new byte[4];
+        GDSBufferCodec.putInt16(result, 0, this.numcol);
+        GDSBufferCodec.putInt16(result, 2, this.numrow);
 
-        return baos.toByteArray();
+        return result;
     }
 
     /**
@@ -74,7 +74,7 @@ public class GDSDatatypeRecord extends GDSRecord {
     public GDSDatatypeRecord(int length, byte rectype, byte dattype, byte data[]) throws GDSRecordException {
         super(length, rectype, dattype, data);
         validateShortRec(DATATYPE);
-        this.datatype = validate(GDSByteConverter.toShort(data));
+        this.datatype = validate(GDSBufferCodec.getInt16(data, 0));
     }
 
     /**
@@ -95,7 +95,7 @@ public class GDSDatatypeRecord extends GDSRecord {
      */
     public void setDatatype(short datatype) throws GDSRecordException {
         this.datatype = validate(datatype);
-        this.data = GDSByteConverter.writeShort(datatype);
+        this.data = GDSBufferCodec.putInt16(new byte[2], 0, datatype);
     }
 
     /**
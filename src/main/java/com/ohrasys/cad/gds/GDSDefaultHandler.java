@@ -0,0 +1,200 @@
+/*
+ * Copyright (C) 2004 Thomas N. Valine
+ * tvaline@users.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA
+ * 02111-1307, USA.
+ */
+
+package com.ohrasys.cad.gds;
+
+import com.ohrasys.cad.gds.dao.Transform;
+
+/**
+ * A <code>GDSHandler</code> whose callbacks do nothing.  Handlers interested in
+ * a few callbacks only extend this class and override those.
+ *
+ * @author   $Author: tvaline $
+ * @version  $Revision: 1.1 $
+ * @since    1.5
+ */
+public class GDSDefaultHandler implements GDSHandler {
+
+    /**
+     * Creates a new GDSDefaultHandler object.
+     */
+    public GDSDefaultHandler() {
+    }
+
+    /**
+     * Called for an array reference.
+     *
+     * @param  sname      The name of the referenced structure
+     * @param  transform  The transform of the reference
+     * @param  columns    The number of columns
+     * @param  rows       The number of rows
+     * @param  xy         The origin, the column displacement point and the row
+     *                    displacement point
+     */
+    @Override
+    public void aref(String sname, Transform transform, int columns, int rows,
+            int xy[]) {
+    }
+
+    /**
+     * Called for a boundary.
+     *
+     * @param  layer     The layer
+     * @param  datatype  The data type
+     * @param  xy        The coordinates of the boundary
+     * @param  points    The number of points
+     */
+    @Override
+    public void boundary(int layer, int datatype, int xy[], int points) {
+    }
+
+    /**
+     * Called for a box.
+     *
+     * @param  layer    The layer
+     * @param  boxtype  The box type
+     * @param  xy       The coordinates of the box
+     * @param  points   The number of points
+     */
+    @Override
+    public void box(int layer, int boxtype, int xy[], int points) {
+    }
+
+    /** Called at the end of the library. */
+    @Override
+    public void endLibrary() {
+    }
+
+    /** Called at the end of each structure. */
+    @Override
+    public void endStructure() {
+    }
+
+    /**
+     * Called for a node.
+     *
+     * @param  layer     The layer
+     * @param  nodetype  The node type
+     * @param  xy        The coordinates of the node
+     * @param  points    The number of points
+     */
+    @Override
+    public void node(int layer, int nodetype, int xy[], int points) {
+    }
+
+    /**
+     * Called for a path.
+     *
+     * @param  layer     The layer
+     * @param  datatype  The data type
+     * @param  pathtype  The path type
+     * @param  width     The width
+     * @param  bgnextn   The begin extension
+     * @param  endextn   The end extension
+     * @param  xy        The coordinates of the path
+     * @param  points    The number of points
+     */
+    @Override
+    public void path(int layer, int datatype, int pathtype, int width,
+            int bgnextn, int endextn, int xy[], int points) {
+    }
+
+    /**
+     * Called for each property of the element reported last.
+     *
+     * @param  attribute  The property attribute
+     * @param  value      The property value
+     */
+    @Override
+    public void property(int attribute, String value) {
+    }
+
+    /**
+     * Called for every record read.
+     *
+     * @param  rectype  The record type
+     * @param  dattype  The data type
+     * @param  length   The total record length
+     */
+    @Override
+    public void record(byte rectype, byte dattype, int length) {
+    }
+
+    /**
+     * Called for a structure reference.
+     *
+     * @param  sname      The name of the referenced structure
+     * @param  transform  The transform of the reference
+     * @param  x          The x coordinate of the reference
+     * @param  y          The y coordinate of the reference
+     */
+    @Override
+    public void sref(String sname, Transform transform, int x, int y) {
+    }
+
+    /**
+     * Called once the library header has been read.
+     *
+     * @param  name        The library name
+     * @param  userUnits   The size of a database unit in user units
+     * @param  meterUnits  The size of a database unit in meters
+     */
+    @Override
+    public void startLibrary(String name, double userUnits, double meterUnits) {
+    }
+
+    /**
+     * Called at the start of each structure.
+     *
+     * @param  name  The structure name
+     */
+    @Override
+    public void startStructure(String name) {
+    }
+
+    /**
+     * Called for a text element.
+     *
+     * @param  layer         The layer
+     * @param  texttype      The text type
+     * @param  string        The text string
+     * @param  presentation  The presentation flags
+     * @param  transform     The transform of the text
+     * @param  x             The x coordinate of the text
+     * @param  y             The y coordinate of the text
+     */
+    @Override
+    public void text(int layer, int texttype, String string, int presentation,
+            Transform transform, int x, int y) {
+    }
+
+    /**
+     * Returns a string representation of this class
+     *
+     * @return  The physical address of this instance
+     */
+    @Override
+    public String toString() {
+        return super.toString();
+    }
+} // end class GDSDefaultHandler
+
+/* This material is distributed under the GNU General Public License.
+ * For more information please go to http://www.gnu.org/copyleft/gpl.html */
@@ -149,7 +149,7 @@ public class GDSElflagsRecord extends GDSRecord {
             result = (short) (result | 0x0002);
         }
 
-        return GDSByteConverter.writeShort(result);
+        return GDSBufferCodec.putInt16(new byte[2], 0, result);
     }
 } // end class GDSElflagsRecord
 
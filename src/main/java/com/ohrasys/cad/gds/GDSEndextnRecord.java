@@ -74,7 +74,7 @@ public class GDSEndextnRecord extends GDSRecord {
     public GDSEndextnRecord(int length, byte rectype, byte dattype, byte data[]) throws GDSRecordException {
         super(length, rectype, dattype, data);
         validateIntRec(ENDEXTN);
-        this.endextn = GDSByteConverter.toInt(data);
+        this.endextn = GDSBufferCodec.getInt32(data, 0);
     }
 
     /**
@@ -94,7 +94,7 @@ public class GDSEndextnRecord extends GDSRecord {
      */
     public void setEndextn(int endextn) {
         this.endextn = endextn;
-        this.data = GDSByteConverter.writeInt(endextn);
+        this.data = GDSBufferCodec.putInt32(new byte[4], 0, endextn);
     }
 
     /**
@@ -0,0 +1,848 @@
+/*
+ * Copyright (C) 2004 Thomas N. Valine
+ * tvaline@users.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA
+ * 02111-1307, USA.
+ */
+
+package com.ohrasys.cad.gds;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A pull parser over a GDS stream.  Rather than returning raw records the
+ * reader groups them into structured events: the start of the library, the
+ * start of each structure, each complete element and the ends of the
+ * structures and the library.  Only the current event is held in memory and
+ * its buffers are reused from one event to the next, so a design of any size
+ * is read in constant memory.
+ *
+ * <p>A typical loop looks like:</p>
+ *
+ * <pre>
+ * GDSEventReader reader = new GDSEventReader(file);
+ * while (reader.hasNext()) {
+ *     if ((reader.next() == GDSEventReader.ELEMENT) &amp;&amp;
+ *             (reader.getElementKind() == GDSRecord.BOUNDARY)) {
+ *         area[reader.getLayer()] += area(reader.getXy(),
+ *                                         reader.getPointCount());
+ *     }
+ * }
+ * reader.close();
+ * </pre>
+ *
+ * <p>Values returned by the element accessors, in particular the array
+ * returned by <code>getXy()</code>, are only valid until the next call to
+ * <code>next()</code>.</p>
+ *
+ * @author   $Author: tvaline $
+ * @version  $Revision: 1.1 $
+ * @since    1.5
+ */
+public class GDSEventReader implements Closeable {
+
+    /** The event reported once the library header has been read */
+    public static final int START_LIBRARY = 1;
+
+    /** The event reported at the start of each structure */
+    public static final int START_STRUCTURE = 2;
+
+    /** The event reported for each complete element */
+    public static final int ELEMENT = 3;
+
+    /** The event reported at the end of each structure */
+    public static final int END_STRUCTURE = 4;
+
+    /** The event reported at the end of the library */
+    public static final int END_LIBRARY = 5;
+
+    /** Indicates that the angle of the current element is absolute */
+    private boolean absAngle;
+
+    /** Indicates that the magnification of the current element is absolute */
+    private boolean absMag;
+
+    /** The angle of the current reference or text element */
+    private double angle;
+
+    /** The begin extension of the current path */
+    private int bgnextn;
+
+    /** The number of columns of the current array reference */
+    private int columns;
+
+    /** The cursor reading the records */
+    private GDSRecordCursor cursor;
+
+    /** The data type of the current element */
+    private int datatype;
+
+    /** The end extension of the current path */
+    private int endextn;
+
+    /** The type of the current event */
+    private int event;
+
+    /** The record type of the current element */
+    private int kind;
+
+    /** The layer of the current element */
+    private int layer;
+
+    /** The name of the library */
+    private String libname;
+
+    /** The magnification of the current reference or text element */
+    private double mag;
+
+    /** The size of a database unit in meters */
+    private double meterUnits;
+
+    /** Indicates that the current element is mirrored about the x axis */
+    private boolean mirrored;
+
+    /** The file offset of the record that started the current event */
+    private long offset;
+
+    /** The path type of the current path or text element */
+    private int pathtype;
+
+    /** The number of coordinate pairs of the current element */
+    private int points;
+
+    /** The presentation flags of the current text element */
+    private int presentation;
+
+    /** The property attributes of the current element */
+    private int propattrs[];
+
+    /** The number of properties of the current element */
+    private int propcount;
+
+    /** The property values of the current element */
+    private String propvalues[];
+
+    /** The number of rows of the current array reference */
+    private int rows;
+
+    /** The name of the structure referenced by the current element */
+    private String sname;
+
+    /** The name of the current structure */
+    private String strname;
+
+    /** The string of the current text element */
+    private String text;
+
+    /** The size of a database unit in user units */
+    private double userUnits;
+
+    /** The width of the current path or text element */
+    private int width;
+
+    /** The coordinates of the current element, x and y interleaved */
+    private int xy[];
+
+    /** A handler notified of every record read, may be null */
+    GDSHandler observer;
+
+    /**
+     * Creates a new GDSEventReader object.
+     *
+     * @param   file  The GDS file
+     *
+     * @throws  FileNotFoundException  If the file cannot be found or is not
+     *                                 readable
+     */
+    public GDSEventReader(File file) throws FileNotFoundException {
+        this(new GDSRecordCursor(file));
+    }
+
+    /**
+     * Creates a new GDSEventReader object.  The cursor must be positioned in
+     * front of the HEADER record.
+     *
+     * @param  cursor  The cursor from which to read records
+     */
+    public GDSEventReader(GDSRecordCursor cursor) {
+        this.cursor = cursor;
+        this.event = 0;
+        this.xy = new int[16];
+        this.propattrs = new int[4];
+        this.propvalues = new String[4];
+    }
+
+    /**
+     * Closes the reader and the underlying cursor.
+     *
+     * @throws  IOException  If the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        this.cursor.close();
+    }
+
+    /**
+     * Returns the rotation angle of the current reference or text element.
+     *
+     * @return  The angle in degrees counterclockwise, 0 if none was given
+     */
+    public double getAngle() {
+        return this.angle;
+    }
+
+    /**
+     * Returns the begin extension of the current path.
+     *
+     * @return  The begin extension, 0 if none was given
+     */
+    public int getBeginExtension() {
+        return this.bgnextn;
+    }
+
+    /**
+     * Returns the number of columns of the current array reference.
+     *
+     * @return  The number of columns, 0 for other elements
+     */
+    public int getColumns() {
+        return this.columns;
+    }
+
+    /**
+     * Returns the data type of the current element.  This is the DATATYPE,
+     * TEXTTYPE, NODETYPE or BOXTYPE of the element, depending on its kind.
+     *
+     * @return  The data type, -1 for references
+     */
+    public int getDatatype() {
+        return this.datatype;
+    }
+
+    /**
+     * Returns the kind of the current element.
+     *
+     * @return  One of the <code>GDSRecord</code> constants BOUNDARY, PATH,
+     *          SREF, AREF, TEXT, NODE or BOX
+     */
+    public int getElementKind() {
+        return this.kind;
+    }
+
+    /**
+     * Returns the end extension of the current path.
+     *
+     * @return  The end extension, 0 if none was given
+     */
+    public int getEndExtension() {
+        return this.endextn;
+    }
+
+    /**
+     * Returns the type of the current event.
+     *
+     * @return  One of the event constants, 0 before the first event
+     */
+    public int getEventType() {
+        return this.event;
+    }
+
+    /**
+     * Returns the layer of the current element.
+     *
+     * @return  The layer, -1 for references
+     */
+    public int getLayer() {
+        return this.layer;
+    }
+
+    /**
+     * Returns the name of the library.
+     *
+     * @return  The library name, null before the START_LIBRARY event
+     */
+    public String getLibraryName() {
+        return this.libname;
+    }
+
+    /**
+     * Returns the magnification of the current reference or text element.
+     *
+     * @return  The magnification, 1 if none was given
+     */
+    public double getMagnification() {
+        return this.mag;
+    }
+
+    /**
+     * Returns the size of a database unit in meters.
+     *
+     * @return  The size of a database unit in meters
+     */
+    public double getMeterUnits() {
+        return this.meterUnits;
+    }
+
+    /**
+     * Returns the file offset of the record that started the current event.
+     *
+     * @return  The offset of the HEADER, BGNSTR, element, ENDSTR or ENDLIB
+     *          record
+     */
+    public long getOffset() {
+        return this.offset;
+    }
+
+    /**
+     * Returns the path type of the current path or text element.
+     *
+     * @return  The path type, 0 if none was given
+     */
+    public int getPathtype() {
+        return this.pathtype;
+    }
+
+    /**
+     * Returns the number of coordinate pairs of the current element.
+     *
+     * @return  The number of points
+     */
+    public int getPointCount() {
+        return this.points;
+    }
+
+    /**
+     * Returns the presentation flags of the current text element.
+     *
+     * @return  The presentation flags, 0 if none were given
+     */
+    public int getPresentation() {
+        return this.presentation;
+    }
+
+    /**
+     * Returns the attribute of a property of the current element.
+     *
+     * @param   i  The index of the property
+     *
+     * @return  The property attribute
+     */
+    public int getPropertyAttribute(int i) {
+        checkProperty(i);
+
+        return this.propattrs[i];
+    }
+
+    /**
+     * Returns the number of properties of the current element.
+     *
+     * @return  The number of properties
+     */
+    public int getPropertyCount() {
+        return this.propcount;
+    }
+
+    /**
+     * Returns the value of a property of the current element.
+     *
+     * @param   i  The index of the property
+     *
+     * @return  The property value
+     */
+    public String getPropertyValue(int i) {
+        checkProperty(i);
+
+        return this.propvalues[i];
+    }
+
+    /**
+     * Returns the number of rows of the current array reference.
+     *
+     * @return  The number of rows, 0 for other elements
+     */
+    public int getRows() {
+        return this.rows;
+    }
+
+    /**
+     * Returns the name of the current structure.
+     *
+     * @return  The structure name
+     */
+    public String getStructureName() {
+        return this.strname;
+    }
+
+    /**
+     * Returns the name of the structure referenced by the current element.
+     *
+     * @return  The referenced structure name, null for other elements
+     */
+    public String getStructureReference() {
+        return this.sname;
+    }
+
+    /**
+     * Returns the string of the current text element.
+     *
+     * @return  The text string, null for other elements
+     */
+    public String getText() {
+        return this.text;
+    }
+
+    /**
+     * Returns the size of a database unit in user units.
+     *
+     * @return  The size of a database unit in user units
+     */
+    public double getUserUnits() {
+        return this.userUnits;
+    }
+
+    /**
+     * Returns the width of the current path or text element.
+     *
+     * @return  The width, 0 if none was given
+     */
+    public int getWidth() {
+        return this.width;
+    }
+
+    /**
+     * Returns the x coordinate of a point of the current element.
+     *
+     * @param   i  The index of the point
+     *
+     * @return  The x coordinate
+     */
+    public int getX(int i) {
+        checkPoint(i);
+
+        return this.xy[i * 2];
+    }
+
+    /**
+     * Returns a view of the coordinates of the current element.  The x and y
+     * coordinates are interleaved and only the first
+     * <code>2 * getPointCount()</code> entries are meaningful.  The array is
+     * reused by the reader and must be copied if it is to be kept.
+     *
+     * @return  The coordinates of the current element
+     */
+    public int[] getXy() {
+        return this.xy;
+    }
+
+    /**
+     * Returns the y coordinate of a point of the current element.
+     *
+     * @param   i  The index of the point
+     *
+     * @return  The y coordinate
+     */
+    public int getY(int i) {
+        checkPoint(i);
+
+        return this.xy[(i * 2) + 1];
+    }
+
+    /**
+     * Indicates whether more events are available.
+     *
+     * @return  false once the END_LIBRARY event has been reported
+     */
+    public boolean hasNext() {
+        return this.event != END_LIBRARY;
+    }
+
+    /**
+     * Indicates whether the angle of the current element is absolute.
+     *
+     * @return  true if the angle is absolute
+     */
+    public boolean isAbsoluteAngle() {
+        return this.absAngle;
+    }
+
+    /**
+     * Indicates whether the magnification of the current element is absolute.
+     *
+     * @return  true if the magnification is absolute
+     */
+    public boolean isAbsoluteMagnification() {
+        return this.absMag;
+    }
+
+    /**
+     * Indicates whether the current element is mirrored about the x axis.
+     *
+     * @return  true if the element is mirrored
+     */
+    public boolean isMirrored() {
+        return this.mirrored;
+    }
+
+    /**
+     * Advances the reader to the next event.
+     *
+     * @return  The type of the new event
+     *
+     * @throws  GDSRecordException  If the stream is malformed or truncated
+     */
+    public int next() throws GDSRecordException {
+        switch (this.event) {
+            case 0:
+                readLibrary();
+
+                break;
+
+            case END_LIBRARY:
+                throw new NoSuchElementException();
+
+            case START_LIBRARY:
+            case END_STRUCTURE:
+                advance();
+                if (this.cursor.rectype() == GDSRecord.BGNSTR) {
+                    readStructure();
+                }
+                else if (this.cursor.rectype() == GDSRecord.ENDLIB) {
+                    this.offset = this.cursor.offset();
+                    this.event = END_LIBRARY;
+                }
+                else {
+                    throw unexpected();
+                }
+
+                break;
+
+            default:
+                advance();
+                if ((this.event == START_STRUCTURE) &&
+                        (this.cursor.rectype() == GDSRecord.STRCLASS)) {
+                    advance();
+                }
+                if (this.cursor.rectype() == GDSRecord.ENDSTR) {
+                    this.offset = this.cursor.offset();
+                    this.event = END_STRUCTURE;
+                }
+                else {
+                    readElement();
+                }
+
+                break;
+        } // end switch
+
+        return this.event;
+    } // end method next
+
+    /**
+     * Returns a string representation of this class
+     *
+     * @return  The physical address of this instance
+     */
+    @Override
+    public String toString() {
+        return super.toString();
+    }
+
+    /**
+     * Moves the cursor to the next record that is not a NULL record.
+     *
+     * @throws  GDSRecordException  If the stream ends
+     */
+    private void advance() throws GDSRecordException {
+        long last = this.offset;
+        do {
+            if (!this.cursor.next()) {
+                throw new GDSRecordException(GDSStringUtil.sprintf(
+                        GDSI18NFactory.getString(GDSI18NFactory.i18n_EVENTREADER_THROW2),
+                        last));
+            }
+            last = this.cursor.offset();
+            if (this.observer != null) {
+                this.observer.record(this.cursor.rectype(), this.cursor.dattype(),
+                        this.cursor.length());
+            }
+        } while (this.cursor.rectype() == GDSRecord.NULL);
+    }
+
+    /**
+     * Verifies that a point index lies within the current element.
+     *
+     * @param  i  The index of the point
+     */
+    private void checkPoint(int i) {
+        if ((i < 0) || (i >= this.points)) {
+            throw new IndexOutOfBoundsException(Integer.toString(i));
+        }
+    }
+
+    /**
+     * Verifies that a property index lies within the current element.
+     *
+     * @param  i  The index of the property
+     */
+    private void checkProperty(int i) {
+        if ((i < 0) || (i >= this.propcount)) {
+            throw new IndexOutOfBoundsException(Integer.toString(i));
+        }
+    }
+
+    /**
+     * Reads the body of an element up to and including its ENDEL record.  The
+     * cursor is positioned on the record that starts the element.
+     *
+     * @throws  GDSRecordException  If the element is malformed
+     */
+    private void readElement() throws GDSRecordException {
+        switch (this.cursor.rectype()) {
+            case GDSRecord.BOUNDARY:
+            case GDSRecord.PATH:
+            case GDSRecord.SREF:
+            case GDSRecord.AREF:
+            case GDSRecord.TEXT:
+            case GDSRecord.NODE:
+            case GDSRecord.BOX:
+                break;
+
+            default:
+                throw unexpected();
+        }
+
+        this.event = ELEMENT;
+        this.offset = this.cursor.offset();
+        this.kind = this.cursor.rectype();
+        this.layer = -1;
+        this.datatype = -1;
+        this.pathtype = 0;
+        this.width = 0;
+        this.bgnextn = 0;
+        this.endextn = 0;
+        this.sname = null;
+        this.text = null;
+        this.presentation = 0;
+        this.mirrored = false;
+        this.absMag = false;
+        this.absAngle = false;
+        this.mag = 1.0;
+        this.angle = 0.0;
+        this.columns = 0;
+        this.rows = 0;
+        this.points = 0;
+        this.propcount = 0;
+
+        for (advance(); this.cursor.rectype() != GDSRecord.ENDEL; advance()) {
+            switch (this.cursor.rectype()) {
+                case GDSRecord.LAYER:
+                    this.layer = this.cursor.int16(0);
+
+                    break;
+
+                case GDSRecord.DATATYPE:
+                case GDSRecord.TEXTTYPE:
+                case GDSRecord.NODETYPE:
+                case GDSRecord.BOXTYPE:
+                    this.datatype = this.cursor.int16(0);
+
+                    break;
+
+                case GDSRecord.XY:
+                    readXy();
+
+                    break;
+
+                case GDSRecord.PATHTYPE:
+                    this.pathtype = this.cursor.int16(0);
+
+                    break;
+
+                case GDSRecord.WIDTH:
+                    this.width = this.cursor.int32(0);
+
+                    break;
+
+                case GDSRecord.BGNEXTN:
+                    this.bgnextn = this.cursor.int32(0);
+
+                    break;
+
+                case GDSRecord.ENDEXTN:
+                    this.endextn = this.cursor.int32(0);
+
+                    break;
+
+                case GDSRecord.SNAME:
+                    this.sname = this.cursor.asciiString();
+
+                    break;
+
+                case GDSRecord.STRANS:
+                    int flags = this.cursor.int16(0);
+                    this.mirrored = (flags & 0x8000) != 0;
+                    this.absMag = (flags & 0x0004) != 0;
+                    this.absAngle = (flags & 0x0002) != 0;
+
+                    break;
+
+                case GDSRecord.MAG:
+                    this.mag = this.cursor.real8(0);
+
+                    break;
+
+                case GDSRecord.ANGLE:
+                    this.angle = this.cursor.real8(0);
+
+                    break;
+
+                case GDSRecord.COLROW:
+                    this.columns = this.cursor.int16(0);
+                    this.rows = this.cursor.int16(1);
+
+                    break;
+
+                case GDSRecord.PRESENTATION:
+                    this.presentation = this.cursor.int16(0) & 0xFFFF;
+
+                    break;
+
+                case GDSRecord.STRING:
+                    this.text = this.cursor.asciiString();
+
+                    break;
+
+                case GDSRecord.PROPATTR:
+                    if (this.propcount == this.propattrs.length) {
+                        this.propattrs = Arrays.copyOf(this.propattrs,
+                                this.propcount * 2);
+                        this.propvalues = Arrays.copyOf(this.propvalues,
+                                this.propcount * 2);
+                    }
+                    this.propattrs[this.propcount] = this.cursor.int16(0);
+                    this.propvalues[this.propcount] = null;
+                    this.propcount++;
+
+                    break;
+
+                case GDSRecord.PROPVALUE:
+                    if (this.propcount == 0) {
+                        throw unexpected();
+                    }
+                    this.propvalues[this.propcount - 1] = this.cursor.asciiString();
+
+                    break;
+
+                case GDSRecord.BGNSTR:
+                case GDSRecord.ENDSTR:
+                case GDSRecord.ENDLIB:
+                case GDSRecord.BOUNDARY:
+                case GDSRecord.PATH:
+                case GDSRecord.SREF:
+                case GDSRecord.AREF:
+                case GDSRecord.TEXT:
+                case GDSRecord.NODE:
+                case GDSRecord.BOX:
+                    throw unexpected();
+
+                default:
+                    /* ELFLAGS, PLEX and the like carry nothing reported */
+                    break;
+            } // end switch
+        } // end for
+    } // end method readElement
+
+    /**
+     * Reads the library header up to and including the UNITS record.
+     *
+     * @throws  GDSRecordException  If the header is malformed
+     */
+    private void readLibrary() throws GDSRecordException {
+        advance();
+        if (this.cursor.rectype() != GDSRecord.HEADER) {
+            throw unexpected();
+        }
+        this.offset = this.cursor.offset();
+
+        for (advance(); this.cursor.rectype() != GDSRecord.UNITS; advance()) {
+            switch (this.cursor.rectype()) {
+                case GDSRecord.LIBNAME:
+                    this.libname = this.cursor.asciiString();
+
+                    break;
+
+                case GDSRecord.BGNSTR:
+                case GDSRecord.ENDLIB:
+                    throw unexpected();
+
+                default:
+                    break;
+            }
+        }
+        this.userUnits = this.cursor.real8(0);
+        this.meterUnits = this.cursor.real8(1);
+        this.event = START_LIBRARY;
+    }
+
+    /**
+     * Reads the structure header up to the first element.  The cursor is
+     * positioned on the BGNSTR record.
+     *
+     * @throws  GDSRecordException  If the header is malformed
+     */
+    private void readStructure() throws GDSRecordException {
+        this.offset = this.cursor.offset();
+        advance();
+        if (this.cursor.rectype() != GDSRecord.STRNAME) {
+            throw unexpected();
+        }
+        this.strname = this.cursor.asciiString();
+        this.event = START_STRUCTURE;
+    }
+
+    /**
+     * Reads the coordinates of the current XY record.
+     */
+    private void readXy() {
+        int n = this.cursor.dataLength() / 4;
+        if (n > this.xy.length) {
+            this.xy = new int[Math.max(n, this.xy.length * 2)];
+        }
+        for (int i = 0; i < n; i++) {
+            this.xy[i] = this.cursor.int32(i);
+        }
+        this.points = n / 2;
+    }
+
+    /**
+     * Creates the exception reported for a record that may not appear at the
+     * current position.
+     *
+     * @return  The exception to throw
+     */
+    private GDSRecordException unexpected() {
+        return new GDSRecordException(GDSStringUtil.sprintf(
+                    GDSI18NFactory.getString(GDSI18NFactory.i18n_EVENTREADER_THROW1),
+                    this.cursor.rectype() & 0xFF, this.cursor.offset()));
+    }
+} // end class GDSEventReader
+
+/* This material is distributed under the GNU General Public License.
+ * For more information please go to http://www.gnu.org/copyleft/gpl.html */
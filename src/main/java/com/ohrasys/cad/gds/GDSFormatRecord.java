@@ -88,7 +88,7 @@ public class GDSFormatRecord extends GDSRecord {
     public GDSFormatRecord(int length, byte rectype, byte dattype, byte data[]) throws GDSRecordException {
         super(length, rectype, dattype, data);
         validateShortRec(FORMAT);
-        this.format = validate(GDSByteConverter.toShort(data));
+        this.format = validate(GDSBufferCodec.getInt16(data, 0));
     }
 
     /**
@@ -112,7 +112,7 @@ public class GDSFormatRecord extends GDSRecord {
      */
     public void setFormat(short format) throws GDSRecordException {
         this.format = validate(format);
-        this.data = GDSByteConverter.writeShort(format);
+        this.data = GDSBufferCodec.putInt16(new byte[2], 0, format);
     }
 
     /**
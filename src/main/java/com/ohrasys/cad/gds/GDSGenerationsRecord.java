@@ -77,7 +77,7 @@ public class GDSGenerationsRecord extends GDSRecord {
     public GDSGenerationsRecord(int length, byte rectype, byte dattype, byte data[]) throws GDSRecordException {
         super(length, rectype, dattype, data);
         validateShortRec(GENERATIONS);
-        this.generations = validate(GDSByteConverter.toShort(data));
+        this.generations = validate(GDSBufferCodec.getInt16(data, 0));
     }
 
     /**
@@ -103,7 +103,7 @@ public class GDSGenerationsRecord extends GDSRecord {
      */
     public void setGenerations(short generations) throws GDSRecordException {
         this.generations = validate(generations);
-        this.data = GDSByteConverter.writeShort(generations);
+        this.data = GDSBufferCodec.putInt16(new byte[2], 0, generations);
     }
 
     /**
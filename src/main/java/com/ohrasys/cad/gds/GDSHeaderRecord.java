@@ -74,7 +74,7 @@ public class GDSHeaderRecord extends GDSRecord {
     public GDSHeaderRecord(int length, byte rectype, byte dattype, byte data[]) throws GDSRecordException {
         super(length, rectype, dattype, data);
         validateShortRec(HEADER);
-        this.version = GDSByteConverter.toShort(data);
+        this.version = GDSBufferCodec.getInt16(data, 0);
     }
 
     /**
@@ -93,7 +93,7 @@ public class GDSHeaderRecord extends GDSRecord {
      */
     public void setVersion(short version) {
         this.version = version;
-        this.data = GDSByteConverter.writeShort(version);
+        this.data = GDSBufferCodec.putInt16(new byte[2], 0, version);
     }
 
     /**
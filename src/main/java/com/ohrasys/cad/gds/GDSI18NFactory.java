@@ -333,6 +333,30 @@ final class GDSI18NFactory {
     /** "The GDSReader <code>GDSException</code> message key" */
     protected static final String i18n_GDSREADER_THROW3 = "I18N_GDSREADER_THROW3" /*NOI18N*/;
 
+    /** "The GDSMappedReader <code>GDSException</code> message key" */
+    protected static final String i18n_MAPPEDREADER_THROW1 = "I18N_MAPPEDREADER_THROW1" /*NOI18N*/;
+
+    /** "The GDSMappedReader <code>GDSException</code> message key" */
+    protected static final String i18n_MAPPEDREADER_THROW2 = "I18N_MAPPEDREADER_THROW2" /*NOI18N*/;
+
+    /** "Unexpected record type 0x%02x at offset %d" */
+    protected static final String i18n_EVENTREADER_THROW1 = "I18N_EVENTREADER_THROW1" /*NOI18N*/;
+
+    /** "Unexpected end of stream after offset %d" */
+    protected static final String i18n_EVENTREADER_THROW2 = "I18N_EVENTREADER_THROW2" /*NOI18N*/;
+
+    /** "Structure %s references itself" */
+    protected static final String i18n_EXTENTS_THROW1 = "I18N_EXTENTS_THROW1" /*NOI18N*/;
+
+    /** "Structure %s references itself, it cannot be flattened" */
+    protected static final String i18n_FLATTENER_THROW1 = "I18N_FLATTENER_THROW1" /*NOI18N*/;
+
+    /** "The GDSValidator <code>GDSException</code> message key" */
+    protected static final String i18n_GDSVALIDATOR_THROW1 = "I18N_GDSVALIDATOR_THROW1" /*NOI18N*/;
+
+    /** "The GDSValidator <code>GDSException</code> message key" */
+    protected static final String i18n_GDSVALIDATOR_THROW2 = "I18N_GDSVALIDATOR_THROW2" /*NOI18N*/;
+
     /** "The RECORD <code>GDSException</code> message key" */
     protected static final String i18n_RECORD_THROW1 = "I18N_RECORD_THROW1" /*NOI18N*/;
 
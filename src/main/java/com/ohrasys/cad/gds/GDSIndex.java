@@ -0,0 +1,610 @@
+/*
+ * Copyright (C) 2004 Thomas N. Valine
+ * tvaline@users.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA
+ * 02111-1307, USA.
+ */
+
+package com.ohrasys.cad.gds;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+/**
+ * An index of the structures of a GDS file.  The index records where each
+ * structure starts and ends together with a summary of its contents, so a
+ * single structure of a large library can be read without reading anything in
+ * front of it.
+ *
+ * <p>The index is kept next to the GDS file in a binary sidecar file with the
+ * suffix <code>.gdsidx</code>.  The sidecar stores the size and modification
+ * time of the GDS file and a checksum of its library header, and is ignored
+ * if any of them no longer matches.</p>
+ *
+ * <pre>
+ * GDSIndex index = GDSIndex.open(file);
+ * GDSMappedReader in = new GDSMappedReader(file);
+ * if (index.seek(in, "TOP")) {
+ *     GDSRecord bgnstr = in.readRecord();
+ *     ...
+ * }
+ * </pre>
+ *
+ * @author   $Author: tvaline $
+ * @version  $Revision: 1.1 $
+ * @since    1.5
+ */
+public class GDSIndex {
+
+    /** The suffix appended to the GDS file name to name the sidecar file */
+    public static final String SUFFIX = ".gdsidx" /* NOI18N */;
+
+    /** The first four bytes of a sidecar file, "GDSI" */
+    private static final int MAGIC = 0x47445349;
+
+    /** The version of the sidecar format.  Version 2 stores true local extents */
+    private static final int VERSION = 2;
+
+    /** The entries by structure name */
+    private Map<String, GDSIndexEntry> byName;
+
+    /** The entries in file order */
+    private GDSIndexEntry entries[];
+
+    /** The checksum of the library header */
+    private long headerHash;
+
+    /** The length of the library header, up to the first BGNSTR record */
+    private long headerLength;
+
+    /** The modification time of the indexed file */
+    private long modified;
+
+    /** The size of the indexed file */
+    private long size;
+
+    /**
+     * Creates a new GDSIndex object.
+     *
+     * @param  entries       The entries in file order
+     * @param  size          The size of the indexed file
+     * @param  modified      The modification time of the indexed file
+     * @param  headerLength  The length of the library header
+     * @param  headerHash    The checksum of the library header
+     */
+    private GDSIndex(GDSIndexEntry entries[], long size, long modified,
+            long headerLength, long headerHash) {
+        this.entries = entries;
+        this.size = size;
+        this.modified = modified;
+        this.headerLength = headerLength;
+        this.headerHash = headerHash;
+        this.byName = new HashMap<String, GDSIndexEntry>(entries.length * 2);
+        for (int i = 0; i < entries.length; i++) {
+            if (!this.byName.containsKey(entries[i].getName())) {
+                this.byName.put(entries[i].getName(), entries[i]);
+            }
+        }
+    }
+
+    /**
+     * Builds the index of a GDS file by reading the whole file.  The sidecar
+     * file is not written.
+     *
+     * @param   file  The GDS file
+     *
+     * @return  The index
+     *
+     * @throws  IOException         If the file cannot be read
+     * @throws  GDSRecordException  If the design is malformed
+     */
+    public static GDSIndex build(File file) throws IOException, GDSRecordException {
+        long size = file.length();
+        long modified = file.lastModified();
+        List<GDSIndexEntry> entries = new ArrayList<GDSIndexEntry>();
+        Map<Integer, int[]> layers = new TreeMap<Integer, int[]>();
+        Set<String> children = new LinkedHashSet<String>();
+        int kinds[] = new int[GDSIndexEntry.KINDS.length];
+        double box[] = new double[4];
+        long header = -1;
+        long start = 0;
+        String name = null;
+
+        GDSEventReader reader = new GDSEventReader(file);
+        try {
+            while (reader.hasNext()) {
+                switch (reader.next()) {
+                    case GDSEventReader.START_STRUCTURE:
+                        start = reader.getOffset();
+                        if (header < 0) {
+                            header = start;
+                        }
+                        name = reader.getStructureName();
+                        layers.clear();
+                        children.clear();
+                        kinds = new int[GDSIndexEntry.KINDS.length];
+                        clear(box);
+
+                        break;
+
+                    case GDSEventReader.ELEMENT:
+                        for (int i = 0; i < kinds.length; i++) {
+                            if (GDSIndexEntry.KINDS[i] == reader.getElementKind()) {
+                                kinds[i]++;
+                            }
+                        }
+                        if (reader.getLayer() >= 0) {
+                            int count[] = layers.get(reader.getLayer());
+                            if (count == null) {
+                                layers.put(reader.getLayer(), new int[] { 1 });
+                            }
+                            else {
+                                count[0]++;
+                            }
+                        }
+                        if (reader.getStructureReference() != null) {
+                            children.add(reader.getStructureReference());
+                        }
+                        extend(reader, box);
+
+                        break;
+
+                    case GDSEventReader.END_STRUCTURE:
+                        int layer[] = new int[layers.size()];
+                        int count[] = new int[layers.size()];
+                        int i = 0;
+                        for (Map.Entry<Integer, int[]> e : layers.entrySet()) {
+                            layer[i] = e.getKey();
+                            count[i++] = e.getValue()[0];
+                        }
+                        entries.add(new GDSIndexEntry(name, start,
+                                reader.getOffset() + 4 - start, kinds, layer, count,
+                                children.toArray(new String[children.size()]),
+                                toBounds(box)));
+
+                        break;
+
+                    case GDSEventReader.END_LIBRARY:
+                        if (header < 0) {
+                            header = reader.getOffset();
+                        }
+
+                        break;
+
+                    default:
+                        break;
+                } // end switch
+            } // end while
+        }
+        finally {
+            reader.close();
+        }
+
+        return new GDSIndex(entries.toArray(new GDSIndexEntry[entries.size()]),
+                size, modified, header, hash(file, header));
+    } // end method build
+
+    /**
+     * Returns the sidecar file holding the index of a GDS file.
+     *
+     * @param   file  The GDS file
+     *
+     * @return  The sidecar file, which may not exist
+     */
+    public static File getIndexFile(File file) {
+        return new File(file.getPath() + SUFFIX);
+    }
+
+    /**
+     * Returns the index of a GDS file, reading it from the sidecar file when
+     * that is up to date and building it otherwise.  A newly built index is
+     * written to the sidecar file if the directory is writable.
+     *
+     * @param   file  The GDS file
+     *
+     * @return  The index
+     *
+     * @throws  IOException         If the GDS file cannot be read
+     * @throws  GDSRecordException  If the design is malformed
+     */
+    public static GDSIndex open(File file) throws IOException, GDSRecordException {
+        GDSIndex result = read(file);
+        if (result == null) {
+            result = build(file);
+            try {
+                result.write(file);
+            }
+            catch (IOException ex) { /* keep the index in memory only */
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Reads the index of a GDS file from its sidecar file.
+     *
+     * @param   file  The GDS file
+     *
+     * @return  The index, or null if there is no sidecar file or it does not
+     *          match the GDS file
+     *
+     * @throws  IOException  If the files cannot be read
+     */
+    public static GDSIndex read(File file) throws IOException {
+        File index = getIndexFile(file);
+        if (!index.isFile()) {
+            return null;
+        }
+
+        DataInputStream in = new DataInputStream(new BufferedInputStream(
+                    new FileInputStream(index)));
+        try {
+            if ((in.readInt() != MAGIC) || (in.readInt() != VERSION)) {
+                return null;
+            }
+
+            long size = in.readLong();
+            long modified = in.readLong();
+            long headerLength = in.readLong();
+            long headerHash = in.readLong();
+            if ((size != file.length()) || (modified != file.lastModified()) ||
+                    (headerLength > size) || (hash(file, headerLength) != headerHash)) {
+                return null;
+            }
+
+            GDSIndexEntry entries[] = new GDSIndexEntry[in.readInt()];
+            for (int i = 0; i < entries.length; i++) {
+                String name = in.readUTF();
+                long offset = in.readLong();
+                long length = in.readLong();
+                int kinds[] = new int[GDSIndexEntry.KINDS.length];
+                for (int j = 0; j < kinds.length; j++) {
+                    kinds[j] = in.readInt();
+                }
+
+                int layers[] = new int[in.readInt()];
+                int counts[] = new int[layers.length];
+                for (int j = 0; j < layers.length; j++) {
+                    layers[j] = in.readInt();
+                    counts[j] = in.readInt();
+                }
+
+                String children[] = new String[in.readInt()];
+                for (int j = 0; j < children.length; j++) {
+                    children[j] = in.readUTF();
+                }
+
+                int bounds[] = null;
+                if (in.readBoolean()) {
+                    bounds = new int[4];
+                    for (int j = 0; j < bounds.length; j++) {
+                        bounds[j] = in.readInt();
+                    }
+                }
+                entries[i] = new GDSIndexEntry(name, offset, length, kinds, layers,
+                        counts, children, bounds);
+            } // end for
+
+            return new GDSIndex(entries, size, modified, headerLength, headerHash);
+        }
+        catch (EOFException ex) {
+            /* A truncated sidecar is treated like a missing one */
+            return null;
+        }
+        finally {
+            in.close();
+        }
+    } // end method read
+
+    /**
+     * Returns the entries of all structures.
+     *
+     * @return  The entries in file order
+     */
+    public GDSIndexEntry[] getEntries() {
+        return this.entries.clone();
+    }
+
+    /**
+     * Returns the entry of a structure.  If several structures share the name
+     * the first one is returned.
+     *
+     * @param   name  The structure name
+     *
+     * @return  The entry, or null if there is no such structure
+     */
+    public GDSIndexEntry getEntry(String name) {
+        return this.byName.get(name);
+    }
+
+    /**
+     * Positions a mapped reader on the BGNSTR record of a structure.
+     *
+     * @param   in    A reader of the indexed file
+     * @param   name  The structure name
+     *
+     * @return  false if there is no such structure, the reader is not moved
+     */
+    public boolean seek(GDSMappedReader in, String name) {
+        GDSIndexEntry entry = getEntry(name);
+        if (entry == null) {
+            return false;
+        }
+        in.seek(entry.getOffset());
+
+        return true;
+    }
+
+    /**
+     * Positions an input stream on the BGNSTR record of a structure.
+     *
+     * @param   in    A stream of the indexed file, not reading ahead
+     * @param   name  The structure name
+     *
+     * @return  false if there is no such structure, the stream is not moved
+     *
+     * @throws  IOException  If the stream cannot be positioned
+     */
+    public boolean seek(GDSInputStream in, String name) throws IOException {
+        GDSIndexEntry entry = getEntry(name);
+        if (entry == null) {
+            return false;
+        }
+        in.seek(entry.getOffset());
+
+        return true;
+    }
+
+    /**
+     * Returns a string representation of this class
+     *
+     * @return  The physical address of this instance
+     */
+    @Override
+    public String toString() {
+        return super.toString();
+    }
+
+    /**
+     * Writes the index to the sidecar file of a GDS file.
+     *
+     * @param   file  The GDS file the index was built from
+     *
+     * @throws  IOException  If the sidecar file cannot be written
+     */
+    public void write(File file) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    new FileOutputStream(getIndexFile(file))));
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(this.size);
+            out.writeLong(this.modified);
+            out.writeLong(this.headerLength);
+            out.writeLong(this.headerHash);
+            out.writeInt(this.entries.length);
+            for (int i = 0; i < this.entries.length; i++) {
+                GDSIndexEntry entry = this.entries[i];
+                out.writeUTF(entry.getName());
+                out.writeLong(entry.getOffset());
+                out.writeLong(entry.getLength());
+                for (int j = 0; j < entry.getKindCounts().length; j++) {
+                    out.writeInt(entry.getKindCounts()[j]);
+                }
+
+                int layers[] = entry.getLayers();
+                out.writeInt(layers.length);
+                for (int j = 0; j < layers.length; j++) {
+                    out.writeInt(layers[j]);
+                    out.writeInt(entry.getLayerCounts()[j]);
+                }
+
+                String children[] = entry.getChildren();
+                out.writeInt(children.length);
+                for (int j = 0; j < children.length; j++) {
+                    out.writeUTF(children[j]);
+                }
+
+                int bounds[] = entry.getBounds();
+                out.writeBoolean(bounds != null);
+                for (int j = 0; (bounds != null) && (j < bounds.length); j++) {
+                    out.writeInt(bounds[j]);
+                }
+            } // end for
+        }
+        finally {
+            out.close();
+        }
+    } // end method write
+
+    /**
+     * Empties a bounding box.
+     *
+     * @param  box  The box, as <code>{xmin, ymin, xmax, ymax}</code>
+     */
+    private static void clear(double box[]) {
+        box[0] = Double.POSITIVE_INFINITY;
+        box[1] = Double.POSITIVE_INFINITY;
+        box[2] = Double.NEGATIVE_INFINITY;
+        box[3] = Double.NEGATIVE_INFINITY;
+    }
+
+    /**
+     * Extends a bounding box by the geometry of the current element.
+     * References are skipped, so the box is the extent of the structure's own
+     * geometry.  Each path segment counts as a rectangle of the path width,
+     * lengthened at the ends of the path by the extension of its pathtype,
+     * and each bend as a square of the path width centred on it.
+     *
+     * @param  reader  The reader positioned on an element
+     * @param  box     The box, as <code>{xmin, ymin, xmax, ymax}</code>
+     */
+    private static void extend(GDSEventReader reader, double box[]) {
+        int kind = reader.getElementKind();
+        if ((kind == GDSRecord.SREF) || (kind == GDSRecord.AREF)) {
+            return;
+        }
+
+        int points = reader.getPointCount();
+        if (kind != GDSRecord.PATH) {
+            for (int i = 0; i < points; i++) {
+                include(reader.getX(i), reader.getY(i), 0, 0, box);
+            }
+
+            return;
+        }
+
+        double half = Math.abs((double) reader.getWidth()) / 2;
+        double start = 0;
+        double end = 0;
+        if ((reader.getPathtype() == 1) || (reader.getPathtype() == 2)) {
+            /* Round ends reach no further than square ends */
+            start = half;
+            end = half;
+        }
+        else if (reader.getPathtype() == 4) {
+            start = reader.getBeginExtension();
+            end = reader.getEndExtension();
+        }
+
+        if (points == 1) {
+            include(reader.getX(0), reader.getY(0), half, half, box);
+        }
+        for (int i = 1; i < points; i++) {
+            double x0 = reader.getX(i - 1);
+            double y0 = reader.getY(i - 1);
+            double x1 = reader.getX(i);
+            double y1 = reader.getY(i);
+            double length = Math.hypot(x1 - x0, y1 - y0);
+            if (length == 0) {
+                include(x0, y0, half, half, box);
+
+                continue;
+            }
+
+            double dx = (x1 - x0) / length;
+            double dy = (y1 - y0) / length;
+            if (i == 1) {
+                x0 -= dx * start;
+                y0 -= dy * start;
+            }
+            else {
+                include(x0, y0, half, half, box);
+            }
+            if (i == (points - 1)) {
+                x1 += dx * end;
+                y1 += dy * end;
+            }
+
+            /* The half width across the segment */
+            double nx = Math.abs(dy * half);
+            double ny = Math.abs(dx * half);
+            include(x0, y0, nx, ny, box);
+            include(x1, y1, nx, ny, box);
+        }
+    } // end method extend
+
+    /**
+     * Adds a rectangle centred on a point to a box.
+     *
+     * @param  x    The x coordinate of the point
+     * @param  y    The y coordinate of the point
+     * @param  rx   The half width of the rectangle
+     * @param  ry   The half height of the rectangle
+     * @param  box  The box, as <code>{xmin, ymin, xmax, ymax}</code>
+     */
+    private static void include(double x, double y, double rx, double ry,
+            double box[]) {
+        box[0] = Math.min(box[0], x - rx);
+        box[1] = Math.min(box[1], y - ry);
+        box[2] = Math.max(box[2], x + rx);
+        box[3] = Math.max(box[3], y + ry);
+    }
+
+    /**
+     * Rounds a box outwards to integer coordinates, saturating at the int
+     * range.
+     *
+     * @param   box  The box, as <code>{xmin, ymin, xmax, ymax}</code>
+     *
+     * @return  The minimum x, minimum y, maximum x and maximum y, or null if
+     *          the box is empty
+     */
+    private static int[] toBounds(double box[]) {
+        if (box[0] > box[2]) {
+            return null;
+        }
+
+        return new int[] {
+                (int) Math.max(Integer.MIN_VALUE, Math.floor(box[0])),
+                (int) Math.max(Integer.MIN_VALUE, Math.floor(box[1])),
+                (int) Math.min(Integer.MAX_VALUE, Math.ceil(box[2])),
+                (int) Math.min(Integer.MAX_VALUE, Math.ceil(box[3]))
+            };
+    }
+
+    /**
+     * Computes the checksum of the start of a file.
+     *
+     * @param   file    The file
+     * @param   length  The number of bytes to include
+     *
+     * @return  The CRC-32 of the bytes
+     *
+     * @throws  IOException  If the file cannot be read
+     */
+    private static long hash(File file, long length) throws IOException {
+        CRC32 crc = new CRC32();
+        RandomAccessFile in = new RandomAccessFile(file, "r" /* NOI18N */);
+        try {
+            byte buffer[] = new byte[(int) Math.min(Math.max(length, 0), 0x10000)];
+            long remaining = length;
+            while (remaining > 0) {
+                int count = in.read(buffer, 0, (int) Math.min(remaining, buffer.length));
+                if (count < 0) {
+                    throw new EOFException();
+                }
+                crc.update(buffer, 0, count);
+                remaining -= count;
+            }
+        }
+        finally {
+            in.close();
+        }
+
+        return crc.getValue();
+    }
+} // end class GDSIndex
+
+/* This material is distributed under the GNU General Public License.
+ * For more information please go to http://www.gnu.org/copyleft/gpl.html */
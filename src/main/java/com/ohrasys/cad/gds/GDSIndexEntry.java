@@ -0,0 +1,211 @@
+/*
+ * Copyright (C) 2004 Thomas N. Valine
+ * tvaline@users.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA
+ * 02111-1307, USA.
+ */
+
+package com.ohrasys.cad.gds;
+
+import java.util.Arrays;
+
+/**
+ * The summary of one structure kept by a <code>GDSIndex</code>.
+ *
+ * @author   $Author: tvaline $
+ * @version  $Revision: 1.1 $
+ * @since    1.5
+ */
+public class GDSIndexEntry {
+
+    /** The element record types counted by an entry, in storage order */
+    static final byte KINDS[] = {
+            GDSRecord.BOUNDARY, GDSRecord.PATH, GDSRecord.SREF, GDSRecord.AREF,
+            GDSRecord.TEXT, GDSRecord.NODE, GDSRecord.BOX
+        };
+
+    /**
+     * The extent of the structure's own geometry as minimum x, minimum y,
+     * maximum x and maximum y, or null if the structure has none
+     */
+    private int bounds[];
+
+    /** The distinct names of the referenced structures */
+    private String children[];
+
+    /** The number of elements of each kind, in the order of KINDS */
+    private int kindCounts[];
+
+    /** The number of elements on each layer of <code>layers</code> */
+    private int layerCounts[];
+
+    /** The layers used by the structure, in increasing order */
+    private int layers[];
+
+    /** The length of the structure in bytes, BGNSTR to ENDSTR inclusive */
+    private long length;
+
+    /** The structure name */
+    private String name;
+
+    /** The file offset of the BGNSTR record */
+    private long offset;
+
+    /**
+     * Creates a new GDSIndexEntry object.
+     *
+     * @param  name         The structure name
+     * @param  offset       The file offset of the BGNSTR record
+     * @param  length       The length of the structure in bytes
+     * @param  kindCounts   The number of elements of each kind
+     * @param  layers       The layers used, in increasing order
+     * @param  layerCounts  The number of elements on each layer
+     * @param  children     The distinct names of the referenced structures
+     * @param  bounds       The extent of the structure, or null
+     */
+    GDSIndexEntry(String name, long offset, long length, int kindCounts[],
+            int layers[], int layerCounts[], String children[], int bounds[]) {
+        this.name = name;
+        this.offset = offset;
+        this.length = length;
+        this.kindCounts = kindCounts;
+        this.layers = layers;
+        this.layerCounts = layerCounts;
+        this.children = children;
+        this.bounds = bounds;
+    }
+
+    /**
+     * Returns the extent of the structure's own geometry.  Paths count with
+     * their width and end extensions.  References are not included, neither
+     * their reference points nor the referenced structures.
+     *
+     * @return  The minimum x, minimum y, maximum x and maximum y, or null if
+     *          the structure has no geometry of its own
+     */
+    public int[] getBounds() {
+        return (this.bounds == null) ? null : this.bounds.clone();
+    }
+
+    /**
+     * Returns the names of the structures referenced by SREF and AREF elements,
+     * each name once, in order of first reference.
+     *
+     * @return  The names of the child structures
+     */
+    public String[] getChildren() {
+        return this.children.clone();
+    }
+
+    /**
+     * Returns the number of elements of a kind.
+     *
+     * @param   kind  An element record type such as
+     *                <code>GDSRecord.BOUNDARY</code>
+     *
+     * @return  The number of elements of that kind
+     */
+    public int getElementCount(int kind) {
+        for (int i = 0; i < KINDS.length; i++) {
+            if (KINDS[i] == kind) {
+                return this.kindCounts[i];
+            }
+        }
+
+        return 0;
+    }
+
+    /**
+     * Returns the number of elements on a layer.
+     *
+     * @param   layer  The layer
+     *
+     * @return  The number of elements on the layer
+     */
+    public int getLayerCount(int layer) {
+        int i = Arrays.binarySearch(this.layers, layer);
+
+        return (i < 0) ? 0 : this.layerCounts[i];
+    }
+
+    /**
+     * Returns the layers used by the elements of the structure.
+     *
+     * @return  The layers in increasing order
+     */
+    public int[] getLayers() {
+        return this.layers.clone();
+    }
+
+    /**
+     * Returns the length of the structure.
+     *
+     * @return  The number of bytes from the start of the BGNSTR record to the
+     *          end of the ENDSTR record
+     */
+    public long getLength() {
+        return this.length;
+    }
+
+    /**
+     * Returns the structure name.
+     *
+     * @return  The name
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Returns the position of the structure in the file.
+     *
+     * @return  The file offset of the BGNSTR record
+     */
+    public long getOffset() {
+        return this.offset;
+    }
+
+    /**
+     * Returns a string representation of this class
+     *
+     * @return  The physical address of this instance
+     */
+    @Override
+    public String toString() {
+        return super.toString();
+    }
+
+    /**
+     * Returns the element counts in storage order.
+     *
+     * @return  The counts, not copied
+     */
+    int[] getKindCounts() {
+        return this.kindCounts;
+    }
+
+    /**
+     * Returns the layer counts in storage order.
+     *
+     * @return  The counts, not copied
+     */
+    int[] getLayerCounts() {
+        return this.layerCounts;
+    }
+} // end class GDSIndexEntry
+
+/* This material is distributed under the GNU General Public License.
+ * For more information please go to http://www.gnu.org/copyleft/gpl.html */
@@ -35,7 +35,19 @@ import java.nio.ByteOrder;
  * @version  $Revision: 1.11 $
  * @since    1.5
  */
-public class GDSInputStream extends FileInputStream {
+public class GDSInputStream extends FileInputStream implements GDSRecordSource {
+
+    /** The suggested size of each read ahead buffer, 8 megabytes */
+    public static final int DEFAULT_READ_AHEAD = 8 << 20;
+
+    /** The read ahead buffers, null unless read ahead was requested */
+    private GDSReadAhead ahead;
+
+    /** The number of bytes consumed through the read ahead buffers */
+    private long consumed;
+
+    /** The size of the file when read ahead was started */
+    private long size;
 
     /**
      * Creates a new GDSInputStream object.
@@ -61,6 +73,28 @@ public class GDSInputStream extends FileInputStream {
         super(file);
     }
 
+    /**
+     * Creates a new GDSInputStream object that reads ahead of the parser.  A
+     * background thread fills one of two buffers while the records held in the
+     * other one are decoded, so reading and decoding overlap.  This mostly
+     * pays off on slow or remote file systems, buffers of 8 to 64 megabytes are
+     * a good choice there.
+     *
+     * @param   file       The GDS file
+     * @param   readAhead  The size of each of the two buffers in bytes, or 0 to
+     *                     read the file directly
+     *
+     * @throws  FileNotFoundException  If the file cannot be found or is not
+     *                                 readable
+     */
+    public GDSInputStream(File file, int readAhead) throws FileNotFoundException {
+        super(file);
+        if (readAhead > 0) {
+            this.size = file.length();
+            this.ahead = new GDSReadAhead(getChannel(), readAhead);
+        }
+    }
+
     /**
      * Creates a new GDSInputStream object.
      *
@@ -73,6 +107,99 @@ public class GDSInputStream extends FileInputStream {
         super(fdObj);
     }
 
+    /**
+     * Returns the number of bytes that can be read.  When reading ahead this is
+     * the number of bytes of the file not yet consumed, reading them may wait
+     * for the background thread.
+     *
+     * @return  The number of bytes remaining
+     *
+     * @throws  IOException  If an IO exception occurs
+     */
+    @Override
+    public int available() throws IOException {
+        if (this.ahead == null) {
+            return super.available();
+        }
+
+        return (int) Math.min(Integer.MAX_VALUE,
+                Math.max(0, this.size - this.consumed));
+    }
+
+    /**
+     * Closes the stream and stops reading ahead.
+     *
+     * @throws  IOException  If an IO exception occurs
+     */
+    @Override
+    public void close() throws IOException {
+        if (this.ahead != null) {
+            this.ahead.close();
+        }
+        super.close();
+    }
+
+    /**
+     * Reads a byte from the stream.
+     *
+     * @return  The byte read or -1 at the end of the file
+     *
+     * @throws  IOException  If an IO exception occurs
+     */
+    @Override
+    public int read() throws IOException {
+        if (this.ahead == null) {
+            return super.read();
+        }
+
+        int result = this.ahead.read();
+        if (result >= 0) {
+            this.consumed++;
+        }
+
+        return result;
+    }
+
+    /**
+     * Reads bytes from the stream.  When reading ahead the call only returns
+     * fewer bytes than requested at the end of the file.
+     *
+     * @param   data    The destination
+     * @param   offset  The offset of the first byte to write
+     * @param   length  The number of bytes to read
+     *
+     * @return  The number of bytes read or -1 at the end of the file
+     *
+     * @throws  IOException  If an IO exception occurs
+     */
+    @Override
+    public int read(byte data[], int offset, int length) throws IOException {
+        if (this.ahead == null) {
+            return super.read(data, offset, length);
+        }
+
+        int result = this.ahead.read(data, offset, length);
+        if (result > 0) {
+            this.consumed += result;
+        }
+
+        return result;
+    }
+
+    /**
+     * Reads bytes from the stream.
+     *
+     * @param   data  The destination
+     *
+     * @return  The number of bytes read or -1 at the end of the file
+     *
+     * @throws  IOException  If an IO exception occurs
+     */
+    @Override
+    public int read(byte data[]) throws IOException {
+        return read(data, 0, data.length);
+    }
+
     /**
      * Reads a GDS record from the stream.
      *
@@ -80,6 +207,7 @@ public class GDSInputStream extends FileInputStream {
      *
      * @throws  GDSRecordException  If an invalid record is read.
      */
+    @Override
     public GDSRecord readRecord() throws GDSRecordException {
         try {
             if (available() < 2) {
@@ -134,6 +262,51 @@ public class GDSInputStream extends FileInputStream {
         return GDSRecordFactory.expandRecord(result);
     } // end method readRecord
 
+    /**
+     * Moves the stream to a file offset, such as the start of a structure
+     * found in a <code>GDSIndex</code>.
+     *
+     * @param   position  The file offset of the next record to read
+     *
+     * @throws  IOException            If the stream cannot be positioned
+     * @throws  IllegalStateException  If the stream reads ahead
+     */
+    public void seek(long position) throws IOException {
+        if (this.ahead != null) {
+            throw new IllegalStateException();
+        }
+
+        getChannel().position(position);
+    }
+
+    /**
+     * Skips bytes of the stream.
+     *
+     * @param   count  The number of bytes to skip
+     *
+     * @return  The number of bytes skipped
+     *
+     * @throws  IOException  If an IO exception occurs
+     */
+    @Override
+    public long skip(long count) throws IOException {
+        if (this.ahead == null) {
+            return super.skip(count);
+        }
+
+        byte scratch[] = new byte[(int) Math.min(count, 8192)];
+        long result = 0;
+        while (result < count) {
+            int read = read(scratch, 0, (int) Math.min(count - result, scratch.length));
+            if (read < 0) {
+                break;
+            }
+            result += read;
+        }
+
+        return result;
+    }
+
     /**
      * Returns a string representation of this class
      *
@@ -74,7 +74,7 @@ public class GDSLayerRecord extends GDSRecord {
     public GDSLayerRecord(int length, byte rectype, byte dattype, byte data[]) throws GDSRecordException {
         super(length, rectype, dattype, data);
         validateShortRec(LAYER);
-        this.layer = validate(GDSByteConverter.toShort(data));
+        this.layer = validate(GDSBufferCodec.getInt16(data, 0));
     }
 
     /**
@@ -95,7 +95,7 @@ public class GDSLayerRecord extends GDSRecord {
      */
     public void setLayer(short layer) throws GDSRecordException {
         this.layer = validate(layer);
-        this.data = GDSByteConverter.writeShort(layer);
+        this.data = GDSBufferCodec.putInt16(new byte[2], 0, layer);
     }
 
     /**
@@ -75,7 +75,7 @@ public class GDSLibdirsizeRecord extends GDSRecord {
     public GDSLibdirsizeRecord(int length, byte rectype, byte dattype, byte data[]) throws GDSRecordException {
         super(length, rectype, dattype, data);
         validateShortRec(LIBDIRSIZE);
-        this.libdirsize = validate(GDSByteConverter.toShort(data));
+        this.libdirsize = validate(GDSBufferCodec.getInt16(data, 0));
     }
 
     /**
@@ -96,7 +96,7 @@ public class GDSLibdirsizeRecord extends GDSRecord {
      */
     public void setLibdirsize(short libdirsize) throws GDSRecordException {
         this.libdirsize = validate(libdirsize);
-        this.data = GDSByteConverter.writeShort(libdirsize);
+        this.data = GDSBufferCodec.putInt16(new byte[2], 0, libdirsize);
     }
 
     /**
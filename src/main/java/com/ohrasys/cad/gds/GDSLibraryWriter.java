@@ -0,0 +1,403 @@
+/*
+ * Copyright (C) 2004 Thomas N. Valine
+ * tvaline@users.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA
+ * 02111-1307, USA.
+ */
+
+package com.ohrasys.cad.gds;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Writes a GDS library, serializing its structures in parallel.  Records
+ * written with <code>writeRecord</code>, such as the library header and the
+ * ENDLIB record, are encoded on the calling thread.  Each structure handed to
+ * <code>writeStructure</code> is encoded on a worker pool into a buffer of
+ * its own, so that a generator building its records in the source does so in
+ * parallel as well.  The buffers are written to the channel on the calling
+ * thread in the order the records and structures were handed to the writer,
+ * so the file is byte for byte the one a <code>GDSOutputStream</code> writes
+ * from the same records.
+ *
+ * <pre>
+ * GDSLibraryWriter out = new GDSLibraryWriter(file, 8);
+ * out.writeRecord(new GDSHeaderRecord((short) 600));
+ * ...
+ * for (GDSStructureSource cell : cells) {
+ *     out.writeStructure(cell);
+ * }
+ * out.writeRecord(new GDSEndlibRecord());
+ * out.close();
+ * </pre>
+ *
+ * <p>At most a few structures per thread are pending at any time, the
+ * calling thread waits for the oldest one when the limit is reached.  The
+ * buffers written out are reused for later structures.  The writer itself is
+ * not synchronized and must be used from one thread.</p>
+ *
+ * @author   $Author: tvaline $
+ * @version  $Revision: 1.1 $
+ * @since    1.5
+ */
+public class GDSLibraryWriter implements GDSRecordSink, Closeable {
+
+    /** The size at which the records written directly are handed on */
+    private static final int CHUNK_SIZE = 1 << 20;
+
+    /** The initial capacity of a buffer */
+    private static final int INITIAL_CAPACITY = 0x10000;
+
+    /** The largest buffer kept for reuse */
+    private static final int MAX_POOLED_CAPACITY = 64 << 20;
+
+    /** The buffers written out, ready for reuse by any thread */
+    private ConcurrentLinkedQueue<GDSRecordBuffer> buffers;
+
+    /** The channel receiving the library */
+    private FileChannel channel;
+
+    /** The buffer receiving the records written directly */
+    private GDSRecordBuffer current;
+
+    /** The maximum number of pending buffers */
+    private int maxPending;
+
+    /** The buffers not yet written, in file order */
+    private ArrayDeque<Future<GDSRecordBuffer>> pending;
+
+    /** The pool encoding the structures */
+    private ForkJoinPool pool;
+
+    /** Whether the pool is shut down when the writer is closed */
+    private boolean poolOwned;
+
+    /** The number of bytes written to the channel */
+    private long position;
+
+    /**
+     * Creates a new GDSLibraryWriter object writing to a file with a pool of
+     * its own.
+     *
+     * @param   file     The GDS file
+     * @param   threads  The number of encoding threads
+     *
+     * @throws  FileNotFoundException  If the file cannot be created or is not
+     *                                 writable
+     */
+    public GDSLibraryWriter(File file, int threads) throws FileNotFoundException {
+        this(new FileOutputStream(file).getChannel(),
+            new ForkJoinPool(Math.max(threads, 1)));
+        this.poolOwned = true;
+    }
+
+    /**
+     * Creates a new GDSLibraryWriter object.  The channel is closed with the
+     * writer, the pool is not.
+     *
+     * @param  channel  The channel receiving the library
+     * @param  pool     The pool encoding the structures
+     */
+    public GDSLibraryWriter(FileChannel channel, ForkJoinPool pool) {
+        this.channel = channel;
+        this.pool = pool;
+        this.maxPending = pool.getParallelism() * 4;
+        this.buffers = new ConcurrentLinkedQueue<GDSRecordBuffer>();
+        this.pending = new ArrayDeque<Future<GDSRecordBuffer>>();
+        this.current = new GDSRecordBuffer(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Writes everything pending and closes the channel.  Structures still
+     * pending after a failure are cancelled.
+     *
+     * @throws  IOException  If an IO error occurs or a structure cannot be
+     *                       encoded
+     */
+    public void close() throws IOException {
+        try {
+            flush();
+        }
+        catch (GDSRecordException ex) {
+            throw new IOException(ex);
+        }
+        finally {
+            while (!this.pending.isEmpty()) {
+                this.pending.removeFirst().cancel(true);
+            }
+            this.channel.close();
+            if (this.poolOwned) {
+                this.pool.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Waits for the pending structures and writes everything handed to the
+     * writer so far.
+     *
+     * @throws  IOException         If an IO error occurs.
+     * @throws  GDSRecordException  If a structure cannot be encoded.
+     */
+    public void flush() throws IOException, GDSRecordException {
+        seal();
+        drain(0);
+    }
+
+    /**
+     * Returns the number of bytes written to the channel so far.
+     *
+     * @return  The number of bytes
+     */
+    public long getPosition() {
+        return this.position;
+    }
+
+    /**
+     * Returns a string representation of this class
+     *
+     * @return  The physical address of this instance
+     */
+    @Override
+    public String toString() {
+        return super.toString();
+    }
+
+    /**
+     * Encodes a record on the calling thread.  The record is written after
+     * everything handed to the writer before it.
+     *
+     * @param   record  The GDSRecord to write out.
+     *
+     * @return  The number of bytes written.
+     *
+     * @throws  IOException  If an IO error occurs or a pending structure
+     *                       cannot be encoded
+     */
+    public int writeRecord(GDSRecord record) throws IOException {
+        int result = this.current.writeRecord(record);
+        if (this.current.size() >= CHUNK_SIZE) {
+            seal();
+            try {
+                drain(this.maxPending);
+            }
+            catch (GDSRecordException ex) {
+                throw new IOException(ex);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Encodes the records of a structure on the pool.
+     *
+     * @param   records  The records of the structure, from BGNSTR to ENDSTR.
+     *                   The array must not change until the structure has been
+     *                   written.
+     *
+     * @throws  IOException         If an IO error occurs.
+     * @throws  GDSRecordException  If a pending structure cannot be encoded.
+     */
+    public void writeStructure(GDSRecord records[]) throws IOException, GDSRecordException {
+        writeStructure(new RecordArray(records));
+    }
+
+    /**
+     * Encodes the records produced by a source on the pool.  The structure is
+     * written after everything handed to the writer before it.
+     *
+     * @param   source  The source of the records of the structure
+     *
+     * @throws  IOException         If an IO error occurs.
+     * @throws  GDSRecordException  If a pending structure cannot be encoded.
+     */
+    public void writeStructure(GDSStructureSource source) throws IOException, GDSRecordException {
+        seal();
+        this.pending.addLast(this.pool.submit(new Encoder(source)));
+        drain(this.maxPending);
+    }
+
+    /**
+     * Writes the buffers at the head of the queue that are done, and waits for
+     * more until only some are left.
+     *
+     * @param   keep  The number of buffers that may stay pending
+     *
+     * @throws  IOException         If an IO error occurs.
+     * @throws  GDSRecordException  If a structure cannot be encoded.
+     */
+    private void drain(int keep) throws IOException, GDSRecordException {
+        while (!this.pending.isEmpty() &&
+                ((this.pending.size() > keep) ||
+                    this.pending.peekFirst().isDone())) {
+            GDSRecordBuffer buffer = get(this.pending.removeFirst());
+            ByteBuffer bytes = ByteBuffer.wrap(buffer.array(), 0, buffer.size());
+            while (bytes.hasRemaining()) {
+                this.position += this.channel.write(bytes);
+            }
+            release(buffer);
+        }
+    }
+
+    /**
+     * Waits for a buffer.
+     *
+     * @param   future  The buffer being encoded
+     *
+     * @return  The buffer
+     *
+     * @throws  IOException         If the buffer could not be filled or the
+     *                              thread is interrupted
+     * @throws  GDSRecordException  If a record could not be built
+     */
+    private GDSRecordBuffer get(Future<GDSRecordBuffer> future) throws IOException, GDSRecordException {
+        try {
+            return future.get();
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(ex.toString());
+        }
+        catch (ExecutionException ex) {
+            /* The pool wraps the checked exceptions of a task */
+            for (Throwable cause = ex.getCause(); cause != null;
+                    cause = cause.getCause()) {
+                if (cause instanceof GDSRecordException) {
+                    throw (GDSRecordException) cause;
+                }
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                }
+            }
+            throw new IOException(ex.getCause());
+        }
+    }
+
+    /**
+     * Returns a buffer for reuse.
+     *
+     * @param  buffer  The buffer written out
+     */
+    private void release(GDSRecordBuffer buffer) {
+        buffer.clear();
+        if (buffer.capacity() <= MAX_POOLED_CAPACITY) {
+            this.buffers.offer(buffer);
+        }
+    }
+
+    /**
+     * Queues the records written directly since the last structure, behind
+     * the structures handed to the writer before them.
+     */
+    private void seal() {
+        if (this.current.size() > 0) {
+            this.pending.addLast(CompletableFuture.completedFuture(this.current));
+            this.current = take();
+        }
+    }
+
+    /**
+     * Takes a buffer for reuse or creates one.
+     *
+     * @return  An empty buffer
+     */
+    private GDSRecordBuffer take() {
+        GDSRecordBuffer result = this.buffers.poll();
+
+        return (result == null) ? new GDSRecordBuffer(INITIAL_CAPACITY) : result;
+    }
+
+    /**
+     * Encodes a structure into a buffer.
+     */
+    private class Encoder implements Callable<GDSRecordBuffer> {
+
+        /** The source of the records of the structure */
+        private GDSStructureSource source;
+
+        /**
+         * Creates a new Encoder object.
+         *
+         * @param  source  The source of the records of the structure
+         */
+        Encoder(GDSStructureSource source) {
+            this.source = source;
+        }
+
+        /**
+         * Encodes the structure.
+         *
+         * @return  The buffer holding the structure
+         *
+         * @throws  Exception  If the records cannot be built
+         */
+        public GDSRecordBuffer call() throws Exception {
+            GDSRecordBuffer result = take();
+            this.source.writeStructure(result);
+
+            return result;
+        }
+    } // end class Encoder
+
+    /**
+     * Produces the records of a structure built beforehand.
+     */
+    private static class RecordArray implements GDSStructureSource {
+
+        /** The records of the structure */
+        private GDSRecord records[];
+
+        /**
+         * Creates a new RecordArray object.
+         *
+         * @param  records  The records of the structure
+         */
+        RecordArray(GDSRecord records[]) {
+            this.records = records;
+        }
+
+        /**
+         * Writes the records.
+         *
+         * @param   out  The sink receiving the records
+         *
+         * @throws  IOException  If an IO error occurs.
+         */
+        public void writeStructure(GDSRecordSink out) throws IOException {
+            for (int i = 0; i < this.records.length; i++) {
+                out.writeRecord(this.records[i]);
+            }
+        }
+    } // end class RecordArray
+} // end class GDSLibraryWriter
+
+/* This material is distributed under the GNU General Public License.
+ * For more information please go to http://www.gnu.org/copyleft/gpl.html */
@@ -20,9 +20,8 @@
 
 package com.ohrasys.cad.gds;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -85,12 +84,10 @@ public class GDSLibsecurRecord extends GDSRecord {
                     GDSI18NFactory.i18n_LIBSECUR_THROW));
         }
 
-        ByteArrayInputStream bais = new ByteArrayInputStream(data);
-
         for (int i = 0; i < (data.length / 6); i++) {
-            short group = GDSByteConverter.readShort(bais);
-            short user = GDSByteConverter.readShort(bais);
-            short access = GDSByteConverter.readShort(bais);
+            short group = GDSBufferCodec.getInt16(data, 6 * i);
+            short user = GDSBufferCodec.getInt16(data, (6 * i) + 2);
+            short access = GDSBufferCodec.getInt16(data, (6 * i) + 4);
             GDSAccessControl elem = new GDSAccessControl(group, user, access);
 
             if (!this.libsecur.contains(elem)) {
@@ -128,20 +125,21 @@ public class GDSLibsecurRecord extends GDSRecord {
                     GDSI18NFactory.i18n_LIBSECUR_THROW));
         }
 
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        byte result[] = new byte[libsecur.length * 6];
+        int off = 0;
         this.libsecur.clear();
 
         for (int i = 0; i < libsecur.length; i++) {
             if (!this.libsecur.contains(libsecur[i])) {
                 this.libsecur.add(libsecur[i]);
-                baos = GDSByteConverter.fromShort(libsecur[i].getGroup(), baos);
-                baos = GDSByteConverter.fromShort(libsecur[i].getUser(), baos);
-                baos = GDSByteConverter.fromShort(libsecur[i].getAccess(),
-                        baos);
+                GDSBufferCodec.putInt16(result, off, libsecur[i].getGroup());
+                GDSBufferCodec.putInt16(result, off + 2, libsecur[i].getUser());
+                GDSBufferCodec.putInt16(result, off + 4, libsecur[i].getAccess());
+                off += 6;
             }
         }
 
-        this.data = baos.toByteArray();
+        this.data = Arrays.copyOf(result, off);
         this.length = (short) (this.data.length + 4);
     }
 
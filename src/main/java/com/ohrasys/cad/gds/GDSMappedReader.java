@@ -0,0 +1,334 @@
+/*
+ * Copyright (C) 2004 Thomas N. Valine
+ * tvaline@users.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA
+ * 02111-1307, USA.
+ */
+
+package com.ohrasys.cad.gds;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * A GDS record reader backed by a memory mapped file.  Rather than issuing
+ * several small reads per record the way <code>GDSInputStream</code> does,
+ * the file is mapped into memory in large windows and records are decoded
+ * directly out of the mapped region.  A new window is mapped whenever a
+ * record would straddle the end of the current one, so files larger than the
+ * window size (or larger than 2GB) are supported.
+ *
+ * <p>The records returned by <code>readRecord()</code> are identical to the
+ * ones returned by <code>GDSInputStream.readRecord()</code> for the same
+ * file.</p>
+ *
+ * @author   $Author: tvaline $
+ * @version  $Revision: 1.1 $
+ * @since    1.5
+ */
+public class GDSMappedReader implements GDSRecordSource {
+
+    /** The default size of a mapped window in bytes */
+    public static final int DEFAULT_WINDOW_SIZE = 128 * 1024 * 1024;
+
+    /**
+     * The smallest permitted window size.  A window must be able to hold the
+     * longest possible GDS record.
+     */
+    public static final int MIN_WINDOW_SIZE = 0x10000;
+
+    /** The channel of the mapped file */
+    private FileChannel channel;
+
+    /** The stream the channel was obtained from */
+    private FileInputStream stream;
+
+    /** The file offset of the next record to be read */
+    private long position;
+
+    /** The size of the file in bytes */
+    private long size;
+
+    /** The currently mapped window */
+    private MappedByteBuffer window;
+
+    /** The size of a mapped window in bytes */
+    private int windowSize;
+
+    /** The file offset of the first byte of the current window */
+    private long windowStart;
+
+    /** The window index of the data of the last record header read */
+    int recData;
+
+    /** The data type of the last record header read */
+    byte recDattype;
+
+    /** The total length of the last record header read */
+    int recLength;
+
+    /** The file offset of the last record header read */
+    long recOffset;
+
+    /** The record type of the last record header read */
+    byte recRectype;
+
+    /**
+     * Creates a new GDSMappedReader object.
+     *
+     * @param   name  The name of the GDS file.
+     *
+     * @throws  FileNotFoundException  If the file cannot be found or is not
+     *                                 readable
+     */
+    public GDSMappedReader(String name) throws FileNotFoundException {
+        this(new File(name), DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * Creates a new GDSMappedReader object.
+     *
+     * @param   file  The GDS file
+     *
+     * @throws  FileNotFoundException  If the file cannot be found or is not
+     *                                 readable
+     */
+    public GDSMappedReader(File file) throws FileNotFoundException {
+        this(file, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * Creates a new GDSMappedReader object.
+     *
+     * @param   file        The GDS file
+     * @param   windowSize  The number of bytes to map at a time.  Values
+     *                      smaller than <code>MIN_WINDOW_SIZE</code> are
+     *                      rounded up.
+     *
+     * @throws  FileNotFoundException  If the file cannot be found or is not
+     *                                 readable
+     */
+    public GDSMappedReader(File file, int windowSize) throws FileNotFoundException {
+        this.stream = new FileInputStream(file);
+        this.channel = this.stream.getChannel();
+        this.windowSize = Math.max(windowSize, MIN_WINDOW_SIZE);
+        this.size = file.length();
+        this.position = 0;
+        this.window = null;
+        this.windowStart = 0;
+    }
+
+    /**
+     * Returns the number of bytes remaining to be read.
+     *
+     * @return  The number of unread bytes in the file
+     */
+    public long available() {
+        return this.size - this.position;
+    }
+
+    /**
+     * Closes the reader and releases the underlying file.
+     *
+     * @throws  IOException  If the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        this.window = null;
+        this.stream.close();
+    }
+
+    /**
+     * Returns the file offset of the next record to be read.
+     *
+     * @return  The current file position
+     */
+    public long getPosition() {
+        return this.position;
+    }
+
+    /**
+     * Returns the size of the file being read.
+     *
+     * @return  The size of the file in bytes
+     */
+    public long getSize() {
+        return this.size;
+    }
+
+    /**
+     * Reads a GDS record from the mapped file.
+     *
+     * @return  A GDSRecord from the file, or null if the end of the file has
+     *          been reached.
+     *
+     * @throws  GDSRecordException  If an invalid record is read.
+     */
+    @Override
+    public GDSRecord readRecord() throws GDSRecordException {
+        if (!nextHeader()) {
+            return null;
+        }
+
+        byte data[] = new byte[Math.max(this.recLength - 4, 0)];
+        if (data.length > 0) {
+            this.window.position(this.recData);
+            this.window.get(data);
+        }
+
+        GDSRecord result = new GDSRecord(this.recLength, this.recRectype,
+                this.recDattype, data);
+
+        return GDSRecordFactory.expandRecord(result);
+    }
+
+    /**
+     * Moves the reader to a file offset.  The offset must be the start of a
+     * record, such as one previously returned by <code>getPosition()</code>.
+     *
+     * @param   position  The file offset of the next record to read
+     *
+     * @throws  IllegalArgumentException  If the offset lies outside the file
+     */
+    public void seek(long position) {
+        if ((position < 0) || (position > this.size)) {
+            throw new IllegalArgumentException();
+        }
+
+        this.position = position;
+    }
+
+    /**
+     * Returns a string representation of this class
+     *
+     * @return  The physical address of this instance
+     */
+    @Override
+    public String toString() {
+        return super.toString();
+    }
+
+    /**
+     * Returns the currently mapped window.  The data of the last record header
+     * read starts at index <code>recData</code> of this buffer.
+     *
+     * @return  The current window
+     */
+    MappedByteBuffer getWindow() {
+        return this.window;
+    }
+
+    /**
+     * Reads the header of the next record and advances past the record.  On
+     * return the <code>rec*</code> fields describe the record and the whole
+     * record is contained in the current window.
+     *
+     * @return  false if the end of the file has been reached
+     *
+     * @throws  GDSRecordException  If the record is truncated or the file
+     *                              cannot be mapped
+     */
+    boolean nextHeader() throws GDSRecordException {
+        long remaining = this.size - this.position;
+        if (remaining < 2) {
+            return false;
+        }
+
+        map(this.position, (int) Math.min(remaining, 4));
+        this.recOffset = this.position;
+
+        int index = (int) (this.position - this.windowStart);
+        int length = this.window.getShort(index);
+        byte rectype = GDSRecord.NULL;
+        byte dattype = GDSRecord.NO_DATA_TYPE;
+
+        /* Lengths above 0x7FFF only occur in long XY records */
+        boolean integer = false;
+        if (length < 0) {
+            integer = true;
+            length &= 0xFFFF;
+        }
+
+        if (length > 0) {
+            if (length < 4) {
+                throw new GDSRecordException(GDSStringUtil.sprintf(
+                        GDSI18NFactory.getString(GDSI18NFactory.i18n_RECORD_THROW2), 4));
+            }
+            if (length > remaining) {
+                throw new GDSRecordException(GDSStringUtil.sprintf(
+                        GDSI18NFactory.getString(GDSI18NFactory.i18n_MAPPEDREADER_THROW1),
+                        this.position));
+            }
+            map(this.position, length);
+            index = (int) (this.position - this.windowStart);
+            rectype = this.window.get(index + 2);
+            dattype = this.window.get(index + 3);
+            if (integer) {
+                rectype = GDSRecord.XY;
+                dattype = GDSRecord.INT_TYPE;
+            }
+            this.recData = index + 4;
+            this.position += length;
+        }
+        else {
+            this.recData = index + 2;
+            this.position += 2;
+        }
+
+        this.recLength = length;
+        this.recRectype = rectype;
+        this.recDattype = dattype;
+
+        return true;
+    } // end method nextHeader
+
+    /**
+     * Ensures that the given file region is contained in the current window,
+     * mapping a new window starting at <code>offset</code> if it is not.
+     *
+     * @param   offset  The file offset of the region
+     * @param   length  The length of the region
+     *
+     * @throws  GDSRecordException  If the region cannot be mapped
+     */
+    private void map(long offset, int length) throws GDSRecordException {
+        if ((this.window != null) && (offset >= this.windowStart) &&
+                ((offset + length) <= (this.windowStart + this.window.limit()))) {
+            return;
+        }
+
+        try {
+            long count = Math.min(this.windowSize, this.size - offset);
+            this.window = this.channel.map(FileChannel.MapMode.READ_ONLY, offset,
+                    count);
+            this.window.order(ByteOrder.BIG_ENDIAN);
+            this.windowStart = offset;
+        }
+        catch (IOException e) {
+            throw new GDSRecordException(GDSStringUtil.sprintf(
+                    GDSI18NFactory.getString(GDSI18NFactory.i18n_MAPPEDREADER_THROW2),
+                    offset, e.getMessage()));
+        }
+    }
+} // end class GDSMappedReader
+
+/* This material is distributed under the GNU General Public License.
+ * For more information please go to http://www.gnu.org/copyleft/gpl.html */
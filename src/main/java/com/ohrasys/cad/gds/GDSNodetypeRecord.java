@@ -74,7 +74,7 @@ public class GDSNodetypeRecord extends GDSRecord {
     public GDSNodetypeRecord(int length, byte rectype, byte dattype, byte data[]) throws GDSRecordException {
         super(length, rectype, dattype, data);
         validateShortRec(NODETYPE);
-        this.nodetype = validate(GDSByteConverter.toShort(data));
+        this.nodetype = validate(GDSBufferCodec.getInt16(data, 0));
     }
 
     /**
@@ -95,7 +95,7 @@ public class GDSNodetypeRecord extends GDSRecord {
      */
     public void setNodetype(short nodetype) throws GDSRecordException {
         this.nodetype = validate(nodetype);
-        this.data = GDSByteConverter.writeShort(nodetype);
+        this.data = GDSBufferCodec.putInt16(new byte[2], 0, nodetype);
     }
 
     /**
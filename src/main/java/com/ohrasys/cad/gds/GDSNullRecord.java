@@ -59,6 +59,32 @@ public class GDSNullRecord extends GDSRecord {
     public String toString() {
         return GDSI18NFactory.getString(GDSI18NFactory.i18n_NULL_TOSTRING);
     }
+
+    /**
+     * Writes the byte representation of the record into an array.
+     *
+     * @param   dst  The destination array
+     * @param   off  The offset of the record in the array
+     *
+     * @return  The number of bytes written
+     */
+    @Override
+    int encode(byte dst[], int off) {
+        dst[off] = 0;
+        dst[off + 1] = 0;
+
+        return 2;
+    }
+
+    /**
+     * Returns the number of bytes written by <code>encode</code>.
+     *
+     * @return  The size of the byte representation of the record
+     */
+    @Override
+    int encodedLength() {
+        return 2;
+    }
 }
 /* This material is distributed under the GNU General Public License.
  * For more information please go to http://www.gnu.org/copyleft/gpl.html */
@@ -33,7 +33,7 @@ import java.io.IOException;
  * @version  $Revision: 1.5 $
  * @since    1.5
  */
-public class GDSOutputStream extends FileOutputStream {
+public class GDSOutputStream extends FileOutputStream implements GDSRecordSink {
 
     /**
      * Creates a new GDSOutputStream object.
@@ -75,9 +75,21 @@ public class GDSParser {
      */
     private DatabaseValidator isValid;
 
+    /**
+     * Indicates that the design should be read through a memory mapped file
+     * instead of a <code>GDSInputStream</code>.
+     */
+    private boolean mapped;
+
     /** Indicates that the parser can be preempted by other threads */
     private boolean preemptable;
 
+    /**
+     * The size of each read ahead buffer of the <code>GDSInputStream</code>, 0
+     * if the design is read without read ahead.
+     */
+    private int readAhead;
+
     /** The list of database records parsed from the GDS file */
     private List<Object> records;
 
@@ -140,24 +152,39 @@ public class GDSParser {
         this.isValid.setCollecting(this.collecting);
         write(sep);
 
-        GDSRecord record = null;
+        GDSRecord       record = null;
+        GDSRecordSource gdsin  = null;
         this.indent = new String();
         try {
-            GDSInputStream gdsin = new GDSInputStream(in);
+            gdsin = this.mapped ? new GDSMappedReader(in)
+                                                : new GDSInputStream(in,
+                                                        this.readAhead);
 
             while ((record = gdsin.readRecord()) != null) {
                 if (this.preemptable && ((this.records.size() % 100) == 0)) {
                     Thread.yield();
                 }
-                BNFTestableObject testable = new BNFTestableObject(record) {
-
-                    @Override
-                    public int getToken() {
-                        return ((GDSRecord) getData()).getRectype();
-                    }
-                };
-                BNFTestResult result = this.isValid.test(testable);
-                if (result.isFailed()) {
+                boolean failed;
+                boolean finished;
+                if (this.collecting) {
+                    BNFTestableObject testable = new BNFTestableObject(record) {
+
+                        @Override
+                        public int getToken() {
+                            return ((GDSRecord) getData()).getRectype();
+                        }
+                    };
+                    BNFTestResult result = this.isValid.test(testable);
+                    failed = result.isFailed();
+                    finished = result.isFinished();
+                }
+                else {
+                    /* Nothing is collected, so the bare record type will do */
+                    int status = this.isValid.test(record.getRectype());
+                    failed = (status == BNFTestResult.FAILED);
+                    finished = (status == BNFTestResult.FINISHED);
+                }
+                if (failed) {
                     throw new GDSRecordException(GDSStringUtil.sprintf(
                             GDSI18NFactory.getString(GDSI18NFactory.i18n_GDSPARSER_THROW1),
                             record.toString().subSequence(0,
@@ -166,7 +193,10 @@ public class GDSParser {
                 this.stats.record(record);
                 this.records.add(record);
 
-                if (record.getRectype() != GDSRecord.NULL) {
+                /* Skip formatting the record when there is nowhere to write it,
+                 * so payloads are only decoded when they are reported */
+                if ((this.writer != null) &&
+                        (record.getRectype() != GDSRecord.NULL)) {
                     write("\t" /*NOI18N*/ + this.indent +
                             record.toString().replaceAll("\n" /*NOI18N*/,
                                     "\n\t" /*NOI18N*/ + this.indent));
@@ -196,15 +226,10 @@ public class GDSParser {
 
                     break;
                 }
-                if (result.isFinished()) {
+                if (finished) {
                     break;
                 }
             } // end while
-            try {
-                gdsin.close();
-            }
-            catch (IOException ex) { /* can't do anything now */
-            }
         }
         catch (GDSRecordException e) {
             write(GDSStringUtil.sprintf(
@@ -218,6 +243,17 @@ public class GDSParser {
                     e.getMessage()));
             resultVld = false;
         }
+        finally {
+            /* Close on every path so a failed parse does not keep the file,
+             * its mapping or the read ahead thread alive */
+            if (gdsin != null) {
+                try {
+                    gdsin.close();
+                }
+                catch (IOException ex) { /* can't do anything now */
+                }
+            }
+        }
         write(sep + "\n" /*NOI18N*/ + this.stats + "\n" /*NOI18N*/ + sep);
         write(
                 GDSStringUtil.sprintf(GDSI18NFactory.getString(GDSI18NFactory.i18n_GDSPARSER_TOSTRING),
@@ -248,6 +284,29 @@ public class GDSParser {
         this.collecting = isCollecting;
     }
 
+    /**
+     * Selects memory mapped reading of the design.  Mapped reading is usually
+     * considerably faster on large designs.
+     *
+     * @param  isMapped  true if the design is to be read through a
+     *                   <code>GDSMappedReader</code>
+     */
+    public void setMapped(boolean isMapped) {
+        this.mapped = isMapped;
+    }
+
+    /**
+     * Selects reading the design ahead of the parser on a background thread.
+     * This is ignored when mapped reading has been selected.
+     *
+     * @param  bytes  The size of each of the two read ahead buffers, for
+     *                example <code>GDSInputStream.DEFAULT_READ_AHEAD</code>, or
+     *                0 to turn read ahead off
+     */
+    public void setReadAhead(int bytes) {
+        this.readAhead = bytes;
+    }
+
     /**
      * Returns a string representation of this class
      *
@@ -261,7 +320,10 @@ public class GDSParser {
     /** A method to close the output stream if required */
     private void close() {
         try {
-            if ((this.writer != null) && (!this.dontclose)) {
+            if (this.writer == null) {
+                return;
+            }
+            if (!this.dontclose) {
                 this.writer.close();
             }
             else {
@@ -291,6 +353,7 @@ public class GDSParser {
      * @param  out  The output stream to write parser output to
      */
     private void open(OutputStream out) {
+        this.writer = null;
         if (out != null) {
             this.writer = new BufferedWriter(new PrintWriter(out));
         }
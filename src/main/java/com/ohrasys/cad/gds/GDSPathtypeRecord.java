@@ -87,7 +87,7 @@ public class GDSPathtypeRecord extends GDSRecord {
     public GDSPathtypeRecord(int length, byte rectype, byte dattype, byte data[]) throws GDSRecordException {
         super(length, rectype, dattype, data);
         validateShortRec(PATHTYPE);
-        this.pathtype = validate(GDSByteConverter.toShort(data));
+        this.pathtype = validate(GDSBufferCodec.getInt16(data, 0));
     }
 
     /**
@@ -109,7 +109,7 @@ public class GDSPathtypeRecord extends GDSRecord {
      */
     public void setPathtype(short pathtype) throws GDSRecordException {
         this.pathtype = validate(pathtype);
-        this.data = GDSByteConverter.writeShort(pathtype);
+        this.data = GDSBufferCodec.putInt16(new byte[2], 0, pathtype);
     }
 
     /**
@@ -77,7 +77,7 @@ public class GDSPlexRecord extends GDSRecord {
     public GDSPlexRecord(int length, byte rectype, byte dattype, byte data[]) throws GDSRecordException {
         super(length, rectype, dattype, data);
         validateIntRec(PLEX);
-        this.plex = validate(GDSByteConverter.toInt(data));
+        this.plex = validate(GDSBufferCodec.getInt32(data, 0));
     }
 
     /**
@@ -98,7 +98,7 @@ public class GDSPlexRecord extends GDSRecord {
      */
     public void setPlex(int plex) throws GDSRecordException {
         this.plex = validate(plex);
-        this.data = GDSByteConverter.writeInt(plex);
+        this.data = GDSBufferCodec.putInt32(new byte[4], 0, plex);
     }
 
     /**
@@ -258,7 +258,7 @@ public class GDSPresentationRecord extends GDSRecord {
         result = (short) (result | (this.vJustification << 2));
         result = (short) (result | (this.font << 4));
 
-        return GDSByteConverter.writeShort(result);
+        return GDSBufferCodec.putInt16(new byte[2], 0, result);
     }
 
     /**
@@ -74,7 +74,7 @@ public class GDSPropattrRecord extends GDSRecord {
     public GDSPropattrRecord(int length, byte rectype, byte dattype, byte data[]) throws GDSRecordException {
         super(length, rectype, dattype, data);
         validateShortRec(PROPATTR);
-        this.propattr = validate(GDSByteConverter.toShort(data));
+        this.propattr = validate(GDSBufferCodec.getInt16(data, 0));
     }
 
     /**
@@ -95,7 +95,7 @@ public class GDSPropattrRecord extends GDSRecord {
      */
     public void setPropattr(short propattr) throws GDSRecordException {
         this.propattr = validate(propattr);
-        this.data = GDSByteConverter.writeShort(propattr);
+        this.data = GDSBufferCodec.putInt16(new byte[2], 0, propattr);
     }
 
     /**
@@ -0,0 +1,223 @@
+/*
+ * Copyright (C) 2004 Thomas N. Valine
+ * tvaline@users.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA
+ * 02111-1307, USA.
+ */
+
+package com.ohrasys.cad.gds;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Reads a channel ahead of its consumer on a background thread.  Two buffers
+ * circulate between the reading thread and the consumer: while the consumer
+ * decodes one of them the other one is being filled, and a buffer is only
+ * refilled once the consumer has handed it back.  At most two buffers are ever
+ * allocated, whatever the size of the file.
+ *
+ * @author   $Author: tvaline $
+ * @version  $Revision: 1.1 $
+ * @since    1.5
+ */
+class GDSReadAhead implements Runnable {
+
+    /** The marker queued once the end of the channel has been reached */
+    private static final ByteBuffer END = ByteBuffer.allocate(0);
+
+    /** The channel read by the background thread */
+    private ReadableByteChannel channel;
+
+    /** The buffer being consumed */
+    private ByteBuffer current;
+
+    /** The error raised by the background thread, if any */
+    private volatile IOException failure;
+
+    /** The buffers waiting to be filled */
+    private BlockingQueue<ByteBuffer> free;
+
+    /** The filled buffers waiting to be consumed */
+    private BlockingQueue<ByteBuffer> full;
+
+    /** The background thread */
+    private Thread thread;
+
+    /**
+     * Creates a new GDSReadAhead object and starts reading.
+     *
+     * @param   channel  The channel to read
+     * @param   size     The size of each of the two buffers in bytes
+     *
+     * @throws  IllegalArgumentException  If size is not positive
+     */
+    GDSReadAhead(ReadableByteChannel channel, int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException();
+        }
+
+        this.channel = channel;
+        this.free = new ArrayBlockingQueue<ByteBuffer>(2);
+        this.full = new ArrayBlockingQueue<ByteBuffer>(3);
+        this.free.add(ByteBuffer.allocate(size));
+        this.free.add(ByteBuffer.allocate(size));
+        this.current = END;
+
+        this.thread = new Thread(this, "GDSReadAhead" /* NOI18N */);
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Fills buffers until the end of the channel is reached or the reader is
+     * closed.
+     */
+    public void run() {
+        try {
+            int count = 0;
+            while (count >= 0) {
+                ByteBuffer buffer = this.free.take();
+                buffer.clear();
+                while (buffer.hasRemaining() && (count >= 0)) {
+                    count = this.channel.read(buffer);
+                }
+                buffer.flip();
+                if (buffer.hasRemaining()) {
+                    this.full.put(buffer);
+                }
+            }
+            this.full.put(END);
+        }
+        catch (InterruptedException ex) { /* closed by the consumer */
+        }
+        catch (IOException ex) {
+            this.failure = ex;
+            this.full.offer(END);
+        }
+    }
+
+    /**
+     * Stops the background thread.  The channel is left open.
+     */
+    void close() {
+        this.thread.interrupt();
+        try {
+            this.thread.join();
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        this.current = END;
+    }
+
+    /**
+     * Reads a single byte, waiting for the background thread if needed.
+     *
+     * @return  The byte read or -1 at the end of the channel
+     *
+     * @throws  IOException  If the channel could not be read
+     */
+    int read() throws IOException {
+        if (!this.current.hasRemaining() && !advance()) {
+            return -1;
+        }
+
+        return this.current.get() & 0xFF;
+    }
+
+    /**
+     * Reads bytes, waiting for the background thread until the requested
+     * number of bytes has been read or the end of the channel is reached.
+     *
+     * @param   data    The destination
+     * @param   offset  The offset of the first byte to write
+     * @param   length  The number of bytes to read
+     *
+     * @return  The number of bytes read or -1 at the end of the channel
+     *
+     * @throws  IOException  If the channel could not be read
+     */
+    int read(byte data[], int offset, int length) throws IOException {
+        int total = 0;
+        while (total < length) {
+            if (!this.current.hasRemaining() && !advance()) {
+                return (total > 0) ? total : -1;
+            }
+
+            int count = Math.min(length - total, this.current.remaining());
+            this.current.get(data, offset + total, count);
+            total += count;
+        }
+
+        return total;
+    }
+
+    /**
+     * Returns a string representation of this class
+     *
+     * @return  The physical address of this instance
+     */
+    @Override
+    public String toString() {
+        return super.toString();
+    }
+
+    /**
+     * Hands the exhausted buffer back to the background thread and waits for
+     * the next filled one.
+     *
+     * @return  false at the end of the channel or if the consumer was
+     *          interrupted
+     *
+     * @throws  IOException  If the channel could not be read
+     */
+    private boolean advance() throws IOException {
+        if (this.current != END) {
+            this.free.offer(this.current);
+            this.current = END;
+        }
+
+        ByteBuffer next;
+        try {
+            next = this.full.take();
+        }
+        catch (InterruptedException ex) {
+            /* Leave the flag set so the parser notices the interruption */
+            Thread.currentThread().interrupt();
+
+            return false;
+        }
+
+        if (next == END) {
+            this.full.offer(END);
+            if (this.failure != null) {
+                throw this.failure;
+            }
+
+            return false;
+        }
+        this.current = next;
+
+        return true;
+    } // end method advance
+} // end class GDSReadAhead
+
+/* This material is distributed under the GNU General Public License.
+ * For more information please go to http://www.gnu.org/copyleft/gpl.html */
@@ -20,6 +20,7 @@
 
 package com.ohrasys.cad.gds;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileDescriptor;
 import java.io.FileNotFoundException;
@@ -40,7 +41,7 @@ import com.ohrasys.cad.gds.validator.DatabaseValidator;
 public class GDSReader extends InputStreamReader {
 
     /** The number of bytes read */
-    private int bytesRead;
+    private long bytesRead;
 
     /** The input stream */
     private GDSInputStream in;
@@ -48,6 +49,9 @@ public class GDSReader extends InputStreamReader {
     /** The Backus-Naur test validator for the GDS database */
     private DatabaseValidator isValid;
 
+    /** The memory mapped record reader, if mapped reading was requested */
+    private GDSMappedReader mapped;
+
     /** A flag to indicate whether we should validate the data read */
     private boolean validating;
 
@@ -98,7 +102,22 @@ public class GDSReader extends InputStreamReader {
      *                                 readable.
      */
     public GDSReader(GDSInputStream in, boolean validating) throws FileNotFoundException {
-        super(in);
+        this(in, null, validating);
+    }
+
+    /**
+     * Creates a new GDSReader object reading from exactly one of a stream or a
+     * memory mapped reader.  When reading through the mapped reader the
+     * character methods of the reader see an empty stream, so the file is
+     * only opened once.
+     *
+     * @param   in          The input stream to read from, or null
+     * @param   mapped      The memory mapped record reader, or null
+     * @param   validating  Set to true if on the fly validating is to be
+     *                      performed.
+     */
+    private GDSReader(GDSInputStream in, GDSMappedReader mapped, boolean validating) {
+        super((mapped != null) ? new ByteArrayInputStream(new byte[0]) : in);
         this.validating = validating;
 
         if (validating) {
@@ -113,6 +132,7 @@ public class GDSReader extends InputStreamReader {
 
         this.bytesRead = 0;
         this.in = in;
+        this.mapped = mapped;
     }
 
     /**
@@ -157,6 +177,53 @@ public class GDSReader extends InputStreamReader {
         this(new GDSInputStream(file), validating);
     }
 
+    /**
+     * Creates a new GDSReader object.
+     *
+     * @param   file        The file to read from.
+     * @param   validating  Set to true if on the fly validating is to be
+     *                      performed.
+     * @param   mapped      Set to true if records are to be read through a
+     *                      memory mapped <code>GDSMappedReader</code>.
+     *
+     * @throws  FileNotFoundException  If the file doesn't exist or is not
+     *                                 readable.
+     */
+    public GDSReader(File file, boolean validating, boolean mapped) throws FileNotFoundException {
+        this(mapped ? null : new GDSInputStream(file),
+            mapped ? new GDSMappedReader(file) : null, validating);
+    }
+
+    /**
+     * Creates a new GDSReader object that reads the file ahead of the caller on
+     * a background thread.
+     *
+     * @param   file        The file to read from.
+     * @param   validating  Set to true if on the fly validating is to be
+     *                      performed.
+     * @param   readAhead   The size of each of the two read ahead buffers in
+     *                      bytes, or 0 to read the file directly.
+     *
+     * @throws  FileNotFoundException  If the file doesn't exist or is not
+     *                                 readable.
+     */
+    public GDSReader(File file, boolean validating, int readAhead) throws FileNotFoundException {
+        this(new GDSInputStream(file, readAhead), validating);
+    }
+
+    /**
+     * Closes the reader and the underlying file.
+     *
+     * @throws  IOException  If an IO exception occurs.
+     */
+    @Override
+    public void close() throws IOException {
+        if (this.mapped != null) {
+            this.mapped.close();
+        }
+        super.close();
+    }
+
     /**
      * A method to determine the number of bytes read from the file.
      *
@@ -165,12 +232,12 @@ public class GDSReader extends InputStreamReader {
      * @throws  GDSReaderException  If an error in processing occurs.
      */
     public int getRead() throws GDSReaderException {
-        if (this.in == null) {
+        if ((this.in == null) && (this.mapped == null)) {
             throw new GDSReaderException(GDSI18NFactory.getString(
                     GDSI18NFactory.i18n_GDSREADER_THROW1));
         }
 
-        return this.bytesRead;
+        return (int) Math.min(Integer.MAX_VALUE, this.bytesRead);
     }
 
     /**
@@ -181,11 +248,15 @@ public class GDSReader extends InputStreamReader {
      * @throws  GDSReaderException  If an error in processing occurs.
      */
     public int getRemaining() throws GDSReaderException {
-        if (this.in == null) {
+        if ((this.in == null) && (this.mapped == null)) {
             throw new GDSReaderException(GDSI18NFactory.getString(
                     GDSI18NFactory.i18n_GDSREADER_THROW1));
         }
 
+        if (this.mapped != null) {
+            return (int) Math.min(Integer.MAX_VALUE, this.mapped.available());
+        }
+
         try {
             return this.in.available();
         }
@@ -202,13 +273,18 @@ public class GDSReader extends InputStreamReader {
      * @throws  GDSReaderException  If an error in processing occurs.
      */
     public int getSize() throws GDSReaderException {
-        if (this.in == null) {
+        if ((this.in == null) && (this.mapped == null)) {
             throw new GDSReaderException(GDSI18NFactory.getString(
                     GDSI18NFactory.i18n_GDSREADER_THROW1));
         }
 
+        if (this.mapped != null) {
+            return (int) Math.min(Integer.MAX_VALUE, this.mapped.getSize());
+        }
+
         try {
-            return this.in.available() + this.bytesRead;
+            return (int) Math.min(Integer.MAX_VALUE,
+                    this.in.available() + this.bytesRead);
         }
         catch (IOException e) {
             throw new GDSReaderException(e.getMessage());
@@ -309,7 +385,7 @@ public class GDSReader extends InputStreamReader {
      * @throws  GDSReaderException  If an error in processing occurs.
      */
     public Object readRecord() throws GDSReaderException {
-        if (this.in == null) {
+        if ((this.in == null) && (this.mapped == null)) {
             throw new GDSReaderException(GDSI18NFactory.getString(
                     GDSI18NFactory.i18n_GDSREADER_THROW1));
         }
@@ -317,7 +393,8 @@ public class GDSReader extends InputStreamReader {
         GDSRecord result = null;
 
         try {
-            result = this.in.readRecord();
+            result = (this.mapped != null) ? this.mapped.readRecord()
+                                           : this.in.readRecord();
         }
         catch (GDSRecordException e) {
             throw new GDSReaderException(e.getMessage());
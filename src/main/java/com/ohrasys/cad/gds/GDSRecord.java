@@ -20,9 +20,6 @@
 
 package com.ohrasys.cad.gds;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-
 /**
  * This class represents a generic GDSII stream record.  A stream record is a
  * byte stream that is divided into four parts.
@@ -437,21 +434,13 @@ public class GDSRecord {
      * @return  A byte array representation of the record
      */
     public byte[] toBytes() {
-        ByteArrayOutputStream result = new ByteArrayOutputStream();
-        GDSByteConverter.fromShort((short) this.length, result);
-        GDSByteConverter.fromByte(this.rectype, result);
-        GDSByteConverter.fromByte(this.dattype, result);
-
-        try {
-            result.write(this.data);
-        }
-        catch (IOException e) {
-            System.err.println(GDSI18NFactory.getString(GDSI18NFactory.i18n_RECORD_THROW5));
-
-            return new byte[2];
-        }
+        byte result[] = new byte[this.data.length + 4];
+        GDSBufferCodec.putInt16(result, 0, this.length);
+        result[2] = this.rectype;
+        result[3] = this.dattype;
+        System.arraycopy(this.data, 0, result, 4, this.data.length);
 
-        return result.toByteArray();
+        return result;
     }
 
     /**
@@ -464,6 +453,33 @@ public class GDSRecord {
         return getClass().getName();
     }
 
+    /**
+     * Writes the byte representation of this record, the same bytes
+     * <code>toBytes</code> returns, into an array.
+     *
+     * @param   dst  The destination array
+     * @param   off  The offset of the record in the array
+     *
+     * @return  The number of bytes written
+     */
+    int encode(byte dst[], int off) {
+        GDSBufferCodec.putInt16(dst, off, this.length);
+        dst[off + 2] = this.rectype;
+        dst[off + 3] = this.dattype;
+        System.arraycopy(this.data, 0, dst, off + 4, this.data.length);
+
+        return this.data.length + 4;
+    }
+
+    /**
+     * Returns the number of bytes written by <code>encode</code>.
+     *
+     * @return  The size of the byte representation of this record
+     */
+    int encodedLength() {
+        return this.data.length + 4;
+    }
+
     /**
      * Ensures a record is well formed, of the expected record type, of bit array
      * datatype and that no reserved fields are being utilized.
@@ -476,7 +492,7 @@ public class GDSRecord {
     protected void validateBitarrayRec(byte rectype, short validbits) throws GDSRecordException {
         validateRec(rectype, BIT_ARRAY_TYPE, 2, 2);
 
-        if ((GDSByteConverter.toShort(this.data) & ~validbits) != 0) {
+        if ((GDSBufferCodec.getInt16(this.data, 0) & ~validbits) != 0) {
             throw new GDSRecordException(GDSI18NFactory.getString(
                     GDSI18NFactory.i18n_RECORD_THROW6));
         }
@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2004 Thomas N. Valine
+ * tvaline@users.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA
+ * 02111-1307, USA.
+ */
+
+package com.ohrasys.cad.gds;
+
+/**
+ * An unsynchronized, growable byte buffer receiving encoded records.  The
+ * records are encoded straight into the backing array, which only grows, so
+ * a buffer that is cleared and refilled stops allocating once it has reached
+ * its largest size.
+ *
+ * @author   $Author: tvaline $
+ * @version  $Revision: 1.1 $
+ * @since    1.5
+ */
+final class GDSRecordBuffer implements GDSRecordSink {
+
+    /** The backing array */
+    private byte bytes[];
+
+    /** The number of bytes written */
+    private int size;
+
+    /**
+     * Creates a new GDSRecordBuffer object.
+     *
+     * @param  capacity  The initial capacity in bytes
+     */
+    GDSRecordBuffer(int capacity) {
+        this.bytes = new byte[Math.max(capacity, 16)];
+    }
+
+    /**
+     * Returns a string representation of this class
+     *
+     * @return  The physical address of this instance
+     */
+    @Override
+    public String toString() {
+        return super.toString();
+    }
+
+    /**
+     * Encodes a record at the end of the buffer.
+     *
+     * @param   record  The record
+     *
+     * @return  The number of bytes written
+     */
+    public int writeRecord(GDSRecord record) {
+        int length = record.encodedLength();
+        if ((this.size + length) > this.bytes.length) {
+            grow(this.size + length);
+        }
+        this.size += record.encode(this.bytes, this.size);
+
+        return length;
+    }
+
+    /**
+     * Returns the backing array, whose first <code>size()</code> bytes hold
+     * the records written.
+     *
+     * @return  The backing array
+     */
+    byte[] array() {
+        return this.bytes;
+    }
+
+    /**
+     * Returns the capacity of the buffer.
+     *
+     * @return  The length of the backing array
+     */
+    int capacity() {
+        return this.bytes.length;
+    }
+
+    /**
+     * Removes all bytes.
+     */
+    void clear() {
+        this.size = 0;
+    }
+
+    /**
+     * Returns the number of bytes written.
+     *
+     * @return  The number of bytes
+     */
+    int size() {
+        return this.size;
+    }
+
+    /**
+     * Grows the backing array.
+     *
+     * @param  needed  The capacity needed
+     */
+    private void grow(int needed) {
+        byte target[] = new byte[Math.max(needed, this.bytes.length * 2)];
+        System.arraycopy(this.bytes, 0, target, 0, this.size);
+        this.bytes = target;
+    }
+} // end class GDSRecordBuffer
+
+/* This material is distributed under the GNU General Public License.
+ * For more information please go to http://www.gnu.org/copyleft/gpl.html */
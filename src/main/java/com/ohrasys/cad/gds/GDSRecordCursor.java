@@ -0,0 +1,409 @@
+/*
+ * Copyright (C) 2004 Thomas N. Valine
+ * tvaline@users.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA
+ * 02111-1307, USA.
+ */
+
+package com.ohrasys.cad.gds;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * A forward only cursor over the records of a GDS stream.  The cursor is
+ * positioned on one record at a time and exposes the record header and typed
+ * views of the record data that are read directly from the underlying mapped
+ * buffer.  Moving the cursor and reading numeric values performs no
+ * allocation, which makes the cursor suitable for tools that only count,
+ * filter or index records.  A fully expanded <code>GDSRecord</code> can still
+ * be obtained for the current record with <code>toRecord()</code>.
+ *
+ * <p>A cursor can also be created over an input stream, such as a
+ * <code>GDSInputStream</code>.  Each record is then read into a single reused
+ * buffer, so stream cursors do not allocate per record either.</p>
+ *
+ * <p>A typical loop looks like:</p>
+ *
+ * <pre>
+ * GDSRecordCursor cursor = new GDSRecordCursor(file);
+ * while (cursor.next()) {
+ *     if (cursor.rectype() == GDSRecord.LAYER) {
+ *         layers[cursor.int16(0)]++;
+ *     }
+ * }
+ * cursor.close();
+ * </pre>
+ *
+ * @author   $Author: tvaline $
+ * @version  $Revision: 1.1 $
+ * @since    1.5
+ */
+public class GDSRecordCursor implements Closeable {
+
+    /** The buffer holding the current record */
+    private ByteBuffer buffer;
+
+    /** The buffer index of the data of the current record */
+    private int data;
+
+    /** The data type of the current record */
+    private byte dattype;
+
+    /** The stream records are read from when the cursor is not mapped */
+    private DataInputStream in;
+
+    /** The total length of the current record */
+    private int length;
+
+    /** The file offset of the current record */
+    private long offset;
+
+    /** The stream offset of the next record when the cursor is not mapped */
+    private long position;
+
+    /** The reader that locates the records when the cursor is mapped */
+    private GDSMappedReader reader;
+
+    /** The record type of the current record */
+    private byte rectype;
+
+    /** Indicates that the cursor is positioned on a record */
+    private boolean valid;
+
+    /**
+     * Creates a new GDSRecordCursor object.
+     *
+     * @param   file  The GDS file
+     *
+     * @throws  FileNotFoundException  If the file cannot be found or is not
+     *                                 readable
+     */
+    public GDSRecordCursor(File file) throws FileNotFoundException {
+        this(new GDSMappedReader(file));
+    }
+
+    /**
+     * Creates a new GDSRecordCursor object.  The cursor starts at the current
+     * position of the reader.
+     *
+     * @param  reader  The mapped reader to walk
+     */
+    public GDSRecordCursor(GDSMappedReader reader) {
+        this.reader = reader;
+        this.valid = false;
+    }
+
+    /**
+     * Creates a new GDSRecordCursor object that reads records from a stream.
+     * The cursor starts at the current position of the stream, which is
+     * buffered internally and owned by the cursor from then on.
+     *
+     * @param  in  The stream to read, for example a <code>GDSInputStream</code>
+     */
+    public GDSRecordCursor(InputStream in) {
+        this.in = new DataInputStream(new BufferedInputStream(in, 0x10000));
+        this.buffer = ByteBuffer.allocate(0x10000);
+        this.data = 4;
+        this.position = 0;
+        this.valid = false;
+    }
+
+    /**
+     * Reads the current record data as a GDS string.  Trailing null padding and
+     * whitespace are removed the same way <code>GDSRecord</code> string
+     * accessors do.  This accessor allocates the returned string.
+     *
+     * @return  The record data as a string
+     */
+    public String asciiString() {
+        check(0, 0);
+
+        int end = this.data + dataLength();
+        int start = this.data;
+        while ((end > start) && ((this.buffer.get(end - 1) & 0xFF) <= ' ')) {
+            end--;
+        }
+        while ((start < end) && ((this.buffer.get(start) & 0xFF) <= ' ')) {
+            start++;
+        }
+
+        char chars[] = new char[end - start];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = (char) (this.buffer.get(start + i) & 0xFF);
+        }
+
+        return new String(chars);
+    }
+
+    /**
+     * Closes the cursor and the underlying reader.
+     *
+     * @throws  IOException  If the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        this.valid = false;
+        this.buffer = null;
+        if (this.reader != null) {
+            this.reader.close();
+        }
+        else {
+            this.in.close();
+        }
+    }
+
+    /**
+     * Returns the number of data bytes in the current record.
+     *
+     * @return  The record length less the four header bytes
+     */
+    public int dataLength() {
+        check(0, 0);
+
+        return Math.max(this.length - 4, 0);
+    }
+
+    /**
+     * Returns the data type of the current record.
+     *
+     * @return  One of the <code>GDSRecord</code> data type constants
+     */
+    public byte dattype() {
+        check(0, 0);
+
+        return this.dattype;
+    }
+
+    /**
+     * Reads a 2 byte signed integer from the current record data.
+     *
+     * @param   i  The index of the value, counted in 2 byte units
+     *
+     * @return  The value
+     */
+    public short int16(int i) {
+        check(i, 2);
+
+        return this.buffer.getShort(this.data + (i * 2));
+    }
+
+    /**
+     * Reads a 4 byte signed integer from the current record data.
+     *
+     * @param   i  The index of the value, counted in 4 byte units
+     *
+     * @return  The value
+     */
+    public int int32(int i) {
+        check(i, 4);
+
+        return this.buffer.getInt(this.data + (i * 4));
+    }
+
+    /**
+     * Returns the total length of the current record, header included.
+     *
+     * @return  The record length
+     */
+    public int length() {
+        check(0, 0);
+
+        return this.length;
+    }
+
+    /**
+     * Advances the cursor to the next record.
+     *
+     * @return  false if the end of the stream has been reached
+     *
+     * @throws  GDSRecordException  If the stream is truncated or cannot be read
+     */
+    public boolean next() throws GDSRecordException {
+        if (this.reader == null) {
+            this.valid = nextStreamed();
+
+            return this.valid;
+        }
+
+        this.valid = this.reader.nextHeader();
+        if (this.valid) {
+            this.buffer = this.reader.getWindow();
+            this.data = this.reader.recData;
+            this.length = this.reader.recLength;
+            this.rectype = this.reader.recRectype;
+            this.dattype = this.reader.recDattype;
+            this.offset = this.reader.recOffset;
+        }
+
+        return this.valid;
+    }
+
+    /**
+     * Returns the file offset of the current record.
+     *
+     * @return  The offset of the first byte of the record length
+     */
+    public long offset() {
+        check(0, 0);
+
+        return this.offset;
+    }
+
+    /**
+     * Reads an 8 byte GDS real from the current record data.
+     *
+     * @param   i  The index of the value, counted in 8 byte units
+     *
+     * @return  The value as a java double
+     */
+    public double real8(int i) {
+        check(i, 8);
+
+        return GDSSpecificDataConverter.toDouble(this.buffer.getLong(
+                    this.data + (i * 8)));
+    }
+
+    /**
+     * Returns the record type of the current record.
+     *
+     * @return  One of the <code>GDSRecord</code> record type constants
+     */
+    public byte rectype() {
+        check(0, 0);
+
+        return this.rectype;
+    }
+
+    /**
+     * Materializes the current record as a fully expanded GDSRecord.
+     *
+     * @return  The current record
+     *
+     * @throws  GDSRecordException  If the record is malformed
+     */
+    public GDSRecord toRecord() throws GDSRecordException {
+        byte bytes[] = new byte[dataLength()];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = this.buffer.get(this.data + i);
+        }
+
+        return GDSRecordFactory.expandRecord(new GDSRecord(length(), rectype(),
+                    dattype(), bytes));
+    }
+
+    /**
+     * Returns a string representation of this class
+     *
+     * @return  The physical address of this instance
+     */
+    @Override
+    public String toString() {
+        return super.toString();
+    }
+
+    /**
+     * Reads the next record from the stream into the reused buffer.  Record
+     * lengths are interpreted the same way <code>GDSMappedReader</code>
+     * interprets them.
+     *
+     * @return  false if the end of the stream has been reached
+     *
+     * @throws  GDSRecordException  If the stream is truncated or cannot be read
+     */
+    private boolean nextStreamed() throws GDSRecordException {
+        int len;
+        try {
+            len = this.in.readShort();
+        }
+        catch (EOFException e) {
+            return false;
+        }
+        catch (IOException e) {
+            throw new GDSRecordException(e.getMessage());
+        }
+
+        this.offset = this.position;
+        this.rectype = GDSRecord.NULL;
+        this.dattype = GDSRecord.NO_DATA_TYPE;
+
+        /* Lengths above 0x7FFF only occur in long XY records */
+        boolean integer = false;
+        if (len < 0) {
+            integer = true;
+            len &= 0xFFFF;
+        }
+
+        if (len > 0) {
+            if (len < 4) {
+                throw new GDSRecordException(GDSStringUtil.sprintf(
+                        GDSI18NFactory.getString(GDSI18NFactory.i18n_RECORD_THROW2), 4));
+            }
+            try {
+                this.in.readFully(this.buffer.array(), 2, len - 2);
+            }
+            catch (EOFException e) {
+                throw new GDSRecordException(GDSStringUtil.sprintf(
+                        GDSI18NFactory.getString(GDSI18NFactory.i18n_MAPPEDREADER_THROW1),
+                        this.offset));
+            }
+            catch (IOException e) {
+                throw new GDSRecordException(e.getMessage());
+            }
+            this.rectype = this.buffer.get(2);
+            this.dattype = this.buffer.get(3);
+            if (integer) {
+                this.rectype = GDSRecord.XY;
+                this.dattype = GDSRecord.INT_TYPE;
+            }
+            this.data = 4;
+            this.position += len;
+        }
+        else {
+            this.data = 2;
+            this.position += 2;
+        }
+        this.length = len;
+
+        return true;
+    } // end method nextStreamed
+
+    /**
+     * Verifies that the cursor is positioned on a record and that the requested
+     * value lies within its data.
+     *
+     * @param  i     The index of the value
+     * @param  size  The size of the value in bytes
+     */
+    private void check(int i, int size) {
+        if (!this.valid) {
+            throw new IllegalStateException();
+        }
+        if ((i < 0) || (((i + 1) * size) > Math.max(this.length - 4, 0))) {
+            throw new IndexOutOfBoundsException(Integer.toString(i));
+        }
+    }
+} // end class GDSRecordCursor
+
+/* This material is distributed under the GNU General Public License.
+ * For more information please go to http://www.gnu.org/copyleft/gpl.html */
@@ -217,31 +217,69 @@ public class GDSSpecificDataConverter {
             throw new NumberFormatException(GDSI18NFactory.getString(
                     GDSI18NFactory.i18n_DATACONVERT_THROW1));
         }
-        else {
-            int sign;
-            int exponent;
-            long mantissa_int;
-            double mantissa_float;
-            double result;
-            sign = bytes[0] & 0x80;
-            exponent = (bytes[0] & 0x0000007F) - 64;
-            mantissa_int = 0;
 
-            for (int i = 1; i < 8; i++) {
-                mantissa_int <<= 8;
-                mantissa_int |= (bytes[i] & 0x000000FF);
-            }
+        return toDouble(GDSBufferCodec.getInt64(bytes, 0));
+    }
 
-            mantissa_float = mantissa_int / Math.pow(2, 56);
-            result = mantissa_float * Math.pow(16, exponent);
+    /**
+     * Converts a GDSII double, given as its eight bytes packed big endian into a
+     * long, to a java double.  The conversion works directly on the exponent
+     * and mantissa bits.  A GDSII mantissa carries up to 56 significant bits,
+     * values that need more than the 53 bits of a java double are rounded to
+     * the nearest double, ties to even.
+     *
+     * @param   bits  The GDSII double to process.
+     *
+     * @return  A java double.
+     */
+    public static double toDouble(long bits) {
+        long sign = bits & 0x8000000000000000L;
+        long mantissa = bits & 0x00FFFFFFFFFFFFFFL;
 
-            if (sign != 0) {
-                result *= -1;
+        if (mantissa == 0) {
+            return Double.longBitsToDouble(sign);
+        }
+
+        /* value = mantissa * 2^(4 * (exponent - 64) - 56) */
+        int top = 63 - Long.numberOfLeadingZeros(mantissa);
+        int exponent = (top + (4 * ((int) ((bits >>> 56) & 0x7F) - 64))) - 56;
+
+        if (top <= 52) {
+            mantissa <<= (52 - top);
+        }
+        else {
+            int shift = top - 52;
+            long rest = mantissa & ((1L << shift) - 1);
+            long half = 1L << (shift - 1);
+            mantissa >>>= shift;
+
+            if ((rest > half) || ((rest == half) && ((mantissa & 1) != 0))) {
+                mantissa++;
+
+                if (mantissa == (1L << 53)) {
+                    mantissa >>>= 1;
+                    exponent++;
+                }
             }
+        }
 
-            return result;
+        return Double.longBitsToDouble(sign | ((long) (exponent + 1023) << 52) |
+                (mantissa & 0x000FFFFFFFFFFFFFL));
+    }
+
+    /**
+     * Converts an array of GDSII doubles to java doubles.
+     *
+     * @param  src  The GDSII doubles to process.
+     * @param  off  The offset of the first GDSII double in the array.
+     * @param  dst  The array receiving the java doubles.  Its length determines
+     *              the number of values converted.
+     */
+    public static void toDoubles(byte src[], int off, double dst[]) {
+        for (int i = 0; i < dst.length; i++, off += 8) {
+            dst[i] = toDouble(GDSBufferCodec.getInt64(src, off));
         }
-    } // end method toDouble
+    }
 
     /**
      * Converts a GDSII float to a java float.
@@ -295,83 +333,74 @@ public class GDSSpecificDataConverter {
     }
 
     /**
-     * Returns a GDSII representation of the double.
+     * Converts a java double to a GDSII double packed big endian into a long.
+     * The conversion works directly on the exponent and mantissa bits and is
+     * exact: every java double within the GDSII range converts back to itself
+     * through <code>toDouble(long)</code>.
      *
      * @param   data  The double to process.
      *
-     * @return  A GDSII double.
+     * @return  The GDSII double.
      *
-     * @throws  IllegalArgumentException  If a number format exception occurs.
+     * @throws  IllegalArgumentException  If the magnitude of the double is too
+     *                                    small or too large for a GDSII double.
      */
-    public static byte[] writeJavaDouble(double data) {
-        byte result[];
-        BigDecimal f_mantissa;
-        long mantissa;
-
+    public static long toReal8(double data) {
         if (data == 0.0) {
-            result = new byte[8];
-            Arrays.fill(result, (byte) 0x00);
-
-            return result;
-        }
-
-        boolean negsign = false;
-        int exponent = 64;
-        BigDecimal reg = new BigDecimal(data);
-
-        if (reg.doubleValue() < 0) {
-            negsign = true;
-            reg = reg.negate();
+            return 0;
         }
 
-        for (; (reg.doubleValue() < 0.0625) && (exponent > 0); exponent--) {
-            reg = reg.multiply(new BigDecimal(16.0));
-        }
-
-        if (exponent == 0) {
-            throw new IllegalArgumentException(GDSI18NFactory.getString(
-                    GDSI18NFactory.i18n_DATACONVERT_THROW3));
-        }
+        long bits = Double.doubleToRawLongBits(data);
+        int exponent = (int) ((bits >>> 52) & 0x7FF) - 1023;
 
-        for (; (reg.doubleValue() >= 1) && (exponent < 128); exponent++) {
-            reg = reg.divide(new BigDecimal(16.0));
-        }
-
-        if (exponent > 127) {
+        if (exponent > 251) {
             throw new IllegalArgumentException(GDSI18NFactory.getString(
                     GDSI18NFactory.i18n_DATACONVERT_THROW4));
         }
-
-        if (negsign) {
-            exponent |= 0x00000080;
-        }
-
-        f_mantissa = reg.remainder(new BigDecimal(1.0));
-
-        for (int i = 0; i < 56; i++) {
-            f_mantissa = f_mantissa.multiply(new BigDecimal(2.0));
+        if (exponent < -260) {
+            throw new IllegalArgumentException(GDSI18NFactory.getString(
+                    GDSI18NFactory.i18n_DATACONVERT_THROW3));
         }
 
-        mantissa = f_mantissa.longValue();
-
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        GDSByteConverter.fromByte((byte) exponent, baos);
+        /* 1.f * 2^exponent == ((2^52 + f) << shift) * 2^-56 * 16^(hex - 64) */
+        int shift = (exponent + 260) & 3;
+        long hex = (exponent + 260) >> 2;
+        long mantissa = ((bits & 0x000FFFFFFFFFFFFFL) | (1L << 52)) << shift;
 
-        for (int i = 6; i >= 0; i--) {
-            baos = GDSByteConverter.fromByte((byte) ((mantissa >> (i * 8)) &
-                    0x000000FF), baos);
-        }
+        return (bits & 0x8000000000000000L) | (hex << 56) | mantissa;
+    }
 
-        result = baos.toByteArray();
+    /**
+     * Returns a GDSII representation of the double.
+     *
+     * @param   data  The double to process.
+     *
+     * @return  A GDSII double.
+     *
+     * @throws  IllegalArgumentException  If a number format exception occurs.
+     */
+    public static byte[] writeJavaDouble(double data) {
+        return GDSBufferCodec.putInt64(new byte[8], 0, toReal8(data));
+    }
 
-        try {
-            baos.close();
-        }
-        catch (IOException e) { /* do nothing */
+    /**
+     * Converts an array of java doubles to GDSII doubles.
+     *
+     * @param   src  The doubles to process.
+     * @param   dst  The array receiving the GDSII doubles.
+     * @param   off  The offset of the first GDSII double in the array.
+     *
+     * @return  The destination array.
+     *
+     * @throws  IllegalArgumentException  If a double is out of the GDSII range.
+     */
+    public static byte[] writeJavaDoubles(double src[], byte dst[], int off) {
+        for (int i = 0; i < src.length; i++, off += 8) {
+            GDSBufferCodec.putInt64(dst, off, toReal8(src[i]));
         }
 
-        return result;
-    } // end method writeJavaDouble
+        return dst;
+    }
 
     /**
      * Returns a GDSII representation of the java float.
@@ -20,348 +20,343 @@
 
 package com.ohrasys.cad.gds;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.ohrasys.cad.gds.dao.Transform;
+
 /**
- * Records statistics for a GDSII database.
+ * Records statistics for a GDSII database.  Statistics can be fed one
+ * <code>GDSRecord</code> at a time, from the current record of a
+ * <code>GDSRecordCursor</code> or, as a <code>GDSHandler</code>, by a
+ * <code>GDSStreamDriver</code> without materializing any record.
+ *
+ * <p>Besides the number of records of every record type and data type, the
+ * statistics count the bytes taken by each record type, the vertices of all
+ * XY records and the elements of every layer and data type.  The element
+ * counts need the values of the layer records, so they are only gathered
+ * from records, cursors and the element callbacks, not from the header only
+ * <code>record(byte, byte, int)</code> callback.</p>
+ *
+ * <p>Statistics are not synchronized.  To gather statistics on several
+ * threads give each thread an instance of its own and <code>merge</code> them
+ * once the threads are done; merging costs the same whatever the size of the
+ * design.</p>
  *
  * @author   $Author: tvaline $
- * @version  $Revision: 1.7 $
+ * @version  $Revision: 1.8 $
  * @since    1.5
  */
-public class GDSStatistics {
-
-    /** Number of ANGLE records */
-    private int angle;
-
-    /** Number of AREF records */
-    private int aref;
-
-    /** Number of ATTRTABLE records */
-    private int attrtable;
-
-    /** Number of BGNEXTN records */
-    private int bgnextn;
-
-    /** Number of BGNLIB records */
-    private int bgnlib;
-
-    /** Numbero of BGNSTR records */
-    private int bgnstr;
-
-    /** Number of BITARRAY datatype records */
-    private int bitarray_type;
-
-    /** Number of BORDER records */
-    private int border;
-
-    /** Number of BOUNDARY records */
-    private int boundary;
-
-    /** Number of BOX records */
-    private int box;
-
-    /** Number of BOXTYPE records */
-    private int boxtype;
-
-    /** Number of COLROW records */
-    private int colrow;
-
-    /** Number of CONTACT records */
-    private int contact;
-
-    /** Number of DATATYPE records */
-    private int datatype;
-
-    /** Number of DOUBLE datatype records */
-    private int double_type;
-
-    /** Number of ELFLAGS records */
-    private int elflags;
-
-    /** Number of ELKEY records */
-    private int elkey;
-
-    /** Number of ENDEL records */
-    private int endel;
-
-    /** Number of ENDEXTN records */
-    private int endextn;
-
-    /** Number of ENDLIB records */
-    private int endlib;
-
-    /** Number of ENDMASKS records */
-    private int endmasks;
-
-    /** Number of ENDSTR records */
-    private int endstr;
-
-    /** Number of FLOAT datatype records */
-    private int float_type;
-
-    /** Number of FONTS records */
-    private int fonts;
-
-    /** Number of FORMAT records */
-    private int format;
-
-    /** Number of GENERATIONS records */
-    private int generations;
-
-    /** Number of HARDFENCE records */
-    private int hardfence;
-
-    /** Number of HARDWIRE records */
-    private int hardwire;
-
-    /** Number of HEADER records */
-    private int header;
-
-    /** Internationalized strings factory */
-    private GDSI18NFactory i18n;
-
-    /** Number of INT datatype records */
-    private int int_type;
-
-    /** Number of LAYER records */
-    private int layer;
-
-    /** Number of LIBDIRSIZE records */
-    private int libdirsize;
-
-    /** Number of LIBNAME records */
-    private int libname;
-
-    /** Number of LIBSECUR records */
-    private int libsecur;
-
-    /** Number of LINKKEYS records */
-    private int linkkeys;
-
-    /** Number of LINKTYPE records */
-    private int linktype;
-
-    /** Number of MAG records */
-    private int mag;
-
-    /** Number of MASK records */
-    private int mask;
-
-    /** Number of NODATA datatype records */
-    private int nodata_type;
-
-    /** Number of NODE records */
-    private int node;
-
-    /** Number of NODEPORT records */
-    private int nodeport;
-
-    /** Number of NODETYPE records */
-    private int nodetype;
-
-    /** Number of NULL datatype records */
-    private int null_type;
-
-    /** Number of NULL records */
-    private int nullrec;
-
-    /** Number of PATH records */
-    private int path;
+public class GDSStatistics extends GDSDefaultHandler {
+
+    /** The number of data type slots per record type */
+    private static final int DATTYPES = 8;
+
+    /** The names of the data types in report order */
+    private static final String dattypeNames[] = {
+            "NULL DATA RECORD" /*NOI18N*/, "BIT ARRAY RECORD" /*NOI18N*/,
+            "SHORT RECORD" /*NOI18N*/, "INT RECORD" /*NOI18N*/,
+            "FLOAT RECORD" /*NOI18N*/, "DOUBLE RECORD" /*NOI18N*/,
+            "STRING RECORD" /*NOI18N*/
+        };
+
+    /** The names of the record types indexed by record type */
+    private static final String rectypeNames[] = {
+            "HEADER" /*NOI18N*/, "BGNLIB" /*NOI18N*/, "LIBNAME" /*NOI18N*/,
+            "UNITS" /*NOI18N*/, "ENDLIB" /*NOI18N*/, "BGNSTR" /*NOI18N*/,
+            "STRNAME" /*NOI18N*/, "ENDSTR" /*NOI18N*/, "BOUNDARY" /*NOI18N*/,
+            "PATH" /*NOI18N*/, "SREF" /*NOI18N*/, "AREF" /*NOI18N*/,
+            "TEXT" /*NOI18N*/, "LAYER" /*NOI18N*/, "DATATYPE" /*NOI18N*/,
+            "WIDTH" /*NOI18N*/, "XY" /*NOI18N*/, "ENDEL" /*NOI18N*/,
+            "SNAME" /*NOI18N*/, "COLROW" /*NOI18N*/, "TEXTNODE" /*NOI18N*/,
+            "NODE" /*NOI18N*/, "TEXTTYPE" /*NOI18N*/, "PRESENTATION" /*NOI18N*/,
+            "SPACING" /*NOI18N*/, "STRING" /*NOI18N*/, "STRANS" /*NOI18N*/,
+            "MAG" /*NOI18N*/, "ANGLE" /*NOI18N*/, "UINTEGER" /*NOI18N*/,
+            "USTRING" /*NOI18N*/, "REFLIBS" /*NOI18N*/, "FONTS" /*NOI18N*/,
+            "PATHTYPE" /*NOI18N*/, "GENERATIONS" /*NOI18N*/,
+            "ATTRTABLE" /*NOI18N*/, "STYPTABLE" /*NOI18N*/, "STRTYPE" /*NOI18N*/,
+            "ELFLAGS" /*NOI18N*/, "ELKEY" /*NOI18N*/, "LINKTYPE" /*NOI18N*/,
+            "LINKKEYS" /*NOI18N*/, "NODETYPE" /*NOI18N*/, "PROPATTR" /*NOI18N*/,
+            "PROPVALUE" /*NOI18N*/, "BOX" /*NOI18N*/, "BOXTYPE" /*NOI18N*/,
+            "PLEX" /*NOI18N*/, "BGNEXTN" /*NOI18N*/, "ENDEXTN" /*NOI18N*/,
+            "TAPENUM" /*NOI18N*/, "TAPECODE" /*NOI18N*/, "STRCLASS" /*NOI18N*/,
+            "RESERVED" /*NOI18N*/, "FORMAT" /*NOI18N*/, "MASK" /*NOI18N*/,
+            "ENDMASKS" /*NOI18N*/, "LIBDIRSIZE" /*NOI18N*/, "SRFNAME" /*NOI18N*/,
+            "LIBSECUR" /*NOI18N*/, "BORDER" /*NOI18N*/, "SOFTFENCE" /*NOI18N*/,
+            "HARDFENCE" /*NOI18N*/, "SOFTWIRE" /*NOI18N*/, "HARDWIRE" /*NOI18N*/,
+            "PATHPORT" /*NOI18N*/, "NODEPORT" /*NOI18N*/,
+            "USERCONSTRAINT" /*NOI18N*/, "SPACERERROR" /*NOI18N*/,
+            "CONTACT" /*NOI18N*/
+        };
 
-    /** Number of PATHPORT records */
-    private int pathport;
-
-    /** Number or PATHTYPE records */
-    private int pathtype;
-
-    /** Number of PLEX records */
-    private int plex;
-
-    /** Number of PRESENTATION records */
-    private int presentation;
-
-    /** Number of PROPATTR records */
-    private int propattr;
-
-    /** Number of PROPVALUE records */
-    private int propvalue;
-
-    /** Number of REFLIBS records */
-    private int reflibs;
-
-    /** Number of RESERVED records */
-    private int reserved;
+    /**
+     * The record types in report order, the names sorted alphabetically.  The
+     * number of names stands for the NULL line, which gathers every unknown
+     * record type.
+     */
+    private static final int reportOrder[] = sortByName();
 
-    /** Number of SHORT datatype records */
-    private int short_type;
+    /** Number of bytes taken by each record type, indexed by record type */
+    private long bytes[];
 
-    /** Number of SNAME records */
-    private int sname;
+    /**
+     * Number of records, indexed by record type times <code>DATTYPES</code>
+     * plus data type.  Data types beyond the last slot share the last slot.
+     */
+    private long counts[];
 
-    /** Number of SOFTFENCE records */
-    private int softfence;
+    /** The data type of the current element read from records */
+    private int elementDatatype;
 
-    /** Number of SOFTWIRE records */
-    private int softwire;
+    /** The layer of the current element read from records */
+    private int elementLayer;
 
-    /** Number of SPACERERROR records */
-    private int spacererror;
+    /** Whether the current element read from records has a layer */
+    private boolean elementLayered;
 
-    /** Number of SPACING records */
-    private int spacing;
+    /**
+     * Number of elements, keyed by layer in the high and data type in the low
+     * 32 bits
+     */
+    private Map<Long, long[]> elements;
 
-    /** Number of SREF records */
-    private int sref;
+    /** Number of vertices in all XY records */
+    private long vertices;
 
-    /** Number of SRFNAME records */
-    private int srfname;
+    /**
+     * Creates a new GDSStatistics object.
+     */
+    public GDSStatistics() {
+        this.bytes = new long[256];
+        this.counts = new long[256 * DATTYPES];
+        this.elements = new HashMap<Long, long[]>();
+    }
 
-    /** Number of STRANS records */
-    private int strans;
+    /**
+     * Counts a boundary.
+     *
+     * @param  layer     The layer
+     * @param  datatype  The data type
+     * @param  xy        The coordinates of the boundary
+     * @param  points    The number of points
+     */
+    @Override
+    public void boundary(int layer, int datatype, int xy[], int points) {
+        element(layer, datatype);
+    }
 
-    /** Number of STRCLASS records */
-    private int strclass;
+    /**
+     * Counts a box.
+     *
+     * @param  layer    The layer
+     * @param  boxtype  The box type
+     * @param  xy       The coordinates of the box
+     * @param  points   The number of points
+     */
+    @Override
+    public void box(int layer, int boxtype, int xy[], int points) {
+        element(layer, boxtype);
+    }
 
-    /** Number of STRING records */
-    private int string;
+    /** Clears the current statistics. */
+    public void clear() {
+        Arrays.fill(this.bytes, 0);
+        Arrays.fill(this.counts, 0);
+        this.elements.clear();
+        this.vertices = 0;
+        this.elementLayered = false;
+    }
 
-    /** Number of STRING datatype records */
-    private int string_type;
+    /**
+     * Returns the number of bytes taken by all records.
+     *
+     * @return  The number of bytes
+     */
+    public long getBytes() {
+        long result = 0;
+        for (int i = 0; i < this.bytes.length; i++) {
+            result += this.bytes[i];
+        }
 
-    /** Number of STRNAME records */
-    private int strname;
+        return result;
+    }
 
-    /** Number of STRTYPE records */
-    private int strtype;
+    /**
+     * Returns the number of bytes taken by the records of a type.
+     *
+     * @param   rectype  The record type
+     *
+     * @return  The number of bytes
+     */
+    public long getBytes(byte rectype) {
+        return this.bytes[rectype & 0xFF];
+    }
 
-    /** Number of STYPTABLE records */
-    private int styptable;
+    /**
+     * Returns the number of records of a data type.
+     *
+     * @param   dattype  The data type
+     *
+     * @return  The number of records
+     */
+    public long getDattypeRecords(byte dattype) {
+        int slot = Math.min(dattype & 0xFF, DATTYPES - 1);
+        long result = 0;
+        for (int i = slot; i < this.counts.length; i += DATTYPES) {
+            result += this.counts[i];
+        }
 
-    /** Number of TAPECODE records */
-    private int tapecode;
+        return result;
+    }
 
-    /** Number of TAPENUM records */
-    private int tapenum;
+    /**
+     * Returns the element counts of every layer and data type seen.
+     *
+     * @return  One row of layer, data type and number of elements for each
+     *          layer and data type, sorted by layer then data type
+     */
+    public long[][] getElementCounts() {
+        List<Long> keys = new ArrayList<Long>(this.elements.keySet());
+        Collections.sort(keys);
+
+        long result[][] = new long[keys.size()][];
+        for (int i = 0; i < result.length; i++) {
+            long key = keys.get(i);
+            result[i] = new long[] {
+                    key >> 32, (int) key, this.elements.get(key)[0]
+                };
+        }
 
-    /** Number of TEXT records */
-    private int text;
+        return result;
+    }
 
-    /** Number of TEXTNODE records */
-    private int textnode;
+    /**
+     * Returns the number of elements of a layer and data type.
+     *
+     * @param   layer     The layer
+     * @param   datatype  The data type, text type, node type or box type
+     *
+     * @return  The number of elements
+     */
+    public long getElements(int layer, int datatype) {
+        long count[] = this.elements.get(key(layer, datatype));
 
-    /** Number of TEXTTYPE records */
-    private int texttype;
+        return (count == null) ? 0 : count[0];
+    }
 
-    /** Total number of records */
-    private int total;
+    /**
+     * Returns the total number of records.
+     *
+     * @return  The number of records
+     */
+    public long getRecords() {
+        long result = 0;
+        for (int i = 0; i < this.counts.length; i++) {
+            result += this.counts[i];
+        }
 
-    /** Number of UINTEGER records */
-    private int uinteger;
+        return result;
+    }
 
-    /** Number of UNITS records */
-    private int units;
+    /**
+     * Returns the number of records of a type.
+     *
+     * @param   rectype  The record type
+     *
+     * @return  The number of records
+     */
+    public long getRecords(byte rectype) {
+        int base = (rectype & 0xFF) * DATTYPES;
+        long result = 0;
+        for (int i = 0; i < DATTYPES; i++) {
+            result += this.counts[base + i];
+        }
 
-    /** Number of USERCONSTRAINT records */
-    private int userconstraint;
+        return result;
+    }
 
-    /** Number of USTRING records */
-    private int ustring;
+    /**
+     * Returns the number of records of a type holding a data type.
+     *
+     * @param   rectype  The record type
+     * @param   dattype  The data type
+     *
+     * @return  The number of records
+     */
+    public long getRecords(byte rectype, byte dattype) {
+        return this.counts[((rectype & 0xFF) * DATTYPES) +
+                Math.min(dattype & 0xFF, DATTYPES - 1)];
+    }
 
-    /** Number of WIDTH records */
-    private int width;
+    /**
+     * Returns the number of vertices in all XY records.
+     *
+     * @return  The number of vertices
+     */
+    public long getVertices() {
+        return this.vertices;
+    }
 
-    /** Number of XY records */
-    private int xy;
+    /**
+     * Adds the statistics of another instance to this one.  The other
+     * instance is left unchanged.
+     *
+     * @param  other  The statistics to add
+     */
+    public void merge(GDSStatistics other) {
+        for (int i = 0; i < this.bytes.length; i++) {
+            this.bytes[i] += other.bytes[i];
+        }
+        for (int i = 0; i < this.counts.length; i++) {
+            this.counts[i] += other.counts[i];
+        }
+        for (Map.Entry<Long, long[]> entry : other.elements.entrySet()) {
+            long count[] = this.elements.get(entry.getKey());
+            if (count == null) {
+                this.elements.put(entry.getKey(),
+                    new long[] { entry.getValue()[0] });
+            }
+            else {
+                count[0] += entry.getValue()[0];
+            }
+        }
+        this.vertices += other.vertices;
+    } // end method merge
 
     /**
-     * Creates a new GDSStatistics object.
+     * Counts a node.
+     *
+     * @param  layer     The layer
+     * @param  nodetype  The node type
+     * @param  xy        The coordinates of the node
+     * @param  points    The number of points
      */
-    public GDSStatistics() {
-        clear();
+    @Override
+    public void node(int layer, int nodetype, int xy[], int points) {
+        element(layer, nodetype);
     }
 
-    /** Clears the current statistics. */
-    public void clear() {
-        this.total = 0;
-        this.angle = 0;
-        this.aref = 0;
-        this.attrtable = 0;
-        this.bgnextn = 0;
-        this.bgnlib = 0;
-        this.bgnstr = 0;
-        this.border = 0;
-        this.boundary = 0;
-        this.box = 0;
-        this.boxtype = 0;
-        this.colrow = 0;
-        this.contact = 0;
-        this.datatype = 0;
-        this.elflags = 0;
-        this.elkey = 0;
-        this.endel = 0;
-        this.endextn = 0;
-        this.endlib = 0;
-        this.endmasks = 0;
-        this.endstr = 0;
-        this.fonts = 0;
-        this.format = 0;
-        this.generations = 0;
-        this.hardfence = 0;
-        this.hardwire = 0;
-        this.header = 0;
-        this.layer = 0;
-        this.libdirsize = 0;
-        this.libname = 0;
-        this.libsecur = 0;
-        this.linkkeys = 0;
-        this.linktype = 0;
-        this.mag = 0;
-        this.mask = 0;
-        this.node = 0;
-        this.nodeport = 0;
-        this.nodetype = 0;
-        this.nullrec = 0;
-        this.path = 0;
-        this.pathport = 0;
-        this.pathtype = 0;
-        this.plex = 0;
-        this.presentation = 0;
-        this.propattr = 0;
-        this.propvalue = 0;
-        this.reflibs = 0;
-        this.reserved = 0;
-        this.sname = 0;
-        this.softfence = 0;
-        this.softwire = 0;
-        this.spacererror = 0;
-        this.spacing = 0;
-        this.sref = 0;
-        this.srfname = 0;
-        this.strans = 0;
-        this.strclass = 0;
-        this.string = 0;
-        this.strname = 0;
-        this.strtype = 0;
-        this.styptable = 0;
-        this.tapecode = 0;
-        this.tapenum = 0;
-        this.text = 0;
-        this.textnode = 0;
-        this.texttype = 0;
-        this.uinteger = 0;
-        this.units = 0;
-        this.userconstraint = 0;
-        this.ustring = 0;
-        this.width = 0;
-        this.xy = 0;
-        this.nodata_type = 0;
-        this.null_type = 0;
-        this.bitarray_type = 0;
-        this.short_type = 0;
-        this.int_type = 0;
-        this.float_type = 0;
-        this.double_type = 0;
-        this.string_type = 0;
-    } // end method clear
+    /**
+     * Counts a path.
+     *
+     * @param  layer     The layer
+     * @param  datatype  The data type
+     * @param  pathtype  The path type
+     * @param  width     The width
+     * @param  bgnextn   The begin extension
+     * @param  endextn   The end extension
+     * @param  xy        The coordinates of the path
+     * @param  points    The number of points
+     */
+    @Override
+    public void path(int layer, int datatype, int pathtype, int width,
+            int bgnextn, int endextn, int xy[], int points) {
+        element(layer, datatype);
+    }
 
     /**
      * Records statistics for the specified record.
@@ -369,652 +364,240 @@ public class GDSStatistics {
      * @param  rec  The record to process.
      */
     public void record(GDSRecord rec) {
-        this.total++;
+        record(rec.getRectype(), rec.getDattype(), rec.getLength());
 
         switch (rec.getRectype()) {
-            case 0x00:
-                this.header++;
-
-                break;
-
-            case 0x01:
-                this.bgnlib++;
-
-                break;
-
-            case 0x02:
-                this.libname++;
-
-                break;
-
-            case 0x03:
-                this.units++;
-
-                break;
-
-            case 0x04:
-                this.endlib++;
-
-                break;
-
-            case 0x05:
-                this.bgnstr++;
-
-                break;
-
-            case 0x06:
-                this.strname++;
-
-                break;
-
-            case 0x07:
-                this.endstr++;
-
-                break;
-
-            case 0x08:
-                this.boundary++;
-
-                break;
-
-            case 0x09:
-                this.path++;
-
-                break;
-
-            case 0x0A:
-                this.sref++;
-
-                break;
-
-            case 0x0B:
-                this.aref++;
-
-                break;
-
-            case 0x0C:
-                this.text++;
-
-                break;
-
-            case 0x0D:
-                this.layer++;
-
-                break;
-
-            case 0x0E:
-                this.datatype++;
-
-                break;
-
-            case 0x0F:
-                this.width++;
-
-                break;
-
-            case 0x10:
-                this.xy++;
-
-                break;
-
-            case 0x11:
-                this.endel++;
-
-                break;
-
-            case 0x12:
-                this.sname++;
-
-                break;
-
-            case 0x13:
-                this.colrow++;
-
-                break;
-
-            case 0x14:
-                this.textnode++;
-
-                break;
-
-            case 0x15:
-                this.node++;
-
-                break;
-
-            case 0x16:
-                this.texttype++;
-
-                break;
-
-            case 0x17:
-                this.presentation++;
-
-                break;
-
-            case 0x18:
-                this.spacing++;
-
-                break;
-
-            case 0x19:
-                this.string++;
-
-                break;
-
-            case 0x1A:
-                this.strans++;
-
-                break;
-
-            case 0x1B:
-                this.mag++;
-
-                break;
-
-            case 0x1C:
-                this.angle++;
-
-                break;
-
-            case 0x1D:
-                this.uinteger++;
-
-                break;
-
-            case 0x1E:
-                this.ustring++;
-
-                break;
-
-            case 0x1F:
-                this.reflibs++;
-
-                break;
-
-            case 0x20:
-                this.fonts++;
-
-                break;
-
-            case 0x21:
-                this.pathtype++;
-
-                break;
-
-            case 0x22:
-                this.generations++;
-
-                break;
-
-            case 0x23:
-                this.attrtable++;
-
-                break;
-
-            case 0x24:
-                this.styptable++;
-
-                break;
-
-            case 0x25:
-                this.strtype++;
-
-                break;
-
-            case 0x26:
-                this.elflags++;
-
-                break;
-
-            case 0x27:
-                this.elkey++;
-
-                break;
-
-            case 0x28:
-                this.linktype++;
-
-                break;
-
-            case 0x29:
-                this.linkkeys++;
-
-                break;
-
-            case 0x2A:
-                this.nodetype++;
-
-                break;
-
-            case 0x2B:
-                this.propattr++;
-
-                break;
-
-            case 0x2C:
-                this.propvalue++;
-
-                break;
-
-            case 0x2D:
-                this.box++;
-
-                break;
-
-            case 0x2E:
-                this.boxtype++;
-
-                break;
-
-            case 0x2F:
-                this.plex++;
-
-                break;
-
-            case 0x30:
-                this.bgnextn++;
-
-                break;
-
-            case 0x31:
-                this.endextn++;
-
-                break;
-
-            case 0x32:
-                this.tapenum++;
+            case GDSRecord.LAYER:
+                this.elementLayer = ((GDSLayerRecord) rec).getLayer();
 
                 break;
 
-            case 0x33:
-                this.tapecode++;
+            case GDSRecord.DATATYPE:
+                this.elementDatatype = ((GDSDatatypeRecord) rec).getDatatype();
 
                 break;
 
-            case 0x34:
-                this.strclass++;
+            case GDSRecord.TEXTTYPE:
+                this.elementDatatype = ((GDSTexttypeRecord) rec).getTexttype();
 
                 break;
 
-            case 0x35:
-                this.reserved++;
+            case GDSRecord.NODETYPE:
+                this.elementDatatype = ((GDSNodetypeRecord) rec).getNodeType();
 
                 break;
 
-            case 0x36:
-                this.format++;
+            case GDSRecord.BOXTYPE:
+                this.elementDatatype = ((GDSBoxtypeRecord) rec).getBoxtype();
 
                 break;
 
-            case 0x37:
-                this.mask++;
-
-                break;
-
-            case 0x38:
-                this.endmasks++;
-
-                break;
-
-            case 0x39:
-                this.libdirsize++;
-
-                break;
-
-            case 0x3A:
-                this.srfname++;
-
-                break;
-
-            case 0x3B:
-                this.libsecur++;
-
-                break;
-
-            case 0x3C:
-                this.border++;
-
-                break;
-
-            case 0x3D:
-                this.softfence++;
+            default:
+                track(rec.getRectype());
 
                 break;
+        }
+    } // end method record
 
-            case 0x3E:
-                this.hardfence++;
-
-                break;
+    /**
+     * Records statistics for the current record of a cursor.
+     *
+     * @param  cursor  The cursor positioned on a record
+     */
+    public void record(GDSRecordCursor cursor) {
+        byte rectype = cursor.rectype();
+        record(rectype, cursor.dattype(), cursor.length());
 
-            case 0x3F:
-                this.softwire++;
+        switch (rectype) {
+            case GDSRecord.LAYER:
+                if (cursor.dataLength() >= 2) {
+                    this.elementLayer = cursor.int16(0);
+                }
 
                 break;
 
-            case 0x40:
-                this.hardwire++;
+            case GDSRecord.DATATYPE:
+            case GDSRecord.TEXTTYPE:
+            case GDSRecord.NODETYPE:
+            case GDSRecord.BOXTYPE:
+                if (cursor.dataLength() >= 2) {
+                    this.elementDatatype = cursor.int16(0);
+                }
 
                 break;
 
-            case 0x41:
-                this.pathport++;
+            default:
+                track(rectype);
 
                 break;
+        }
+    } // end method record
 
-            case 0x42:
-                this.nodeport++;
-
-                break;
+    /**
+     * Records statistics for a record given by its header.
+     *
+     * @param  rectype  The record type
+     * @param  dattype  The data type
+     * @param  length   The total record length
+     */
+    @Override
+    public void record(byte rectype, byte dattype, int length) {
+        this.counts[((rectype & 0xFF) * DATTYPES) +
+            Math.min(dattype & 0xFF, DATTYPES - 1)]++;
+        this.bytes[rectype & 0xFF] += length;
+        if ((rectype == GDSRecord.XY) && (length > 4)) {
+            this.vertices += (length - 4) / 8;
+        }
+    }
 
-            case 0x43:
-                this.userconstraint++;
+    /**
+     * Counts a text element.
+     *
+     * @param  layer         The layer
+     * @param  texttype      The text type
+     * @param  string        The text string
+     * @param  presentation  The presentation flags
+     * @param  transform     The transform of the text
+     * @param  x             The x coordinate of the text
+     * @param  y             The y coordinate of the text
+     */
+    @Override
+    public void text(int layer, int texttype, String string, int presentation,
+            Transform transform, int x, int y) {
+        element(layer, texttype);
+    }
 
-                break;
+    /**
+     * A description of the GDSII database statistics.
+     *
+     * @return  A string representation of the GDSII database statistics.
+     */
+    @Override
+    public String toString() {
+        StringBuffer result = new StringBuffer();
+        result.append(GDSStringUtil.sprintf(GDSI18NFactory.getString(
+                    GDSI18NFactory.i18n_STATS_TOSTRING1), getRecords()))
+            .append("\n" /*NOI18N*/);
+        result.append(GDSI18NFactory.getString(
+                GDSI18NFactory.i18n_STATS_TOSTRING2)).append("\n" /*NOI18N*/);
+        for (int i = 0; i < reportOrder.length; i++) {
+            int rectype = reportOrder[i];
+            long count = 0;
+            String name = "NULL" /*NOI18N*/;
+            if (rectype < rectypeNames.length) {
+                count = getRecords((byte) rectype);
+                name = rectypeNames[rectype];
+            }
+            else {
+                for (int j = rectypeNames.length; j < 256; j++) {
+                    count += getRecords((byte) j);
+                }
+            }
+            result.append("\t" /*NOI18N*/)
+                .append(GDSStringUtil.fixLength(name, 16))
+                .append(":  " /*NOI18N*/).append(count).append("\n" /*NOI18N*/);
+        }
 
-            case 0x44:
-                this.spacererror++;
+        result.append(GDSI18NFactory.getString(
+                GDSI18NFactory.i18n_STATS_TOSTRING3)).append("\n" /*NOI18N*/);
+        for (int i = 0; i < dattypeNames.length; i++) {
+            result.append("\t" /*NOI18N*/)
+                .append(GDSStringUtil.fixLength(dattypeNames[i], 18))
+                .append(":  " /*NOI18N*/).append(getDattypeRecords((byte) i))
+                .append("\n" /*NOI18N*/);
+        }
 
-                break;
+        return result.toString();
+    } // end method toString
 
-            case 0x45:
-                this.contact++;
+    /**
+     * Builds the key of a layer and data type in <code>elements</code>.
+     *
+     * @param   layer     The layer
+     * @param   datatype  The data type
+     *
+     * @return  The key
+     */
+    private static long key(int layer, int datatype) {
+        return ((long) layer << 32) | (datatype & 0xFFFFFFFFL);
+    }
 
-                break;
+    /**
+     * Sorts the record types by name for the report.
+     *
+     * @return  The record types in report order, the number of names standing
+     *          for the NULL line
+     */
+    private static int[] sortByName() {
+        String names[] = Arrays.copyOf(rectypeNames, rectypeNames.length + 1);
+        names[rectypeNames.length] = "NULL" /*NOI18N*/;
 
-            default:
-                this.nullrec++;
+        String sorted[] = names.clone();
+        Arrays.sort(sorted);
 
-                break;
+        List<String> list = Arrays.asList(names);
+        int result[] = new int[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            result[i] = list.indexOf(sorted[i]);
         }
 
-        switch (rec.getDattype()) {
-            case 0x00:
-                this.nodata_type++;
-
-                break;
-
-            case 0x01:
-                this.bitarray_type++;
-
-                break;
-
-            case 0x02:
-                this.short_type++;
+        return result;
+    }
 
-                break;
+    /**
+     * Counts an element of a layer and data type.
+     *
+     * @param  layer     The layer
+     * @param  datatype  The data type
+     */
+    private void element(int layer, int datatype) {
+        long key = key(layer, datatype);
+        long count[] = this.elements.get(key);
+        if (count == null) {
+            this.elements.put(key, new long[] { 1 });
+        }
+        else {
+            count[0]++;
+        }
+    }
 
-            case 0x03:
-                this.int_type++;
+    /**
+     * Follows the elements of a record stream, counting an element with a
+     * layer once its ENDEL record is seen.
+     *
+     * @param  rectype  The record type
+     */
+    private void track(byte rectype) {
+        switch (rectype) {
+            case GDSRecord.BOUNDARY:
+            case GDSRecord.PATH:
+            case GDSRecord.TEXT:
+            case GDSRecord.NODE:
+            case GDSRecord.BOX:
+                this.elementLayered = true;
+                this.elementLayer = 0;
+                this.elementDatatype = 0;
 
                 break;
 
-            case 0x04:
-                this.float_type++;
+            case GDSRecord.SREF:
+            case GDSRecord.AREF:
+                this.elementLayered = false;
 
                 break;
 
-            case 0x05:
-                this.double_type++;
+            case GDSRecord.ENDEL:
+                if (this.elementLayered) {
+                    element(this.elementLayer, this.elementDatatype);
+                }
+                this.elementLayered = false;
 
                 break;
 
-            case 0x06:
-                this.string_type++;
-
+            default:
                 break;
         }
-    } // end method record
-
-    /**
-     * A description of the GDSII database statistics.
-     *
-     * @return  A string representation of the GDSII database statistics.
-     */
-    @Override
-    public String toString() {
-        String result = new String(
-                GDSStringUtil.sprintf(GDSI18NFactory.getString(
-                        GDSI18NFactory.i18n_STATS_TOSTRING1), this.total) + "\n" /*NOI18N*/);
-        result += GDSI18NFactory.getString(GDSI18NFactory.i18n_STATS_TOSTRING2) + "\n" /*NOI18N*/;
-        result += ("\t" /*NOI18N*/ +
-                GDSStringUtil.fixLength("ANGLE" /*NOI18N*/, 16) +
-                ":  " /*NOI18N*/ + this.angle + "\n" /*NOI18N*/);
-        result += ("\t" /*NOI18N*/ +
-                GDSStringUtil.fixLength("AREF" /*NOI18N*/, 16) +
-                ":  " /*NOI18N*/ + this.aref + "\n" /*NOI18N*/);
-        result += ("\t" /*NOI18N*/ +
-                GDSStringUtil.fixLength("ATTRTABLE" /*NOI18N*/, 16) +
-                ":  " /*NOI18N*/ + this.attrtable + "\n" /*NOI18N*/);
-        result += ("\t" /*NOI18N*/ +
-                GDSStringUtil.fixLength("BGNEXTN" /*NOI18N*/, 16) +
-                ":  " /*NOI18N*/ + this.bgnextn + "\n" /*NOI18N*/);
-        result += ("\t" /*NOI18N*/ +
-                GDSStringUtil.fixLength("BGNLIB" /*NOI18N*/, 16) +
-                ":  " /*NOI18N*/ + this.bgnlib + "\n" /*NOI18N*/);
-        result += ("\t" /*NOI18N*/ +
-                GDSStringUtil.fixLength("BGNSTR" /*NOI18N*/, 16) +
-                ":  " /*NOI18N*/ + this.bgnstr + "\n" /*NOI18N*/);
-        result += ("\t" /*NOI18N*/ +
-                GDSStringUtil.fixLength("BORDER" /*NOI18N*/, 16) +
-                ":  " /*NOI18N*/ + this.border + "\n" /*NOI18N*/);
-        result += ("\t" /*NOI18N*/ +
-                GDSStringUtil.fixLength("BOUNDARY" /*NOI18N*/, 16) +
-                ":  " /*NOI18N*/ + this.boundary + "\n" /*NOI18N*/);
-        result += ("\t" /*NOI18N*/ +
-                GDSStringUtil.fixLength("BOX" /*NOI18N*/, 16) +
-                ":  " /*NOI18N*/ + this.box + "\n" /*NOI18N*/);
-        result += ("\t" /*NOI18N*/ +
-                GDSStringUtil.fixLength("BOXTYPE" /*NOI18N*/, 16) +
-                ":  " /*NOI18N*/ + this.boxtype + "\n" /*NOI18N*/);
-        result += ("\t" /*NOI18N*/ +
-                GDSStringUtil.fixLength("COLROW" /*NOI18N*/, 16) +
-                ":  " /*NOI18N*/ + this.colrow + "\n" /*NOI18N*/);
-        result += ("\t" /*NOI18N*/ +
-                GDSStringUtil.fixLength("CONTACT" /*NOI18N*/, 16) +
-                ":  " /*NOI18N*/ + this.contact + "\n" /*NOI18N*/);
-        result += ("\t" /*NOI18N*/ +
-                GDSStringUtil.fixLength("DATATYPE" /*NOI18N*/, 16) +
-                ":  " /*NOI18N*/ + this.datatype + "\n" /*NOI18N*/);
-        result += ("\t" /*NOI18N*/ +
-                GDSStringUtil.fixLength("ELFLAGS" /*NOI18N*/, 16) +
-                ":  " /*NOI18N*/ + this.elflags + "\n" /*NOI18N*/);
-        result += ("\t" /*NOI18N*/ +
-                GDSStringUtil.fixLength("ELKEY" /*NOI18N*/, 16) +
-                ":  " /*NOI18N*/ + this.elkey + "\n" /*NOI18N*/);
-        result += ("\t" /*NOI18N*/ +
-                GDSStringUtil.fixLength("ENDEL" /*NOI18N*/, 16) +
-                ":  " /*NOI18N*/ + this.endel + "\n" /*NOI18N*/);
-        result += ("\t" /*NOI18N*/ +
-                GDSStringUtil.fixLength("ENDEXTN" /*NOI18N*/, 16) +
-                ":  " /*NOI18N*/ + this.endextn + "\n" /*NOI18N*/);
-        result += ("\t" /*NOI18N*/ +
-                GDSStringUtil.fixLength("ENDLIB" /*NOI18N*/, 16) +
-                ":  " /*NOI18N*/ + this.endlib + "\n" /*NOI18N*/);
-        result += ("\t" /*NOI18N*/ +
-                GDSStringUtil.fixLength("ENDMASKS" /*NOI18N*/, 16) +
-                ":  " /*NOI18N*/ + this.endmasks + "\n" /*NOI18N*/);
-        result += ("\t" /*NOI18N*/ +
-                GDSStringUtil.fixLength("ENDSTR" /*NOI18N*/, 16) +
-                ":  " /*NOI18N*/ + this.endstr + "\n" /*NOI18N*/);
-        result += ("\t" /*NOI18N*/ +
-                GDSStringUtil.fixLength("FONTS" /*NOI18N*/, 16) +
-                ":  " /*NOI18N*/ + this.fonts + "\n" /*NOI18N*/);
-        result += ("\t" /*NOI18N*/ +
-                GDSStringUtil.fixLength("FORMAT" /*NOI18N*/, 16) +
-                ":  " /*NOI18N*/ + this.format + "\n" /*NOI18N*/);
-        result += ("\t" /*NOI18N*/ +
-                GDSStringUtil.fixLength("GENERATIONS" /*NOI18N*/, 16) +
-                ":  " /*NOI18N*/ + this.generations + "\n" /*NOI18N*/);
-        result += ("\t" /*NOI18N*/ +
-                GDSStringUtil.fixLength("HARDFENCE" /*NOI18N*/, 16) +
-                ":  " /*NOI18N*/ + this.hardfence + "\n" /*NOI18N*/);
-        result += ("\t" /*NOI18N*/ +
-                GDSStringUtil.fixLength("HARDWIRE" /*NOI18N*/, 16) +
-                ":  " /*NOI18N*/ + this.hardwire + "\n" /*NOI18N*/);
-        result += ("\t" /*NOI18N*/ +
-                GDSStringUtil.fixLength("HEADER" /*NOI18N*/, 16) +
-                ":  " /*NOI18N*/ + this.header + "\n" /*NOI18N*/);
-        result += ("\t" /*NOI18N*/ +
-                GDSStringUtil.fixLength("LAYER" /*NOI18N*/, 16) +
-                ":  " /*NOI18N*/ + this.layer + "\n" /*NOI18N*/);
-        result += ("\t" /*NOI18N*/ +
-                GDSStringUtil.fixLength("LIBDIRSIZE" /*NOI18N*/, 16) +
-                ":  " /*NOI18N*/ + this.libdirsize + "\n" /*NOI18N*/);
-        result += ("\t" /*NOI18N*/ +
-                GDSStringUtil.fixLength("LIBNAME" /*NOI18N*/, 16) +
-                ":  " /*NOI18N*/ + this.libname + "\n" /*NOI18N*/);
-        result += ("\t" /*NOI18N*/ +
-                GDSStringUtil.fixLength("LIBSECUR" /*NOI18N*/, 16) +
-                ":  " /*NOI18N*/ + this.libsecur + "\n" /*NOI18N*/);
-        result += ("\t" /*NOI18N*/ +
-                GDSStringUtil.fixLength("LINKKEYS" /*NOI18N*/, 16) +
-                ":  " /*NOI18N*/ + this.linkkeys + "\n" /*NOI18N*/);
-        result += ("\t" /*NOI18N*/ +
-                GDSStringUtil.fixLength("LINKTYPE" /*NOI18N*/, 16) +
-                ":  " /*NOI18N*/ + this.linktype + "\n" /*NOI18N*/);
-        result += ("\t" /*NOI18N*/ +
-                GDSStringUtil.fixLength("MAG" /*NOI18N*/, 16) +
-                ":  " /*NOI18N*/ + this.mag + "\n" /*NOI18N*/);
-        result += ("\t" /*NOI18N*/ +
-                GDSStringUtil.fixLength("MASK" /*NOI18N*/, 16) +
-                ":  " /*NOI18N*/ + this.mask + "\n" /*NOI18N*/);
-        result += ("\t" /*NOI18N*/ +
-                GDSStringUtil.fixLength("NODE" /*NOI18N*/, 16) +
-                ":  " /*NOI18N*/ + this.node + "\n" /*NOI18N*/);
-        result += ("\t" /*NOI18N*/ +
-                GDSStringUtil.fixLength("NODEPORT" /*NOI18N*/, 16) +
-                ":  " /*NOI18N*/ + this.nodeport + "\n" /*NOI18N*/);
-        result += ("\t" /*NOI18N*/ +
-                GDSStringUtil.fixLength("NODETYPE" /*NOI18N*/, 16) +
-                ":  " /*NOI18N*/ + this.nodetype + "\n" /*NOI18N*/);
-        result += ("\t" /*NOI18N*/ +
-                GDSStringUtil.fixLength("NULL" /*NOI18N*/, 16) +
-                ":  " /*NOI18N*/ + this.nullrec + "\n" /*NOI18N*/);
-        result += ("\t" /*NOI18N*/ +
-                GDSStringUtil.fixLength("PATH" /*NOI18N*/, 16) +
-                ":  " /*NOI18N*/ + this.path + "\n" /*NOI18N*/);
-        result += ("\t" /*NOI18N*/ +
-                GDSStringUtil.fixLength("PATHPORT" /*NOI18N*/, 16) +
-                ":  " /*NOI18N*/ + this.pathport + "\n" /*NOI18N*/);
-        result += ("\t" /*NOI18N*/ +
-                GDSStringUtil.fixLength("PATHTYPE" /*NOI18N*/, 16) +
-                ":  " /*NOI18N*/ + this.pathtype + "\n" /*NOI18N*/);
-        result += ("\t" /*NOI18N*/ +
-                GDSStringUtil.fixLength("PLEX" /*NOI18N*/, 16) +
-                ":  " /*NOI18N*/ + this.plex + "\n" /*NOI18N*/);
-        result += ("\t" /*NOI18N*/ +
-                GDSStringUtil.fixLength("PRESENTATION" /*NOI18N*/, 16) +
-                ":  " /*NOI18N*/ + this.presentation + "\n" /*NOI18N*/);
-        result += ("\t" /*NOI18N*/ +
-                GDSStringUtil.fixLength("PROPATTR" /*NOI18N*/, 16) +
-                ":  " /*NOI18N*/ + this.propattr + "\n" /*NOI18N*/);
-        result += ("\t" /*NOI18N*/ +
-                GDSStringUtil.fixLength("PROPVALUE" /*NOI18N*/, 16) +
-                ":  " /*NOI18N*/ + this.propvalue + "\n" /*NOI18N*/);
-        result += ("\t" /*NOI18N*/ +
-                GDSStringUtil.fixLength("REFLIBS" /*NOI18N*/, 16) +
-                ":  " /*NOI18N*/ + this.reflibs + "\n" /*NOI18N*/);
-        result += ("\t" /*NOI18N*/ +
-                GDSStringUtil.fixLength("RESERVED" /*NOI18N*/, 16) +
-                ":  " /*NOI18N*/ + this.reserved + "\n" /*NOI18N*/);
-        result += ("\t" /*NOI18N*/ +
-                GDSStringUtil.fixLength("SNAME" /*NOI18N*/, 16) +
-                ":  " /*NOI18N*/ + this.sname + "\n" /*NOI18N*/);
-        result += ("\t" /*NOI18N*/ +
-                GDSStringUtil.fixLength("SOFTFENCE" /*NOI18N*/, 16) +
-                ":  " /*NOI18N*/ + this.softfence + "\n" /*NOI18N*/);
-        result += ("\t" /*NOI18N*/ +
-                GDSStringUtil.fixLength("SOFTWIRE" /*NOI18N*/, 16) +
-                ":  " /*NOI18N*/ + this.softwire + "\n" /*NOI18N*/);
-        result += ("\t" /*NOI18N*/ +
-                GDSStringUtil.fixLength("SPACERERROR" /*NOI18N*/, 16) +
-                ":  " /*NOI18N*/ + this.spacererror + "\n" /*NOI18N*/);
-        result += ("\t" /*NOI18N*/ +
-                GDSStringUtil.fixLength("SPACING" /*NOI18N*/, 16) +
-                ":  " /*NOI18N*/ + this.spacing + "\n" /*NOI18N*/);
-        result += ("\t" /*NOI18N*/ +
-                GDSStringUtil.fixLength("SREF" /*NOI18N*/, 16) +
-                ":  " /*NOI18N*/ + this.sref + "\n" /*NOI18N*/);
-        result += ("\t" /*NOI18N*/ +
-                GDSStringUtil.fixLength("SRFNAME" /*NOI18N*/, 16) +
-                ":  " /*NOI18N*/ + this.srfname + "\n" /*NOI18N*/);
-        result += ("\t" /*NOI18N*/ +
-                GDSStringUtil.fixLength("STRANS" /*NOI18N*/, 16) +
-                ":  " /*NOI18N*/ + this.strans + "\n" /*NOI18N*/);
-        result += ("\t" /*NOI18N*/ +
-                GDSStringUtil.fixLength("STRCLASS" /*NOI18N*/, 16) +
-                ":  " /*NOI18N*/ + this.strclass + "\n" /*NOI18N*/);
-        result += ("\t" /*NOI18N*/ +
-                GDSStringUtil.fixLength("STRING" /*NOI18N*/, 16) +
-                ":  " /*NOI18N*/ + this.string + "\n" /*NOI18N*/);
-        result += ("\t" /*NOI18N*/ +
-                GDSStringUtil.fixLength("STRNAME" /*NOI18N*/, 16) +
-                ":  " /*NOI18N*/ + this.strname + "\n" /*NOI18N*/);
-        result += ("\t" /*NOI18N*/ +
-                GDSStringUtil.fixLength("STRTYPE" /*NOI18N*/, 16) +
-                ":  " /*NOI18N*/ + this.strtype + "\n" /*NOI18N*/);
-        result += ("\t" /*NOI18N*/ +
-                GDSStringUtil.fixLength("STYPTABLE" /*NOI18N*/, 16) +
-                ":  " /*NOI18N*/ + this.styptable + "\n" /*NOI18N*/);
-        result += ("\t" /*NOI18N*/ +
-                GDSStringUtil.fixLength("TAPECODE" /*NOI18N*/, 16) +
-                ":  " /*NOI18N*/ + this.tapecode + "\n" /*NOI18N*/);
-        result += ("\t" /*NOI18N*/ +
-                GDSStringUtil.fixLength("TAPENUM" /*NOI18N*/, 16) +
-                ":  " /*NOI18N*/ + this.tapenum + "\n" /*NOI18N*/);
-        result += ("\t" /*NOI18N*/ +
-                GDSStringUtil.fixLength("TEXT" /*NOI18N*/, 16) +
-                ":  " /*NOI18N*/ + this.text + "\n" /*NOI18N*/);
-        result += ("\t" /*NOI18N*/ +
-                GDSStringUtil.fixLength("TEXTNODE" /*NOI18N*/, 16) +
-                ":  " /*NOI18N*/ + this.textnode + "\n" /*NOI18N*/);
-        result += ("\t" /*NOI18N*/ +
-                GDSStringUtil.fixLength("TEXTTYPE" /*NOI18N*/, 16) +
-                ":  " /*NOI18N*/ + this.texttype + "\n" /*NOI18N*/);
-        result += ("\t" /*NOI18N*/ +
-                GDSStringUtil.fixLength("UINTEGER" /*NOI18N*/, 16) +
-                ":  " /*NOI18N*/ + this.uinteger + "\n" /*NOI18N*/);
-        result += ("\t" /*NOI18N*/ +
-                GDSStringUtil.fixLength("UNITS" /*NOI18N*/, 16) +
-                ":  " /*NOI18N*/ + this.units + "\n" /*NOI18N*/);
-        result += ("\t" /*NOI18N*/ +
-                GDSStringUtil.fixLength("USERCONSTRAINT" /*NOI18N*/, 16) +
-                ":  " /*NOI18N*/ + this.userconstraint + "\n" /*NOI18N*/);
-        result += ("\t" /*NOI18N*/ +
-                GDSStringUtil.fixLength("USTRING" /*NOI18N*/, 16) +
-                ":  " /*NOI18N*/ + this.ustring + "\n" /*NOI18N*/);
-        result += ("\t" /*NOI18N*/ +
-                GDSStringUtil.fixLength("WIDTH" /*NOI18N*/, 16) +
-                ":  " /*NOI18N*/ + this.width + "\n" /*NOI18N*/);
-        result += ("\t" /*NOI18N*/ +
-                GDSStringUtil.fixLength("XY" /*NOI18N*/, 16) +
-                ":  " /*NOI18N*/ + this.xy + "\n" /*NOI18N*/);
-        result += GDSI18NFactory.getString(GDSI18NFactory.i18n_STATS_TOSTRING3) + "\n" /*NOI18N*/;
-        result += ("\t" /*NOI18N*/ +
-                GDSStringUtil.fixLength("NULL DATA RECORD" /*NOI18N*/, 18) +
-                ":  " /*NOI18N*/ + this.nodata_type + "\n" /*NOI18N*/);
-        result += ("\t" /*NOI18N*/ +
-                GDSStringUtil.fixLength("BIT ARRAY RECORD" /*NOI18N*/, 18) +
-                ":  " /*NOI18N*/ + this.bitarray_type + "\n" /*NOI18N*/);
-        result += ("\t" /*NOI18N*/ +
-                GDSStringUtil.fixLength("SHORT RECORD" /*NOI18N*/, 18) +
-                ":  " /*NOI18N*/ + this.short_type + "\n" /*NOI18N*/);
-        result += ("\t" /*NOI18N*/ +
-                GDSStringUtil.fixLength("INT RECORD" /*NOI18N*/, 18) +
-                ":  " /*NOI18N*/ + this.int_type + "\n" /*NOI18N*/);
-        result += ("\t" /*NOI18N*/ +
-                GDSStringUtil.fixLength("FLOAT RECORD" /*NOI18N*/, 18) +
-                ":  " /*NOI18N*/ + this.float_type + "\n" /*NOI18N*/);
-        result += ("\t" /*NOI18N*/ +
-                GDSStringUtil.fixLength("DOUBLE RECORD" /*NOI18N*/, 18) +
-                ":  " /*NOI18N*/ + this.double_type + "\n" /*NOI18N*/);
-        result += ("\t" /*NOI18N*/ +
-                GDSStringUtil.fixLength("STRING RECORD" /*NOI18N*/, 18) +
-                ":  " /*NOI18N*/ + this.string_type + "\n" /*NOI18N*/);
-
-        return result;
-    } // end method toString
+    } // end method track
 } // end class GDSStatistics
 
 /* This material is distributed under the GNU General Public License.
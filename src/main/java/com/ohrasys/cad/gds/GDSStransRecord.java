@@ -189,7 +189,7 @@ public class GDSStransRecord extends GDSRecord {
             result = (short) (result | 0x0002);
         }
 
-        return GDSByteConverter.writeShort(result);
+        return GDSBufferCodec.putInt16(new byte[2], 0, result);
     }
 } // end class GDSStransRecord
 
@@ -72,7 +72,7 @@ public class GDSStrclassRecord extends GDSRecord {
     public GDSStrclassRecord(int length, byte rectype, byte dattype, byte data[]) throws GDSRecordException {
         super(length, rectype, dattype, data);
         validateBitarrayRec(STRCLASS, (short) 0xFFFF);
-        this.strclass = GDSByteConverter.toShort(data);
+        this.strclass = GDSBufferCodec.getInt16(data, 0);
     }
 
     /**
@@ -0,0 +1,325 @@
+/*
+ * Copyright (C) 2004 Thomas N. Valine
+ * tvaline@users.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA
+ * 02111-1307, USA.
+ */
+
+package com.ohrasys.cad.gds;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.ohrasys.cad.gds.dao.Transform;
+
+/**
+ * Streams a GDS design through one or more <code>GDSHandler</code>s.  The
+ * design is read once and every handler sees every callback, so several
+ * consumers such as statistics, layer extraction or hashing share a single
+ * pass over the file.  Element bodies are decoded straight into reused
+ * buffers, no <code>GDSRecord</code> is built for them.
+ *
+ * <pre>
+ * GDSStatistics stats = new GDSStatistics();
+ * GDSStreamDriver driver = new GDSStreamDriver();
+ * driver.addHandler(stats);
+ * driver.addHandler(layerExtractor);
+ * driver.parse(new GDSInputStream(file));
+ * </pre>
+ *
+ * @author   $Author: tvaline $
+ * @version  $Revision: 1.1 $
+ * @since    1.5
+ */
+public class GDSStreamDriver {
+
+    /** The handlers notified by the driver */
+    private List<GDSHandler> handlers;
+
+    /** The transform passed to reference and text callbacks */
+    private Transform transform;
+
+    /**
+     * Creates a new GDSStreamDriver object.
+     */
+    public GDSStreamDriver() {
+        this.handlers = new ArrayList<GDSHandler>();
+        this.transform = new Transform();
+    }
+
+    /**
+     * Creates a new GDSStreamDriver object.
+     *
+     * @param  handler  The first handler to notify
+     */
+    public GDSStreamDriver(GDSHandler handler) {
+        this();
+        addHandler(handler);
+    }
+
+    /**
+     * Adds a handler to notify.  Handlers are notified in the order they were
+     * added.
+     *
+     * @param  handler  The handler
+     */
+    public void addHandler(GDSHandler handler) {
+        this.handlers.add(handler);
+    }
+
+    /**
+     * Streams a design read through a memory mapped file.
+     *
+     * @param   file  The GDS file
+     *
+     * @throws  FileNotFoundException  If the file cannot be found or is not
+     *                                 readable
+     * @throws  GDSRecordException     If the design is malformed
+     */
+    public void parse(File file) throws FileNotFoundException, GDSRecordException {
+        GDSEventReader reader = new GDSEventReader(file);
+        try {
+            parse(reader);
+        }
+        finally {
+            try {
+                reader.close();
+            }
+            catch (IOException ex) { /* can't do anything now */
+            }
+        }
+    }
+
+    /**
+     * Streams a design read from an input stream, such as a
+     * <code>GDSInputStream</code>.  The stream is closed once the design has
+     * been read.
+     *
+     * @param   in  The stream to read
+     *
+     * @throws  GDSRecordException  If the design is malformed
+     */
+    public void parse(InputStream in) throws GDSRecordException {
+        GDSEventReader reader = new GDSEventReader(new GDSRecordCursor(in));
+        try {
+            parse(reader);
+        }
+        finally {
+            try {
+                reader.close();
+            }
+            catch (IOException ex) { /* can't do anything now */
+            }
+        }
+    }
+
+    /**
+     * Streams the remaining events of a reader.  The reader is not closed.
+     *
+     * @param   reader  The reader
+     *
+     * @throws  GDSRecordException  If the design is malformed
+     */
+    public void parse(GDSEventReader reader) throws GDSRecordException {
+        GDSHandler all[] = this.handlers.toArray(new GDSHandler[this.handlers.size()]);
+        reader.observer = (all.length == 1) ? all[0] : new Multicaster(all);
+
+        try {
+            while (reader.hasNext()) {
+                switch (reader.next()) {
+                    case GDSEventReader.START_LIBRARY:
+                        for (int i = 0; i < all.length; i++) {
+                            all[i].startLibrary(reader.getLibraryName(),
+                                    reader.getUserUnits(), reader.getMeterUnits());
+                        }
+
+                        break;
+
+                    case GDSEventReader.START_STRUCTURE:
+                        for (int i = 0; i < all.length; i++) {
+                            all[i].startStructure(reader.getStructureName());
+                        }
+
+                        break;
+
+                    case GDSEventReader.END_STRUCTURE:
+                        for (int i = 0; i < all.length; i++) {
+                            all[i].endStructure();
+                        }
+
+                        break;
+
+                    case GDSEventReader.END_LIBRARY:
+                        for (int i = 0; i < all.length; i++) {
+                            all[i].endLibrary();
+                        }
+
+                        break;
+
+                    default:
+                        for (int i = 0; i < all.length; i++) {
+                            element(reader, all[i]);
+                        }
+
+                        break;
+                } // end switch
+            } // end while
+        }
+        finally {
+            reader.observer = null;
+        }
+    } // end method parse
+
+    /**
+     * Removes a handler.
+     *
+     * @param  handler  The handler
+     */
+    public void removeHandler(GDSHandler handler) {
+        this.handlers.remove(handler);
+    }
+
+    /**
+     * Returns a string representation of this class
+     *
+     * @return  The physical address of this instance
+     */
+    @Override
+    public String toString() {
+        return super.toString();
+    }
+
+    /**
+     * Reports the current element of a reader to a handler.
+     *
+     * @param  reader   The reader positioned on an ELEMENT event
+     * @param  handler  The handler
+     */
+    private void element(GDSEventReader reader, GDSHandler handler) {
+        int xy[] = reader.getXy();
+        int points = reader.getPointCount();
+
+        switch (reader.getElementKind()) {
+            case GDSRecord.BOUNDARY:
+                handler.boundary(reader.getLayer(), reader.getDatatype(), xy,
+                        points);
+
+                break;
+
+            case GDSRecord.PATH:
+                handler.path(reader.getLayer(), reader.getDatatype(),
+                        reader.getPathtype(), reader.getWidth(),
+                        reader.getBeginExtension(), reader.getEndExtension(), xy,
+                        points);
+
+                break;
+
+            case GDSRecord.SREF:
+                handler.sref(reader.getStructureReference(), transform(reader),
+                        (points > 0) ? xy[0] : 0, (points > 0) ? xy[1] : 0);
+
+                break;
+
+            case GDSRecord.AREF:
+                handler.aref(reader.getStructureReference(), transform(reader),
+                        reader.getColumns(), reader.getRows(), xy);
+
+                break;
+
+            case GDSRecord.TEXT:
+                handler.text(reader.getLayer(), reader.getDatatype(),
+                        reader.getText(), reader.getPresentation(),
+                        transform(reader), (points > 0) ? xy[0] : 0,
+                        (points > 0) ? xy[1] : 0);
+
+                break;
+
+            case GDSRecord.NODE:
+                handler.node(reader.getLayer(), reader.getDatatype(), xy,
+                        points);
+
+                break;
+
+            default:
+                handler.box(reader.getLayer(), reader.getDatatype(), xy,
+                        points);
+
+                break;
+        } // end switch
+
+        for (int i = 0; i < reader.getPropertyCount(); i++) {
+            handler.property(reader.getPropertyAttribute(i),
+                    reader.getPropertyValue(i));
+        }
+    } // end method element
+
+    /**
+     * Loads the transform of the current element of a reader into the reused
+     * transform.
+     *
+     * @param   reader  The reader positioned on an ELEMENT event
+     *
+     * @return  The reused transform
+     */
+    private Transform transform(GDSEventReader reader) {
+        this.transform.setMirrored(reader.isMirrored());
+        this.transform.setRelativeAngle(!reader.isAbsoluteAngle());
+        this.transform.setRelativeMagnification(!reader.isAbsoluteMagnification());
+        this.transform.setAngle(reader.getAngle());
+        this.transform.setMagnification(reader.getMagnification());
+
+        return this.transform;
+    }
+
+    /**
+     * Forwards the record callback to several handlers.
+     */
+    private static class Multicaster extends GDSDefaultHandler {
+
+        /** The handlers to notify */
+        private GDSHandler handlers[];
+
+        /**
+         * Creates a new Multicaster object.
+         *
+         * @param  handlers  The handlers to notify
+         */
+        Multicaster(GDSHandler handlers[]) {
+            this.handlers = handlers;
+        }
+
+        /**
+         * Called for every record read.
+         *
+         * @param  rectype  The record type
+         * @param  dattype  The data type
+         * @param  length   The total record length
+         */
+        @Override
+        public void record(byte rectype, byte dattype, int length) {
+            for (int i = 0; i < this.handlers.length; i++) {
+                this.handlers[i].record(rectype, dattype, length);
+            }
+        }
+    } // end class Multicaster
+} // end class GDSStreamDriver
+
+/* This material is distributed under the GNU General Public License.
+ * For more information please go to http://www.gnu.org/copyleft/gpl.html */
@@ -0,0 +1,49 @@
+/*
+ * Copyright (C) 2004 Thomas N. Valine
+ * tvaline@users.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA
+ * 02111-1307, USA.
+ */
+
+package com.ohrasys.cad.gds;
+
+import java.io.IOException;
+
+/**
+ * Produces the records of one structure for a <code>GDSLibraryWriter</code>.
+ * The writer may call the source on any thread, so a source must not share
+ * unsynchronized state with other sources.
+ *
+ * @author   $Author: tvaline $
+ * @version  $Revision: 1.1 $
+ * @since    1.5
+ */
+public interface GDSStructureSource {
+
+    /**
+     * Writes the records of the structure, from its BGNSTR record up to and
+     * including its ENDSTR record.
+     *
+     * @param   out  The sink receiving the records
+     *
+     * @throws  IOException         If an IO error occurs.
+     * @throws  GDSRecordException  If a record cannot be built.
+     */
+    public void writeStructure(GDSRecordSink out) throws IOException, GDSRecordException;
+} // end interface GDSStructureSource
+
+/* This material is distributed under the GNU General Public License.
+ * For more information please go to http://www.gnu.org/copyleft/gpl.html */
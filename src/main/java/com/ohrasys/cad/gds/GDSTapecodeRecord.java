@@ -20,9 +20,6 @@
 
 package com.ohrasys.cad.gds;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-
 /**
  * Represents a GDSII TAPECODE record.
  *
@@ -78,11 +75,10 @@ public class GDSTapecodeRecord extends GDSRecord {
         super(length, rectype, dattype, data);
         validateShortRec(TAPECODE, 12);
 
-        ByteArrayInputStream bais = new ByteArrayInputStream(data);
         short code[] = new short[6];
 
         for (int i = 0; i < 6; i++) {
-            code[i] = GDSByteConverter.readShort(bais);
+            code[i] = GDSBufferCodec.getInt16(data, 2 * i);
         }
 
         this.tapecode = code;
@@ -141,13 +137,13 @@ public class GDSTapecodeRecord extends GDSRecord {
      * @return  The updated byte data
      */
     private byte[] updateData() {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        byte result[] = new byte[this.tapecode.length * 2];
 
         for (int i = 0; i < this.tapecode.length; i++) {
-            baos = GDSByteConverter.fromShort(this.tapecode[i], baos);
+            GDSBufferCodec.putInt16(result, 2 * i, this.tapecode[i]);
         }
 
-        return baos.toByteArray();
+        return result;
     }
 } // end class GDSTapecodeRecord
 
@@ -74,7 +74,7 @@ public class GDSTapenumRecord extends GDSRecord {
     public GDSTapenumRecord(int length, byte rectype, byte dattype, byte data[]) throws GDSRecordException {
         super(length, rectype, dattype, data);
         validateShortRec(TAPENUM);
-        this.tapenum = validate(GDSByteConverter.toShort(data));
+        this.tapenum = validate(GDSBufferCodec.getInt16(data, 0));
     }
 
     /**
@@ -95,7 +95,7 @@ public class GDSTapenumRecord extends GDSRecord {
      */
     public void setTapenum(short tapenum) throws GDSRecordException {
         this.tapenum = validate(tapenum);
-        this.data = GDSByteConverter.writeShort(tapenum);
+        this.data = GDSBufferCodec.putInt16(new byte[2], 0, tapenum);
     }
 
     /**
@@ -74,7 +74,7 @@ public class GDSTexttypeRecord extends GDSRecord {
     public GDSTexttypeRecord(int length, byte rectype, byte dattype, byte data[]) throws GDSRecordException {
         super(length, rectype, dattype, data);
         validateShortRec(TEXTTYPE);
-        this.texttype = validate(GDSByteConverter.toShort(data));
+        this.texttype = validate(GDSBufferCodec.getInt16(data, 0));
     }
 
     /**
@@ -95,7 +95,7 @@ public class GDSTexttypeRecord extends GDSRecord {
      */
     public void setTexttype(short texttype) throws GDSRecordException {
         this.texttype = validate(texttype);
-        this.data = GDSByteConverter.writeShort(texttype);
+        this.data = GDSBufferCodec.putInt16(new byte[2], 0, texttype);
     }
 
     /**
@@ -20,9 +20,6 @@
 
 package com.ohrasys.cad.gds;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-
 /**
  * Represents a GDSII UNITS record.
  *
@@ -84,9 +81,10 @@ public class GDSUnitsRecord extends GDSRecord {
         super(length, rectype, dattype, data);
         validateDoubleRec(UNITS, 16);
 
-        ByteArrayInputStream bais = new ByteArrayInputStream(data);
-        this.uuperdbu = GDSSpecificDataConverter.readDouble(bais);
-        this.metersperdbu = GDSSpecificDataConverter.readDouble(bais);
+        double units[] = new double[2];
+        GDSSpecificDataConverter.toDoubles(data, 0, units);
+        this.uuperdbu = units[0];
+        this.metersperdbu = units[1];
         this.data = updateData();
     }
 
@@ -152,11 +150,8 @@ public class GDSUnitsRecord extends GDSRecord {
      * @return  The updated byte data of the record
      */
     private byte[] updateData() {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        GDSSpecificDataConverter.fromJavaDouble(this.uuperdbu, baos);
-        GDSSpecificDataConverter.fromJavaDouble(this.metersperdbu, baos);
-
-        return baos.toByteArray();
+        return GDSSpecificDataConverter.writeJavaDoubles(
+                new double[] { this.uuperdbu, this.metersperdbu }, new byte[16], 0);
     }
 } // end class GDSUnitsRecord
 
@@ -0,0 +1,479 @@
+/*
+ * Copyright (C) 2004 Thomas N. Valine
+ * tvaline@users.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA
+ * 02111-1307, USA.
+ */
+
+package com.ohrasys.cad.gds;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.ohrasys.cad.bnf.BNFAutomaton;
+import com.ohrasys.cad.bnf.BNFCompiler;
+import com.ohrasys.cad.bnf.BNFTestException;
+import com.ohrasys.cad.bnf.BNFTestResult;
+import com.ohrasys.cad.gds.validator.DatabaseValidator;
+import com.ohrasys.cad.gds.validator.Diagnostic;
+
+/**
+ * Checks that a GDS file is well formed without building any record.  Where
+ * <code>GDSParser</code> expands, records and prints every record, this class
+ * only walks the record headers with a <code>GDSRecordCursor</code>.  The
+ * record type of each header is fed to the <code>DatabaseValidator</code>
+ * grammar compiled into a <code>BNFAutomaton</code>, and the data type and
+ * length of each header are checked against the rules the record classes
+ * enforce when they are created.
+ *
+ * <p>The record data is never read, except for the structure names used to
+ * label the problems found, so checks that depend on the values of a record,
+ * such as reserved bits or layer ranges, are left to the parser.  The grammar
+ * stops at its first problem unless the recovery mode is on, but the record
+ * checks go on until the end of the file or until the configured number of
+ * problems has been found.</p>
+ *
+ * @author   $Author: tvaline $
+ * @version  $Revision: 1.1 $
+ * @since    1.5
+ */
+public class GDSValidator {
+
+    /** The data type marking record types whose data is not checked */
+    private static final byte ANY_TYPE = -1;
+
+    /** The expected data type of each record type */
+    private static final byte dattypes[] = new byte[GDSRecord.CONTACT + 1];
+
+    /**
+     * The bits that must be clear in the data length of each record type, or
+     * -1 if the length is a multiple that only <code>describe</code> checks
+     */
+    private static final int masks[] = new int[GDSRecord.CONTACT + 1];
+
+    /** The largest data length of each record type */
+    private static final int maxlengths[] = new int[GDSRecord.CONTACT + 1];
+
+    /** The smallest data length of each record type */
+    private static final int minlengths[] = new int[GDSRecord.CONTACT + 1];
+
+    static {
+        for (byte i = 0; i < dattypes.length; i++) {
+            rule(i, ANY_TYPE, 0, GDSRecord.MAX_REC_LEN);
+        }
+        rule(GDSRecord.HEADER, GDSRecord.SHORT_TYPE, 2, 2);
+        rule(GDSRecord.BGNLIB, GDSRecord.SHORT_TYPE, 24, 24);
+        rule(GDSRecord.LIBNAME, GDSRecord.STRING_TYPE, 2, 256);
+        rule(GDSRecord.UNITS, GDSRecord.DOUBLE_TYPE, 16, 16);
+        rule(GDSRecord.ENDLIB, GDSRecord.NO_DATA_TYPE, 0, 0);
+        rule(GDSRecord.BGNSTR, GDSRecord.SHORT_TYPE, 24, 24);
+        rule(GDSRecord.STRNAME, GDSRecord.STRING_TYPE, 2, GDSRecord.MAX_REC_LEN);
+        rule(GDSRecord.ENDSTR, GDSRecord.NO_DATA_TYPE, 0, 0);
+        rule(GDSRecord.BOUNDARY, GDSRecord.NO_DATA_TYPE, 0, 0);
+        rule(GDSRecord.PATH, GDSRecord.NO_DATA_TYPE, 0, 0);
+        rule(GDSRecord.SREF, GDSRecord.NO_DATA_TYPE, 0, 0);
+        rule(GDSRecord.AREF, GDSRecord.NO_DATA_TYPE, 0, 0);
+        rule(GDSRecord.TEXT, GDSRecord.NO_DATA_TYPE, 0, 0);
+        rule(GDSRecord.LAYER, GDSRecord.SHORT_TYPE, 2, 2);
+        rule(GDSRecord.DATATYPE, GDSRecord.SHORT_TYPE, 2, 2);
+        rule(GDSRecord.WIDTH, GDSRecord.INT_TYPE, 4, 4);
+        rule(GDSRecord.XY, GDSRecord.INT_TYPE, 8, GDSRecord.MAX_REC_LEN);
+        rule(GDSRecord.ENDEL, GDSRecord.NO_DATA_TYPE, 0, 0);
+        rule(GDSRecord.SNAME, GDSRecord.STRING_TYPE, 2, GDSRecord.MAX_REC_LEN);
+        rule(GDSRecord.COLROW, GDSRecord.SHORT_TYPE, 4, 4);
+        rule(GDSRecord.TEXTNODE, GDSRecord.NO_DATA_TYPE, 0, 0);
+        rule(GDSRecord.NODE, GDSRecord.NO_DATA_TYPE, 0, 0);
+        rule(GDSRecord.TEXTTYPE, GDSRecord.SHORT_TYPE, 2, 2);
+        rule(GDSRecord.PRESENTATION, GDSRecord.BIT_ARRAY_TYPE, 2, 2);
+        rule(GDSRecord.SPACING, GDSRecord.NO_DATA_TYPE, 0, 0);
+        rule(GDSRecord.STRING, GDSRecord.STRING_TYPE, 2, 512);
+        rule(GDSRecord.STRANS, GDSRecord.BIT_ARRAY_TYPE, 2, 2);
+        rule(GDSRecord.MAG, GDSRecord.DOUBLE_TYPE, 8, 8);
+        rule(GDSRecord.ANGLE, GDSRecord.DOUBLE_TYPE, 8, 8);
+        rule(GDSRecord.REFLIBS, GDSRecord.STRING_TYPE, 88, 660);
+        rule(GDSRecord.FONTS, GDSRecord.STRING_TYPE, 176, 176);
+        rule(GDSRecord.PATHTYPE, GDSRecord.SHORT_TYPE, 2, 2);
+        rule(GDSRecord.GENERATIONS, GDSRecord.SHORT_TYPE, 2, 2);
+        rule(GDSRecord.ATTRTABLE, GDSRecord.STRING_TYPE, 2, 44);
+        rule(GDSRecord.STYPTABLE, GDSRecord.STRING_TYPE, 0,
+            GDSRecord.MAX_REC_LEN);
+        rule(GDSRecord.STRTYPE, GDSRecord.SHORT_TYPE, 0, GDSRecord.MAX_REC_LEN);
+        rule(GDSRecord.ELFLAGS, GDSRecord.BIT_ARRAY_TYPE, 2, 2);
+        rule(GDSRecord.ELKEY, GDSRecord.INT_TYPE, 0, GDSRecord.MAX_REC_LEN);
+        rule(GDSRecord.LINKTYPE, GDSRecord.SHORT_TYPE, 0, GDSRecord.MAX_REC_LEN);
+        rule(GDSRecord.LINKKEYS, GDSRecord.INT_TYPE, 0, GDSRecord.MAX_REC_LEN);
+        rule(GDSRecord.NODETYPE, GDSRecord.SHORT_TYPE, 2, 2);
+        rule(GDSRecord.PROPATTR, GDSRecord.SHORT_TYPE, 2, 2);
+        rule(GDSRecord.PROPVALUE, GDSRecord.STRING_TYPE, 2, 126);
+        rule(GDSRecord.BOX, GDSRecord.NO_DATA_TYPE, 0, 0);
+        rule(GDSRecord.BOXTYPE, GDSRecord.SHORT_TYPE, 2, 2);
+        rule(GDSRecord.PLEX, GDSRecord.INT_TYPE, 4, 4);
+        rule(GDSRecord.BGNEXTN, GDSRecord.INT_TYPE, 4, 4);
+        rule(GDSRecord.ENDEXTN, GDSRecord.INT_TYPE, 4, 4);
+        rule(GDSRecord.TAPENUM, GDSRecord.SHORT_TYPE, 2, 2);
+        rule(GDSRecord.TAPECODE, GDSRecord.SHORT_TYPE, 12, 12);
+        rule(GDSRecord.STRCLASS, GDSRecord.BIT_ARRAY_TYPE, 2, 2);
+        rule(GDSRecord.RESERVED, GDSRecord.INT_TYPE, 0, GDSRecord.MAX_REC_LEN);
+        rule(GDSRecord.FORMAT, GDSRecord.SHORT_TYPE, 2, 2);
+        rule(GDSRecord.MASK, GDSRecord.STRING_TYPE, 2, GDSRecord.MAX_REC_LEN);
+        rule(GDSRecord.ENDMASKS, GDSRecord.NO_DATA_TYPE, 0, 0);
+        rule(GDSRecord.LIBDIRSIZE, GDSRecord.SHORT_TYPE, 2, 2);
+        rule(GDSRecord.SRFNAME, GDSRecord.STRING_TYPE, 2, GDSRecord.MAX_REC_LEN);
+        rule(GDSRecord.LIBSECUR, GDSRecord.SHORT_TYPE, 6, 192);
+        rule(GDSRecord.BORDER, GDSRecord.NO_DATA_TYPE, 0, 0);
+        rule(GDSRecord.SOFTFENCE, GDSRecord.NO_DATA_TYPE, 0, 0);
+        rule(GDSRecord.HARDFENCE, GDSRecord.NO_DATA_TYPE, 0, 0);
+        rule(GDSRecord.SOFTWIRE, GDSRecord.NO_DATA_TYPE, 0, 0);
+        rule(GDSRecord.HARDWIRE, GDSRecord.NO_DATA_TYPE, 0, 0);
+        rule(GDSRecord.PATHPORT, GDSRecord.NO_DATA_TYPE, 0, 0);
+        rule(GDSRecord.NODEPORT, GDSRecord.NO_DATA_TYPE, 0, 0);
+        rule(GDSRecord.USERCONSTRAINT, GDSRecord.NO_DATA_TYPE, 0, 0);
+        rule(GDSRecord.SPACER_ERROR, GDSRecord.NO_DATA_TYPE, 0, 0);
+        rule(GDSRecord.CONTACT, GDSRecord.NO_DATA_TYPE, 0, 0);
+        masks[GDSRecord.XY] = 7;
+        masks[GDSRecord.REFLIBS] = -1;
+        masks[GDSRecord.LIBSECUR] = -1;
+    }
+
+    /** The database grammar, copied for each validation */
+    private BNFAutomaton grammar;
+
+    /** The number of problems after which validation stops, 0 for no limit */
+    private int maxDiagnostics;
+
+    /** Indicates that the grammar resumes after the records it rejects */
+    private boolean recovering;
+
+    /**
+     * Creates a new GDSValidator object reporting every problem found.
+     *
+     * @throws  BNFTestException  If the database grammar cannot be compiled
+     */
+    public GDSValidator() throws BNFTestException {
+        this.grammar = new BNFCompiler().compile(new DatabaseValidator());
+        this.maxDiagnostics = 0;
+        this.recovering = false;
+    }
+
+    /**
+     * Returns the number of problems after which validation stops.
+     *
+     * @return  The limit, 0 if every problem is reported
+     */
+    public int getMaxDiagnostics() {
+        return this.maxDiagnostics;
+    }
+
+    /**
+     * Tells whether the grammar resumes after the records it rejects.
+     *
+     * @return  true in recovery mode
+     */
+    public boolean isRecovering() {
+        return this.recovering;
+    }
+
+    /**
+     * Sets the number of problems after which validation stops.  A limit of 1
+     * stops at the first problem, which is the fastest way to tell whether a
+     * file is valid.
+     *
+     * @param  max  The limit, 0 to report every problem
+     */
+    public void setMaxDiagnostics(int max) {
+        this.maxDiagnostics = Math.max(max, 0);
+    }
+
+    /**
+     * Turns the recovery mode on or off.  Without it the grammar stops at the
+     * first record it rejects.  In recovery mode the records that follow are
+     * skipped up to the next ENDEL, ENDSTR or BGNSTR record, where the
+     * grammar resumes as if everything before had been valid, so a single
+     * pass reports every misplaced record of the file.  An ENDLIB record met
+     * while skipping ends the validation.
+     *
+     * @param  recovering  true to resume after rejected records
+     */
+    public void setRecovering(boolean recovering) {
+        this.recovering = recovering;
+    }
+
+    /**
+     * Returns a string representation of this class
+     *
+     * @return  The physical address of this instance
+     */
+    @Override
+    public String toString() {
+        return super.toString();
+    }
+
+    /**
+     * Validates a file.  A record whose length does not fit the file cannot be
+     * skipped, so it ends the validation.
+     *
+     * @param   file  The GDS file
+     *
+     * @return  The problems found in file order, empty if the file is valid
+     *
+     * @throws  FileNotFoundException  If the file cannot be found or is not
+     *                                 readable
+     */
+    public List<Diagnostic> validate(File file) throws FileNotFoundException {
+        List<Diagnostic> result = new ArrayList<Diagnostic>();
+        BNFAutomaton automaton = new BNFAutomaton(this.grammar);
+        GDSMappedReader in = new GDSMappedReader(file);
+        GDSRecordCursor cursor = new GDSRecordCursor(in);
+        String name = null;
+        boolean failed = false;
+        boolean finished = false;
+        boolean skipping = false;
+        try {
+            while (!finished && !isFull(result) && cursor.next()) {
+                byte rectype = cursor.rectype();
+                String problem = check(rectype, cursor.dattype(),
+                        cursor.length());
+                if (problem != null) {
+                    result.add(new Diagnostic(cursor.offset(), name,
+                            rectype & 0xFF, GDSStringUtil.sprintf(
+                                GDSI18NFactory.getString(GDSI18NFactory.i18n_GDSVALIDATOR_THROW1),
+                                rectype & 0xFF, cursor.offset(), problem)));
+                }
+                if (rectype == GDSRecord.BGNSTR) {
+                    name = null;
+                }
+                else if ((rectype == GDSRecord.STRNAME) && (name == null)) {
+                    name = cursor.asciiString();
+                }
+
+                if (skipping) {
+                    skipping = !resume(automaton, rectype);
+                    finished = (rectype == GDSRecord.ENDLIB);
+                }
+                else if (!failed && !isFull(result)) {
+                    int status = automaton.test(rectype);
+                    if (status == BNFTestResult.FAILED) {
+                        result.add(unexpected(cursor.offset(), name, rectype,
+                                automaton.getExpectedTokens()));
+                        failed = !this.recovering;
+                        skipping = this.recovering &&
+                            !resume(automaton, rectype);
+                    }
+                    finished = (status == BNFTestResult.FINISHED);
+                }
+                if (rectype == GDSRecord.ENDSTR) {
+                    name = null;
+                }
+            } // end while
+            if (!failed && !finished && !isFull(result)) {
+                result.add(new Diagnostic(in.getSize(), name, -1,
+                        GDSStringUtil.sprintf(
+                            GDSI18NFactory.getString(GDSI18NFactory.i18n_EVENTREADER_THROW2),
+                            in.getSize())));
+            }
+        }
+        catch (GDSRecordException ex) {
+            result.add(new Diagnostic(in.getPosition(), name, -1,
+                    ex.getMessage()));
+        }
+        finally {
+            try {
+                cursor.close();
+            }
+            catch (IOException ex) { /* can't do anything now */
+            }
+        }
+
+        return result;
+    } // end method validate
+
+    /**
+     * Checks a record header against the rules of its record type.  Null
+     * records are left to the grammar.  Nothing is allocated unless the
+     * header is malformed.
+     *
+     * @param   rectype  The record type
+     * @param   dattype  The data type
+     * @param   length   The total record length
+     *
+     * @return  The description of the problem, or null if the header is valid
+     */
+    static String check(byte rectype, byte dattype, int length) {
+        /* Almost every header passes these table lookups */
+        int datalen = length - 4;
+        if ((rectype >= 0) && (rectype < dattypes.length) &&
+                (dattype == dattypes[rectype]) &&
+                (datalen >= minlengths[rectype]) &&
+                (datalen <= maxlengths[rectype]) &&
+                ((datalen & masks[rectype]) == 0)) {
+            return null;
+        }
+
+        return describe(rectype, dattype, length);
+    }
+
+    /**
+     * Checks a record header the way the record classes do, reporting the
+     * first rule it breaks.
+     *
+     * @param   rectype  The record type
+     * @param   dattype  The data type
+     * @param   length   The total record length
+     *
+     * @return  The description of the problem, or null if the header is valid
+     */
+    private static String describe(byte rectype, byte dattype, int length) {
+        if (length == 0) {
+            return null;
+        }
+        if ((length % 2) != 0) {
+            return GDSI18NFactory.getString(GDSI18NFactory.i18n_RECORD_THROW1);
+        }
+        if ((rectype < 0) || (rectype >= dattypes.length)) {
+            return GDSStringUtil.sprintf(
+                    GDSI18NFactory.getString(GDSI18NFactory.i18n_RECORD_THROW3), rectype);
+        }
+        if ((dattype < 0) || (dattype > GDSRecord.STRING_TYPE)) {
+            return GDSStringUtil.sprintf(
+                    GDSI18NFactory.getString(GDSI18NFactory.i18n_RECORD_THROW4), dattype);
+        }
+
+        byte expected = dattypes[rectype];
+        if (expected == ANY_TYPE) {
+            return null;
+        }
+
+        /* The multiple is checked before the type, like the records do */
+        int datalen = length - 4;
+        if ((expected == GDSRecord.DOUBLE_TYPE) && ((datalen % 8) != 0)) {
+            return GDSI18NFactory.getString(GDSI18NFactory.i18n_RECORD_THROW7);
+        }
+        if (((expected == GDSRecord.INT_TYPE) ||
+                (expected == GDSRecord.FLOAT_TYPE)) && ((datalen % 4) != 0)) {
+            return GDSI18NFactory.getString(GDSI18NFactory.i18n_RECORD_THROW8);
+        }
+        if ((dattype != expected) || (datalen < minlengths[rectype]) ||
+                (datalen > maxlengths[rectype])) {
+            String rec = Integer.toHexString(rectype);
+            String dtp = String.valueOf(expected);
+            if (minlengths[rectype] != maxlengths[rectype]) {
+                return GDSStringUtil.sprintf(
+                        GDSI18NFactory.getString(GDSI18NFactory.i18n_RECORD_THROW10), rec, dtp,
+                        (maxlengths[rectype] + 4), (minlengths[rectype] + 4));
+            }
+
+            return GDSStringUtil.sprintf(
+                    GDSI18NFactory.getString(GDSI18NFactory.i18n_RECORD_THROW11), rec, dtp,
+                    (maxlengths[rectype] + 4)).trim();
+        }
+        if ((rectype == GDSRecord.XY) && ((datalen % 8) != 0)) {
+            return GDSI18NFactory.getString(GDSI18NFactory.i18n_XY_THROW1);
+        }
+        if ((rectype == GDSRecord.REFLIBS) && ((datalen % 44) != 0)) {
+            return GDSI18NFactory.getString(GDSI18NFactory.i18n_REFLIBS_THROW1);
+        }
+        if ((rectype == GDSRecord.LIBSECUR) && ((datalen % 6) != 0)) {
+            return GDSI18NFactory.getString(GDSI18NFactory.i18n_LIBSECUR_THROW);
+        }
+
+        return null;
+    } // end method describe
+
+    /**
+     * Tells whether enough problems have been found.
+     *
+     * @param   diagnostics  The problems found so far
+     *
+     * @return  true if validation should stop
+     */
+    private boolean isFull(List<Diagnostic> diagnostics) {
+        return (this.maxDiagnostics > 0) &&
+            (diagnostics.size() >= this.maxDiagnostics);
+    }
+
+    /**
+     * Resumes the grammar at a record closing an element or a structure, or
+     * starting a structure.
+     *
+     * @param   automaton  The grammar
+     * @param   rectype    The record type
+     *
+     * @return  true if the grammar has resumed
+     */
+    private static boolean resume(BNFAutomaton automaton, byte rectype) {
+        if ((rectype != GDSRecord.ENDEL) && (rectype != GDSRecord.ENDSTR) &&
+                (rectype != GDSRecord.BGNSTR)) {
+            return false;
+        }
+
+        return automaton.resume(rectype);
+    }
+
+    /**
+     * Records the rule of a record type.
+     *
+     * @param  rectype  The record type
+     * @param  dattype  The expected data type
+     * @param  minlen   The smallest data length
+     * @param  maxlen   The largest data length
+     */
+    private static void rule(byte rectype, byte dattype, int minlen, int maxlen) {
+        dattypes[rectype] = dattype;
+        masks[rectype] = 1;
+        if (dattype == GDSRecord.DOUBLE_TYPE) {
+            masks[rectype] = 7;
+        }
+        else if ((dattype == GDSRecord.INT_TYPE) ||
+                (dattype == GDSRecord.FLOAT_TYPE)) {
+            masks[rectype] = 3;
+        }
+        minlengths[rectype] = minlen;
+        maxlengths[rectype] = maxlen;
+    }
+
+    /**
+     * Creates the diagnostic reported for a record the grammar rejects.
+     *
+     * @param   offset     The offset of the record
+     * @param   structure  The structure name, or null
+     * @param   rectype    The record type
+     * @param   expected   The record types the grammar would have accepted
+     *
+     * @return  The diagnostic
+     */
+    private static Diagnostic unexpected(long offset, String structure,
+            byte rectype, int expected[]) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < expected.length; i++) {
+            if (i > 0) {
+                text.append(", " /* NOI18N */);
+            }
+            text.append(String.format("0x%02x" /* NOI18N */,
+                    expected[i] & 0xFF));
+        }
+
+        return new Diagnostic(offset, structure, rectype & 0xFF, expected,
+                GDSStringUtil.sprintf(
+                    GDSI18NFactory.getString(GDSI18NFactory.i18n_GDSVALIDATOR_THROW2),
+                    rectype & 0xFF, offset, text.toString()));
+    }
+} // end class GDSValidator
+
+/* This material is distributed under the GNU General Public License.
+ * For more information please go to http://www.gnu.org/copyleft/gpl.html */
@@ -74,7 +74,7 @@ public class GDSWidthRecord extends GDSRecord {
     public GDSWidthRecord(int length, byte rectype, byte dattype, byte data[]) throws GDSRecordException {
         super(length, rectype, dattype, data);
         validateIntRec(WIDTH);
-        this.width = GDSByteConverter.toInt(data);
+        this.width = GDSBufferCodec.getInt32(data, 0);
     }
 
     /**
@@ -93,7 +93,7 @@ public class GDSWidthRecord extends GDSRecord {
      */
     public void setWidth(int width) {
         this.width = width;
-        this.data = GDSByteConverter.writeInt(width);
+        this.data = GDSBufferCodec.putInt32(new byte[4], 0, width);
     }
 
     /**
@@ -21,8 +21,6 @@
 package com.ohrasys.cad.gds;
 
 import java.awt.Point;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 
 /**
  * Represents a GDSII XY record.
@@ -36,9 +34,6 @@ import java.io.ByteArrayOutputStream;
  */
 public class GDSXyRecord extends GDSRecord {
 
-    /** The {x,y} coordinate */
-    private Point xy[];
-
     /**
      * Creates a new GDSXyRecord object from an existing record.
      *
@@ -64,6 +59,20 @@ public class GDSXyRecord extends GDSRecord {
         this.dattype = INT_TYPE;
     }
 
+    /**
+     * Creates a new GDSXyRecord object.
+     *
+     * @param   xy  The interleaved coordinate list {x0, y0, x1, y1, ...}.
+     *
+     * @throws  GDSRecordException  If the coordinate list is of zero length or
+     *                              holds an odd number of integers.
+     */
+    public GDSXyRecord(int xy[]) throws GDSRecordException {
+        setXyInts(xy);
+        this.rectype = XY;
+        this.dattype = INT_TYPE;
+    }
+
     /**
      * Creates a new GDSXyRecord object.
      *
@@ -81,17 +90,15 @@ public class GDSXyRecord extends GDSRecord {
         if ((data.length % 8) != 0) {
             throw new GDSRecordException(GDSI18NFactory.getString(GDSI18NFactory.i18n_XY_THROW1));
         }
+    }
 
-        ByteArrayInputStream bais = new ByteArrayInputStream(data);
-        Point register[] = new Point[data.length / 8];
-
-        for (int i = 0; i < register.length; i++) {
-            int x = GDSByteConverter.readInt(bais);
-            int y = GDSByteConverter.readInt(bais);
-            register[i] = new Point(x, y);
-        }
-
-        this.xy = register;
+    /**
+     * Returns the number of coordinates in the record.
+     *
+     * @return  The number of {x,y} pairs.
+     */
+    public int getPointCount() {
+        return this.data.length / 8;
     }
 
     /**
@@ -100,8 +107,26 @@ public class GDSXyRecord extends GDSRecord {
      * @return  The coordinate list.
      */
     public Point[] getXy() {
-        Point result[] = new Point[this.xy.length];
-        System.arraycopy(this.xy, 0, result, 0, this.xy.length);
+        int xy[] = getXyInts();
+        Point result[] = new Point[xy.length / 2];
+
+        for (int i = 0; i < result.length; i++) {
+            result[i] = new Point(xy[2 * i], xy[(2 * i) + 1]);
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the coordinate list as interleaved integers {x0, y0, x1, y1,
+     * ...}.  The coordinates are decoded in bulk from the record data on each
+     * call, so the caller owns the returned array.
+     *
+     * @return  The interleaved coordinate list.
+     */
+    public int[] getXyInts() {
+        int result[] = new int[this.data.length / 4];
+        GDSBufferCodec.getInt32s(this.data, 0, result);
 
         return result;
     }
@@ -117,45 +142,45 @@ public class GDSXyRecord extends GDSRecord {
      */
     public boolean isCoordConstraintMet(int elementType) {
         boolean result = false;
+        int count = getPointCount();
 
         if (elementType == PATH_ELEM_TYPE) {
-            if ((this.xy.length >= 2) && (this.xy.length <= 200)) {
+            if ((count >= 2) && (count <= 200)) {
                 result = true;
             }
         }
         else if (elementType == BOUNDARY_ELEM_TYPE) {
-            if ((this.xy.length >= 4) && (this.xy.length <= 600) &&
-                    (this.xy[0] == this.xy[this.xy.length - 1])) {
+            if ((count >= 4) && (count <= 600) && isClosed()) {
                 result = true;
             }
         }
         else if (elementType == TEXT_ELEM_TYPE) {
-            if (this.xy.length == 1) {
+            if (count == 1) {
                 result = true;
             }
         }
         else if (elementType == CONTACT_ELEM_TYPE) {
-            if (this.xy.length == 1) {
+            if (count == 1) {
                 result = true;
             }
         }
         else if (elementType == SREF_ELEM_TYPE) {
-            if (this.xy.length == 1) {
+            if (count == 1) {
                 result = true;
             }
         }
         else if (elementType == NODE_ELEM_TYPE) {
-            if ((this.xy.length >= 1) && (this.xy.length <= 50)) {
+            if ((count >= 1) && (count <= 50)) {
                 result = true;
             }
         }
         else if (elementType == BOX_ELEM_TYPE) {
-            if ((this.xy.length == 5) && (this.xy[0] == this.xy[this.xy.length - 1])) {
+            if ((count == 5) && isClosed()) {
                 result = true;
             }
         }
         else if (elementType == AREF_ELEM_TYPE) {
-            if (this.xy.length == 3) {
+            if (count == 3) {
                 result = true;
             }
         }
@@ -175,18 +200,34 @@ public class GDSXyRecord extends GDSRecord {
             throw new GDSRecordException(GDSI18NFactory.getString(GDSI18NFactory.i18n_XY_THROW2));
         }
 
-        this.xy = new Point[xy.length];
-        System.arraycopy(xy, 0, this.xy, 0, xy.length);
-
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        int ints[] = new int[xy.length * 2];
 
         for (int i = 0; i < xy.length; i++) {
-            baos = GDSByteConverter.fromInt(xy[i].x, baos);
-            baos = GDSByteConverter.fromInt(xy[i].y, baos);
+            ints[2 * i] = xy[i].x;
+            ints[(2 * i) + 1] = xy[i].y;
         }
 
-        this.data = baos.toByteArray();
-        this.length = (short) (this.data.length + 4);
+        setXyInts(ints);
+    }
+
+    /**
+     * Sets the coordinate list from interleaved integers {x0, y0, x1, y1, ...}.
+     *
+     * @param   xy  The interleaved coordinate list.
+     *
+     * @throws  GDSRecordException  If the coordinate list is of zero length or
+     *                              holds an odd number of integers.
+     */
+    public void setXyInts(int xy[]) throws GDSRecordException {
+        if (xy.length < 2) {
+            throw new GDSRecordException(GDSI18NFactory.getString(GDSI18NFactory.i18n_XY_THROW2));
+        }
+        if ((xy.length % 2) != 0) {
+            throw new GDSRecordException(GDSI18NFactory.getString(GDSI18NFactory.i18n_XY_THROW1));
+        }
+
+        this.data = GDSBufferCodec.putInt32s(xy, new byte[xy.length * 4], 0);
+        this.length = this.data.length + 4;
     }
 
     /**
@@ -198,12 +239,14 @@ public class GDSXyRecord extends GDSRecord {
     public String toString() {
         String result = new String(GDSI18NFactory.getString(GDSI18NFactory.i18n_XY_TOSTRING1));
         result += " " /*NOI18N*/;
+        int xy[] = getXyInts();
+        int count = xy.length / 2;
 
-        for (int i = 0; i < this.xy.length; i++) {
+        for (int i = 0; i < count; i++) {
             result += GDSStringUtil.sprintf(GDSI18NFactory.getString(
-                    GDSI18NFactory.i18n_XY_TOSTRING2), this.xy[i].x, this.xy[i].y);
+                    GDSI18NFactory.i18n_XY_TOSTRING2), xy[2 * i], xy[(2 * i) + 1]);
 
-            if (i < (this.xy.length - 1)) {
+            if (i < (count - 1)) {
                 result += " " /*NOI18N*/;
 
                 if (((i + 1) % 5) == 0) {
@@ -214,6 +257,23 @@ public class GDSXyRecord extends GDSRecord {
 
         return result;
     }
+
+    /**
+     * Determines if the first and last coordinates of the record coincide.
+     *
+     * @return  true if the coordinate list is closed.
+     */
+    private boolean isClosed() {
+        int last = this.data.length - 8;
+
+        for (int i = 0; i < 8; i++) {
+            if (this.data[i] != this.data[last + i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
 } // end class GDSXyRecord
 
 /* This material is distributed under the GNU General Public License.
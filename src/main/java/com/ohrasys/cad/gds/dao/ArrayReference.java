@@ -55,7 +55,8 @@ public class ArrayReference extends ReferenceElement implements InfoProvider {
      * @param  points   The points defining the array boundary
      */
     public ArrayReference(String name, int columns, int rows, Point points[]) {
-        this(false, false, 0, name, new Transform(), columns, rows, points);
+        this(false, false, 0, name, new Transform(0.0, 1.0, false, true, true),
+            columns, rows, points);
     }
 
     /**
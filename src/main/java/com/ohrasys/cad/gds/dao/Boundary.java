@@ -47,6 +47,16 @@ public class Boundary extends GeometryElement implements InfoProvider {
         this(false, false, 0, layer, 0, points);
     }
 
+    /**
+     * Creates a new Boundary object.
+     *
+     * @param  layer   The layer of the boundary
+     * @param  xy      The interleaved coordinates defining the boundary
+     */
+    public Boundary(int layer, int xy[]) {
+        this(false, false, 0, layer, 0, xy);
+    }
+
     /**
      * Creates a new Boundary object.
      *
@@ -61,6 +71,20 @@ public class Boundary extends GeometryElement implements InfoProvider {
         super(external, template, group, layer, datatype, points);
     }
 
+    /**
+     * Creates a new Boundary object.
+     *
+     * @param  external  Indicates the data is external
+     * @param  template  Indicates the data is a template
+     * @param  group     The object group the boundary belongs to
+     * @param  layer     The layer of the boundary
+     * @param  datatype  The data type of the boundary
+     * @param  xy        The interleaved coordinates defining the boundary
+     */
+    public Boundary(boolean external, boolean template, int group, int layer, int datatype, int xy[]) {
+        super(external, template, group, layer, datatype, xy);
+    }
+
     /**
      * Returns a string representation of the object
      *
@@ -47,6 +47,16 @@ public class Box extends GeometryElement implements InfoProvider {
         this(false, false, 0, layer, 0, points);
     }
 
+    /**
+     * Creates a new Box object. 
+     *
+     * @param  layer   The layer of the box
+     * @param  xy      The interleaved coordinates defining the box
+     */
+    public Box(int layer, int xy[]) {
+        this(false, false, 0, layer, 0, xy);
+    }
+
     /**
      * Creates a new Box object.
      *
@@ -61,6 +71,20 @@ public class Box extends GeometryElement implements InfoProvider {
         super(external, template, group, layer, datatype, points);
     }
 
+    /**
+     * Creates a new Box object.
+     *
+     * @param  external  The box is external data
+     * @param  template  The box is template data
+     * @param  group     The object group the box belongs to
+     * @param  layer     The layer of the box
+     * @param  datatype  The data type of the box
+     * @param  xy        The interleaved coordinates defining the box
+     */
+    public Box(boolean external, boolean template, int group, int layer, int datatype, int xy[]) {
+        super(external, template, group, layer, datatype, xy);
+    }
+
     /**
      * Returns a string representation of the box
      *
@@ -43,20 +43,23 @@ public class Element implements InfoProvider {
     /** Holds value of property group. */
     private int group;
 
-    /** Holds value of property points. */
-    private Point points[];
-
     /** Holds value of property properties. */
     private Property properties[];
 
     /** Holds value of property template. */
     private boolean template;
 
+    /**
+     * Holds value of property xy.  The coordinates are stored interleaved as
+     * {x0, y0, x1, y1, ...}.
+     */
+    private int xy[];
+
     /**
      * Creates a new instance of Element
      */
     public Element() {
-        this(false, false, 0, new Point[] { new Point(0, 0) });
+        this(false, false, 0, new int[] { 0, 0 });
     }
 
     /**
@@ -68,10 +71,23 @@ public class Element implements InfoProvider {
      * @param  points      The points defining the location of the object
      */
     public Element(boolean isExternal, boolean isTemplate, int group, Point points[]) {
+        this(isExternal, isTemplate, group, toXy(points));
+    }
+
+    /**
+     * Creates a new Element object.
+     *
+     * @param  isExternal  The element is external data
+     * @param  isTemplate  The element is template data
+     * @param  group       The object group the element belongs to
+     * @param  xy          The interleaved coordinates defining the location of
+     *                     the object
+     */
+    public Element(boolean isExternal, boolean isTemplate, int group, int xy[]) {
         setExternal(isExternal);
         setTemplate(isTemplate);
         setGroup(group);
-        setPoints(points);
+        setXy(xy);
         setProperties(new Property[0]);
         this.i18n = ResourceBundle.getBundle(bundle);
     }
@@ -101,12 +117,13 @@ public class Element implements InfoProvider {
         result += (this.i18n.getString("I18N_EL_GROUP" /*NOI18N*/) + getGroup() +
                 "\n" /*NOI18N*/);
         result += (this.i18n.getString("I18N_EL_POINTS" /*NOI18N*/));
-        for (int i = 0; i < this.points.length; i++) {
+        int count = getPointCount();
+        for (int i = 0; i < count; i++) {
             result += String.format(this.i18n.getString("I18N_EL_POINT" /*NOI18N*/),
-                    this.points[i].x,
-                    this.points[i].y);
+                    this.xy[2 * i],
+                    this.xy[(2 * i) + 1]);
 
-            if (i < (this.points.length - 1)) {
+            if (i < (count - 1)) {
                 result += " " /*NOI18N*/;
 
                 if (((i + 1) % 5) == 0) {
@@ -120,12 +137,27 @@ public class Element implements InfoProvider {
     }
 
     /**
-     * Getter for property points.
+     * Returns the number of points of the element.
+     *
+     * @return  The number of {x,y} pairs in property xy.
+     */
+    public int getPointCount() {
+        return this.xy.length / 2;
+    }
+
+    /**
+     * Getter for property points.  The points are built from property xy on
+     * each call, changes to the returned array do not affect the element.
      *
      * @return  Value of property points.
      */
     public Point[] getPoints() {
-        return this.points;
+        Point result[] = new Point[getPointCount()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = new Point(this.xy[2 * i], this.xy[(2 * i) + 1]);
+        }
+
+        return result;
     }
 
     /**
@@ -137,6 +169,15 @@ public class Element implements InfoProvider {
         return this.properties;
     }
 
+    /**
+     * Getter for property xy.
+     *
+     * @return  Value of property xy, interleaved as {x0, y0, x1, y1, ...}.
+     */
+    public int[] getXy() {
+        return this.xy;
+    }
+
     /**
      * Getter for property external.
      *
@@ -179,7 +220,7 @@ public class Element implements InfoProvider {
      * @param  points  New value of property points.
      */
     public void setPoints(Point points[]) {
-        this.points = points;
+        this.xy = toXy(points);
     }
 
     /**
@@ -200,6 +241,33 @@ public class Element implements InfoProvider {
         this.template = template;
     }
 
+    /**
+     * Setter for property xy.
+     *
+     * @param  xy  New value of property xy, interleaved as {x0, y0, x1, y1,
+     *             ...}.
+     */
+    public void setXy(int xy[]) {
+        this.xy = xy;
+    }
+
+    /**
+     * Converts a list of points to interleaved coordinates.
+     *
+     * @param   points  The points to convert
+     *
+     * @return  The coordinates interleaved as {x0, y0, x1, y1, ...}
+     */
+    private static int[] toXy(Point points[]) {
+        int result[] = new int[points.length * 2];
+        for (int i = 0; i < points.length; i++) {
+            result[2 * i] = points[i].x;
+            result[(2 * i) + 1] = points[i].y;
+        }
+
+        return result;
+    }
+
     /**
      * Returns a string representation of the element
      *
@@ -61,6 +61,22 @@ public class GeometryElement extends Element implements InfoProvider {
         setDatatype(datatype);
     }
 
+    /**
+     * Creates a new GeometryElement object.
+     *
+     * @param  external  The geometry element is external data
+     * @param  template  The geometry element is template data
+     * @param  group     The object group the geometry element belongs to
+     * @param  layer     The layer of the geometry element
+     * @param  datatype  The datatype of the geometry element
+     * @param  xy        The interleaved coordinates defining the geometry element
+     */
+    public GeometryElement(boolean external, boolean template, int group, int layer, int datatype, int xy[]) {
+        super(external, template, group, xy);
+        setLayer(layer);
+        setDatatype(datatype);
+    }
+
     /**
      * Getter for property datatype.
      *
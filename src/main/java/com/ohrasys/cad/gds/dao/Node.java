@@ -47,6 +47,16 @@ public class Node extends GeometryElement implements InfoProvider {
         this(false, false, 0, layer, 0, points);
     }
 
+    /**
+     * Creates a new Node object.
+     *
+     * @param  layer   The layer of the node
+     * @param  xy      The interleaved coordinates defining the node
+     */
+    public Node(int layer, int xy[]) {
+        this(false, false, 0, layer, 0, xy);
+    }
+
     /**
      * Creates a new Node object.
      *
@@ -61,6 +71,20 @@ public class Node extends GeometryElement implements InfoProvider {
         super(external, template, group, layer, datatype, points);
     }
 
+    /**
+     * Creates a new Node object.
+     *
+     * @param  external  The node is external data
+     * @param  template  The node is template data
+     * @param  group     The object group the node belongs to
+     * @param  layer     The layer of the node
+     * @param  datatype  The datatype of the node
+     * @param  xy        The interleaved coordinates defining the node
+     */
+    public Node(boolean external, boolean template, int group, int layer, int datatype, int xy[]) {
+        super(external, template, group, layer, datatype, xy);
+    }
+
     /**
      * Returns a string representation of the node
      *
@@ -64,6 +64,17 @@ public class Path extends GeometryElement implements InfoProvider {
         this(false, false, 0, layer, 0, 0, width, 0, 0, points);
     }
 
+    /**
+     * Creates a new Path object.
+     *
+     * @param  layer   The layer of the path
+     * @param  width   The width of the path
+     * @param  xy      The interleaved coordinates defining the path
+     */
+    public Path(int layer, int width, int xy[]) {
+        this(false, false, 0, layer, 0, 0, width, 0, 0, xy);
+    }
+
     /**
      * Creates a new Path object.
      *
@@ -86,6 +97,28 @@ public class Path extends GeometryElement implements InfoProvider {
         setEndExtension(endExtension);
     }
 
+    /**
+     * Creates a new Path object.
+     *
+     * @param  external        The path is external data
+     * @param  template        The path is template data
+     * @param  group           The object group of the path
+     * @param  layer           The layer of the path
+     * @param  datatype        The datatype of the path
+     * @param  pathtype        The pathtype of the path
+     * @param  width           The width of the path
+     * @param  startExtension  The start extension of the path
+     * @param  endExtension    The end extension of the path
+     * @param  xy              The interleaved coordinates defining the path
+     */
+    public Path(boolean external, boolean template, int group, int layer, int datatype, int pathtype, int width, int startExtension, int endExtension, int xy[]) {
+        super(external, template, group, layer, datatype, xy);
+        setPathtype(pathtype);
+        setWidth(width);
+        setStartExtension(startExtension);
+        setEndExtension(endExtension);
+    }
+
     /**
      * Getter for property endExtension.
      *
@@ -42,7 +42,8 @@ public class ReferenceElement extends Element implements InfoProvider {
     public ReferenceElement() {
         super();
         setName(new String());
-        setTransform(new Transform());
+        /* Without STRANS the angle and magnification are relative */
+        setTransform(new Transform(0.0, 1.0, false, true, true));
     }
 
     /**
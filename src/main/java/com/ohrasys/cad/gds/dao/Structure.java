@@ -141,9 +141,10 @@ public class Structure implements InfoProvider {
                 this.modified.toString());
         result += String.format(this.i18n.getString("I18N_STRUCT_ACCESSED" /*NOI18N*/),
                 this.accessed.toString());
-        if (this.elements != null) {
+        Element elements[] = getElements();
+        if (elements != null) {
             result += String.format(this.i18n.getString("I18N_STRUCT_COUNT" /*NOI18N*/),
-                    this.elements.length);
+                    elements.length);
         }
         result += String.format(this.i18n.getString("I18N_STRUCT_CLASS" /*NOI18N*/),
                 this.structureClass);
@@ -44,7 +44,7 @@ public class StructureReference extends ReferenceElement implements InfoProvider
      * @param  points  The points that define the structure reference 
      */
     public StructureReference(String name, Point points[]) {
-        this(name, new Transform(), points);
+        this(name, new Transform(0.0, 1.0, false, true, true), points);
     }
 
     /**
@@ -55,7 +55,8 @@ public class Text extends GeometryElement implements InfoProvider {
      * Creates a new Text object.
      */
     public Text() {
-        this(0, new Transform(), new String(), new Point[0]);
+        this(0, new Transform(0.0, 1.0, false, true, true), new String(),
+            new Point[0]);
     }
 
     /**
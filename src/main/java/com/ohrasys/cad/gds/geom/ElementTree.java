@@ -0,0 +1,263 @@
+/*
+ * Copyright (C) 2004 Thomas N. Valine
+ * tvaline@users.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA
+ * 02111-1307, USA.
+ */
+
+package com.ohrasys.cad.gds.geom;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.ohrasys.cad.gds.dao.Element;
+
+/**
+ * A static R-tree over the bounding boxes of some elements, bulk loaded with
+ * the Sort-Tile-Recursive method and packed into primitive arrays.  Each level
+ * sorts its entries into vertical slices by the x of their centre and each
+ * slice by the y, then groups runs of <code>FANOUT</code> entries into the
+ * nodes of the next level, until a single root remains.  Queries allocate
+ * nothing.
+ *
+ * @author   $Author: tvaline $
+ * @version  $Revision: 1.1 $
+ * @since    1.5
+ */
+final class ElementTree {
+
+    /** The maximum number of children of a node */
+    static final int FANOUT = 16;
+
+    /** The boxes of each level, four ints per entry, the leaves first */
+    private int boxes[][];
+
+    /** The elements, in the order of the leaf boxes */
+    private Element elements[];
+
+    /**
+     * The children of each level above the leaves, as the first and the
+     * end index of a range of the level below
+     */
+    private int links[][];
+
+    /**
+     * Creates a new ElementTree object.
+     *
+     * @param  boxes     The boxes of the elements, as
+     *                   <code>{xmin, ymin, xmax, ymax}</code> each
+     * @param  elements  The elements
+     * @param  count     The number of elements
+     */
+    ElementTree(int boxes[], Element elements[], int count) {
+        List<int[]> levelBoxes = new ArrayList<int[]>();
+        List<int[]> levelLinks = new ArrayList<int[]>();
+        int order[] = order(boxes, count);
+        this.elements = new Element[count];
+        int level[] = new int[4 * count];
+        for (int i = 0; i < count; i++) {
+            this.elements[i] = elements[order[i]];
+            System.arraycopy(boxes, 4 * order[i], level, 4 * i, 4);
+        }
+        levelBoxes.add(level);
+        levelLinks.add(null);
+
+        int size = count;
+        int links[] = null;
+        while (size > 1) {
+            if (links != null) {
+                /* Tile the nodes too, carrying their children along */
+                order = order(level, size);
+                int sortedBoxes[] = new int[4 * size];
+                int sortedLinks[] = new int[2 * size];
+                for (int i = 0; i < size; i++) {
+                    System.arraycopy(level, 4 * order[i], sortedBoxes, 4 * i, 4);
+                    System.arraycopy(links, 2 * order[i], sortedLinks, 2 * i, 2);
+                }
+                level = sortedBoxes;
+                links = sortedLinks;
+                levelBoxes.set(levelBoxes.size() - 1, level);
+                levelLinks.set(levelLinks.size() - 1, links);
+            }
+
+            int parents = (size + FANOUT - 1) / FANOUT;
+            int parentBoxes[] = new int[4 * parents];
+            int parentLinks[] = new int[2 * parents];
+            for (int i = 0; i < parents; i++) {
+                int first = i * FANOUT;
+                int end = Math.min(size, first + FANOUT);
+                parentLinks[2 * i] = first;
+                parentLinks[(2 * i) + 1] = end;
+                System.arraycopy(level, 4 * first, parentBoxes, 4 * i, 4);
+                for (int j = first + 1; j < end; j++) {
+                    parentBoxes[4 * i] = Math.min(parentBoxes[4 * i], level[4 * j]);
+                    parentBoxes[(4 * i) + 1] =
+                        Math.min(parentBoxes[(4 * i) + 1], level[(4 * j) + 1]);
+                    parentBoxes[(4 * i) + 2] =
+                        Math.max(parentBoxes[(4 * i) + 2], level[(4 * j) + 2]);
+                    parentBoxes[(4 * i) + 3] =
+                        Math.max(parentBoxes[(4 * i) + 3], level[(4 * j) + 3]);
+                }
+            }
+            level = parentBoxes;
+            links = parentLinks;
+            levelBoxes.add(level);
+            levelLinks.add(links);
+            size = parents;
+        }
+
+        this.boxes = levelBoxes.toArray(new int[levelBoxes.size()][]);
+        this.links = levelLinks.toArray(new int[levelLinks.size()][]);
+    } // end ctor ElementTree
+
+    /**
+     * Returns a string representation of this class
+     *
+     * @return  The physical address of this instance
+     */
+    @Override
+    public String toString() {
+        return super.toString();
+    }
+
+    /**
+     * Returns the bounding box of all elements.
+     *
+     * @return  The box as <code>{xmin, ymin, xmax, ymax}</code>, or null if
+     *          the tree is empty
+     */
+    int[] getBounds() {
+        if (this.elements.length == 0) {
+            return null;
+        }
+
+        return Arrays.copyOf(this.boxes[this.boxes.length - 1], 4);
+    }
+
+    /**
+     * Returns the number of elements.
+     *
+     * @return  The number of elements
+     */
+    int getCount() {
+        return this.elements.length;
+    }
+
+    /**
+     * Reports the elements whose box intersects a window, boundaries
+     * included.
+     *
+     * @param  x1       The left side of the window
+     * @param  y1       The bottom side of the window
+     * @param  x2       The right side of the window
+     * @param  y2       The top side of the window
+     * @param  visitor  The visitor receiving the elements
+     */
+    void query(int x1, int y1, int x2, int y2, ElementVisitor visitor) {
+        if (this.elements.length > 0) {
+            query(this.boxes.length - 1, 0, x1, y1, x2, y2, visitor);
+        }
+    }
+
+    /**
+     * Orders boxes into tiles.  The boxes are sorted by the x of their
+     * centre, cut into vertical slices of whole nodes and each slice is
+     * sorted by the y of the centres.
+     *
+     * @param   boxes  The boxes
+     * @param   count  The number of boxes
+     *
+     * @return  The indexes of the boxes in tile order
+     */
+    private static int[] order(int boxes[], int count) {
+        int nodes = (count + FANOUT - 1) / FANOUT;
+        int slice = (int) Math.ceil(Math.sqrt(nodes)) * FANOUT;
+
+        /* The centre in the high half and the index in the low one, so that
+         * plain long sorts do the work */
+        long keys[] = new long[count];
+        for (int i = 0; i < count; i++) {
+            keys[i] = key(boxes[4 * i], boxes[(4 * i) + 2], i);
+        }
+        Arrays.sort(keys);
+        for (int first = 0; first < count; first += slice) {
+            int end = Math.min(count, first + slice);
+            for (int i = first; i < end; i++) {
+                int index = (int) keys[i];
+                keys[i] = key(boxes[(4 * index) + 1], boxes[(4 * index) + 3],
+                        index);
+            }
+            Arrays.sort(keys, first, end);
+        }
+
+        int result[] = new int[count];
+        for (int i = 0; i < count; i++) {
+            result[i] = (int) keys[i];
+        }
+
+        return result;
+    } // end method order
+
+    /**
+     * Builds a sort key from the centre of an interval and an index.
+     *
+     * @param   min    The low end of the interval
+     * @param   max    The high end of the interval
+     * @param   index  The index
+     *
+     * @return  The key
+     */
+    private static long key(int min, int max, int index) {
+        long centre = ((long) min + max) >> 1;
+
+        return (centre << 32) | index;
+    }
+
+    /**
+     * Reports the elements under a node whose box intersects a window.
+     *
+     * @param  level    The level of the node, 0 for an element
+     * @param  node     The index of the node in its level
+     * @param  x1       The left side of the window
+     * @param  y1       The bottom side of the window
+     * @param  x2       The right side of the window
+     * @param  y2       The top side of the window
+     * @param  visitor  The visitor receiving the elements
+     */
+    private void query(int level, int node, int x1, int y1, int x2, int y2,
+            ElementVisitor visitor) {
+        int box[] = this.boxes[level];
+        int offset = 4 * node;
+        if ((box[offset] > x2) || (box[offset + 1] > y2) ||
+                (box[offset + 2] < x1) || (box[offset + 3] < y1)) {
+            return;
+        }
+        if (level == 0) {
+            visitor.visit(this.elements[node]);
+
+            return;
+        }
+
+        int end = this.links[level][(2 * node) + 1];
+        for (int child = this.links[level][2 * node]; child < end; child++) {
+            query(level - 1, child, x1, y1, x2, y2, visitor);
+        }
+    } // end method query
+} // end class ElementTree
+
+/* This material is distributed under the GNU General Public License.
+ * For more information please go to http://www.gnu.org/copyleft/gpl.html */
@@ -0,0 +1,675 @@
+/*
+ * Copyright (C) 2004 Thomas N. Valine
+ * tvaline@users.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA
+ * 02111-1307, USA.
+ */
+
+package com.ohrasys.cad.gds.geom;
+
+import java.awt.Point;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+
+import com.ohrasys.cad.gds.GDSStringUtil;
+import com.ohrasys.cad.gds.dao.ArrayReference;
+import com.ohrasys.cad.gds.dao.Boundary;
+import com.ohrasys.cad.gds.dao.Box;
+import com.ohrasys.cad.gds.dao.Database;
+import com.ohrasys.cad.gds.dao.Element;
+import com.ohrasys.cad.gds.dao.GeometryElement;
+import com.ohrasys.cad.gds.dao.Node;
+import com.ohrasys.cad.gds.dao.Path;
+import com.ohrasys.cad.gds.dao.ReferenceElement;
+import com.ohrasys.cad.gds.dao.Structure;
+import com.ohrasys.cad.gds.dao.Text;
+
+/**
+ * Flattens a structure hierarchy: every shape of every instance below a top
+ * structure is written to a sink as a new element in the coordinates of the
+ * top structure.  The flattening is a depth first walk, so the memory used
+ * does not grow with the number of shapes written.
+ *
+ * <p>Shapes are written in the order of the elements of their structure,
+ * the instances of an array reference row by row and each row column by
+ * column.  Boundaries, boxes and nodes get their points placed.  Paths stay
+ * paths with their points placed and their width and end extensions
+ * magnified; a negative, absolute width is kept as is.  Texts get their
+ * point placed and their transform composed with the placement.  Points are
+ * rounded to the nearest database unit.  References to missing structures
+ * are skipped.</p>
+ *
+ * <p>Given a pool, each instance placed by the top structure is flattened
+ * by a task of its own, at most a few tasks per thread ahead of the one
+ * being written.  The calling thread writes the shapes of the tasks to the
+ * sink in the same order as a flattening on a single thread, so the sink
+ * needs not be thread safe.  A task holds at most a few chunks of shapes
+ * the caller has not written yet and waits until the caller catches up.
+ * The caller must not itself be a task of the pool.</p>
+ *
+ * @author   $Author: tvaline $
+ * @version  $Revision: 1.1 $
+ * @since    1.5
+ */
+public class Flattener {
+
+    /** The bundle holding the messages of the gds package */
+    private static final String bundle = "com/ohrasys/cad/gds/GDSProperties" /* NOI18N */;
+
+    /** The number of shapes in a chunk handed over by a task */
+    private static final int CHUNK_SIZE = 1024;
+
+    /** Marks the end of the shapes of a task */
+    private static final Object END = new Object();
+
+    /** The number of chunks a task may hold */
+    private static final int QUEUED_CHUNKS = 4;
+
+    /** The internationalized strings */
+    private ResourceBundle i18n;
+
+    /** The structures by name */
+    private Map<String, Structure> structures;
+
+    /**
+     * Creates a new Flattener object for the structures of a database.
+     *
+     * @param  database  The database
+     */
+    public Flattener(Database database) {
+        this(database.getStructures());
+    }
+
+    /**
+     * Creates a new Flattener object.  References are resolved by name among
+     * the structures given, the first structure of a name wins.
+     *
+     * @param  structures  The structures, may be null
+     */
+    public Flattener(Structure structures[]) {
+        this.i18n = ResourceBundle.getBundle(bundle);
+        this.structures = new HashMap<String, Structure>();
+        if (structures != null) {
+            for (int i = structures.length - 1; i >= 0; i--) {
+                this.structures.put(structures[i].getName(), structures[i]);
+            }
+        }
+    }
+
+    /**
+     * Flattens a structure on the calling thread.
+     *
+     * @param   top   The top structure
+     * @param   sink  The sink receiving the shapes
+     *
+     * @throws  IOException               If the sink fails
+     * @throws  IllegalArgumentException  If the hierarchy references itself
+     */
+    public void flatten(Structure top, ShapeSink sink) throws IOException {
+        expand(top, Placement.IDENTITY, sink, new HashSet<Structure>());
+    }
+
+    /**
+     * Flattens a structure on several threads.
+     *
+     * @param   top      The top structure
+     * @param   sink     The sink receiving the shapes
+     * @param   threads  The number of threads.  With 1 or less the structure
+     *                   is flattened on the calling thread.
+     *
+     * @throws  IOException               If the sink fails
+     * @throws  IllegalArgumentException  If the hierarchy references itself
+     *
+     * @see     #flatten(Structure, ShapeSink, ForkJoinPool)
+     */
+    public void flatten(Structure top, ShapeSink sink, int threads) throws IOException {
+        if (threads <= 1) {
+            flatten(top, sink);
+
+            return;
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            flatten(top, sink, pool);
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Flattens a structure on a pool.  The shapes of the top structure are
+     * written by the calling thread, the instances it places are flattened
+     * by tasks of the pool.  The sink sees the same shapes in the same order
+     * as with <code>flatten(Structure, ShapeSink)</code>.
+     *
+     * @param   top   The top structure
+     * @param   sink  The sink receiving the shapes
+     * @param   pool  The pool flattening the instances
+     *
+     * @throws  IOException               If the sink fails or the thread is
+     *                                    interrupted
+     * @throws  IllegalArgumentException  If the hierarchy references itself
+     */
+    public void flatten(Structure top, ShapeSink sink, ForkJoinPool pool) throws IOException {
+        Element elements[] = top.getElements();
+        if (elements == null) {
+            return;
+        }
+
+        int limit = pool.getParallelism() * 4;
+        ArrayDeque<Object> pending = new ArrayDeque<Object>();
+        Units units = new Units(top, elements);
+        try {
+            while (true) {
+                /* Keep a few tasks running ahead of the one being written */
+                while ((pending.size() < limit) && units.hasNext()) {
+                    Object unit = units.next();
+                    if (unit instanceof Expansion) {
+                        pool.execute((Expansion) unit);
+                    }
+                    pending.addLast(unit);
+                }
+                if (pending.isEmpty()) {
+                    break;
+                }
+
+                Object unit = pending.removeFirst();
+                if (unit instanceof Expansion) {
+                    drain((Expansion) unit, sink);
+                }
+                else {
+                    sink.write(place((Element) unit, Placement.IDENTITY));
+                }
+            }
+        }
+        finally {
+            /* Stop the tasks still running after a failure and wait for them
+             * so that none outlives the call */
+            units.cancelled = true;
+            while (!pending.isEmpty()) {
+                Object unit = pending.removeFirst();
+                if (unit instanceof Expansion) {
+                    discard((Expansion) unit);
+                }
+            }
+        }
+    } // end method flatten
+
+    /**
+     * Returns a string representation of this class
+     *
+     * @return  The physical address of this instance
+     */
+    @Override
+    public String toString() {
+        return super.toString();
+    }
+
+    /**
+     * Returns the placement of an instance of a reference.
+     *
+     * @param   reference  The reference
+     * @param   parent     The placement of the structure holding the
+     *                     reference
+     * @param   column     The column of the instance, 0 for a structure
+     *                     reference
+     * @param   row        The row of the instance, 0 for a structure
+     *                     reference
+     *
+     * @return  The placement of the instance
+     */
+    static Placement instance(ReferenceElement reference, Placement parent,
+            int column, int row) {
+        int xy[] = reference.getXy();
+        double x = xy[0];
+        double y = xy[1];
+        if ((reference instanceof ArrayReference) && (xy.length >= 6)) {
+            int columns = Math.max(((ArrayReference) reference).getColumns(), 1);
+            int rows = Math.max(((ArrayReference) reference).getRows(), 1);
+            x += ((column * ((double) xy[2] - xy[0])) / columns) +
+                ((row * ((double) xy[4] - xy[0])) / rows);
+            y += ((column * ((double) xy[3] - xy[1])) / columns) +
+                ((row * ((double) xy[5] - xy[1])) / rows);
+        }
+
+        return parent.compose(new Placement(reference.getTransform(), x, y));
+    }
+
+    /**
+     * Places a shape.
+     *
+     * @param   shape      The shape
+     * @param   placement  The placement
+     *
+     * @return  A new shape in the coordinates given by the placement
+     */
+    static Element place(Element shape, Placement placement) {
+        int source[] = shape.getXy();
+        int xy[] = new int[source.length];
+        placement.transform(source, 0, xy, 0, source.length / 2);
+
+        double magnification = placement.getMagnification();
+        Element result;
+        if (shape instanceof Path) {
+            Path path = (Path) shape;
+            result = new Path(path.isExternal(), path.isTemplate(),
+                    path.getGroup(), path.getLayer(), path.getDatatype(),
+                    path.getPathtype(), scale(path.getWidth(), magnification),
+                    Placement.round(path.getStartExtension() * magnification),
+                    Placement.round(path.getEndExtension() * magnification), xy);
+        }
+        else if (shape instanceof Text) {
+            Text text = (Text) shape;
+            Placement own = placement.compose(new Placement(
+                        text.getTransform(), 0, 0));
+            result = new Text(text.isExternal(), text.isTemplate(),
+                    text.getGroup(), text.getLayer(), text.getDatatype(),
+                    text.getVJustify(), text.getHJustify(), text.getFont(),
+                    text.getPathStyle(), scale(text.getWidth(), magnification),
+                    own.toTransform(), new Point[0],
+                    text.getValue());
+            result.setXy(xy);
+        }
+        else if (shape instanceof GeometryElement) {
+            GeometryElement geometry = (GeometryElement) shape;
+            if (shape instanceof Box) {
+                result = new Box(geometry.isExternal(), geometry.isTemplate(),
+                        geometry.getGroup(), geometry.getLayer(),
+                        geometry.getDatatype(), xy);
+            }
+            else if (shape instanceof Node) {
+                result = new Node(geometry.isExternal(), geometry.isTemplate(),
+                        geometry.getGroup(), geometry.getLayer(),
+                        geometry.getDatatype(), xy);
+            }
+            else {
+                result = new Boundary(geometry.isExternal(),
+                        geometry.isTemplate(), geometry.getGroup(),
+                        geometry.getLayer(), geometry.getDatatype(), xy);
+            }
+        }
+        else {
+            result = new Element(shape.isExternal(), shape.isTemplate(),
+                    shape.getGroup(), xy);
+        }
+        result.setProperties(shape.getProperties());
+
+        return result;
+    } // end method place
+
+    /**
+     * Returns the number of columns of a reference.
+     *
+     * @param   reference  The reference
+     *
+     * @return  The number of columns, 1 for a structure reference
+     */
+    private static int columns(ReferenceElement reference) {
+        return (reference instanceof ArrayReference)
+            ? Math.max(((ArrayReference) reference).getColumns(), 1) : 1;
+    }
+
+    /**
+     * Waits for a task without being interrupted and drops its shapes.
+     *
+     * @param  expansion  The task
+     */
+    private static void discard(Expansion expansion) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                Object item = expansion.queue.take();
+                if (!(item instanceof Element[])) {
+                    break;
+                }
+            }
+            catch (InterruptedException ex) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Writes the shapes of a task to a sink as they come.
+     *
+     * @param   expansion  The task
+     * @param   sink       The sink
+     *
+     * @throws  IOException  If the sink fails or the thread is interrupted
+     */
+    private static void drain(Expansion expansion, ShapeSink sink) throws IOException {
+        try {
+            while (true) {
+                Object item = expansion.queue.take();
+                if (item == END) {
+                    return;
+                }
+                if (item instanceof Throwable) {
+                    if (item instanceof Error) {
+                        throw (Error) item;
+                    }
+                    throw (item instanceof RuntimeException)
+                        ? (RuntimeException) item
+                        : new IllegalStateException((Throwable) item);
+                }
+
+                Element chunk[] = (Element[]) item;
+                for (int i = 0; (i < chunk.length) && (chunk[i] != null); i++) {
+                    sink.write(chunk[i]);
+                }
+            }
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(ex.toString());
+        }
+    } // end method drain
+
+    /**
+     * Returns the number of rows of a reference.
+     *
+     * @param   reference  The reference
+     *
+     * @return  The number of rows, 1 for a structure reference
+     */
+    private static int rows(ReferenceElement reference) {
+        return (reference instanceof ArrayReference)
+            ? Math.max(((ArrayReference) reference).getRows(), 1) : 1;
+    }
+
+    /**
+     * Magnifies a width, keeping negative absolute widths.
+     *
+     * @param   width          The width
+     * @param   magnification  The magnification
+     *
+     * @return  The magnified width
+     */
+    private static int scale(int width, double magnification) {
+        return (width < 0) ? width : Placement.round(width * magnification);
+    }
+
+    /**
+     * Writes the shapes of an instance of a structure and of the instances
+     * below it.
+     *
+     * @param   structure  The structure
+     * @param   placement  The placement of the instance
+     * @param   sink       The sink receiving the shapes
+     * @param   visiting   The structures of the instances being flattened
+     *
+     * @throws  IOException               If the sink fails
+     * @throws  IllegalArgumentException  If the structure references itself
+     */
+    private void expand(Structure structure, Placement placement,
+            ShapeSink sink, Set<Structure> visiting) throws IOException {
+        if (!visiting.add(structure)) {
+            throw new IllegalArgumentException(GDSStringUtil.sprintf(
+                    this.i18n.getString("I18N_FLATTENER_THROW1" /* NOI18N */),
+                    structure.getName()));
+        }
+
+        Element elements[] = structure.getElements();
+        for (int i = 0; (elements != null) && (i < elements.length); i++) {
+            if ((elements[i].getXy() == null) ||
+                    (elements[i].getXy().length < 2)) {
+                continue;
+            }
+            if (!(elements[i] instanceof ReferenceElement)) {
+                sink.write(place(elements[i], placement));
+
+                continue;
+            }
+
+            ReferenceElement reference = (ReferenceElement) elements[i];
+            Structure child = this.structures.get(reference.getName());
+            if (child == null) {
+                continue;
+            }
+
+            int columns = columns(reference);
+            int rows = rows(reference);
+            for (int row = 0; row < rows; row++) {
+                for (int column = 0; column < columns; column++) {
+                    expand(child, instance(reference, placement, column, row),
+                        sink, visiting);
+                }
+            }
+        }
+        visiting.remove(structure);
+    } // end method expand
+
+    /**
+     * Flattens an instance placed by the top structure on a pool thread,
+     * handing its shapes over in chunks.
+     */
+    private class Expansion implements Runnable, ShapeSink {
+
+        /** The chunk being filled */
+        private Element chunk[];
+
+        /** The number of shapes in the chunk */
+        private int count;
+
+        /** The placement of the instance */
+        private Placement placement;
+
+        /** The chunks written, then END or the failure of the task */
+        private BlockingQueue<Object> queue;
+
+        /** The structure of the instance */
+        private Structure structure;
+
+        /** The top structure */
+        private Structure top;
+
+        /** The units of the flattening, telling whether it is cancelled */
+        private Units units;
+
+        /**
+         * Creates a new Expansion object.
+         *
+         * @param  units      The units of the flattening
+         * @param  top        The top structure
+         * @param  structure  The structure of the instance
+         * @param  placement  The placement of the instance
+         */
+        Expansion(Units units, Structure top, Structure structure,
+                Placement placement) {
+            this.units = units;
+            this.top = top;
+            this.structure = structure;
+            this.placement = placement;
+            this.queue = new ArrayBlockingQueue<Object>(QUEUED_CHUNKS);
+        }
+
+        /**
+         * Flattens the instance.
+         */
+        public void run() {
+            Object last = END;
+            try {
+                Set<Structure> visiting = new HashSet<Structure>();
+                visiting.add(this.top);
+                this.chunk = new Element[CHUNK_SIZE];
+                expand(this.structure, this.placement, this, visiting);
+                if (this.count > 0) {
+                    put(this.chunk);
+                }
+            }
+            catch (CancellationException ex) {
+                /* The caller has given up */
+            }
+            catch (Throwable ex) {
+                last = ex;
+            }
+            put(last);
+        }
+
+        /**
+         * Adds a shape to the chunk, handing the chunk over once full.
+         *
+         * @param  shape  The shape
+         */
+        public void write(Element shape) {
+            if (this.units.cancelled) {
+                throw new CancellationException();
+            }
+
+            this.chunk[this.count++] = shape;
+            if (this.count == CHUNK_SIZE) {
+                put(this.chunk);
+                this.chunk = new Element[CHUNK_SIZE];
+                this.count = 0;
+            }
+        }
+
+        /**
+         * Hands an item over, waiting for room without being interrupted.
+         *
+         * @param  item  The item
+         */
+        private void put(Object item) {
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    this.queue.put(item);
+
+                    break;
+                }
+                catch (InterruptedException ex) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    } // end class Expansion
+
+    /**
+     * The units of a flattening on a pool, in output order: the shapes of the
+     * top structure and a task for each instance it places.
+     */
+    private class Units {
+
+        /** The flattening has stopped */
+        private volatile boolean cancelled;
+
+        /** The column of the next instance of the current reference */
+        private int column;
+
+        /** The elements of the top structure */
+        private Element elements[];
+
+        /** The index of the current element */
+        private int index;
+
+        /** The row of the next instance of the current reference */
+        private int row;
+
+        /** The top structure */
+        private Structure top;
+
+        /**
+         * Creates a new Units object.
+         *
+         * @param  top       The top structure
+         * @param  elements  The elements of the top structure
+         */
+        Units(Structure top, Element elements[]) {
+            this.top = top;
+            this.elements = elements;
+            skip();
+        }
+
+        /**
+         * Tells whether there are units left.
+         *
+         * @return  true if there are units left
+         */
+        boolean hasNext() {
+            return this.index < this.elements.length;
+        }
+
+        /**
+         * Returns the next unit.
+         *
+         * @return  A shape of the top structure or a task not yet started
+         */
+        Object next() {
+            Element element = this.elements[this.index];
+            if (!(element instanceof ReferenceElement)) {
+                this.index++;
+                skip();
+
+                return element;
+            }
+
+            ReferenceElement reference = (ReferenceElement) element;
+            Expansion result = new Expansion(this, this.top,
+                    structures.get(reference.getName()),
+                    instance(reference, Placement.IDENTITY, this.column,
+                        this.row));
+            if (++this.column == columns(reference)) {
+                this.column = 0;
+                if (++this.row == rows(reference)) {
+                    this.row = 0;
+                    this.index++;
+                    skip();
+                }
+            }
+
+            return result;
+        } // end method next
+
+        /**
+         * Moves past the elements producing nothing.
+         */
+        private void skip() {
+            while (this.index < this.elements.length) {
+                Element element = this.elements[this.index];
+                if ((element.getXy() != null) && (element.getXy().length >= 2) &&
+                        (!(element instanceof ReferenceElement) ||
+                            structures.containsKey(
+                                ((ReferenceElement) element).getName()))) {
+                    break;
+                }
+                this.index++;
+            }
+        }
+    } // end class Units
+} // end class Flattener
+
+/* This material is distributed under the GNU General Public License.
+ * For more information please go to http://www.gnu.org/copyleft/gpl.html */
@@ -0,0 +1,449 @@
+/*
+ * Copyright (C) 2004 Thomas N. Valine
+ * tvaline@users.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA
+ * 02111-1307, USA.
+ */
+
+package com.ohrasys.cad.gds.geom;
+
+import com.ohrasys.cad.gds.dao.Transform;
+
+/**
+ * The placement of a structure: a reflection about the x axis, a
+ * magnification, a counterclockwise rotation and a translation, applied in
+ * that order as by a GDS reference.  Placements compose, so the placement of a
+ * structure in a top structure is the product of the placements of the
+ * references leading to it.
+ *
+ * <p>The STRANS flags for an absolute angle or magnification are honoured
+ * when composing: such a placement keeps its own angle or magnification
+ * whatever the placement of its parent.  The flags of a
+ * <code>Transform</code> are read as they are; a reference without STRANS
+ * record has a relative transform, or none.</p>
+ *
+ * <p>Most placements are one of the eight Manhattan orientations, quarter
+ * turns with or without reflection, at magnification 1 and an integer
+ * offset.  They move integer points to integer points exactly, and the bulk
+ * <code>transform</code> methods then work on ints only.  Other placements
+ * work in doubles and round to the nearest int.  Results outside the int
+ * range are not supported.</p>
+ *
+ * <p>Placements are immutable.</p>
+ *
+ * @author   $Author: tvaline $
+ * @version  $Revision: 1.1 $
+ * @since    1.5
+ */
+public final class Placement {
+
+    /** The placement that leaves every point in place */
+    public static final Placement IDENTITY = new Placement(0, 1, false, 0, 0,
+            false, false);
+
+    /** The angle is absolute */
+    private boolean absoluteAngle;
+
+    /** The magnification is absolute */
+    private boolean absoluteMagnification;
+
+    /** The rotation angle in degrees, in [0, 360) */
+    private double angle;
+
+    /** The x translation, for a Manhattan placement */
+    private int integerX;
+
+    /** The y translation, for a Manhattan placement */
+    private int integerY;
+
+    /** The first matrix coefficient of the x coordinate */
+    private double m00;
+
+    /** The second matrix coefficient of the x coordinate */
+    private double m01;
+
+    /** The first matrix coefficient of the y coordinate */
+    private double m10;
+
+    /** The second matrix coefficient of the y coordinate */
+    private double m11;
+
+    /** The magnification */
+    private double magnification;
+
+    /** The reflection about the x axis */
+    private boolean mirrored;
+
+    /**
+     * The Manhattan orientation, as the number of quarter turns plus 4 when
+     * mirrored, or -1 if the placement is not Manhattan
+     */
+    private int orientation;
+
+    /** The x translation */
+    private double x;
+
+    /** The y translation */
+    private double y;
+
+    /**
+     * Creates a new Placement object.
+     *
+     * @param  angle                  The rotation angle in degrees
+     * @param  magnification          The magnification
+     * @param  mirrored               The reflection about the x axis
+     * @param  x                      The x translation
+     * @param  y                      The y translation
+     * @param  absoluteAngle          The angle is absolute
+     * @param  absoluteMagnification  The magnification is absolute
+     */
+    public Placement(double angle, double magnification, boolean mirrored,
+            double x, double y, boolean absoluteAngle,
+            boolean absoluteMagnification) {
+        angle %= 360;
+        this.angle = (angle < 0) ? (angle + 360) : angle;
+        this.magnification = magnification;
+        this.mirrored = mirrored;
+        this.x = x;
+        this.y = y;
+        this.absoluteAngle = absoluteAngle;
+        this.absoluteMagnification = absoluteMagnification;
+
+        double cos;
+        double sin;
+        if ((this.angle % 90) == 0) {
+            /* Keep the quarter turns exact */
+            int quarter = (int) (this.angle / 90);
+            cos = (quarter == 0) ? 1 : ((quarter == 2) ? -1 : 0);
+            sin = (quarter == 1) ? 1 : ((quarter == 3) ? -1 : 0);
+        }
+        else {
+            cos = Math.cos(Math.toRadians(this.angle));
+            sin = Math.sin(Math.toRadians(this.angle));
+        }
+
+        double flip = mirrored ? -1 : 1;
+        this.m00 = magnification * cos;
+        this.m01 = -magnification * sin * flip;
+        this.m10 = magnification * sin;
+        this.m11 = magnification * cos * flip;
+
+        this.orientation = -1;
+        if ((magnification == 1) && ((this.angle % 90) == 0) &&
+                (x == Math.rint(x)) && (y == Math.rint(y)) &&
+                (Math.abs(x) <= Integer.MAX_VALUE) &&
+                (Math.abs(y) <= Integer.MAX_VALUE)) {
+            this.orientation = (int) (this.angle / 90) + (mirrored ? 4 : 0);
+            this.integerX = (int) x;
+            this.integerY = (int) y;
+        }
+    } // end ctor Placement
+
+    /**
+     * Creates a new Placement object for a reference.
+     *
+     * @param  transform  The transform of the reference, null for none
+     * @param  x          The x coordinate of the reference
+     * @param  y          The y coordinate of the reference
+     */
+    public Placement(Transform transform, double x, double y) {
+        this((transform == null) ? 0 : transform.getAngle(),
+            (transform == null) ? 1 : transform.getMagnification(),
+            (transform != null) && transform.isMirrored(), x, y,
+            (transform != null) && !transform.isRelativeAngle(),
+            (transform != null) && !transform.isRelativeMagnification());
+    }
+
+    /**
+     * Composes this placement with the placement of a child.  The result
+     * places the child directly where this placement puts it.
+     *
+     * @param   child  The placement of the child in the structure placed by
+     *                 this placement
+     *
+     * @return  The placement of the child
+     */
+    public Placement compose(Placement child) {
+        double resultAngle = child.absoluteAngle
+            ? child.angle
+            : (this.angle + (this.mirrored ? -child.angle : child.angle));
+        double resultMagnification = child.absoluteMagnification
+            ? child.magnification
+            : (this.magnification * child.magnification);
+
+        return new Placement(resultAngle, resultMagnification,
+                this.mirrored != child.mirrored,
+                transformX(child.x, child.y), transformY(child.x, child.y),
+                false, false);
+    }
+
+    /**
+     * Getter for property angle.
+     *
+     * @return  The rotation angle in degrees, in [0, 360)
+     */
+    public double getAngle() {
+        return this.angle;
+    }
+
+    /**
+     * Getter for property magnification.
+     *
+     * @return  The magnification
+     */
+    public double getMagnification() {
+        return this.magnification;
+    }
+
+    /**
+     * Getter for property x.
+     *
+     * @return  The x translation
+     */
+    public double getX() {
+        return this.x;
+    }
+
+    /**
+     * Getter for property y.
+     *
+     * @return  The y translation
+     */
+    public double getY() {
+        return this.y;
+    }
+
+    /**
+     * Returns the placement undoing this one.  The absolute flags are not
+     * carried over.
+     *
+     * @return  The inverse placement
+     *
+     * @throws  ArithmeticException  If the magnification is zero
+     */
+    public Placement inverse() {
+        if (this.magnification == 0) {
+            throw new ArithmeticException(String.valueOf(this.magnification));
+        }
+
+        /* The inverse of a reflection followed by a rotation is the same
+         * reflection followed by the rotation the other way, unless the
+         * reflection turns the rotation around */
+        double inverseAngle = this.mirrored ? this.angle : -this.angle;
+        Placement linear = new Placement(inverseAngle,
+                1 / this.magnification, this.mirrored, 0, 0, false, false);
+
+        return new Placement(inverseAngle, 1 / this.magnification,
+                this.mirrored, -linear.transformX(this.x, this.y),
+                -linear.transformY(this.x, this.y), false, false);
+    }
+
+    /**
+     * Getter for property absoluteAngle.
+     *
+     * @return  true if the angle is absolute
+     */
+    public boolean isAbsoluteAngle() {
+        return this.absoluteAngle;
+    }
+
+    /**
+     * Getter for property absoluteMagnification.
+     *
+     * @return  true if the magnification is absolute
+     */
+    public boolean isAbsoluteMagnification() {
+        return this.absoluteMagnification;
+    }
+
+    /**
+     * Tells whether the placement is one of the eight Manhattan
+     * orientations at magnification 1 with an integer offset, which the bulk
+     * transforms handle with ints only.
+     *
+     * @return  true if the placement is Manhattan
+     */
+    public boolean isManhattan() {
+        return this.orientation >= 0;
+    }
+
+    /**
+     * Getter for property mirrored.
+     *
+     * @return  true if the placement reflects about the x axis
+     */
+    public boolean isMirrored() {
+        return this.mirrored;
+    }
+
+    /**
+     * Returns a string representation of this class
+     *
+     * @return  The physical address of this instance
+     */
+    @Override
+    public String toString() {
+        return super.toString();
+    }
+
+    /**
+     * Returns a transform with the angle, magnification and reflection of
+     * this placement.  Its angle and magnification are relative.
+     *
+     * @return  The transform
+     */
+    public Transform toTransform() {
+        return new Transform(this.angle, this.magnification, this.mirrored,
+                true, true);
+    }
+
+    /**
+     * Places points in place.
+     *
+     * @param  xy      The interleaved coordinates of the points
+     * @param  offset  The index of the x coordinate of the first point
+     * @param  count   The number of points
+     */
+    public void transform(int xy[], int offset, int count) {
+        transform(xy, offset, xy, offset, count);
+    }
+
+    /**
+     * Places points.  The source and the destination may be the same array.
+     *
+     * @param  source             The interleaved coordinates of the points
+     * @param  sourceOffset       The index of the x coordinate of the first
+     *                            point in the source
+     * @param  destination        The array receiving the placed points
+     * @param  destinationOffset  The index of the x coordinate of the first
+     *                            point in the destination
+     * @param  count              The number of points
+     */
+    public void transform(int source[], int sourceOffset, int destination[],
+            int destinationOffset, int count) {
+        int end = sourceOffset + (2 * count);
+        int j = destinationOffset;
+        switch (this.orientation) {
+            case 0:
+            case 2:
+            case 4:
+            case 6:
+                /* The axes stay put, possibly flipped */
+                int sx = (int) this.m00;
+                int sy = (int) this.m11;
+                for (int i = sourceOffset; i < end; i += 2, j += 2) {
+                    int px = source[i];
+                    int py = source[i + 1];
+                    destination[j] = (sx * px) + this.integerX;
+                    destination[j + 1] = (sy * py) + this.integerY;
+                }
+
+                break;
+
+            case 1:
+            case 3:
+            case 5:
+            case 7:
+                /* The axes swap, possibly flipped */
+                int sxy = (int) this.m01;
+                int syx = (int) this.m10;
+                for (int i = sourceOffset; i < end; i += 2, j += 2) {
+                    int px = source[i];
+                    int py = source[i + 1];
+                    destination[j] = (sxy * py) + this.integerX;
+                    destination[j + 1] = (syx * px) + this.integerY;
+                }
+
+                break;
+
+            default:
+                for (int i = sourceOffset; i < end; i += 2, j += 2) {
+                    double px = source[i];
+                    double py = source[i + 1];
+                    destination[j] = round(transformX(px, py));
+                    destination[j + 1] = round(transformY(px, py));
+                }
+
+                break;
+        }
+    } // end method transform
+
+    /**
+     * Returns the x coordinate of a placed point.
+     *
+     * @param   x  The x coordinate of the point
+     * @param   y  The y coordinate of the point
+     *
+     * @return  The x coordinate of the point once placed
+     */
+    public double transformX(double x, double y) {
+        return (this.m00 * x) + (this.m01 * y) + this.x;
+    }
+
+    /**
+     * Returns the y coordinate of a placed point.
+     *
+     * @param   x  The x coordinate of the point
+     * @param   y  The y coordinate of the point
+     *
+     * @return  The y coordinate of the point once placed
+     */
+    public double transformY(double x, double y) {
+        return (this.m10 * x) + (this.m11 * y) + this.y;
+    }
+
+    /**
+     * Places a box and returns the bounding box of the result.
+     *
+     * @param  box     The box, as <code>{xmin, ymin, xmax, ymax}</code>
+     * @param  result  The array receiving the bounding box, may be the box
+     */
+    void transformBox(double box[], double result[]) {
+        double xmin = Double.POSITIVE_INFINITY;
+        double ymin = Double.POSITIVE_INFINITY;
+        double xmax = Double.NEGATIVE_INFINITY;
+        double ymax = Double.NEGATIVE_INFINITY;
+        for (int corner = 0; corner < 4; corner++) {
+            double cx = box[(corner & 1) * 2];
+            double cy = box[1 + ((corner >> 1) * 2)];
+            double tx = transformX(cx, cy);
+            double ty = transformY(cx, cy);
+            xmin = Math.min(xmin, tx);
+            ymin = Math.min(ymin, ty);
+            xmax = Math.max(xmax, tx);
+            ymax = Math.max(ymax, ty);
+        }
+        result[0] = xmin;
+        result[1] = ymin;
+        result[2] = xmax;
+        result[3] = ymax;
+    } // end method transformBox
+
+    /**
+     * Rounds a coordinate to the nearest int, saturating at the int range.
+     *
+     * @param   value  The coordinate
+     *
+     * @return  The nearest int
+     */
+    static int round(double value) {
+        return (int) Math.max(Integer.MIN_VALUE,
+                Math.min(Integer.MAX_VALUE, Math.round(value)));
+    }
+} // end class Placement
+
+/* This material is distributed under the GNU General Public License.
+ * For more information please go to http://www.gnu.org/copyleft/gpl.html */
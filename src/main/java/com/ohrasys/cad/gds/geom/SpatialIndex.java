@@ -0,0 +1,254 @@
+/*
+ * Copyright (C) 2004 Thomas N. Valine
+ * tvaline@users.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA
+ * 02111-1307, USA.
+ */
+
+package com.ohrasys.cad.gds.geom;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import com.ohrasys.cad.gds.dao.Database;
+import com.ohrasys.cad.gds.dao.Structure;
+
+/**
+ * The spatial indexes of the structures of a database.  The index of a
+ * structure is built on its first query and kept; {@link #build(ForkJoinPool)}
+ * builds all of them ahead of time on several threads, typically right after
+ * loading the database.
+ *
+ * <p>An instance may be shared by several threads.  Two threads querying a
+ * structure not indexed yet may both build its index, only one is kept.</p>
+ *
+ * @author   $Author: tvaline $
+ * @version  $Revision: 1.1 $
+ * @since    1.5
+ */
+public class SpatialIndex {
+
+    /** The indexes built so far */
+    private ConcurrentHashMap<Structure, StructureIndex> indexes;
+
+    /** The structures by name */
+    private Map<String, Structure> names;
+
+    /** The structures in database order */
+    private Structure structures[];
+
+    /**
+     * Creates a new SpatialIndex object for the structures of a database.
+     *
+     * @param  database  The database
+     */
+    public SpatialIndex(Database database) {
+        this(database.getStructures());
+    }
+
+    /**
+     * Creates a new SpatialIndex object.  Structures are found by name among
+     * the structures given, the first structure of a name wins.
+     *
+     * @param  structures  The structures, may be null
+     */
+    public SpatialIndex(Structure structures[]) {
+        this.structures = (structures == null) ? new Structure[0] : structures;
+        this.indexes = new ConcurrentHashMap<Structure, StructureIndex>();
+        this.names = new HashMap<String, Structure>();
+        for (int i = this.structures.length - 1; i >= 0; i--) {
+            this.names.put(this.structures[i].getName(), this.structures[i]);
+        }
+    }
+
+    /**
+     * Builds the indexes of all structures on several threads.
+     *
+     * @param   threads  The number of threads.  With 1 or less the indexes
+     *                   are built on the calling thread.
+     *
+     * @throws  InterruptedException  If the thread is interrupted while
+     *                                waiting for the indexes
+     *
+     * @see     #build(ForkJoinPool)
+     */
+    public void build(int threads) throws InterruptedException {
+        if (threads <= 1) {
+            for (int i = 0; i < this.structures.length; i++) {
+                getIndex(this.structures[i]);
+            }
+
+            return;
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            build(pool);
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Builds the indexes of all structures on a pool.  The structures are
+     * handed out in a few batches per thread so that uneven structures even
+     * out.
+     *
+     * @param   pool  The pool building the indexes
+     *
+     * @throws  InterruptedException  If the thread is interrupted while
+     *                                waiting for the indexes
+     */
+    public void build(ForkJoinPool pool) throws InterruptedException {
+        int batches = Math.min(this.structures.length,
+                pool.getParallelism() * 4);
+        List<Callable<Object>> tasks = new ArrayList<Callable<Object>>();
+        for (int i = 0; i < batches; i++) {
+            tasks.add(new Builder(i, batches));
+        }
+
+        List<Future<Object>> results = pool.invokeAll(tasks);
+        for (int i = 0; i < results.size(); i++) {
+            try {
+                results.get(i).get();
+            }
+            catch (ExecutionException ex) {
+                /* Building throws nothing checked */
+                if (ex.getCause() instanceof Error) {
+                    throw (Error) ex.getCause();
+                }
+                throw (ex.getCause() instanceof RuntimeException)
+                    ? (RuntimeException) ex.getCause()
+                    : new IllegalStateException(ex.getCause());
+            }
+        }
+    } // end method build
+
+    /**
+     * Returns the index of a structure given by name, building it if needed.
+     *
+     * @param   name  The structure name
+     *
+     * @return  The index, or null if the structure is unknown
+     */
+    public StructureIndex getIndex(String name) {
+        Structure structure = this.names.get(name);
+
+        return (structure == null) ? null : getIndex(structure);
+    }
+
+    /**
+     * Returns the index of a structure, building it if needed.
+     *
+     * @param   structure  The structure
+     *
+     * @return  The index
+     */
+    public StructureIndex getIndex(Structure structure) {
+        StructureIndex result = this.indexes.get(structure);
+        if (result == null) {
+            result = new StructureIndex(structure);
+
+            StructureIndex other = this.indexes.putIfAbsent(structure, result);
+            if (other != null) {
+                result = other;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Reports the elements of a structure on a layer and datatype whose
+     * bounding box intersects a window.
+     *
+     * @param  name      The structure name; an unknown name reports nothing
+     * @param  layer     The layer
+     * @param  datatype  The datatype
+     * @param  x1        The x coordinate of a corner of the window
+     * @param  y1        The y coordinate of a corner of the window
+     * @param  x2        The x coordinate of the opposite corner
+     * @param  y2        The y coordinate of the opposite corner
+     * @param  visitor   The visitor receiving the elements
+     *
+     * @see    StructureIndex#query(int, int, int, int, int, int,
+     *         ElementVisitor)
+     */
+    public void query(String name, int layer, int datatype, int x1, int y1,
+            int x2, int y2, ElementVisitor visitor) {
+        StructureIndex index = getIndex(name);
+        if (index != null) {
+            index.query(layer, datatype, x1, y1, x2, y2, visitor);
+        }
+    }
+
+    /**
+     * Returns a string representation of this class
+     *
+     * @return  The physical address of this instance
+     */
+    @Override
+    public String toString() {
+        return super.toString();
+    }
+
+    /**
+     * Builds the indexes of every n-th structure.
+     */
+    private class Builder implements Callable<Object> {
+
+        /** The index of the first structure */
+        private int first;
+
+        /** The distance between two structures of the batch */
+        private int step;
+
+        /**
+         * Creates a new Builder object.
+         *
+         * @param  first  The index of the first structure
+         * @param  step   The distance between two structures of the batch
+         */
+        Builder(int first, int step) {
+            this.first = first;
+            this.step = step;
+        }
+
+        /**
+         * Builds the indexes.
+         *
+         * @return  null
+         */
+        public Object call() {
+            for (int i = this.first; i < structures.length; i += this.step) {
+                getIndex(structures[i]);
+            }
+
+            return null;
+        }
+    } // end class Builder
+} // end class SpatialIndex
+
+/* This material is distributed under the GNU General Public License.
+ * For more information please go to http://www.gnu.org/copyleft/gpl.html */
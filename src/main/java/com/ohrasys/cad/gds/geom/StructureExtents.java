@@ -0,0 +1,498 @@
+/*
+ * Copyright (C) 2004 Thomas N. Valine
+ * tvaline@users.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA
+ * 02111-1307, USA.
+ */
+
+package com.ohrasys.cad.gds.geom;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.ohrasys.cad.gds.GDSStringUtil;
+import com.ohrasys.cad.gds.dao.ArrayReference;
+import com.ohrasys.cad.gds.dao.Database;
+import com.ohrasys.cad.gds.dao.Element;
+import com.ohrasys.cad.gds.dao.Path;
+import com.ohrasys.cad.gds.dao.ReferenceElement;
+import com.ohrasys.cad.gds.dao.Structure;
+import com.ohrasys.cad.gds.dao.Transform;
+
+/**
+ * Computes the extents of the structures of a database.  The extent of a
+ * structure is the bounding box of its geometry in its own coordinates,
+ * including the extents of the structures it references placed by the
+ * transform and, for array references, the pitch of each reference.  Each
+ * structure is computed once and remembered, so the cost is linear in the
+ * number of distinct structures, however many times they are placed.
+ *
+ * <p>Extents are returned as <code>{xmin, ymin, xmax, ymax}</code>.  Paths
+ * are widened by half their width and lengthened by their end extensions,
+ * with bends counted as squares of the path width.  Texts count as their
+ * anchor point.  Rotations that are not multiples of 90 degrees give the
+ * bounding box of the rotated box, which may be larger than the one of the
+ * rotated geometry.  Absolute angle and magnification flags are treated like
+ * relative ones, which is exact for references placed in an unrotated,
+ * unscaled structure; the structures holding such references, directly or
+ * further down, are remembered so that callers placing them can tell.
+ * References to structures missing from the database add nothing.</p>
+ *
+ * <p>An instance may be shared by several threads.</p>
+ *
+ * @author   $Author: tvaline $
+ * @version  $Revision: 1.1 $
+ * @since    1.5
+ */
+public class StructureExtents {
+
+    /** The bundle holding the messages of the gds package */
+    private static final String bundle = "com/ohrasys/cad/gds/GDSProperties" /* NOI18N */;
+
+    /** The extent remembered for a structure without geometry */
+    private static final int EMPTY[] = new int[0];
+
+    /**
+     * Tells for each structure computed so far whether it holds absolute
+     * references, directly or further down
+     */
+    private Map<Structure, Boolean> absolute;
+
+    /** The extents computed so far */
+    private Map<Structure, int[]> extents;
+
+    /** The internationalized strings */
+    private ResourceBundle i18n;
+
+    /** The structures by name */
+    private Map<String, Structure> structures;
+
+    /**
+     * Creates a new StructureExtents object for the structures of a database.
+     *
+     * @param  database  The database
+     */
+    public StructureExtents(Database database) {
+        this(database.getStructures());
+    }
+
+    /**
+     * Creates a new StructureExtents object.  References are resolved by
+     * name among the structures given, the first structure of a name wins.
+     *
+     * @param  structures  The structures, may be null
+     */
+    public StructureExtents(Structure structures[]) {
+        this.i18n = ResourceBundle.getBundle(bundle);
+        this.absolute = new ConcurrentHashMap<Structure, Boolean>();
+        this.extents = new ConcurrentHashMap<Structure, int[]>();
+        this.structures = new HashMap<String, Structure>();
+        if (structures != null) {
+            for (int i = structures.length - 1; i >= 0; i--) {
+                this.structures.put(structures[i].getName(), structures[i]);
+            }
+        }
+    }
+
+    /**
+     * Returns the extent of an element in the coordinates of the structure
+     * holding it.
+     *
+     * @param   element  The element
+     *
+     * @return  The extent, or null if the element has no geometry
+     *
+     * @throws  IllegalArgumentException  If the element references a
+     *                                    structure that references itself
+     */
+    public int[] getExtent(Element element) {
+        double box[] = empty();
+        include(element, box, new HashSet<Structure>());
+
+        return toExtent(box);
+    }
+
+    /**
+     * Returns the extent of a structure given by name.
+     *
+     * @param   name  The structure name
+     *
+     * @return  The extent, or null if the structure is unknown or has no
+     *          geometry
+     *
+     * @throws  IllegalArgumentException  If the structure references itself
+     */
+    public int[] getExtent(String name) {
+        Structure structure = this.structures.get(name);
+
+        return (structure == null) ? null : getExtent(structure);
+    }
+
+    /**
+     * Returns the extent of a structure.
+     *
+     * @param   structure  The structure
+     *
+     * @return  The extent, or null if the structure has no geometry
+     *
+     * @throws  IllegalArgumentException  If the structure references itself
+     */
+    public int[] getExtent(Structure structure) {
+        int result[] = extent(structure);
+
+        return (result == EMPTY) ? null : result.clone();
+    }
+
+    /**
+     * Returns a structure by name.
+     *
+     * @param   name  The structure name
+     *
+     * @return  The structure, or null if there is none of that name
+     */
+    public Structure getStructure(String name) {
+        return this.structures.get(name);
+    }
+
+    /**
+     * Returns a string representation of this class
+     *
+     * @return  The physical address of this instance
+     */
+    @Override
+    public String toString() {
+        return super.toString();
+    }
+
+    /**
+     * Returns the remembered extent of a structure, computing it if needed.
+     * The array is shared and must not be changed.
+     *
+     * @param   structure  The structure
+     *
+     * @return  The extent, or a zero length array if the structure has no
+     *          geometry
+     */
+    int[] extent(Structure structure) {
+        return extent(structure, new HashSet<Structure>());
+    }
+
+    /**
+     * Tells whether a structure holds references with an absolute angle or
+     * magnification, directly or further down.  The extent of such a
+     * structure is only exact once placed without rotation or scaling.
+     *
+     * @param   structure  The structure
+     *
+     * @return  true if the structure holds absolute references
+     */
+    boolean isAbsolute(Structure structure) {
+        extent(structure);
+
+        return this.absolute.get(structure).booleanValue();
+    }
+
+    /**
+     * Creates a box containing nothing.
+     *
+     * @return  The box, as <code>{xmin, ymin, xmax, ymax}</code>
+     */
+    static double[] empty() {
+        return new double[] {
+                Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY,
+                Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY
+            };
+    }
+
+    /**
+     * Adds the extent of a reference to a box.
+     *
+     * @param  extent     The extent of the referenced structure
+     * @param  transform  The transform of the reference, or null
+     * @param  xy         The coordinates of the reference
+     * @param  columns    The number of columns, 1 for a structure reference
+     * @param  rows       The number of rows, 1 for a structure reference
+     * @param  box        The box, as <code>{xmin, ymin, xmax, ymax}</code>
+     */
+    static void include(int extent[], Transform transform, int xy[],
+            int columns, int rows, double box[]) {
+        Placement placement = new Placement(transform, xy[0], xy[1]);
+
+        /* The lattice of an array spans its first and last column and row */
+        double dx0 = 0;
+        double dy0 = 0;
+        double dx1 = 0;
+        double dy1 = 0;
+        if ((xy.length >= 6) && ((columns > 1) || (rows > 1))) {
+            columns = Math.max(columns, 1);
+            rows = Math.max(rows, 1);
+
+            double cx = ((double) xy[2] - xy[0]) * (columns - 1) / columns;
+            double cy = ((double) xy[3] - xy[1]) * (columns - 1) / columns;
+            double rx = ((double) xy[4] - xy[0]) * (rows - 1) / rows;
+            double ry = ((double) xy[5] - xy[1]) * (rows - 1) / rows;
+            dx0 = Math.min(cx, 0) + Math.min(rx, 0);
+            dy0 = Math.min(cy, 0) + Math.min(ry, 0);
+            dx1 = Math.max(cx, 0) + Math.max(rx, 0);
+            dy1 = Math.max(cy, 0) + Math.max(ry, 0);
+        }
+
+        for (int corner = 0; corner < 4; corner++) {
+            double x = extent[(corner & 1) * 2];
+            double y = extent[1 + ((corner >> 1) * 2)];
+            double tx = placement.transformX(x, y);
+            double ty = placement.transformY(x, y);
+            box[0] = Math.min(box[0], tx + dx0);
+            box[1] = Math.min(box[1], ty + dy0);
+            box[2] = Math.max(box[2], tx + dx1);
+            box[3] = Math.max(box[3], ty + dy1);
+        }
+    } // end method include
+
+    /**
+     * Adds the extent of a path to a box.  Each segment counts as a rectangle
+     * of the path width, lengthened at the ends of the path by the
+     * extension of its pathtype, and each bend as a square of the path width
+     * centred on it.  Round ends are bounded like square ends.
+     *
+     * @param  path  The path
+     * @param  box   The box, as <code>{xmin, ymin, xmax, ymax}</code>
+     */
+    static void include(Path path, double box[]) {
+        int xy[] = path.getXy();
+        int points = Math.min(path.getPointCount(), xy.length / 2);
+        double half = Math.abs((double) path.getWidth()) / 2;
+        double start = 0;
+        double end = 0;
+        if ((path.getPathtype() == 1) || (path.getPathtype() == 2)) {
+            /* Round ends reach no further than square ends */
+            start = half;
+            end = half;
+        }
+        else if (path.getPathtype() == 4) {
+            start = path.getStartExtension();
+            end = path.getEndExtension();
+        }
+
+        if (points == 1) {
+            include(xy[0], xy[1], half, half, box);
+        }
+        for (int i = 1; i < points; i++) {
+            double x0 = xy[(2 * i) - 2];
+            double y0 = xy[(2 * i) - 1];
+            double x1 = xy[2 * i];
+            double y1 = xy[(2 * i) + 1];
+            double length = Math.hypot(x1 - x0, y1 - y0);
+            if (length == 0) {
+                include(x0, y0, half, half, box);
+
+                continue;
+            }
+
+            double dx = (x1 - x0) / length;
+            double dy = (y1 - y0) / length;
+            if (i == 1) {
+                x0 -= dx * start;
+                y0 -= dy * start;
+            }
+            else {
+                include(x0, y0, half, half, box);
+            }
+            if (i == (points - 1)) {
+                x1 += dx * end;
+                y1 += dy * end;
+            }
+
+            /* The half width across the segment */
+            double nx = Math.abs(dy * half);
+            double ny = Math.abs(dx * half);
+            include(x0, y0, nx, ny, box);
+            include(x1, y1, nx, ny, box);
+        }
+    } // end method include
+
+    /**
+     * Adds the extent of an element that is not a reference to a box.
+     *
+     * @param  element  The element
+     * @param  box      The box, as <code>{xmin, ymin, xmax, ymax}</code>
+     */
+    static void includeGeometry(Element element, double box[]) {
+        int xy[] = element.getXy();
+        if (xy == null) {
+            return;
+        }
+        if (element instanceof Path) {
+            include((Path) element, box);
+
+            return;
+        }
+
+        for (int i = 0; (i + 1) < xy.length; i += 2) {
+            box[0] = Math.min(box[0], xy[i]);
+            box[1] = Math.min(box[1], xy[i + 1]);
+            box[2] = Math.max(box[2], xy[i]);
+            box[3] = Math.max(box[3], xy[i + 1]);
+        }
+    }
+
+    /**
+     * Rounds a box outwards to integer coordinates.
+     *
+     * @param   box  The box, as <code>{xmin, ymin, xmax, ymax}</code>
+     *
+     * @return  The extent, or null if the box contains nothing
+     */
+    static int[] toExtent(double box[]) {
+        if (box[0] > box[2]) {
+            return null;
+        }
+
+        return new int[] {
+                clamp(Math.floor(box[0])), clamp(Math.floor(box[1])),
+                clamp(Math.ceil(box[2])), clamp(Math.ceil(box[3]))
+            };
+    }
+
+    /**
+     * Converts a coordinate to an int, saturating at the int range.
+     *
+     * @param   value  The coordinate
+     *
+     * @return  The int coordinate
+     */
+    private static int clamp(double value) {
+        return (int) Math.max(Integer.MIN_VALUE,
+                Math.min(Integer.MAX_VALUE, value));
+    }
+
+    /**
+     * Adds a rectangle centred on a point to a box.
+     *
+     * @param  x    The x coordinate of the point
+     * @param  y    The y coordinate of the point
+     * @param  rx   The half width of the rectangle
+     * @param  ry   The half height of the rectangle
+     * @param  box  The box, as <code>{xmin, ymin, xmax, ymax}</code>
+     */
+    private static void include(double x, double y, double rx, double ry,
+            double box[]) {
+        box[0] = Math.min(box[0], x - rx);
+        box[1] = Math.min(box[1], y - ry);
+        box[2] = Math.max(box[2], x + rx);
+        box[3] = Math.max(box[3], y + ry);
+    }
+
+    /**
+     * Returns the remembered extent of a structure, computing it if needed.
+     *
+     * @param   structure  The structure
+     * @param   visiting   The structures whose extent is being computed
+     *
+     * @return  The extent, or a zero length array if the structure has no
+     *          geometry
+     *
+     * @throws  IllegalArgumentException  If the structure references itself
+     */
+    private int[] extent(Structure structure, Set<Structure> visiting) {
+        int result[] = this.extents.get(structure);
+        if (result != null) {
+            return result;
+        }
+        if (!visiting.add(structure)) {
+            throw new IllegalArgumentException(GDSStringUtil.sprintf(
+                    this.i18n.getString("I18N_EXTENTS_THROW1" /* NOI18N */),
+                    structure.getName()));
+        }
+
+        double box[] = empty();
+        boolean holdsAbsolute = false;
+        Element elements[] = structure.getElements();
+        if (elements != null) {
+            for (int i = 0; i < elements.length; i++) {
+                holdsAbsolute |= include(elements[i], box, visiting);
+            }
+        }
+        visiting.remove(structure);
+
+        result = toExtent(box);
+        if (result == null) {
+            result = EMPTY;
+        }
+
+        /* The flag goes first, whoever sees the extent sees it too */
+        this.absolute.put(structure, Boolean.valueOf(holdsAbsolute));
+        this.extents.put(structure, result);
+
+        return result;
+    } // end method extent
+
+    /**
+     * Adds the extent of an element to a box.
+     *
+     * @param   element   The element
+     * @param   box       The box, as <code>{xmin, ymin, xmax, ymax}</code>
+     * @param   visiting  The structures whose extent is being computed
+     *
+     * @return  true if the element is an absolute reference or references a
+     *          structure holding one
+     */
+    private boolean include(Element element, double box[],
+            Set<Structure> visiting) {
+        int xy[] = element.getXy();
+        if ((xy == null) || (xy.length < 2)) {
+            return false;
+        }
+
+        if (element instanceof ReferenceElement) {
+            ReferenceElement reference = (ReferenceElement) element;
+            Structure child = this.structures.get(reference.getName());
+            if (child == null) {
+                return false;
+            }
+
+            int extent[] = extent(child, visiting);
+            if (extent == EMPTY) {
+                return false;
+            }
+            if (element instanceof ArrayReference) {
+                include(extent, reference.getTransform(), xy,
+                    ((ArrayReference) element).getColumns(),
+                    ((ArrayReference) element).getRows(), box);
+            }
+            else {
+                include(extent, reference.getTransform(), xy, 1, 1, box);
+            }
+
+            Transform transform = reference.getTransform();
+
+            return this.absolute.get(child).booleanValue() ||
+                ((transform != null) && (!transform.isRelativeAngle() ||
+                        !transform.isRelativeMagnification()));
+        }
+
+        includeGeometry(element, box);
+
+        return false;
+    } // end method include
+} // end class StructureExtents
+
+/* This material is distributed under the GNU General Public License.
+ * For more information please go to http://www.gnu.org/copyleft/gpl.html */
@@ -0,0 +1,274 @@
+/*
+ * Copyright (C) 2004 Thomas N. Valine
+ * tvaline@users.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA
+ * 02111-1307, USA.
+ */
+
+package com.ohrasys.cad.gds.geom;
+
+import java.util.Arrays;
+
+import com.ohrasys.cad.gds.dao.Element;
+import com.ohrasys.cad.gds.dao.GeometryElement;
+import com.ohrasys.cad.gds.dao.Structure;
+
+/**
+ * A spatial index over the geometry of one structure, with one R-tree per
+ * layer and datatype.  Boundaries, paths, boxes, nodes and texts are indexed
+ * by their bounding box as computed by {@link StructureExtents}; references
+ * are left out.  The index is a snapshot: elements added to the structure
+ * later are not seen.
+ *
+ * <p>An index is immutable once built and may be queried by several threads
+ * at once.  Queries allocate nothing.</p>
+ *
+ * @author   $Author: tvaline $
+ * @version  $Revision: 1.1 $
+ * @since    1.5
+ */
+public class StructureIndex {
+
+    /** The layer and datatype of each tree, sorted */
+    private long keys[];
+
+    /** The indexed structure */
+    private Structure structure;
+
+    /** The trees, in the order of the keys */
+    private ElementTree trees[];
+
+    /**
+     * Creates a new StructureIndex object.
+     *
+     * @param  structure  The structure to index
+     */
+    public StructureIndex(Structure structure) {
+        this.structure = structure;
+
+        Element elements[] = structure.getElements();
+        if (elements == null) {
+            elements = new Element[0];
+        }
+
+        /* Find the distinct layers and datatypes first so that every tree
+         * gets arrays of the right size */
+        long elementKeys[] = new long[elements.length];
+        int indexed = 0;
+        for (int i = 0; i < elements.length; i++) {
+            if (isIndexed(elements[i])) {
+                GeometryElement element = (GeometryElement) elements[i];
+                elementKeys[indexed++] = key(element.getLayer(),
+                        element.getDatatype());
+            }
+        }
+
+        long sorted[] = Arrays.copyOf(elementKeys, indexed);
+        Arrays.sort(sorted);
+        int distinct = 0;
+        for (int i = 0; i < indexed; i++) {
+            if ((i == 0) || (sorted[i] != sorted[i - 1])) {
+                sorted[distinct++] = sorted[i];
+            }
+        }
+        this.keys = Arrays.copyOf(sorted, distinct);
+
+        int sizes[] = new int[distinct];
+        for (int i = 0; i < indexed; i++) {
+            sizes[Arrays.binarySearch(this.keys, elementKeys[i])]++;
+        }
+
+        int boxes[][] = new int[distinct][];
+        Element members[][] = new Element[distinct][];
+        for (int slot = 0; slot < distinct; slot++) {
+            boxes[slot] = new int[4 * sizes[slot]];
+            members[slot] = new Element[sizes[slot]];
+            sizes[slot] = 0;
+        }
+
+        double box[] = new double[4];
+        indexed = 0;
+        for (int i = 0; i < elements.length; i++) {
+            if (isIndexed(elements[i])) {
+                int slot = Arrays.binarySearch(this.keys,
+                        elementKeys[indexed++]);
+                box[0] = Double.POSITIVE_INFINITY;
+                box[1] = Double.POSITIVE_INFINITY;
+                box[2] = Double.NEGATIVE_INFINITY;
+                box[3] = Double.NEGATIVE_INFINITY;
+                StructureExtents.includeGeometry(elements[i], box);
+                System.arraycopy(StructureExtents.toExtent(box), 0,
+                    boxes[slot], 4 * sizes[slot], 4);
+                members[slot][sizes[slot]++] = elements[i];
+            }
+        }
+
+        this.trees = new ElementTree[distinct];
+        for (int slot = 0; slot < distinct; slot++) {
+            this.trees[slot] = new ElementTree(boxes[slot], members[slot],
+                    sizes[slot]);
+        }
+    } // end ctor StructureIndex
+
+    /**
+     * Returns the bounding box of the elements of a layer and datatype.
+     *
+     * @param   layer     The layer
+     * @param   datatype  The datatype
+     *
+     * @return  The box as <code>{xmin, ymin, xmax, ymax}</code>, or null if
+     *          there is no element on the layer and datatype
+     */
+    public int[] getBounds(int layer, int datatype) {
+        ElementTree tree = tree(layer, datatype);
+
+        return (tree == null) ? null : tree.getBounds();
+    }
+
+    /**
+     * Returns the number of elements on a layer and datatype.
+     *
+     * @param   layer     The layer
+     * @param   datatype  The datatype
+     *
+     * @return  The number of elements
+     */
+    public int getCount(int layer, int datatype) {
+        ElementTree tree = tree(layer, datatype);
+
+        return (tree == null) ? 0 : tree.getCount();
+    }
+
+    /**
+     * Returns the layers and datatypes holding elements.
+     *
+     * @return  The rows <code>{layer, datatype}</code> sorted by layer, then
+     *          datatype
+     */
+    public int[][] getLayers() {
+        int result[][] = new int[this.keys.length][];
+        for (int i = 0; i < this.keys.length; i++) {
+            result[i] = new int[] {
+                    (int) (this.keys[i] >> 32), (int) this.keys[i]
+                };
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the indexed structure.
+     *
+     * @return  The structure
+     */
+    public Structure getStructure() {
+        return this.structure;
+    }
+
+    /**
+     * Reports the elements of every layer and datatype whose bounding box
+     * intersects a window, boundaries included.  The corners of the window
+     * may be given in any order.  Each element is reported once, the layers
+     * and datatypes in order.
+     *
+     * @param  x1       The x coordinate of a corner of the window
+     * @param  y1       The y coordinate of a corner of the window
+     * @param  x2       The x coordinate of the opposite corner
+     * @param  y2       The y coordinate of the opposite corner
+     * @param  visitor  The visitor receiving the elements
+     */
+    public void query(int x1, int y1, int x2, int y2, ElementVisitor visitor) {
+        for (int i = 0; i < this.trees.length; i++) {
+            this.trees[i].query(Math.min(x1, x2), Math.min(y1, y2),
+                Math.max(x1, x2), Math.max(y1, y2), visitor);
+        }
+    }
+
+    /**
+     * Reports the elements of a layer and datatype whose bounding box
+     * intersects a window, boundaries included.  The corners of the window
+     * may be given in any order.  Each element is reported once, in no
+     * particular order.
+     *
+     * @param  layer     The layer
+     * @param  datatype  The datatype
+     * @param  x1        The x coordinate of a corner of the window
+     * @param  y1        The y coordinate of a corner of the window
+     * @param  x2        The x coordinate of the opposite corner
+     * @param  y2        The y coordinate of the opposite corner
+     * @param  visitor   The visitor receiving the elements
+     */
+    public void query(int layer, int datatype, int x1, int y1, int x2, int y2,
+            ElementVisitor visitor) {
+        ElementTree tree = tree(layer, datatype);
+        if (tree != null) {
+            tree.query(Math.min(x1, x2), Math.min(y1, y2), Math.max(x1, x2),
+                Math.max(y1, y2), visitor);
+        }
+    }
+
+    /**
+     * Returns a string representation of this class
+     *
+     * @return  The physical address of this instance
+     */
+    @Override
+    public String toString() {
+        return super.toString();
+    }
+
+    /**
+     * Tells whether an element goes into the index.
+     *
+     * @param   element  The element
+     *
+     * @return  true for a geometry element with at least one point
+     */
+    private static boolean isIndexed(Element element) {
+        return (element instanceof GeometryElement) &&
+            (element.getXy() != null) && (element.getXy().length >= 2);
+    }
+
+    /**
+     * Combines a layer and a datatype into a key sorting by layer first.
+     *
+     * @param   layer     The layer
+     * @param   datatype  The datatype
+     *
+     * @return  The key
+     */
+    private static long key(int layer, int datatype) {
+        return ((long) layer << 32) | (datatype & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Returns the tree of a layer and datatype.
+     *
+     * @param   layer     The layer
+     * @param   datatype  The datatype
+     *
+     * @return  The tree, or null if there is no element on the layer and
+     *          datatype
+     */
+    private ElementTree tree(int layer, int datatype) {
+        int slot = Arrays.binarySearch(this.keys, key(layer, datatype));
+
+        return (slot < 0) ? null : this.trees[slot];
+    }
+} // end class StructureIndex
+
+/* This material is distributed under the GNU General Public License.
+ * For more information please go to http://www.gnu.org/copyleft/gpl.html */
@@ -0,0 +1,485 @@
+/*
+ * Copyright (C) 2004 Thomas N. Valine
+ * tvaline@users.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA
+ * 02111-1307, USA.
+ */
+
+package com.ohrasys.cad.gds.geom;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.ohrasys.cad.gds.dao.ArrayReference;
+import com.ohrasys.cad.gds.dao.Database;
+import com.ohrasys.cad.gds.dao.Element;
+import com.ohrasys.cad.gds.dao.ReferenceElement;
+import com.ohrasys.cad.gds.dao.Structure;
+
+/**
+ * Finds the shapes of a structure hierarchy that meet a window, without
+ * flattening it.  The query walks down the references from a top structure
+ * and only enters the instances whose placed extent meets the window: the
+ * references of each structure are kept in an R-tree of their extents, the
+ * shapes are found through the {@link SpatialIndex}, and the instances of an
+ * array reference that meet the window are found by solving for their column
+ * and row rather than by trying each of them.
+ *
+ * <p>A shape is reported when its bounding box meets the window once brought
+ * into the coordinates of its structure.  With rotations that are not
+ * multiples of 90 degrees that box is the bounding box of the placed window,
+ * so a few shapes near the window may be reported too.  A shape is reported
+ * once per instance of its structure that meets the window.</p>
+ *
+ * <p>The extents behind the pruning are only exact for absolute references
+ * placed without rotation or scaling, so the instances of such references
+ * and of the structures holding them, however far down, are always
+ * entered.</p>
+ *
+ * <p>An instance may be shared by several threads.</p>
+ *
+ * @author   $Author: tvaline $
+ * @version  $Revision: 1.1 $
+ * @since    1.5
+ */
+public class WindowQuery {
+
+    /** The slack allowed when solving for the instances of an array */
+    private static final double EPSILON = 1e-9;
+
+    /** The extents of the structures */
+    private StructureExtents extents;
+
+    /** The spatial indexes of the shapes of the structures */
+    private SpatialIndex index;
+
+    /** The R-trees of the references of the structures built so far */
+    private ConcurrentHashMap<Structure, ElementTree> references;
+
+    /**
+     * Creates a new WindowQuery object for the structures of a database.
+     *
+     * @param  database  The database
+     */
+    public WindowQuery(Database database) {
+        this(new StructureExtents(database), new SpatialIndex(database));
+    }
+
+    /**
+     * Creates a new WindowQuery object sharing the extents and the indexes
+     * of other users.  Both must cover the same structures.
+     *
+     * @param  extents  The extents of the structures
+     * @param  index    The spatial indexes of the structures
+     */
+    public WindowQuery(StructureExtents extents, SpatialIndex index) {
+        this.extents = extents;
+        this.index = index;
+        this.references = new ConcurrentHashMap<Structure, ElementTree>();
+    }
+
+    /**
+     * Reports the shapes of every layer and datatype of a hierarchy that meet
+     * a window.
+     *
+     * @param  top      The name of the top structure; an unknown name reports
+     *                  nothing
+     * @param  x1       The x coordinate of a corner of the window
+     * @param  y1       The y coordinate of a corner of the window
+     * @param  x2       The x coordinate of the opposite corner
+     * @param  y2       The y coordinate of the opposite corner
+     * @param  visitor  The visitor receiving the shapes
+     *
+     * @throws  IllegalArgumentException  If the hierarchy references itself
+     */
+    public void query(String top, int x1, int y1, int x2, int y2,
+            ShapeVisitor visitor) {
+        query(top, false, 0, 0, x1, y1, x2, y2, visitor);
+    }
+
+    /**
+     * Reports the shapes of a layer and datatype of a hierarchy that meet a
+     * window.
+     *
+     * @param  top       The name of the top structure; an unknown name
+     *                   reports nothing
+     * @param  layer     The layer
+     * @param  datatype  The datatype
+     * @param  x1        The x coordinate of a corner of the window
+     * @param  y1        The y coordinate of a corner of the window
+     * @param  x2        The x coordinate of the opposite corner
+     * @param  y2        The y coordinate of the opposite corner
+     * @param  visitor   The visitor receiving the shapes
+     *
+     * @throws  IllegalArgumentException  If the hierarchy references itself
+     */
+    public void query(String top, int layer, int datatype, int x1, int y1,
+            int x2, int y2, ShapeVisitor visitor) {
+        query(top, true, layer, datatype, x1, y1, x2, y2, visitor);
+    }
+
+    /**
+     * Returns a string representation of this class
+     *
+     * @return  The physical address of this instance
+     */
+    @Override
+    public String toString() {
+        return super.toString();
+    }
+
+    /**
+     * Narrows a range of lattice indexes to the indexes k for which
+     * <code>k * step</code> lies in an interval.
+     *
+     * @param  min    The low end of the interval
+     * @param  max    The high end of the interval
+     * @param  step   The lattice step
+     * @param  range  The range, as <code>{first, last}</code>
+     */
+    private static void narrow(double min, double max, double step,
+            double range[]) {
+        if (step > 0) {
+            range[0] = Math.max(range[0], min / step);
+            range[1] = Math.min(range[1], max / step);
+        }
+        else if (step < 0) {
+            range[0] = Math.max(range[0], max / step);
+            range[1] = Math.min(range[1], min / step);
+        }
+        else if ((min > 0) || (max < 0)) {
+            range[1] = -1;
+        }
+    }
+
+    /**
+     * Clamps a coordinate to the int range.
+     *
+     * @param   value  The coordinate
+     *
+     * @return  The int coordinate
+     */
+    private static int toInt(double value) {
+        return (int) Math.max(Integer.MIN_VALUE,
+                Math.min(Integer.MAX_VALUE, value));
+    }
+
+    /**
+     * Runs a query.
+     *
+     * @param  top       The name of the top structure
+     * @param  layered   Only one layer and datatype is wanted
+     * @param  layer     The layer
+     * @param  datatype  The datatype
+     * @param  x1        The x coordinate of a corner of the window
+     * @param  y1        The y coordinate of a corner of the window
+     * @param  x2        The x coordinate of the opposite corner
+     * @param  y2        The y coordinate of the opposite corner
+     * @param  visitor   The visitor receiving the shapes
+     */
+    private void query(String top, boolean layered, int layer, int datatype,
+            int x1, int y1, int x2, int y2, ShapeVisitor visitor) {
+        Structure structure = this.extents.getStructure(top);
+        if (structure == null) {
+            return;
+        }
+
+        Walk walk = new Walk(layered, layer, datatype, new double[] {
+                    Math.min(x1, x2), Math.min(y1, y2), Math.max(x1, x2),
+                    Math.max(y1, y2)
+                }, visitor);
+        walk.enter(structure, Placement.IDENTITY);
+    }
+
+    /**
+     * Returns the R-tree of the references of a structure, building it if
+     * needed.  References to missing or empty structures are left out.
+     *
+     * @param   structure  The structure
+     *
+     * @return  The tree
+     */
+    private ElementTree references(Structure structure) {
+        ElementTree result = this.references.get(structure);
+        if (result != null) {
+            return result;
+        }
+
+        Element elements[] = structure.getElements();
+        if (elements == null) {
+            elements = new Element[0];
+        }
+
+        int boxes[] = new int[4 * elements.length];
+        Element members[] = new Element[elements.length];
+        int count = 0;
+        for (int i = 0; i < elements.length; i++) {
+            if (!(elements[i] instanceof ReferenceElement) ||
+                    (elements[i].getXy() == null) ||
+                    (elements[i].getXy().length < 2)) {
+                continue;
+            }
+
+            ReferenceElement reference = (ReferenceElement) elements[i];
+            Structure child = this.extents.getStructure(reference.getName());
+            if (child == null) {
+                continue;
+            }
+
+            int extent[] = this.extents.extent(child);
+            if (extent.length == 0) {
+                continue;
+            }
+
+            /* The extents ignore absolute flags, so such references and the
+             * ones to structures holding them are always entered */
+            Placement placement = new Placement(reference.getTransform(), 0, 0);
+            int box[];
+            if (placement.isAbsoluteAngle() ||
+                    placement.isAbsoluteMagnification() ||
+                    this.extents.isAbsolute(child)) {
+                box = new int[] {
+                        Integer.MIN_VALUE, Integer.MIN_VALUE,
+                        Integer.MAX_VALUE, Integer.MAX_VALUE
+                    };
+            }
+            else {
+                double bounds[] = StructureExtents.empty();
+                boolean array = reference instanceof ArrayReference;
+                StructureExtents.include(extent, reference.getTransform(),
+                    reference.getXy(),
+                    array ? ((ArrayReference) reference).getColumns() : 1,
+                    array ? ((ArrayReference) reference).getRows() : 1, bounds);
+                box = StructureExtents.toExtent(bounds);
+            }
+            System.arraycopy(box, 0, boxes, 4 * count, 4);
+            members[count++] = reference;
+        }
+
+        result = new ElementTree(boxes, members, count);
+
+        ElementTree other = this.references.putIfAbsent(structure, result);
+
+        return (other == null) ? result : other;
+    } // end method references
+
+    /**
+     * An instance of a structure met by the window, receiving the shapes and
+     * the references found in its structure.
+     */
+    private class Instance implements ElementVisitor {
+
+        /** The placement of the instance in the top structure */
+        private Placement placement;
+
+        /** The query */
+        private Walk walk;
+
+        /**
+         * Creates a new Instance object.
+         *
+         * @param  walk       The query
+         * @param  placement  The placement of the instance in the top
+         *                    structure
+         */
+        Instance(Walk walk, Placement placement) {
+            this.walk = walk;
+            this.placement = placement;
+        }
+
+        /**
+         * Reports a shape or enters the instances of a reference.
+         *
+         * @param  element  The shape or the reference
+         */
+        public void visit(Element element) {
+            if (element instanceof ReferenceElement) {
+                this.walk.enter((ReferenceElement) element, this.placement);
+            }
+            else {
+                this.walk.visitor.visit(element, this.placement);
+            }
+        }
+    } // end class Instance
+
+    /**
+     * The state of one query.
+     */
+    private class Walk {
+
+        /** The datatype wanted */
+        private int datatype;
+
+        /** The layer wanted */
+        private int layer;
+
+        /** Only one layer and datatype is wanted */
+        private boolean layered;
+
+        /** A scratch box */
+        private double scratch[];
+
+        /** The visitor receiving the shapes */
+        private ShapeVisitor visitor;
+
+        /** The window in the coordinates of the top structure */
+        private double window[];
+
+        /**
+         * Creates a new Walk object.
+         *
+         * @param  layered   Only one layer and datatype is wanted
+         * @param  layer     The layer
+         * @param  datatype  The datatype
+         * @param  window    The window, as <code>{xmin, ymin, xmax, ymax}</code>
+         * @param  visitor   The visitor receiving the shapes
+         */
+        Walk(boolean layered, int layer, int datatype, double window[],
+                ShapeVisitor visitor) {
+            this.layered = layered;
+            this.layer = layer;
+            this.datatype = datatype;
+            this.window = window;
+            this.visitor = visitor;
+            this.scratch = new double[4];
+        }
+
+        /**
+         * Enters the instances of a reference that meet the window.
+         *
+         * @param  reference  The reference
+         * @param  parent     The placement of the structure holding the
+         *                    reference
+         */
+        void enter(ReferenceElement reference, Placement parent) {
+            Structure child = extents.getStructure(reference.getName());
+            int xy[] = reference.getXy();
+            int extent[] = extents.extent(child);
+            double box[] = {extent[0], extent[1], extent[2], extent[3]};
+            Placement first = parent.compose(new Placement(
+                        reference.getTransform(), xy[0], xy[1]));
+            first.transformBox(box, box);
+
+            /* The extent of a structure holding absolute references is
+             * wrong once rotated or scaled, so its instances all count */
+            if (extents.isAbsolute(child)) {
+                box[0] = Double.NEGATIVE_INFINITY;
+                box[1] = Double.NEGATIVE_INFINITY;
+                box[2] = Double.POSITIVE_INFINITY;
+                box[3] = Double.POSITIVE_INFINITY;
+            }
+
+            if (!(reference instanceof ArrayReference) || (xy.length < 6)) {
+                if (meets(box)) {
+                    enter(child, first);
+                }
+
+                return;
+            }
+
+            /* The steps between columns and rows, in the structure holding
+             * the array and once placed */
+            ArrayReference array = (ArrayReference) reference;
+            int columns = Math.max(array.getColumns(), 1);
+            int rows = Math.max(array.getRows(), 1);
+            double ux = ((double) xy[2] - xy[0]) / columns;
+            double uy = ((double) xy[3] - xy[1]) / columns;
+            double vx = ((double) xy[4] - xy[0]) / rows;
+            double vy = ((double) xy[5] - xy[1]) / rows;
+            double px = parent.transformX(0, 0);
+            double py = parent.transformY(0, 0);
+            double stepUx = parent.transformX(ux, uy) - px;
+            double stepUy = parent.transformY(ux, uy) - py;
+            double stepVx = parent.transformX(vx, vy) - px;
+            double stepVy = parent.transformY(vx, vy) - py;
+
+            /* Instance (i, j) is the first one moved by i * U + j * V; it
+             * meets the window when that move lies in this box */
+            double minX = this.window[0] - box[2];
+            double minY = this.window[1] - box[3];
+            double maxX = this.window[2] - box[0];
+            double maxY = this.window[3] - box[1];
+
+            /* The columns where some row may meet the window */
+            double range[] = {0, columns - 1};
+            double spanX = (rows - 1) * stepVx;
+            double spanY = (rows - 1) * stepVy;
+            narrow(minX - Math.max(spanX, 0), maxX - Math.min(spanX, 0), stepUx,
+                range);
+            narrow(minY - Math.max(spanY, 0), maxY - Math.min(spanY, 0), stepUy,
+                range);
+
+            int firstColumn = (int) Math.ceil(range[0] - EPSILON);
+            int lastColumn = (int) Math.floor(range[1] + EPSILON);
+            for (int i = firstColumn; i <= lastColumn; i++) {
+                /* The rows of this column that meet the window */
+                range[0] = 0;
+                range[1] = rows - 1;
+                narrow(minX - (i * stepUx), maxX - (i * stepUx), stepVx, range);
+                narrow(minY - (i * stepUy), maxY - (i * stepUy), stepVy, range);
+
+                int lastRow = (int) Math.floor(range[1] + EPSILON);
+                for (int j = (int) Math.ceil(range[0] - EPSILON); j <= lastRow;
+                        j++) {
+                    enter(child, parent.compose(new Placement(
+                                reference.getTransform(),
+                                xy[0] + (i * ux) + (j * vx),
+                                xy[1] + (i * uy) + (j * vy))));
+                }
+            }
+        } // end method enter
+
+        /**
+         * Reports the shapes of an instance of a structure that meet the
+         * window and enters the references that do.
+         *
+         * @param  structure  The structure
+         * @param  placement  The placement of the instance
+         */
+        void enter(Structure structure, Placement placement) {
+            placement.inverse().transformBox(this.window, this.scratch);
+
+            int x1 = toInt(Math.floor(this.scratch[0]));
+            int y1 = toInt(Math.floor(this.scratch[1]));
+            int x2 = toInt(Math.ceil(this.scratch[2]));
+            int y2 = toInt(Math.ceil(this.scratch[3]));
+            Instance instance = new Instance(this, placement);
+            StructureIndex shapes = index.getIndex(structure);
+            if (this.layered) {
+                shapes.query(this.layer, this.datatype, x1, y1, x2, y2,
+                    instance);
+            }
+            else {
+                shapes.query(x1, y1, x2, y2, instance);
+            }
+            references(structure).query(x1, y1, x2, y2, instance);
+        }
+
+        /**
+         * Tells whether a box meets the window.
+         *
+         * @param   box  The box, as <code>{xmin, ymin, xmax, ymax}</code>
+         *
+         * @return  true if the box meets the window, boundaries included
+         */
+        boolean meets(double box[]) {
+            return (box[0] <= this.window[2]) && (box[2] >= this.window[0]) &&
+                (box[1] <= this.window[3]) && (box[3] >= this.window[1]);
+        }
+    } // end class Walk
+} // end class WindowQuery
+
+/* This material is distributed under the GNU General Public License.
+ * For more information please go to http://www.gnu.org/copyleft/gpl.html */
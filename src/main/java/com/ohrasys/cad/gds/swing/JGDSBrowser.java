@@ -145,6 +145,9 @@ public class JGDSBrowser extends JComponent implements TreeSelectionListener {
     /** The worker thread used to execute the parser */
     private Thread producer;
 
+    /** The size of each read ahead buffer used by the parser, 0 for none */
+    private int readAhead;
+
     /** List of records retrieved from the GDS file */
     private java.util.List records;
 
@@ -275,6 +278,15 @@ public class JGDSBrowser extends JComponent implements TreeSelectionListener {
         return this.controlPanel.logField.getText();
     }
 
+    /**
+     * Returns the size of each read ahead buffer used by the parser.
+     *
+     * @return  The size in bytes, 0 if the design is read without read ahead
+     */
+    public int getReadAhead() {
+        return this.readAhead;
+    }
+
     /** Interrupts the parser */
     public void interruptParser() {
         this.controlPanel.exitButton.doClick();
@@ -314,6 +326,19 @@ public class JGDSBrowser extends JComponent implements TreeSelectionListener {
         fireActionListenerActionPerformed(new ActionEvent(this, 0, null));
     }
 
+    /**
+     * Makes the parser read the design ahead on a background thread, which
+     * keeps designs on slow or network file systems from stalling the parser.
+     * Takes effect with the next parse.
+     *
+     * @param  bytes  The size of each of the two read ahead buffers, for example
+     *                <code>GDSInputStream.DEFAULT_READ_AHEAD</code>, or 0 to
+     *                turn read ahead off
+     */
+    public void setReadAhead(int bytes) {
+        this.readAhead = bytes;
+    }
+
     /**
      * Returns a string representation of the object
      *
@@ -454,6 +479,7 @@ public class JGDSBrowser extends JComponent implements TreeSelectionListener {
                         /* It's now safe to parse the design */
                         JGDSBrowser.this.parser = new GDSParser();
                         JGDSBrowser.this.parser.setCollecting(true);
+                        JGDSBrowser.this.parser.setReadAhead(JGDSBrowser.this.readAhead);
                         JGDSBrowser.this.records = JGDSBrowser.this.parser.parseDesign(new File(gdsfile), JGDSBrowser.this.out);
                         synchronized (JGDSBrowser.this.updater) {
                             if (JGDSBrowser.this.records == null) {
@@ -92,11 +92,11 @@ public class ArefValidator extends BNFRequiredTest {
 
                     case GDSRecord.COLROW:
                         aref.setColumns(((GDSColrowRecord) rec).getNumcol());
-                        aref.setColumns(((GDSColrowRecord) rec).getNumrow());
+                        aref.setRows(((GDSColrowRecord) rec).getNumrow());
                         break;
 
                     case GDSRecord.XY:
-                        aref.setPoints(((GDSXyRecord) rec).getXy());
+                        aref.setXy(((GDSXyRecord) rec).getXyInts());
                         break;
 
                     default:
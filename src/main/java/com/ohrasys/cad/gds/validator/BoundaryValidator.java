@@ -93,7 +93,7 @@ public class BoundaryValidator extends BNFRequiredTest {
                     break;
 
                 case GDSRecord.XY:
-                    boundary.setPoints(((GDSXyRecord) rec).getXy());
+                    boundary.setXy(((GDSXyRecord) rec).getXyInts());
                     break;
 
                 default:
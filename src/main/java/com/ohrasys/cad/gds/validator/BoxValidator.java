@@ -90,7 +90,7 @@ public class BoxValidator extends BNFRequiredTest {
                     break;
 
                 case GDSRecord.XY:
-                    box.setPoints(((GDSXyRecord) rec).getXy());
+                    box.setXy(((GDSXyRecord) rec).getXyInts());
                     break;
 
                 default:
@@ -0,0 +1,1090 @@
+/*
+ * Copyright (C) 2004 Thomas N. Valine
+ * tvaline@users.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA
+ * 02111-1307, USA.
+ */
+
+package com.ohrasys.cad.gds.validator;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ResourceBundle;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import com.ohrasys.cad.gds.GDSAngleRecord;
+import com.ohrasys.cad.gds.GDSAttrtableRecord;
+import com.ohrasys.cad.gds.GDSBgnextnRecord;
+import com.ohrasys.cad.gds.GDSBgnlibRecord;
+import com.ohrasys.cad.gds.GDSBgnstrRecord;
+import com.ohrasys.cad.gds.GDSBoxtypeRecord;
+import com.ohrasys.cad.gds.GDSColrowRecord;
+import com.ohrasys.cad.gds.GDSDatatypeRecord;
+import com.ohrasys.cad.gds.GDSElflagsRecord;
+import com.ohrasys.cad.gds.GDSEndextnRecord;
+import com.ohrasys.cad.gds.GDSFontsRecord;
+import com.ohrasys.cad.gds.GDSFormatRecord;
+import com.ohrasys.cad.gds.GDSGenerationsRecord;
+import com.ohrasys.cad.gds.GDSHeaderRecord;
+import com.ohrasys.cad.gds.GDSIndex;
+import com.ohrasys.cad.gds.GDSIndexEntry;
+import com.ohrasys.cad.gds.GDSLayerRecord;
+import com.ohrasys.cad.gds.GDSLibdirsizeRecord;
+import com.ohrasys.cad.gds.GDSLibnameRecord;
+import com.ohrasys.cad.gds.GDSLibsecurRecord;
+import com.ohrasys.cad.gds.GDSMagRecord;
+import com.ohrasys.cad.gds.GDSMappedReader;
+import com.ohrasys.cad.gds.GDSMaskRecord;
+import com.ohrasys.cad.gds.GDSNodetypeRecord;
+import com.ohrasys.cad.gds.GDSPathtypeRecord;
+import com.ohrasys.cad.gds.GDSPlexRecord;
+import com.ohrasys.cad.gds.GDSPresentationRecord;
+import com.ohrasys.cad.gds.GDSPropattrRecord;
+import com.ohrasys.cad.gds.GDSPropvalueRecord;
+import com.ohrasys.cad.gds.GDSRecord;
+import com.ohrasys.cad.gds.GDSRecordCursor;
+import com.ohrasys.cad.gds.GDSRecordException;
+import com.ohrasys.cad.gds.GDSRecordSource;
+import com.ohrasys.cad.gds.GDSReflibsRecord;
+import com.ohrasys.cad.gds.GDSSnameRecord;
+import com.ohrasys.cad.gds.GDSSrfnameRecord;
+import com.ohrasys.cad.gds.GDSStatistics;
+import com.ohrasys.cad.gds.GDSStransRecord;
+import com.ohrasys.cad.gds.GDSStringRecord;
+import com.ohrasys.cad.gds.GDSStringUtil;
+import com.ohrasys.cad.gds.GDSStrnameRecord;
+import com.ohrasys.cad.gds.GDSTexttypeRecord;
+import com.ohrasys.cad.gds.GDSUnitsRecord;
+import com.ohrasys.cad.gds.GDSWidthRecord;
+import com.ohrasys.cad.gds.GDSXyRecord;
+import com.ohrasys.cad.gds.dao.ArrayReference;
+import com.ohrasys.cad.gds.dao.Boundary;
+import com.ohrasys.cad.gds.dao.Box;
+import com.ohrasys.cad.gds.dao.Database;
+import com.ohrasys.cad.gds.dao.Element;
+import com.ohrasys.cad.gds.dao.Format;
+import com.ohrasys.cad.gds.dao.GeometryElement;
+import com.ohrasys.cad.gds.dao.Node;
+import com.ohrasys.cad.gds.dao.Path;
+import com.ohrasys.cad.gds.dao.Property;
+import com.ohrasys.cad.gds.dao.ReferenceElement;
+import com.ohrasys.cad.gds.dao.Structure;
+import com.ohrasys.cad.gds.dao.StructureReference;
+import com.ohrasys.cad.gds.dao.Text;
+import com.ohrasys.cad.gds.dao.Transform;
+
+/**
+ * Builds a <code>Database</code> directly from a GDS record stream.  The
+ * loader produces the same data access objects as a collecting
+ * <code>GDSParser</code>, but instead of gathering every record in the nested
+ * lists of the Backus-Naur tests and flattening them once the design has been
+ * read, it fills in each object as soon as its records arrive using a small
+ * state machine.  Only the records of the current element are live at any
+ * time, so peak memory stays close to the size of the resulting database.
+ *
+ * <p>The loader checks that every record appears where the GDSII syntax
+ * allows it, but unlike <code>DatabaseValidator</code> it does not verify that
+ * all required records are present.</p>
+ *
+ * <p>Large files can be loaded on several threads with
+ * <code>load(File, int)</code>, which decodes the structures in parallel and
+ * returns the same database as a sequential load.  Libraries too large to
+ * hold in memory can be opened with <code>loadLazy</code>, which only decodes
+ * the elements of the structures actually used.</p>
+ *
+ * <p>Statistics set with <code>setStatistics</code> are fed with every record
+ * read while loading.  A parallel load gathers the statistics of each batch
+ * in an instance of its own and merges them once the batches are done, a
+ * lazy load only counts the record headers of the structures it skips.</p>
+ *
+ * @author   $Author: tvaline $
+ * @version  $Revision: 1.1 $
+ * @since    1.5
+ */
+public class DatabaseLoader {
+
+    /** The state while reading the library header and between structures */
+    private static final int LIBRARY = 0;
+
+    /** The state while reading a structure between elements */
+    private static final int STRUCTURE = 1;
+
+    /** The state while reading the body of an element */
+    private static final int ELEMENT = 2;
+
+    /** The state once the ENDLIB record has been read */
+    private static final int FINISHED = 3;
+
+    /** The bundle holding the messages of the gds package */
+    private static final String bundle = "com/ohrasys/cad/gds/GDSProperties" /* NOI18N */;
+
+    /** The database being built */
+    private Database database;
+
+    /** The element being built */
+    private Element element;
+
+    /** The elements of the current structure, reused between structures */
+    private List<Element> elements;
+
+    /** The format of the database being built */
+    private Format format;
+
+    /** The internationalized strings */
+    private ResourceBundle i18n;
+
+    /** The masks of the format being built */
+    private List<String> masks;
+
+    /** The file offset of the current record */
+    private long offset;
+
+    /** The properties of the current element, reused between elements */
+    private List<Property> properties;
+
+    /** The property being built */
+    private Property property;
+
+    /** The current state of the loader */
+    private int state;
+
+    /** The statistics fed with every record read, or null */
+    private GDSStatistics statistics;
+
+    /** The structure being built */
+    private Structure structure;
+
+    /** The structures of the database */
+    private List<Structure> structures;
+
+    /** The transform of the current reference or text element */
+    private Transform transform;
+
+    /**
+     * Creates a new DatabaseLoader object.
+     */
+    public DatabaseLoader() {
+        this.i18n = ResourceBundle.getBundle(bundle);
+        this.elements = new ArrayList<Element>();
+        this.properties = new ArrayList<Property>();
+    }
+
+    /**
+     * Returns the statistics fed while loading.
+     *
+     * @return  The statistics, or null if none are gathered
+     */
+    public GDSStatistics getStatistics() {
+        return this.statistics;
+    }
+
+    /**
+     * Loads a database through a memory mapped file.
+     *
+     * @param   file  The GDS file
+     *
+     * @return  The database
+     *
+     * @throws  FileNotFoundException  If the file cannot be found or is not
+     *                                 readable
+     * @throws  GDSRecordException     If the design is malformed
+     */
+    public Database load(File file) throws FileNotFoundException, GDSRecordException {
+        GDSMappedReader in = new GDSMappedReader(file);
+        try {
+            return load(in);
+        }
+        finally {
+            try {
+                in.close();
+            }
+            catch (IOException ex) { /* can't do anything now */
+            }
+        }
+    }
+
+    /**
+     * Loads a database through a memory mapped file using several threads.
+     *
+     * @param   file     The GDS file
+     * @param   threads  The number of decoding threads.  With 1 or less the
+     *                   file is loaded sequentially.
+     *
+     * @return  The database
+     *
+     * @throws  FileNotFoundException  If the file cannot be found or is not
+     *                                 readable
+     * @throws  GDSRecordException     If the design is malformed
+     *
+     * @see     #load(File, ForkJoinPool)
+     */
+    public Database load(File file, int threads) throws FileNotFoundException, GDSRecordException {
+        if (threads <= 1) {
+            return load(file);
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            return load(file, pool);
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Loads a database through a memory mapped file in two passes.  The first
+     * pass decodes the library header records but only reads the headers of
+     * the records in between BGNSTR and ENDSTR to find the byte range of each
+     * structure.  The second pass decodes the structures on the pool in batches
+     * of consecutive structures, each batch with its own reader, and puts them
+     * back in file order.  The result is the same as the one of
+     * <code>load(File)</code>.
+     *
+     * @param   file  The GDS file
+     * @param   pool  The pool decoding the structures
+     *
+     * @return  The database
+     *
+     * @throws  FileNotFoundException  If the file cannot be found or is not
+     *                                 readable
+     * @throws  GDSRecordException     If the design is malformed
+     */
+    public Database load(File file, ForkJoinPool pool) throws FileNotFoundException, GDSRecordException {
+        List<long[]> ranges = scan(file, null);
+
+        /* Aim for a few batches per thread so uneven structures even out */
+        long total = 0;
+        for (int i = 0; i < ranges.size(); i++) {
+            total += ranges.get(i)[1] - ranges.get(i)[0];
+        }
+
+        long target = Math.max(1, total / (pool.getParallelism() * 4L));
+        List<Batch> batches = new ArrayList<Batch>();
+        int first = 0;
+        long bytes = 0;
+        for (int i = 0; i < ranges.size(); i++) {
+            bytes += ranges.get(i)[1] - ranges.get(i)[0];
+            if ((bytes >= target) || (i == (ranges.size() - 1))) {
+                batches.add(new Batch(file, ranges.get(first)[0], i + 1 - first,
+                        (this.statistics == null) ? null : new GDSStatistics()));
+                first = i + 1;
+                bytes = 0;
+            }
+        }
+
+        Structure all[] = new Structure[ranges.size()];
+        int count = 0;
+        try {
+            List<Future<Structure[]>> results = pool.invokeAll(batches);
+            for (int i = 0; i < results.size(); i++) {
+                Structure part[] = results.get(i).get();
+                System.arraycopy(part, 0, all, count, part.length);
+                count += part.length;
+                if (this.statistics != null) {
+                    this.statistics.merge(batches.get(i).statistics);
+                }
+            }
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new GDSRecordException(ex.toString());
+        }
+        catch (ExecutionException ex) {
+            if (ex.getCause() instanceof GDSRecordException) {
+                throw (GDSRecordException) ex.getCause();
+            }
+            if (ex.getCause() instanceof FileNotFoundException) {
+                throw (FileNotFoundException) ex.getCause();
+            }
+            throw new GDSRecordException(ex.getCause().toString());
+        }
+
+        if (all.length > 0) {
+            this.database.setStructures(all);
+        }
+
+        return finish();
+    } // end method load
+
+    /**
+     * Loads a database from a record source.  The source is positioned in
+     * front of the HEADER record and is read up to and including the ENDLIB
+     * record.  It is not closed.
+     *
+     * @param   in  The record source
+     *
+     * @return  The database
+     *
+     * @throws  GDSRecordException  If the design is malformed or truncated
+     */
+    public Database load(GDSRecordSource in) throws GDSRecordException {
+        begin(0);
+
+        GDSRecord rec;
+        while ((this.state != FINISHED) && ((rec = in.readRecord()) != null)) {
+            step(rec);
+        }
+
+        if (this.state != FINISHED) {
+            throw truncated();
+        }
+        if (!this.structures.isEmpty()) {
+            this.database.setStructures(this.structures.toArray(
+                    new Structure[this.structures.size()]));
+        }
+
+        return finish();
+    } // end method load
+
+    /**
+     * Loads a database whose structures are read on demand.  Only the library
+     * header and the names, dates and positions of the structures are read
+     * up front, each structure is a <code>LazyStructure</code> that decodes
+     * its elements the first time <code>getElements</code> is called.  The
+     * decoded elements are kept in a cache shared by all structures of the
+     * database, and are read again from the file once they have been evicted.
+     * The file must not change while the database is in use.
+     *
+     * @param   file        The GDS file
+     * @param   cacheBytes  The capacity of the cache, counted in bytes of the
+     *                      file occupied by the cached structures
+     *
+     * @return  The database
+     *
+     * @throws  FileNotFoundException  If the file cannot be found or is not
+     *                                 readable
+     * @throws  GDSRecordException     If the design is malformed
+     */
+    public Database loadLazy(File file, long cacheBytes) throws FileNotFoundException, GDSRecordException {
+        scan(file, new StructureCache(file, cacheBytes));
+        if (!this.structures.isEmpty()) {
+            this.database.setStructures(this.structures.toArray(
+                    new Structure[this.structures.size()]));
+        }
+
+        return finish();
+    }
+
+    /**
+     * Loads a single structure of a file, reading only its records.
+     *
+     * @param   file   The GDS file
+     * @param   index  The index of the file, see <code>GDSIndex.open</code>
+     * @param   name   The structure name
+     *
+     * @return  The structure, or null if the file has no structure of that name
+     *
+     * @throws  FileNotFoundException  If the file cannot be found or is not
+     *                                 readable
+     * @throws  GDSRecordException     If the structure is malformed
+     */
+    public Structure loadStructure(File file, GDSIndex index, String name) throws FileNotFoundException, GDSRecordException {
+        GDSIndexEntry entry = index.getEntry(name);
+        if (entry == null) {
+            return null;
+        }
+
+        Structure result = decode(file, entry.getOffset(), 1)[0];
+        finish();
+
+        return result;
+    }
+
+    /**
+     * Sets the statistics fed with every record read while loading.
+     *
+     * @param  statistics  The statistics, or null to gather none
+     */
+    public void setStatistics(GDSStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+    /**
+     * Returns a string representation of this class
+     *
+     * @return  The physical address of this instance
+     */
+    @Override
+    public String toString() {
+        return super.toString();
+    }
+
+    /**
+     * Decodes consecutive structures of a file.
+     *
+     * @param   file   The GDS file
+     * @param   start  The file offset of the BGNSTR record of the first
+     *                 structure
+     * @param   count  The number of structures to decode
+     *
+     * @return  The structures in file order
+     *
+     * @throws  FileNotFoundException  If the file cannot be found or is not
+     *                                 readable
+     * @throws  GDSRecordException     If a structure is malformed
+     */
+    Structure[] decode(File file, long start, int count) throws FileNotFoundException, GDSRecordException {
+        GDSMappedReader in = new GDSMappedReader(file);
+        try {
+            in.seek(start);
+            begin(start);
+
+            GDSRecord rec;
+            while ((this.structures.size() < count) &&
+                    ((rec = in.readRecord()) != null)) {
+                step(rec);
+            }
+            if (this.structures.size() < count) {
+                throw truncated();
+            }
+
+            return this.structures.toArray(new Structure[count]);
+        }
+        finally {
+            try {
+                in.close();
+            }
+            catch (IOException ex) { /* can't do anything now */
+            }
+        }
+    } // end method decode
+
+    /**
+     * Resets the loader before reading.
+     *
+     * @param  offset  The file offset of the first record to be read
+     */
+    private void begin(long offset) {
+        this.database = new Database();
+        this.structures = new ArrayList<Structure>();
+        this.format = null;
+        this.masks = null;
+        this.offset = offset;
+        this.state = LIBRARY;
+    }
+
+    /**
+     * Handles a record of an element body.
+     *
+     * @param   rec  The record
+     *
+     * @throws  GDSRecordException  If the record may not appear in an element
+     */
+    private void element(GDSRecord rec) throws GDSRecordException {
+        switch (rec.getRectype()) {
+            case GDSRecord.ELFLAGS:
+                this.element.setExternal(((GDSElflagsRecord) rec).isExternal());
+                this.element.setTemplate(((GDSElflagsRecord) rec).isTemplate());
+                break;
+
+            case GDSRecord.PLEX:
+                this.element.setGroup(((GDSPlexRecord) rec).getPlex());
+                break;
+
+            case GDSRecord.LAYER:
+                ((GeometryElement) geometry(rec)).setLayer(((GDSLayerRecord) rec).getLayer());
+                break;
+
+            case GDSRecord.DATATYPE:
+                ((GeometryElement) geometry(rec)).setDatatype(((GDSDatatypeRecord) rec)
+                        .getDatatype());
+                break;
+
+            case GDSRecord.TEXTTYPE:
+                ((GeometryElement) geometry(rec)).setDatatype(((GDSTexttypeRecord) rec)
+                        .getTexttype());
+                break;
+
+            case GDSRecord.NODETYPE:
+                ((GeometryElement) geometry(rec)).setDatatype(((GDSNodetypeRecord) rec)
+                        .getNodeType());
+                break;
+
+            case GDSRecord.BOXTYPE:
+                ((GeometryElement) geometry(rec)).setDatatype(((GDSBoxtypeRecord) rec)
+                        .getBoxtype());
+                break;
+
+            case GDSRecord.PATHTYPE:
+                if (this.element instanceof Text) {
+                    ((Text) this.element).setPathStyle(((GDSPathtypeRecord) rec)
+                            .getPathtype());
+                }
+                else {
+                    path(rec).setPathtype(((GDSPathtypeRecord) rec).getPathtype());
+                }
+                break;
+
+            case GDSRecord.WIDTH:
+                if (this.element instanceof Text) {
+                    ((Text) this.element).setWidth(((GDSWidthRecord) rec).getWidth());
+                }
+                else {
+                    path(rec).setWidth(((GDSWidthRecord) rec).getWidth());
+                }
+                break;
+
+            case GDSRecord.BGNEXTN:
+                path(rec).setStartExtension(((GDSBgnextnRecord) rec).getBgnextn());
+                break;
+
+            case GDSRecord.ENDEXTN:
+                path(rec).setEndExtension(((GDSEndextnRecord) rec).getEndextn());
+                break;
+
+            case GDSRecord.SNAME:
+                reference(rec).setName(((GDSSnameRecord) rec).getSname());
+                break;
+
+            case GDSRecord.COLROW:
+                ((ArrayReference) reference(rec)).setColumns(((GDSColrowRecord) rec)
+                        .getNumcol());
+                ((ArrayReference) reference(rec)).setRows(((GDSColrowRecord) rec)
+                        .getNumrow());
+                break;
+
+            case GDSRecord.STRANS:
+                this.transform = new Transform();
+                this.transform.setMirrored(((GDSStransRecord) rec).isMirroredX());
+                this.transform.setRelativeAngle(!((GDSStransRecord) rec).isAbsAngle());
+                this.transform.setRelativeMagnification(!((GDSStransRecord) rec)
+                        .isAbsMag());
+                if (this.element instanceof Text) {
+                    ((Text) this.element).setTransform(this.transform);
+                }
+                else {
+                    reference(rec).setTransform(this.transform);
+                }
+                break;
+
+            case GDSRecord.MAG:
+                transform(rec).setMagnification(((GDSMagRecord) rec).getMag());
+                break;
+
+            case GDSRecord.ANGLE:
+                transform(rec).setAngle(((GDSAngleRecord) rec).getAngle());
+                break;
+
+            case GDSRecord.PRESENTATION:
+                text(rec).setFont(((GDSPresentationRecord) rec).getFont());
+                text(rec).setHJustify(((GDSPresentationRecord) rec).getHJustification());
+                text(rec).setVJustify(((GDSPresentationRecord) rec).getVJustification());
+                break;
+
+            case GDSRecord.STRING:
+                text(rec).setValue(((GDSStringRecord) rec).getString());
+                break;
+
+            case GDSRecord.XY:
+                this.element.setXy(((GDSXyRecord) rec).getXyInts());
+                break;
+
+            case GDSRecord.PROPATTR:
+                this.property = new Property();
+                this.property.setNumber(((GDSPropattrRecord) rec).getPropattr());
+                break;
+
+            case GDSRecord.PROPVALUE:
+                if (this.property == null) {
+                    throw unexpected(rec);
+                }
+                this.property.setValue(((GDSPropvalueRecord) rec).getPropvalue());
+                this.properties.add(this.property);
+                this.property = null;
+                break;
+
+            case GDSRecord.ENDEL:
+                this.element.setProperties(this.properties.toArray(
+                        new Property[this.properties.size()]));
+                this.elements.add(this.element);
+                this.properties.clear();
+                this.element = null;
+                this.property = null;
+                this.transform = null;
+                this.state = STRUCTURE;
+                break;
+
+            case GDSRecord.NULL:
+                break;
+
+            default:
+                throw unexpected(rec);
+        } // end switch
+    } // end method element
+
+    /**
+     * Hands out the database built and drops the references held by the
+     * loader.
+     *
+     * @return  The database
+     */
+    private Database finish() {
+        Database result = this.database;
+        this.database = null;
+        this.structures = null;
+        this.structure = null;
+        this.element = null;
+        this.transform = null;
+        this.elements.clear();
+        this.properties.clear();
+
+        return result;
+    }
+
+    /**
+     * Returns the current element if it has a layer and data type.
+     *
+     * @param   rec  The record being handled
+     *
+     * @return  The current element
+     *
+     * @throws  GDSRecordException  If the current element has no layer
+     */
+    private Element geometry(GDSRecord rec) throws GDSRecordException {
+        if (!(this.element instanceof GeometryElement)) {
+            throw unexpected(rec);
+        }
+
+        return this.element;
+    }
+
+    /**
+     * Handles a record of the library header or a record found between
+     * structures.
+     *
+     * @param   rec  The record
+     *
+     * @throws  GDSRecordException  If the record may not appear in the header
+     */
+    private void library(GDSRecord rec) throws GDSRecordException {
+        switch (rec.getRectype()) {
+            case GDSRecord.HEADER:
+                this.database.setVersion(((GDSHeaderRecord) rec).getVersion());
+                break;
+
+            case GDSRecord.BGNLIB:
+                this.database.setAccessed(((GDSBgnlibRecord) rec).getLastAccessedDate());
+                this.database.setModified(((GDSBgnlibRecord) rec).getModificationDate());
+                break;
+
+            case GDSRecord.LIBDIRSIZE:
+                this.database.setDirSize(((GDSLibdirsizeRecord) rec).getLibdirsize());
+                break;
+
+            case GDSRecord.SRFNAME:
+                this.database.setSpacingRulesFile(((GDSSrfnameRecord) rec).getSrfname());
+                break;
+
+            case GDSRecord.LIBSECUR:
+                this.database.setAccessControls(((GDSLibsecurRecord) rec).getLibsecur());
+                break;
+
+            case GDSRecord.LIBNAME:
+                this.database.setName(((GDSLibnameRecord) rec).getLibname());
+                break;
+
+            case GDSRecord.REFLIBS:
+                this.database.setRefLibs(((GDSReflibsRecord) rec).getReflibs());
+                break;
+
+            case GDSRecord.FONTS:
+                this.database.setFonts(((GDSFontsRecord) rec).getFonts());
+                break;
+
+            case GDSRecord.ATTRTABLE:
+                this.database.setAttributeFile(((GDSAttrtableRecord) rec).getAttrtable());
+                break;
+
+            case GDSRecord.GENERATIONS:
+                this.database.setGenerations(((GDSGenerationsRecord) rec)
+                        .getGenerations());
+                break;
+
+            case GDSRecord.FORMAT:
+                this.format = new Format();
+                this.format.setType(((GDSFormatRecord) rec).getFormat());
+                this.database.setFormat(this.format);
+                break;
+
+            case GDSRecord.MASK:
+                if (this.format == null) {
+                    throw unexpected(rec);
+                }
+                if (this.masks == null) {
+                    this.masks = new ArrayList<String>();
+                }
+                this.masks.add(((GDSMaskRecord) rec).getMask());
+                break;
+
+            case GDSRecord.ENDMASKS:
+                if (this.masks == null) {
+                    throw unexpected(rec);
+                }
+                this.format.setMasks(this.masks.toArray(new String[this.masks.size()]));
+                this.masks = null;
+                break;
+
+            case GDSRecord.UNITS:
+                this.database.setMetersPerDBU(((GDSUnitsRecord) rec).getMetersperdbu());
+                this.database.setUserUnitsPerDBU(((GDSUnitsRecord) rec).getUuperdbu());
+                break;
+
+            case GDSRecord.BGNSTR:
+                this.structure = new Structure();
+                this.structure.setAccessed(((GDSBgnstrRecord) rec).getLastAccessedDate());
+                this.structure.setModified(((GDSBgnstrRecord) rec).getModificationDate());
+                this.state = STRUCTURE;
+                break;
+
+            case GDSRecord.ENDLIB:
+                this.state = FINISHED;
+                break;
+
+            case GDSRecord.NULL:
+                break;
+
+            default:
+                throw unexpected(rec);
+        } // end switch
+    } // end method library
+
+    /**
+     * Returns the current element if it is a path.
+     *
+     * @param   rec  The record being handled
+     *
+     * @return  The current path
+     *
+     * @throws  GDSRecordException  If the current element is not a path
+     */
+    private Path path(GDSRecord rec) throws GDSRecordException {
+        if (!(this.element instanceof Path)) {
+            throw unexpected(rec);
+        }
+
+        return (Path) this.element;
+    }
+
+    /**
+     * Returns the current element if it is a structure or array reference.
+     *
+     * @param   rec  The record being handled
+     *
+     * @return  The current reference
+     *
+     * @throws  GDSRecordException  If the current element is not a reference
+     */
+    private ReferenceElement reference(GDSRecord rec) throws GDSRecordException {
+        if (!(this.element instanceof ReferenceElement)) {
+            throw unexpected(rec);
+        }
+
+        return (ReferenceElement) this.element;
+    }
+
+    /**
+     * Reads a file for the first pass of a parallel load.  Library records are
+     * handled as usual, the records of structures are skipped after reading
+     * their headers.
+     *
+     * @param   file   The GDS file
+     * @param   cache  If not null, a <code>LazyStructure</code> using this
+     *                 cache is added to the structures for each structure read
+     *
+     * @return  The file offsets of the start and the end of each structure
+     *
+     * @throws  FileNotFoundException  If the file cannot be found or is not
+     *                                 readable
+     * @throws  GDSRecordException     If the design is malformed or truncated
+     */
+    private List<long[]> scan(File file, StructureCache cache) throws FileNotFoundException, GDSRecordException {
+        GDSMappedReader in = new GDSMappedReader(file);
+        GDSRecordCursor cursor = new GDSRecordCursor(in);
+        List<long[]> result = new ArrayList<long[]>();
+        begin(0);
+
+        /* The records of a structure are counted by the batch decoding it,
+         * unless the structure is left for later */
+        boolean counting = (this.statistics != null) && (cache != null);
+        try {
+            while ((this.state != FINISHED) && cursor.next()) {
+                this.offset = cursor.offset();
+                if (cursor.rectype() != GDSRecord.BGNSTR) {
+                    if (this.statistics != null) {
+                        this.statistics.record(cursor);
+                    }
+                    library(cursor.toRecord());
+
+                    continue;
+                }
+
+                long start = this.offset;
+                if (counting) {
+                    this.statistics.record(cursor);
+                }
+                GDSBgnstrRecord bgnstr = (cache == null) ? null
+                                                         : (GDSBgnstrRecord) cursor.toRecord();
+                String name = null;
+                while (cursor.next()) {
+                    if (counting) {
+                        this.statistics.record(cursor);
+                    }
+                    if (cursor.rectype() == GDSRecord.ENDSTR) {
+
+                        break;
+                    }
+                    if ((cursor.rectype() == GDSRecord.BGNSTR) ||
+                            (cursor.rectype() == GDSRecord.ENDLIB)) {
+                        this.offset = cursor.offset();
+                        throw unexpected(cursor.toRecord());
+                    }
+                    if ((bgnstr != null) && (name == null) &&
+                            (cursor.rectype() == GDSRecord.STRNAME)) {
+                        name = ((GDSStrnameRecord) cursor.toRecord()).getStrname();
+                    }
+                }
+                result.add(new long[] { start, in.getPosition() });
+                if (bgnstr != null) {
+                    this.structures.add(new LazyStructure(name,
+                            bgnstr.getLastAccessedDate(), bgnstr.getModificationDate(),
+                            start, in.getPosition() - start, cache));
+                }
+            }
+            this.offset = in.getPosition();
+        }
+        finally {
+            try {
+                cursor.close();
+            }
+            catch (IOException ex) { /* can't do anything now */
+            }
+        }
+
+        if (this.state != FINISHED) {
+            throw truncated();
+        }
+
+        return result;
+    } // end method scan
+
+    /**
+     * Hands a record to the handler of the current state.
+     *
+     * @param   rec  The record
+     *
+     * @throws  GDSRecordException  If the record may not appear at the current
+     *                              position
+     */
+    private void step(GDSRecord rec) throws GDSRecordException {
+        if (this.statistics != null) {
+            this.statistics.record(rec);
+        }
+        switch (this.state) {
+            case LIBRARY:
+                library(rec);
+
+                break;
+
+            case STRUCTURE:
+                structure(rec);
+
+                break;
+
+            default:
+                element(rec);
+
+                break;
+        }
+        this.offset += (rec.getLength() > 0) ? rec.getLength() : 2;
+    }
+
+    /**
+     * Handles a record of a structure found between elements.
+     *
+     * @param   rec  The record
+     *
+     * @throws  GDSRecordException  If the record may not appear in a structure
+     */
+    private void structure(GDSRecord rec) throws GDSRecordException {
+        switch (rec.getRectype()) {
+            case GDSRecord.STRNAME:
+                this.structure.setName(((GDSStrnameRecord) rec).getStrname());
+                return;
+
+            case GDSRecord.STRCLASS:
+            case GDSRecord.NULL:
+                return;
+
+            case GDSRecord.ENDSTR:
+                this.structure.setElements(this.elements.toArray(
+                        new Element[this.elements.size()]));
+                this.structures.add(this.structure);
+                this.elements.clear();
+                this.structure = null;
+                this.state = LIBRARY;
+                return;
+
+            case GDSRecord.BOUNDARY:
+                this.element = new Boundary();
+                break;
+
+            case GDSRecord.PATH:
+                this.element = new Path();
+                break;
+
+            case GDSRecord.SREF:
+                this.element = new StructureReference();
+                break;
+
+            case GDSRecord.AREF:
+                this.element = new ArrayReference();
+                break;
+
+            case GDSRecord.TEXT:
+                this.element = new Text();
+                break;
+
+            case GDSRecord.NODE:
+                this.element = new Node();
+                break;
+
+            case GDSRecord.BOX:
+                this.element = new Box();
+                break;
+
+            default:
+                throw unexpected(rec);
+        } // end switch
+        this.state = ELEMENT;
+    } // end method structure
+
+    /**
+     * Returns the current element if it is a text element.
+     *
+     * @param   rec  The record being handled
+     *
+     * @return  The current text element
+     *
+     * @throws  GDSRecordException  If the current element is not a text element
+     */
+    private Text text(GDSRecord rec) throws GDSRecordException {
+        if (!(this.element instanceof Text)) {
+            throw unexpected(rec);
+        }
+
+        return (Text) this.element;
+    }
+
+    /**
+     * Returns the transform opened by the last STRANS record.
+     *
+     * @param   rec  The record being handled
+     *
+     * @return  The current transform
+     *
+     * @throws  GDSRecordException  If no STRANS record preceded the record
+     */
+    private Transform transform(GDSRecord rec) throws GDSRecordException {
+        if (this.transform == null) {
+            throw unexpected(rec);
+        }
+
+        return this.transform;
+    }
+
+    /**
+     * Creates the exception reported when the stream ends early.
+     *
+     * @return  The exception to throw
+     */
+    private GDSRecordException truncated() {
+        return new GDSRecordException(GDSStringUtil.sprintf(
+                    this.i18n.getString("I18N_EVENTREADER_THROW2" /* NOI18N */),
+                    this.offset));
+    }
+
+    /**
+     * Creates the exception reported for a record that may not appear at the
+     * current position.
+     *
+     * @param   rec  The record
+     *
+     * @return  The exception to throw
+     */
+    private GDSRecordException unexpected(GDSRecord rec) {
+        return new GDSRecordException(GDSStringUtil.sprintf(
+                    this.i18n.getString("I18N_EVENTREADER_THROW1" /* NOI18N */),
+                    rec.getRectype() & 0xFF, this.offset));
+    }
+
+    /**
+     * Decodes a batch of consecutive structures with a loader of its own.
+     */
+    private static class Batch implements Callable<Structure[]> {
+
+        /** The number of structures in the batch */
+        private int count;
+
+        /** The GDS file */
+        private File file;
+
+        /** The file offset of the first structure */
+        private long start;
+
+        /** The statistics of the batch, or null */
+        private GDSStatistics statistics;
+
+        /**
+         * Creates a new Batch object.
+         *
+         * @param  file        The GDS file
+         * @param  start       The file offset of the first structure
+         * @param  count       The number of structures in the batch
+         * @param  statistics  The statistics fed with the records of the
+         *                     batch, or null
+         */
+        Batch(File file, long start, int count, GDSStatistics statistics) {
+            this.file = file;
+            this.start = start;
+            this.count = count;
+            this.statistics = statistics;
+        }
+
+        /**
+         * Decodes the structures of the batch.
+         *
+         * @return  The structures in file order
+         *
+         * @throws  Exception  If the structures cannot be read or are malformed
+         */
+        public Structure[] call() throws Exception {
+            DatabaseLoader loader = new DatabaseLoader();
+            loader.setStatistics(this.statistics);
+
+            return loader.decode(this.file, this.start, this.count);
+        }
+    } // end class Batch
+} // end class DatabaseLoader
+
+/* This material is distributed under the GNU General Public License.
+ * For more information please go to http://www.gnu.org/copyleft/gpl.html */
@@ -0,0 +1,152 @@
+/*
+ * Copyright (C) 2004 Thomas N. Valine
+ * tvaline@users.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA
+ * 02111-1307, USA.
+ */
+
+package com.ohrasys.cad.gds.validator;
+
+/**
+ * A problem found while validating a GDS file.
+ *
+ * @author   $Author: tvaline $
+ * @version  $Revision: 1.1 $
+ * @since    1.5
+ */
+public class Diagnostic implements Comparable<Diagnostic> {
+
+    /** The record types that would have been valid at the offset */
+    private int expected[];
+
+    /** The record type found, or -1 if the problem is a missing record */
+    private int found;
+
+    /** The description of the problem */
+    private String message;
+
+    /** The file offset of the offending record */
+    private long offset;
+
+    /** The name of the structure holding the record, null outside structures */
+    private String structure;
+
+    /**
+     * Creates a new Diagnostic object.
+     *
+     * @param  offset     The file offset of the offending record
+     * @param  structure  The name of the structure holding the record, or null
+     * @param  found      The record type found, or -1
+     * @param  message    The description of the problem
+     */
+    public Diagnostic(long offset, String structure, int found, String message) {
+        this(offset, structure, found, new int[0], message);
+    }
+
+    /**
+     * Creates a new Diagnostic object for a record the grammar rejects.
+     *
+     * @param  offset     The file offset of the offending record
+     * @param  structure  The name of the structure holding the record, or null
+     * @param  found      The record type found, or -1
+     * @param  expected   The record types that would have been valid
+     * @param  message    The description of the problem
+     */
+    public Diagnostic(long offset, String structure, int found, int expected[],
+            String message) {
+        this.offset = offset;
+        this.structure = structure;
+        this.found = found;
+        this.expected = expected.clone();
+        this.message = message;
+    }
+
+    /**
+     * Orders diagnostics by file offset.
+     *
+     * @param   other  The diagnostic to compare with
+     *
+     * @return  A negative number, zero or a positive number if this diagnostic
+     *          comes before, at the same offset as or after the other one
+     */
+    public int compareTo(Diagnostic other) {
+        return (this.offset < other.offset) ? -1
+                                            : ((this.offset == other.offset) ? 0 : 1);
+    }
+
+    /**
+     * Returns the record types that would have been valid at the offset.
+     *
+     * @return  The record types in ascending order, empty if the problem is
+     *          not about the order of the records
+     */
+    public int[] getExpected() {
+        return this.expected.clone();
+    }
+
+    /**
+     * Returns the record type found at the offset.
+     *
+     * @return  One of the <code>GDSRecord</code> record type constants, or -1
+     *          if the problem is a missing record
+     */
+    public int getFound() {
+        return this.found;
+    }
+
+    /**
+     * Returns the description of the problem.
+     *
+     * @return  The message
+     */
+    public String getMessage() {
+        return this.message;
+    }
+
+    /**
+     * Returns the position of the problem.
+     *
+     * @return  The file offset of the offending record
+     */
+    public long getOffset() {
+        return this.offset;
+    }
+
+    /**
+     * Returns the structure holding the offending record.
+     *
+     * @return  The structure name, or null if the record is not part of a
+     *          structure or the structure name is not known
+     */
+    public String getStructure() {
+        return this.structure;
+    }
+
+    /**
+     * Returns the message of the diagnostic, prefixed by the structure name if
+     * there is one.
+     *
+     * @return  The diagnostic as text
+     */
+    @Override
+    public String toString() {
+        return (this.structure == null) ? this.message
+                                        : (this.structure + ": " /* NOI18N */ + this.message);
+    }
+} // end class Diagnostic
+
+/* This material is distributed under the GNU General Public License.
+ * For more information please go to http://www.gnu.org/copyleft/gpl.html */
@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2004 Thomas N. Valine
+ * tvaline@users.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA
+ * 02111-1307, USA.
+ */
+
+package com.ohrasys.cad.gds.validator;
+
+import java.io.FileNotFoundException;
+import java.util.Date;
+
+import com.ohrasys.cad.gds.GDSRecordException;
+import com.ohrasys.cad.gds.dao.Element;
+import com.ohrasys.cad.gds.dao.Structure;
+
+/**
+ * A structure whose elements are read from the file when they are first
+ * asked for.  The stub itself only holds the name, the dates and the
+ * position of the structure in the file, the elements live in a shared
+ * <code>StructureCache</code>.  Elements set with <code>setElements</code>
+ * replace the ones of the file for good.
+ *
+ * @author   $Author: tvaline $
+ * @version  $Revision: 1.1 $
+ * @since    1.5
+ */
+public class LazyStructure extends Structure {
+
+    /** The cache holding the elements */
+    private StructureCache cache;
+
+    /** The length of the structure in the file */
+    private long length;
+
+    /** The file offset of the BGNSTR record */
+    private long offset;
+
+    /**
+     * Creates a new LazyStructure object.
+     *
+     * @param  name      The name of the structure
+     * @param  accessed  The date the structure was last accessed
+     * @param  modified  The date the structure was last modified
+     * @param  offset    The file offset of the BGNSTR record
+     * @param  length    The length of the structure in the file
+     * @param  cache     The cache holding the elements
+     */
+    LazyStructure(String name, Date accessed, Date modified, long offset,
+            long length, StructureCache cache) {
+        super(name, accessed, modified, null);
+        this.offset = offset;
+        this.length = length;
+        this.cache = cache;
+    }
+
+    /**
+     * Returns the cache holding the elements.  The cache is shared by all the
+     * structures of the database.
+     *
+     * @return  The cache
+     */
+    public StructureCache getCache() {
+        return this.cache;
+    }
+
+    /**
+     * Returns the elements of the structure, reading them from the file if
+     * they are not cached.
+     *
+     * @return  The elements
+     *
+     * @throws  IllegalStateException  If the file can no longer be read or the
+     *                                 structure is malformed
+     */
+    @Override
+    public Element[] getElements() {
+        Element result[] = super.getElements();
+        if (result != null) {
+            return result;
+        }
+
+        try {
+            return this.cache.get(this);
+        }
+        catch (GDSRecordException ex) {
+            throw new IllegalStateException(ex.getMessage(), ex);
+        }
+        catch (FileNotFoundException ex) {
+            throw new IllegalStateException(ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Returns the length of the structure in the file.
+     *
+     * @return  The number of bytes from the start of the BGNSTR record to the
+     *          end of the ENDSTR record
+     */
+    public long getLength() {
+        return this.length;
+    }
+
+    /**
+     * Returns the position of the structure in the file.
+     *
+     * @return  The file offset of the BGNSTR record
+     */
+    public long getOffset() {
+        return this.offset;
+    }
+
+    /**
+     * Returns a string representation of the structure
+     *
+     * @return  A string representation of the structure
+     */
+    @Override
+    public String toString() {
+        return super.toString();
+    }
+} // end class LazyStructure
+
+/* This material is distributed under the GNU General Public License.
+ * For more information please go to http://www.gnu.org/copyleft/gpl.html */
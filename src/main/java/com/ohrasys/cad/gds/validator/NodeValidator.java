@@ -90,7 +90,7 @@ public class NodeValidator extends BNFRequiredTest {
                     break;
 
                 case GDSRecord.XY:
-                    node.setPoints(((GDSXyRecord) rec).getXy());
+                    node.setXy(((GDSXyRecord) rec).getXyInts());
                     break;
 
                 default:
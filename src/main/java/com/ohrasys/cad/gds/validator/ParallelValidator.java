@@ -0,0 +1,385 @@
+/*
+ * Copyright (C) 2004 Thomas N. Valine
+ * tvaline@users.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA
+ * 02111-1307, USA.
+ */
+
+package com.ohrasys.cad.gds.validator;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.ResourceBundle;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import com.ohrasys.cad.bnf.BNFTestException;
+import com.ohrasys.cad.bnf.BNFTestResult;
+import com.ohrasys.cad.gds.GDSMappedReader;
+import com.ohrasys.cad.gds.GDSRecord;
+import com.ohrasys.cad.gds.GDSRecordCursor;
+import com.ohrasys.cad.gds.GDSRecordException;
+import com.ohrasys.cad.gds.GDSStringUtil;
+import com.ohrasys.cad.gds.GDSStrnameRecord;
+
+/**
+ * Validates a GDS file with one <code>StructureValidator</code> per structure
+ * running on a thread pool.  The grammar of a structure does not depend on
+ * anything outside it, so once the structure boundaries are known the
+ * structures can be checked independently.
+ *
+ * <p>A first pass on the calling thread walks the record headers.  The records
+ * outside structures go through a <code>DatabaseValidator</code>, which checks
+ * the library header and trailer, and the byte range of every structure is
+ * noted.  The structures are then validated in batches on the pool, each
+ * batch with its own reader and validator.  The grammar only needs the
+ * record types, so the structures are walked with a
+ * <code>GDSRecordCursor</code> and only their names are decoded.  Every
+ * structure reports at most one problem, the first record its grammar
+ * rejects or a name that cannot be decoded.  The diagnostics of all passes
+ * are returned in file order.</p>
+ *
+ * @author   $Author: tvaline $
+ * @version  $Revision: 1.1 $
+ * @since    1.5
+ */
+public class ParallelValidator {
+
+    /** The bundle holding the messages of the gds package */
+    private static final String bundle = "com/ohrasys/cad/gds/GDSProperties" /* NOI18N */;
+
+    /** The internationalized strings */
+    private ResourceBundle i18n;
+
+    /**
+     * Creates a new ParallelValidator object.
+     */
+    public ParallelValidator() {
+        this.i18n = ResourceBundle.getBundle(bundle);
+    }
+
+    /**
+     * Validates a file using several threads.
+     *
+     * @param   file     The GDS file
+     * @param   threads  The number of threads validating structures
+     *
+     * @return  The problems found in file order, empty if the file is valid
+     *
+     * @throws  FileNotFoundException  If the file cannot be found or is not
+     *                                 readable
+     * @throws  GDSRecordException     If a record cannot be read at all
+     * @throws  BNFTestException       If a validator cannot be created
+     */
+    public List<Diagnostic> validate(File file, int threads) throws FileNotFoundException, GDSRecordException, BNFTestException {
+        ForkJoinPool pool = new ForkJoinPool(Math.max(threads, 1));
+        try {
+            return validate(file, pool);
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Validates a file on a pool.
+     *
+     * @param   file  The GDS file
+     * @param   pool  The pool validating the structures
+     *
+     * @return  The problems found in file order, empty if the file is valid
+     *
+     * @throws  FileNotFoundException  If the file cannot be found or is not
+     *                                 readable
+     * @throws  GDSRecordException     If a record cannot be read at all
+     * @throws  BNFTestException       If a validator cannot be created
+     */
+    public List<Diagnostic> validate(File file, ForkJoinPool pool) throws FileNotFoundException, GDSRecordException, BNFTestException {
+        List<Diagnostic> result = new ArrayList<Diagnostic>();
+        List<long[]> ranges = scan(file, result);
+
+        long total = 0;
+        for (int i = 0; i < ranges.size(); i++) {
+            total += ranges.get(i)[1] - ranges.get(i)[0];
+        }
+
+        long target = Math.max(1, total / (pool.getParallelism() * 4L));
+        List<Batch> batches = new ArrayList<Batch>();
+        int first = 0;
+        long bytes = 0;
+        for (int i = 0; i < ranges.size(); i++) {
+            bytes += ranges.get(i)[1] - ranges.get(i)[0];
+            if ((bytes >= target) || (i == (ranges.size() - 1))) {
+                batches.add(new Batch(file, ranges.subList(first, i + 1)));
+                first = i + 1;
+                bytes = 0;
+            }
+        }
+
+        try {
+            List<Future<List<Diagnostic>>> results = pool.invokeAll(batches);
+            for (int i = 0; i < results.size(); i++) {
+                result.addAll(results.get(i).get());
+            }
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new GDSRecordException(ex.toString());
+        }
+        catch (ExecutionException ex) {
+            if (ex.getCause() instanceof GDSRecordException) {
+                throw (GDSRecordException) ex.getCause();
+            }
+            if (ex.getCause() instanceof FileNotFoundException) {
+                throw (FileNotFoundException) ex.getCause();
+            }
+            if (ex.getCause() instanceof BNFTestException) {
+                throw (BNFTestException) ex.getCause();
+            }
+            throw new GDSRecordException(ex.getCause().toString());
+        }
+        Collections.sort(result);
+
+        return result;
+    } // end method validate
+
+    /**
+     * Returns a string representation of this class
+     *
+     * @return  The physical address of this instance
+     */
+    @Override
+    public String toString() {
+        return super.toString();
+    }
+
+    /**
+     * Validates consecutive structures of a file.
+     *
+     * @param   file    The GDS file
+     * @param   ranges  The start and end offsets of the structures
+     *
+     * @return  The problems found
+     *
+     * @throws  FileNotFoundException  If the file cannot be found or is not
+     *                                 readable
+     * @throws  GDSRecordException     If a record cannot be read at all
+     * @throws  BNFTestException       If the validator cannot be created
+     */
+    List<Diagnostic> check(File file, List<long[]> ranges) throws FileNotFoundException, GDSRecordException, BNFTestException {
+        List<Diagnostic> result = new ArrayList<Diagnostic>();
+        StructureValidator validator = new StructureValidator();
+        validator.setCollecting(false);
+
+        GDSMappedReader in = new GDSMappedReader(file);
+        GDSRecordCursor cursor = new GDSRecordCursor(in);
+        try {
+            for (int i = 0; i < ranges.size(); i++) {
+                long end = ranges.get(i)[1];
+                String name = null;
+                boolean done = false;
+                validator.reset();
+                in.seek(ranges.get(i)[0]);
+                while (!done && (in.getPosition() < end) && cursor.next()) {
+                    /* Only the structure name is decoded, a bad one ends the
+                     * structure like a rejected record */
+                    if ((name == null) && (cursor.rectype() == GDSRecord.STRNAME)) {
+                        try {
+                            name = ((GDSStrnameRecord) cursor.toRecord())
+                                    .getStrname();
+                        }
+                        catch (GDSRecordException ex) {
+                            result.add(new Diagnostic(cursor.offset(),
+                                    cursor.asciiString(),
+                                    cursor.rectype() & 0xFF, ex.getMessage()));
+                            done = true;
+
+                            break;
+                        }
+                    }
+
+                    int status = validator.test(cursor.rectype());
+                    if (status == BNFTestResult.FAILED) {
+                        result.add(unexpected(cursor.offset(), name,
+                                cursor.rectype()));
+                        done = true;
+                    }
+                    else if (status == BNFTestResult.FINISHED) {
+                        done = true;
+                    }
+                }
+                if (!done) {
+                    result.add(truncated(end, name));
+                }
+            } // end for
+        }
+        finally {
+            try {
+                cursor.close();
+            }
+            catch (IOException ex) { /* can't do anything now */
+            }
+        }
+
+        return result;
+    } // end method check
+
+    /**
+     * Walks the record headers of a file, validating the records outside
+     * structures and noting the byte range of each structure.  A structure
+     * ends after its ENDSTR record, or in front of a BGNSTR or ENDLIB record
+     * if it is not terminated.
+     *
+     * @param   file         The GDS file
+     * @param   diagnostics  The list receiving problems of the library records
+     *
+     * @return  The start and end offsets of the structures
+     *
+     * @throws  FileNotFoundException  If the file cannot be found or is not
+     *                                 readable
+     * @throws  GDSRecordException     If a record cannot be read at all
+     * @throws  BNFTestException       If the validator cannot be created
+     */
+    private List<long[]> scan(File file, List<Diagnostic> diagnostics) throws FileNotFoundException, GDSRecordException, BNFTestException {
+        List<long[]> result = new ArrayList<long[]>();
+        DatabaseValidator validator = new DatabaseValidator();
+        validator.reset();
+        validator.setCollecting(false);
+
+        GDSMappedReader in = new GDSMappedReader(file);
+        GDSRecordCursor cursor = new GDSRecordCursor(in);
+        boolean failed = false;
+        boolean finished = false;
+        try {
+            boolean more = cursor.next();
+            while (more && !finished) {
+                if (cursor.rectype() == GDSRecord.BGNSTR) {
+                    long start = cursor.offset();
+                    long end = cursor.offset() + cursor.length();
+                    while ((more = cursor.next()) &&
+                            (cursor.rectype() != GDSRecord.BGNSTR) &&
+                            (cursor.rectype() != GDSRecord.ENDLIB)) {
+                        end = cursor.offset() + cursor.length();
+                        if (cursor.rectype() == GDSRecord.ENDSTR) {
+                            more = cursor.next();
+
+                            break;
+                        }
+                    }
+                    result.add(new long[] { start, end });
+
+                    continue;
+                }
+
+                if (!failed) {
+                    int status = validator.test(cursor.rectype());
+                    if (status == BNFTestResult.FAILED) {
+                        diagnostics.add(unexpected(cursor.offset(), null,
+                                cursor.rectype()));
+                        failed = true;
+                    }
+                    finished = (status == BNFTestResult.FINISHED);
+                }
+                more = cursor.next();
+            } // end while
+            if (!failed && !finished) {
+                diagnostics.add(truncated(in.getSize(), null));
+            }
+        }
+        finally {
+            try {
+                cursor.close();
+            }
+            catch (IOException ex) { /* can't do anything now */
+            }
+        }
+
+        return result;
+    } // end method scan
+
+    /**
+     * Creates the diagnostic reported when a structure or the file ends early.
+     *
+     * @param   offset     The offset of the end
+     * @param   structure  The structure name, or null
+     *
+     * @return  The diagnostic
+     */
+    private Diagnostic truncated(long offset, String structure) {
+        return new Diagnostic(offset, structure, -1, GDSStringUtil.sprintf(
+                    this.i18n.getString("I18N_EVENTREADER_THROW2" /* NOI18N */),
+                    offset));
+    }
+
+    /**
+     * Creates the diagnostic reported for a record the grammar rejects.
+     *
+     * @param   offset     The offset of the record
+     * @param   structure  The structure name, or null
+     * @param   rectype    The record type
+     *
+     * @return  The diagnostic
+     */
+    private Diagnostic unexpected(long offset, String structure, byte rectype) {
+        return new Diagnostic(offset, structure, rectype & 0xFF,
+                GDSStringUtil.sprintf(
+                    this.i18n.getString("I18N_EVENTREADER_THROW1" /* NOI18N */),
+                    rectype & 0xFF, offset));
+    }
+
+    /**
+     * Validates a batch of consecutive structures.
+     */
+    private class Batch implements Callable<List<Diagnostic>> {
+
+        /** The GDS file */
+        private File file;
+
+        /** The start and end offsets of the structures */
+        private List<long[]> ranges;
+
+        /**
+         * Creates a new Batch object.
+         *
+         * @param  file    The GDS file
+         * @param  ranges  The start and end offsets of the structures
+         */
+        Batch(File file, List<long[]> ranges) {
+            this.file = file;
+            this.ranges = ranges;
+        }
+
+        /**
+         * Validates the structures of the batch.
+         *
+         * @return  The problems found
+         *
+         * @throws  Exception  If the structures cannot be read
+         */
+        public List<Diagnostic> call() throws Exception {
+            return check(this.file, this.ranges);
+        }
+    } // end class Batch
+} // end class ParallelValidator
+
+/* This material is distributed under the GNU General Public License.
+ * For more information please go to http://www.gnu.org/copyleft/gpl.html */
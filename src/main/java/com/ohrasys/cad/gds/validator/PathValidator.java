@@ -110,7 +110,7 @@ public class PathValidator extends BNFRequiredTest {
                     break;
 
                 case GDSRecord.XY:
-                    path.setPoints(((GDSXyRecord) rec).getXy());
+                    path.setXy(((GDSXyRecord) rec).getXyInts());
                     break;
 
                 default:
@@ -91,7 +91,7 @@ public class SrefValidator extends BNFRequiredTest {
                         break;
 
                     case GDSRecord.XY:
-                        sref.setPoints(((GDSXyRecord) rec).getXy());
+                        sref.setXy(((GDSXyRecord) rec).getXyInts());
                         break;
 
                     default:
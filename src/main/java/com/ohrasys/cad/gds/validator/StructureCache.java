@@ -0,0 +1,257 @@
+/*
+ * Copyright (C) 2004 Thomas N. Valine
+ * tvaline@users.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA
+ * 02111-1307, USA.
+ */
+
+package com.ohrasys.cad.gds.validator;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import com.ohrasys.cad.gds.GDSRecordException;
+import com.ohrasys.cad.gds.dao.Element;
+
+/**
+ * Holds the elements of recently used <code>LazyStructure</code>s.  The cost
+ * of a structure is the number of bytes it occupies in the file.  When the
+ * total cost exceeds the capacity the least recently used structures are
+ * dropped, and are decoded again from the file on their next use.  A
+ * structure larger than the whole capacity is decoded but not kept.
+ *
+ * <p>Structures are decoded outside the cache lock, so different structures
+ * may be decoded concurrently.  Concurrent misses on the same structure
+ * wait for a single decode.</p>
+ *
+ * @author   $Author: tvaline $
+ * @version  $Revision: 1.1 $
+ * @since    1.5
+ */
+public class StructureCache {
+
+    /** The maximum total cost of the cached structures */
+    private long capacity;
+
+    /** The elements of the cached structures, least recently used first */
+    private LinkedHashMap<LazyStructure, Element[]> cached;
+
+    /** The file the structures are read from */
+    private File file;
+
+    /** The number of structures decoded from the file */
+    private long misses;
+
+    /** The decodes in progress, by structure */
+    private Map<LazyStructure, FutureTask<Element[]>> pending;
+
+    /** The total cost of the cached structures */
+    private long size;
+
+    /**
+     * Creates a new StructureCache object.
+     *
+     * @param  file      The file the structures are read from
+     * @param  capacity  The maximum total cost of the cached structures in
+     *                   bytes of the file
+     */
+    StructureCache(File file, long capacity) {
+        this.file = file;
+        this.capacity = capacity;
+        this.cached = new LinkedHashMap<LazyStructure, Element[]>(16, 0.75f, true);
+        this.pending = new HashMap<LazyStructure, FutureTask<Element[]>>();
+    }
+
+    /**
+     * Drops all cached elements.
+     */
+    public synchronized void clear() {
+        this.cached.clear();
+        this.size = 0;
+    }
+
+    /**
+     * Returns the maximum total cost of the cached structures.
+     *
+     * @return  The capacity in bytes of the file
+     */
+    public long getCapacity() {
+        return this.capacity;
+    }
+
+    /**
+     * Returns the number of times a structure had to be decoded from the
+     * file.
+     *
+     * @return  The number of cache misses
+     */
+    public synchronized long getMisses() {
+        return this.misses;
+    }
+
+    /**
+     * Returns the total cost of the cached structures.
+     *
+     * @return  The size in bytes of the file
+     */
+    public synchronized long getSize() {
+        return this.size;
+    }
+
+    /**
+     * Returns a string representation of this class
+     *
+     * @return  The physical address of this instance
+     */
+    @Override
+    public String toString() {
+        return super.toString();
+    }
+
+    /**
+     * Returns the elements of a structure, decoding them if they are not
+     * cached.
+     *
+     * @param   structure  The structure
+     *
+     * @return  The elements
+     *
+     * @throws  FileNotFoundException  If the file can no longer be read
+     * @throws  GDSRecordException     If the structure is malformed
+     */
+    Element[] get(final LazyStructure structure) throws FileNotFoundException, GDSRecordException {
+        FutureTask<Element[]> task;
+        boolean               owner = false;
+        synchronized (this) {
+            Element result[] = this.cached.get(structure);
+            if (result != null) {
+                return result;
+            }
+            task = this.pending.get(structure);
+            if (task == null) {
+                task = new FutureTask<Element[]>(new Callable<Element[]>() {
+                            public Element[] call() throws Exception {
+                                return new DatabaseLoader().decode(StructureCache.this.file,
+                                        structure.getOffset(), 1)[0].getElements();
+                            }
+                        });
+                this.pending.put(structure, task);
+                owner = true;
+            }
+        }
+
+        if (owner) {
+            task.run();
+        }
+
+        Element result[] = null;
+        try {
+            result = await(task);
+        }
+        finally {
+            /* A failed decode is forgotten so the next use tries again */
+            if (owner) {
+                store(structure, result);
+            }
+        }
+
+        return result;
+    } // end method get
+
+    /**
+     * Waits for a decode and rethrows its failure.
+     *
+     * @param   task  The decode
+     *
+     * @return  The decoded elements
+     *
+     * @throws  FileNotFoundException  If the file can no longer be read
+     * @throws  GDSRecordException     If the structure is malformed
+     */
+    private static Element[] await(FutureTask<Element[]> task) throws FileNotFoundException, GDSRecordException {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return task.get();
+                }
+                catch (InterruptedException ex) {
+                    /* The decode is shared, so finish waiting for it */
+                    interrupted = true;
+                }
+            }
+        }
+        catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof FileNotFoundException) {
+                throw (FileNotFoundException) cause;
+            }
+            if (cause instanceof GDSRecordException) {
+                throw (GDSRecordException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+        finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    } // end method await
+
+    /**
+     * Ends a decode, caching its elements if they fit and dropping the least
+     * recently used structures until the cache is within its capacity.
+     *
+     * @param  structure  The decoded structure
+     * @param  elements   The decoded elements, null if the decode failed
+     */
+    private synchronized void store(LazyStructure structure, Element elements[]) {
+        this.pending.remove(structure);
+        if (elements == null) {
+            return;
+        }
+        this.misses++;
+        if (structure.getLength() > this.capacity) {
+            return;
+        }
+
+        this.cached.put(structure, elements);
+        this.size += structure.getLength();
+
+        Iterator<Map.Entry<LazyStructure, Element[]>> eldest =
+                this.cached.entrySet().iterator();
+        while (this.size > this.capacity) {
+            this.size -= eldest.next().getKey().getLength();
+            eldest.remove();
+        }
+    } // end method store
+} // end class StructureCache
+
+/* This material is distributed under the GNU General Public License.
+ * For more information please go to http://www.gnu.org/copyleft/gpl.html */
@@ -113,7 +113,7 @@ public class TextValidator extends BNFRequiredTest {
                         break;
 
                     case GDSRecord.XY:
-                        text.setPoints(((GDSXyRecord) rec).getXy());
+                        text.setXy(((GDSXyRecord) rec).getXyInts());
                         break;
 
                     case GDSRecord.STRING:
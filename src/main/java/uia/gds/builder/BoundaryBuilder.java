@@ -47,8 +47,8 @@ public class BoundaryBuilder implements GraphBuilder {
         for (int i = 1; i < pts.length; i++) {
             minX = Math.min(minX, pts[i].getX());
             minY = Math.min(minY, pts[i].getY());
-            maxX = Math.min(maxX, pts[i].getX());
-            maxY = Math.min(maxY, pts[i].getY());
+            maxX = Math.max(maxX, pts[i].getX());
+            maxY = Math.max(maxY, pts[i].getY());
         }
         this.rect = new Rectangle((int) minX, (int) minY, (int) (maxX - minX), (int) (maxY - minY));
     }
@@ -27,6 +27,7 @@ public class CadSuite
     junit.framework.TestSuite suite =
       new junit.framework.TestSuite("CadSuite");
     suite.addTest(com.ohrasys.cad.bnf.BnfSuite.suite());
+    suite.addTest(com.ohrasys.cad.gds.GdsSuite.suite());
     return suite;
   }
 
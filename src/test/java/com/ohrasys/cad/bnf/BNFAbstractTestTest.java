@@ -51,6 +51,26 @@ public class BNFAbstractTestTest
     }
   }
 
+  /* A subclass with only the object path still runs on the fast path */
+  public void testObjectFallback()
+    throws BNFTestException {
+    assertEquals(BNFTestResult.FINISHED, new EvenTest().test(4));
+    BNFRequiredTest test = new BNFRequiredTest(new BNFTestImplementor[] {
+        new EvenTest(), new BNFNoFallthruTest(5)
+      });
+    assertEquals(BNFTestResult.UNFINISHED, test.test(2));
+    assertEquals(BNFTestResult.FINISHED, test.test(5));
+    assertEquals(BNFTestResult.FAILED, test.test(3));
+    assertEquals(1, test.getReplayCount());
+    assertEquals(BNFTestResult.UNFINISHED, test.test(6));
+    assertEquals(BNFTestResult.FAILED, test.test(6));
+    assertEquals(2, test.getReplayCount());
+    try {
+      new BNFCompiler().compile(test);
+      fail("Object path only test compiled" /*NOI18N*/);
+    } catch(BNFTestException ex) {}
+  }
+
   public void testReset()
     throws BNFTestException {
     BNFTestImplementor tests[]             = {
@@ -63,6 +83,26 @@ public class BNFAbstractTestTest
     test.reset();
     assertTrue(((BNFNoFallthruTest)tests[1]).nextTest == 0);
   }
+
+  private static class EvenTest
+    extends BNFAbstractTest {
+    public EvenTest()
+      throws BNFTestException {
+      super(new BNFTestImplementor[] {new BNFNoFallthruTest(0)});
+    }
+
+    public BNFTestResult test(BNFTestableObject obj) {
+      BNFTestResult result = new BNFTestResult();
+      if((obj.getToken() % 2) == 0) {
+        result.addCommittableToken(obj);
+        result.setResult(BNFTestResult.FINISHED);
+      } else {
+        result.addReplayableToken(obj);
+        result.setResult(BNFTestResult.FAILED);
+      }
+      return result;
+    }
+  }
 }
 
 /* This material is distributed under the GNU General Public License.
@@ -0,0 +1,125 @@
+/* Copyright (C) 2004 Thomas N. Valine
+ * tvaline@users.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA
+ * 02111-1307, USA. */
+package com.ohrasys.cad.bnf;
+import junit.framework.*;
+import junit.framework.TestCase;
+
+public class BNFAutomatonTest
+  extends TestCase {
+  public BNFAutomatonTest(String testName) {super(testName);}
+
+  public static junit.framework.Test suite() {
+    junit.framework.TestSuite suite =
+      new junit.framework.TestSuite(BNFAutomatonTest.class);
+    return suite;
+  }
+
+  public void testReplayCount()
+    throws BNFTestException {
+    BNFAutomaton automaton = new BNFCompiler().compile(
+        new BNFRequiredTest(new BNFTestImplementor[] {
+          new BNFNoFallthruTest(0),
+          new BNFOneOrMoreOptionalTest(new BNFTestImplementor[] {
+              new BNFNoFallthruTest(1), new BNFNoFallthruTest(2)
+            })
+        }));
+    int tokens[] = {0, 1, 2, 1, 3};
+    for(int i = 0; i < 4; i++) {
+      assertEquals(BNFTestResult.UNFINISHED, automaton.test(tokens[i]));
+      assertEquals(0, automaton.getReplayCount());
+    }
+    assertEquals(BNFTestResult.FINISHED, automaton.test(tokens[4]));
+    assertEquals(2, automaton.getReplayCount());
+    assertEquals(BNFTestResult.UNFINISHED, automaton.test(0));
+    assertEquals(BNFTestResult.UNFINISHED, automaton.test(1));
+    assertEquals(BNFTestResult.FINISHED, automaton.test(3));
+    assertEquals(2, automaton.getReplayCount());
+    assertEquals(BNFTestResult.FAILED, automaton.test(5));
+    assertEquals(1, automaton.getReplayCount());
+  }
+
+  public void testFinishedOnLastToken()
+    throws BNFTestException {
+    BNFAutomaton automaton = new BNFCompiler().compile(
+        new BNFRequiredTest(new BNFTestImplementor[] {
+          new BNFNoFallthruTest(4),
+          new BNFOptionalTest(new BNFTestImplementor[] {
+              new BNFNoFallthruTest(5)
+            })
+        }));
+    assertEquals(BNFTestResult.UNFINISHED, automaton.test(4));
+    assertEquals(BNFTestResult.FINISHED, automaton.test(5));
+    assertEquals(0, automaton.getReplayCount());
+    assertEquals(BNFTestResult.FAILED, automaton.test(-1));
+    assertEquals(BNFTestResult.FAILED, automaton.test(Integer.MAX_VALUE));
+  }
+
+  public void testResume()
+    throws BNFTestException {
+    BNFAutomaton automaton = new BNFCompiler().compile(
+        new BNFRequiredTest(new BNFTestImplementor[] {
+          new BNFNoFallthruTest(0),
+          new BNFOneOrMoreOptionalTest(new BNFTestImplementor[] {
+              new BNFOneOfManyRequiredTest(new BNFTestImplementor[] {
+                  new BNFRequiredTest(new BNFTestImplementor[] {
+                      new BNFNoFallthruTest(1), new BNFNoFallthruTest(2),
+                      new BNFNoFallthruTest(9)
+                    }),
+                  new BNFRequiredTest(new BNFTestImplementor[] {
+                      new BNFNoFallthruTest(3), new BNFNoFallthruTest(2),
+                      new BNFNoFallthruTest(2), new BNFNoFallthruTest(9)
+                    })
+                })
+            }), new BNFNoFallthruTest(8)
+        }));
+    assertEquals(0, automaton.getExpectedTokens().length);
+    assertEquals(BNFTestResult.UNFINISHED, automaton.test(0));
+    assertEquals(BNFTestResult.FAILED, automaton.test(2));
+    assertTrue(java.util.Arrays.equals(new int[] {1, 3, 8},
+        automaton.getExpectedTokens()));
+    assertFalse(automaton.resume(2));
+    assertFalse(automaton.resume(7));
+    assertTrue(automaton.resume(9));
+    assertEquals(BNFTestResult.UNFINISHED, automaton.test(3));
+    assertEquals(BNFTestResult.UNFINISHED, automaton.test(2));
+    assertEquals(BNFTestResult.FAILED, automaton.test(9));
+    assertTrue(java.util.Arrays.equals(new int[] {2},
+        automaton.getExpectedTokens()));
+    assertTrue(automaton.resume(9));
+    assertEquals(BNFTestResult.FINISHED, automaton.test(8));
+  }
+
+  public void testCopy()
+    throws BNFTestException {
+    BNFAutomaton automaton = new BNFCompiler().compile(
+        new BNFRequiredTest(new BNFTestImplementor[] {
+          new BNFNoFallthruTest(0), new BNFNoFallthruTest(1)
+        }));
+    BNFAutomaton copy = new BNFAutomaton(automaton);
+    assertEquals(automaton.getStateCount(), copy.getStateCount());
+    assertEquals(BNFTestResult.UNFINISHED, automaton.test(0));
+    assertEquals(BNFTestResult.FAILED, copy.test(1));
+    assertEquals(BNFTestResult.FINISHED, automaton.test(1));
+    automaton.test(0);
+    automaton.reset();
+    assertEquals(BNFTestResult.FAILED, automaton.test(1));
+  }
+}
+
+/* This material is distributed under the GNU General Public License.
+ * For more information please go to http://www.gnu.org/copyleft/gpl.html */
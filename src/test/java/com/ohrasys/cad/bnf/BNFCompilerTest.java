@@ -0,0 +1,204 @@
+/* Copyright (C) 2004 Thomas N. Valine
+ * tvaline@users.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA
+ * 02111-1307, USA. */
+package com.ohrasys.cad.bnf;
+import junit.framework.*;
+import junit.framework.TestCase;
+import java.util.*;
+
+public class BNFCompilerTest
+  extends TestCase {
+  public BNFCompilerTest(String testName) {super(testName);}
+
+  public static junit.framework.Test suite() {
+    junit.framework.TestSuite suite =
+      new junit.framework.TestSuite(BNFCompilerTest.class);
+    return suite;
+  }
+
+  public void testEquivalence()
+    throws BNFTestException {
+    int alphabet[] = {0, 1, 2, 3, 9};
+    for(int t = 0; tree(t) != null; t++) {
+      BNFAutomaton    automaton = new BNFCompiler().compile(tree(t));
+      BNFAbstractTest fast      = (BNFAbstractTest)tree(t);
+      int tokens[] = new int[6];
+      int count = 1;
+      for(int i = 0; i < tokens.length; i++) {count *= alphabet.length;}
+      for(int n = 0; n < count; n++) {
+        for(int i = 0, rest = n; i < tokens.length; i++) {
+          tokens[i] = alphabet[rest % alphabet.length];
+          rest /= alphabet.length;
+        }
+        BNFTestImplementor test = tree(t);
+        automaton.reset();
+        fast.reset();
+        for(int i = 0; i < tokens.length; i++) {
+          BNFTestResult expected = test.test(new BNFInteger(tokens[i]));
+          int           actual   = automaton.test(tokens[i]);
+          String        where    = t + ":" + Arrays.toString(tokens) + "@" + i;
+          assertEquals(where, expected.isFinished(),
+            actual == BNFTestResult.FINISHED);
+          assertEquals(where, expected.isFailed(),
+            actual == BNFTestResult.FAILED);
+          assertEquals(where, expected.getReplayableTokens().size(),
+            automaton.getReplayCount());
+          assertEquals(where, actual, fast.test(tokens[i]));
+          assertEquals(where, automaton.getReplayCount(), fast.getReplayCount());
+          if(!expected.isUnfinished()) {break;}
+        }
+      }
+    }
+  }
+
+  public void testAmbiguousOption()
+    throws BNFTestException {
+    BNFTestImplementor test =
+      new BNFRequiredTest(new BNFTestImplementor[] {
+          new BNFOptionalTest(new BNFTestImplementor[] {
+              new BNFNoFallthruTest(0)
+            }), new BNFNoFallthruTest(0)
+        });
+    try {
+      new BNFCompiler().compile(test);
+      fail("Ambiguous option compiled" /*NOI18N*/);
+    } catch(BNFTestException ex) {
+      assertEquals(
+        String.format(
+          BNFI18NFactory.getString(BNFI18NFactory.i18n_AMBIG),
+          BNFOptionalTest.class.getName(), 0
+          ), ex.getMessage());
+    }
+  }
+
+  public void testAmbiguousChoice()
+    throws BNFTestException {
+    BNFTestImplementor test =
+      new BNFOneOfManyRequiredTest(new BNFTestImplementor[] {
+          new BNFNoFallthruTest(0),
+          new BNFRequiredTest(new BNFTestImplementor[] {
+              new BNFNoFallthruTest(0), new BNFNoFallthruTest(1)
+            })
+        });
+    try {
+      new BNFCompiler().compile(test);
+      fail("Ambiguous choice compiled" /*NOI18N*/);
+    } catch(BNFTestException ex) {}
+  }
+
+  public void testEmptyLoop()
+    throws BNFTestException {
+    BNFTestImplementor test =
+      new BNFOneOrMoreOptionalTest(new BNFTestImplementor[] {
+          new BNFOptionalTest(new BNFTestImplementor[] {
+              new BNFNoFallthruTest(0)
+            })
+        });
+    try {
+      new BNFCompiler().compile(test);
+      fail("Empty loop compiled" /*NOI18N*/);
+    } catch(BNFTestException ex) {}
+  }
+
+  public void testCustomTest()
+    throws BNFTestException {
+    BNFTestImplementor test =
+      new BNFRequiredTest(new BNFTestImplementor[] {new BNFNoFallthruTest(0)}) {
+        public BNFTestResult test(BNFTestableObject obj) {
+          return super.test(obj);
+        }
+      };
+    try {
+      new BNFCompiler().compile(test);
+      fail("Custom test compiled" /*NOI18N*/);
+    } catch(BNFTestException ex) {}
+    /* Overriding only the fast path changes how tokens are tested too */
+    test = new BNFRequiredTest(new BNFTestImplementor[] {
+        new BNFNoFallthruTest(0) {
+          public int test(int token) {
+            return super.test(token + 1);
+          }
+        }
+      });
+    try {
+      new BNFCompiler().compile(test);
+      fail("Custom fast path compiled" /*NOI18N*/);
+    } catch(BNFTestException ex) {}
+  }
+
+  private static BNFTestImplementor tree(int index)
+    throws BNFTestException {
+    switch(index) {
+    case 0:
+      return new BNFRequiredTest(new BNFTestImplementor[] {
+          new BNFNoFallthruTest(0),
+          new BNFOptionalTest(new BNFTestImplementor[] {
+              new BNFNoFallthruTest(1), new BNFNoFallthruTest(2)
+            }),
+          new BNFOneOrMoreOptionalTest(new BNFTestImplementor[] {
+              new BNFNoFallthruTest(3)
+            }),
+          new BNFNoFallthruTest(2)
+        });
+
+    case 1:
+      return new BNFRequiredTest(new BNFTestImplementor[] {
+          new BNFOneOfManyRequiredTest(new BNFTestImplementor[] {
+              new BNFRequiredTest(new BNFTestImplementor[] {
+                  new BNFNoFallthruTest(0), new BNFNoFallthruTest(1),
+                  new BNFNoFallthruTest(1)
+                }),
+              new BNFRequiredTest(new BNFTestImplementor[] {
+                  new BNFNoFallthruTest(0), new BNFNoFallthruTest(1)
+                })
+            }),
+          new BNFNoFallthruTest(2)
+        });
+
+    case 2:
+      return new BNFRequiredTest(new BNFTestImplementor[] {
+          new BNFOneOrMoreRequiredTest(new BNFTestImplementor[] {
+              new BNFNoFallthruTest(0), new BNFNoFallthruTest(1)
+            }),
+          new BNFOptionalTest(new BNFTestImplementor[] {
+              new BNFNoFallthruTest(2)
+            })
+        });
+
+    case 3:
+      return new BNFRequiredTest(new BNFTestImplementor[] {
+          new BNFNoFallthruTest(0),
+          new BNFOneOrMoreOptionalTest(new BNFTestImplementor[] {
+              new BNFNoFallthruTest(1), new BNFNoFallthruTest(2)
+            })
+        });
+
+    default:
+      return null;
+    }
+  }
+
+  private class BNFInteger
+    extends BNFTestableObject {
+    public BNFInteger(Integer num) {super(num);}
+
+    public int getToken() {return ((Integer)getData()).intValue();}
+  }
+}
+
+/* This material is distributed under the GNU General Public License.
+ * For more information please go to http://www.gnu.org/copyleft/gpl.html */
@@ -36,8 +36,11 @@ public class BNFI18NFactoryTest
     assertTrue(i18n.res.equals(expectedPropertiesFileName));
     ResourceBundle bundle =
       ResourceBundle.getBundle(expectedPropertiesFileName);
+    assertTrue(i18n.i18n_AMBIG.equals("I18N_AMBIG"));
     assertTrue(i18n.i18n_CHLD_TSTS.equals("I18N_CHLD_TSTS"));
+    assertTrue(i18n.i18n_EMPTY_LOOP.equals("I18N_EMPTY_LOOP"));
     assertTrue(i18n.i18n_FIRST_FTHRU.equals("I18N_FIRST_FTHRU"));
+    assertTrue(i18n.i18n_NO_CMPL.equals("I18N_NO_CMPL"));
     assertTrue(i18n.i18n_NO_FTHRU.equals("I18N_NO_FTHRU"));
     assertTrue(i18n.i18n_RQMT.equals("I18N_RQMNT"));
     assertTrue(i18n.i18n_TST_REQD.equals("I18N_TST_RQD"));
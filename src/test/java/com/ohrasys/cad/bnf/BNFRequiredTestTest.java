@@ -352,6 +352,32 @@ public class BNFRequiredTestTest
     assertEquals(expected, test.toString());
   }
 
+  public void testResetOverride()
+    throws BNFTestException {
+    /* A subclass that keeps its own state in reset() must still be reset
+     * by the object path when its parent finishes */
+    final int resets[] = new int[1];
+    BNFTestImplementor leafTests[] = {
+        new BNFNoFallthruTest(1), new BNFNoFallthruTest(2)
+      };
+    BNFRequiredTest counted = new BNFRequiredTest(leafTests) {
+        public void reset() {
+          resets[0]++;
+          super.reset();
+        }
+      };
+    BNFRequiredTest test = new BNFRequiredTest(new BNFTestImplementor[] {
+        new BNFNoFallthruTest(0), counted
+      });
+    int before = resets[0];
+    for(int pass = 1; pass <= 2; pass++) {
+      assertTrue(test.test(new BNFInteger(0)).isUnfinished());
+      assertTrue(test.test(new BNFInteger(1)).isUnfinished());
+      assertTrue(test.test(new BNFInteger(2)).isFinished());
+      assertTrue(resets[0] >= before + pass);
+    }
+  }
+
   private class BNFInteger
     extends BNFTestableObject {
     public BNFInteger(Integer num) {super(num);}
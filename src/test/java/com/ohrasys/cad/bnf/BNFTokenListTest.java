@@ -0,0 +1,65 @@
+/* Copyright (C) 2004 Thomas N. Valine
+ * tvaline@users.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA
+ * 02111-1307, USA. */
+package com.ohrasys.cad.bnf;
+import junit.framework.*;
+import junit.framework.TestCase;
+
+public class BNFTokenListTest
+  extends TestCase {
+  public BNFTokenListTest(String testName) {super(testName);}
+
+  public static junit.framework.Test suite() {
+    junit.framework.TestSuite suite =
+      new junit.framework.TestSuite(BNFTokenListTest.class);
+    return suite;
+  }
+
+  public void testAddAndRemove() {
+    BNFTokenList list = new BNFTokenList();
+    for(int i = 0; i < 20; i++) {list.add(i);}
+    for(int i = 1; i <= 20; i++) {list.addFirst(-i);}
+    assertEquals(40, list.size());
+    for(int i = 20; i >= 1; i--) {assertEquals(-i, list.removeFirst());}
+    for(int i = 0; i < 20; i++) {assertEquals(i, list.get(i));}
+    list.clear();
+    assertTrue(list.isEmpty());
+    list.addFirst(7);
+    assertEquals(7, list.get(0));
+  }
+
+  public void testAddAll() {
+    BNFTokenList list  = new BNFTokenList();
+    BNFTokenList other = new BNFTokenList();
+    for(int i = 0; i < 10; i++) {other.add(i);}
+    list.add(100);
+    list.addAll(other);
+    list.addAllFirst(other);
+    list.addAllFirst(other);
+    assertEquals(31, list.size());
+    for(int i = 0; i < 10; i++) {
+      assertEquals(i, list.get(i));
+      assertEquals(i, list.get(i + 10));
+      assertEquals(i, list.get(i + 21));
+    }
+    assertEquals(100, list.get(20));
+    assertEquals(10, other.size());
+  }
+}
+
+/* This material is distributed under the GNU General Public License.
+ * For more information please go to http://www.gnu.org/copyleft/gpl.html */
@@ -27,6 +27,8 @@ public class BnfSuite
     junit.framework.TestSuite suite =
       new junit.framework.TestSuite("BnfSuite");
     suite.addTest(com.ohrasys.cad.bnf.BNFAbstractTestTest.suite());
+    suite.addTest(com.ohrasys.cad.bnf.BNFAutomatonTest.suite());
+    suite.addTest(com.ohrasys.cad.bnf.BNFCompilerTest.suite());
     suite.addTest(com.ohrasys.cad.bnf.BNFI18NFactoryTest.suite());
     suite.addTest(com.ohrasys.cad.bnf.BNFNoFallthruTestTest.suite());
     suite.addTest(com.ohrasys.cad.bnf.BNFOneOfManyRequiredTestTest.suite());
@@ -37,6 +39,7 @@ public class BnfSuite
     suite.addTest(com.ohrasys.cad.bnf.BNFTestExceptionTest.suite());
     suite.addTest(com.ohrasys.cad.bnf.BNFTestResultTest.suite());
     suite.addTest(com.ohrasys.cad.bnf.BNFTestableObjectTest.suite());
+    suite.addTest(com.ohrasys.cad.bnf.BNFTokenListTest.suite());
     return suite;
   }
 
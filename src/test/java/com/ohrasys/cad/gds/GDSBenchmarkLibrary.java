@@ -0,0 +1,128 @@
+/* Copyright (C) 2004 Thomas N. Valine
+ * tvaline@users.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA
+ * 02111-1307, USA. */
+package com.ohrasys.cad.gds;
+import java.io.*;
+import java.util.*;
+
+/* Writes large synthetic libraries for the benchmark harnesses.  The
+ * content is pseudo random but fixed by the seed:
+ *   every cell holds boundaries, paths, texts and boxes on layers 0 to 7,
+ *   every twentieth boundary has 200 points and the rest are rectangles,
+ *   cells reference later cells through SREFs and AREFs */
+public class GDSBenchmarkLibrary {
+  private static final Date DATE = new Date(100000000000L);
+
+  public static File write(int cells, int elements)
+    throws IOException, GDSRecordException {
+    File file = File.createTempFile("jgdsbench" /*NOI18N*/, ".gds" /*NOI18N*/);
+    file.deleteOnExit();
+    GDSOutputStream out = new GDSOutputStream(file);
+    header(out);
+    for(int c = 0; c < cells; c++) {cell(c, cells, elements, out);}
+    out.writeRecord(new GDSEndlibRecord());
+    out.close();
+    return file;
+  }
+
+  public static void header(GDSRecordSink out)
+    throws IOException, GDSRecordException {
+    out.writeRecord(new GDSHeaderRecord((short)600));
+    out.writeRecord(new GDSBgnlibRecord(DATE, DATE));
+    out.writeRecord(new GDSLibnameRecord("BENCH" /*NOI18N*/));
+    out.writeRecord(new GDSUnitsRecord(0.001, 1e-9));
+  }
+
+  public static void cell(int c, int cells, int elements, GDSRecordSink out)
+    throws IOException, GDSRecordException {
+    Random random = new Random(c);
+    out.writeRecord(new GDSBgnstrRecord(DATE, DATE));
+    out.writeRecord(new GDSStrnameRecord("CELL" /*NOI18N*/ + c));
+    for(int e = 0; e < elements; e++) {
+      int kind = random.nextInt(10);
+      if((kind >= 7) && (kind <= 8) && (c + 1 == cells)) {kind = 0;}
+      if(kind < 5) {
+        out.writeRecord(new GDSBoundaryRecord());
+        out.writeRecord(new GDSLayerRecord((short)random.nextInt(8)));
+        out.writeRecord(new GDSDatatypeRecord((short)random.nextInt(3)));
+        out.writeRecord(new GDSXyRecord((random.nextInt(20) == 0)
+          ? polygon(random, 200) : rectangle(random)));
+      } else if(kind < 7) {
+        out.writeRecord(new GDSPathRecord());
+        out.writeRecord(new GDSLayerRecord((short)random.nextInt(8)));
+        out.writeRecord(new GDSDatatypeRecord((short)0));
+        out.writeRecord(new GDSPathtypeRecord((short)random.nextInt(3)));
+        out.writeRecord(new GDSWidthRecord(10 + random.nextInt(100)));
+        int xy[] = new int[2 * (2 + random.nextInt(5))];
+        for(int i = 0; i < xy.length; i++) {xy[i] = random.nextInt(10000);}
+        out.writeRecord(new GDSXyRecord(xy));
+      } else if(kind == 7) {
+        out.writeRecord(new GDSSrefRecord());
+        out.writeRecord(new GDSSnameRecord("CELL" /*NOI18N*/ +
+          (c + 1 + random.nextInt(cells - c - 1))));
+        out.writeRecord(new GDSStransRecord(random.nextBoolean(), false,
+          false));
+        out.writeRecord(new GDSAngleRecord(90.0 * random.nextInt(4)));
+        out.writeRecord(new GDSXyRecord(new int[] {random.nextInt(100000),
+          random.nextInt(100000)}));
+      } else if(kind == 8) {
+        out.writeRecord(new GDSArefRecord());
+        out.writeRecord(new GDSSnameRecord("CELL" /*NOI18N*/ +
+          (c + 1 + random.nextInt(cells - c - 1))));
+        short cols = (short)(1 + random.nextInt(4));
+        short rows = (short)(1 + random.nextInt(4));
+        out.writeRecord(new GDSColrowRecord(cols, rows));
+        int x = random.nextInt(10000);
+        int y = random.nextInt(10000);
+        out.writeRecord(new GDSXyRecord(new int[] {x, y, x + (cols * 1000), y,
+          x, y + (rows * 1200)}));
+      } else if(kind == 9) {
+        out.writeRecord(new GDSTextRecord());
+        out.writeRecord(new GDSLayerRecord((short)random.nextInt(8)));
+        out.writeRecord(new GDSTexttypeRecord((short)0));
+        out.writeRecord(new GDSXyRecord(new int[] {random.nextInt(1000),
+          random.nextInt(1000)}));
+        out.writeRecord(new GDSStringRecord("T" /*NOI18N*/ + e));
+      }
+      if(random.nextInt(15) == 0) {
+        out.writeRecord(new GDSPropattrRecord((short)1));
+        out.writeRecord(new GDSPropvalueRecord("P" /*NOI18N*/ + e));
+      }
+      out.writeRecord(new GDSEndelRecord());
+    }
+    out.writeRecord(new GDSEndstrRecord());
+  }
+
+  private static int[] rectangle(Random random) {
+    int x = random.nextInt(100000) - 50000;
+    int y = random.nextInt(100000) - 50000;
+    int w = 1 + random.nextInt(500);
+    int h = 1 + random.nextInt(500);
+    return new int[] {x, y, x + w, y, x + w, y + h, x, y + h, x, y};
+  }
+
+  private static int[] polygon(Random random, int points) {
+    int xy[] = new int[2 * points];
+    for(int i = 0; i < xy.length - 2; i++) {xy[i] = random.nextInt(1000);}
+    xy[xy.length - 2] = xy[0];
+    xy[xy.length - 1] = xy[1];
+    return xy;
+  }
+}
+
+/* This material is distributed under the GNU General Public License.
+ * For more information please go to http://www.gnu.org/copyleft/gpl.html */
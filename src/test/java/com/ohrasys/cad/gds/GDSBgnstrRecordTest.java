@@ -0,0 +1,79 @@
+/* Copyright (C) 2004 Thomas N. Valine
+ * tvaline@users.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA
+ * 02111-1307, USA. */
+package com.ohrasys.cad.gds;
+import junit.framework.*;
+import java.util.*;
+
+public class GDSBgnstrRecordTest
+  extends TestCase {
+  public GDSBgnstrRecordTest(String testName) {super(testName);}
+
+  public static junit.framework.Test suite() {
+    junit.framework.TestSuite suite =
+      new junit.framework.TestSuite(GDSBgnstrRecordTest.class);
+    return suite;
+  }
+
+  public void testLazyDecode()
+    throws Exception {
+    Date mod    = date(1999, 11, 31, 23, 59, 58);
+    Date access = date(2024, 1, 29, 7, 5, 3);
+    GDSBgnstrRecord eager  = new GDSBgnstrRecord(mod, access);
+    /* Read back through the record factory, which defers decoding */
+    GDSRecord read = GDSRecordFactory.expandRecord(new GDSRecord(
+      eager.getLength(), eager.getRectype(), eager.getDattype(),
+      eager.getData()));
+    assertTrue(read instanceof GDSBgnstrRecord);
+    GDSBgnstrRecord lazy = (GDSBgnstrRecord)read;
+    assertEquals(eager.toString(), lazy.toString());
+    assertEquals(seconds(mod), seconds(lazy.getModificationDate()));
+    assertEquals(seconds(access), seconds(lazy.getLastAccessedDate()));
+    assertTrue(Arrays.equals(eager.toBytes(), lazy.toBytes()));
+    /* Setting one date before the other was decoded keeps the other */
+    lazy = new GDSBgnstrRecord(eager.getLength(), eager.getRectype(),
+      eager.getDattype(), eager.getData());
+    Date later = date(2030, 6, 15, 12, 0, 0);
+    lazy.setModificationDate(later);
+    assertEquals(seconds(later), seconds(lazy.getModificationDate()));
+    assertEquals(seconds(access), seconds(lazy.getLastAccessedDate()));
+    assertTrue(Arrays.equals(new GDSBgnstrRecord(later, access).getData(),
+      lazy.getData()));
+  }
+
+  public void testMalformed()
+    throws Exception {
+    /* The length check stays eager */
+    try {
+      new GDSBgnstrRecord(26, GDSRecord.BGNSTR, GDSRecord.SHORT_TYPE, new byte[22]);
+      fail("Short date record accepted" /*NOI18N*/);
+    } catch(GDSRecordException ex) {}
+  }
+
+  private static Date date(int year, int month, int day, int hour,
+    int minute, int second) {
+    Calendar cal = GregorianCalendar.getInstance();
+    cal.clear();
+    cal.set(year, month - 1, day, hour, minute, second);
+    return cal.getTime();
+  }
+
+  private static long seconds(Date date) {return date.getTime() / 1000;}
+}
+
+/* This material is distributed under the GNU General Public License.
+ * For more information please go to http://www.gnu.org/copyleft/gpl.html */
@@ -0,0 +1,134 @@
+/* Copyright (C) 2004 Thomas N. Valine
+ * tvaline@users.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA
+ * 02111-1307, USA. */
+package com.ohrasys.cad.gds;
+import java.io.*;
+import java.util.*;
+
+/* Times the per-record cost of decoding and encoding integer payloads.
+ * The stream side repeats what the records did before GDSBufferCodec, a
+ * ByteArrayInputStream and GDSByteConverter.readInt per value, and a
+ * GDSByteConverter.fromInt per value when encoding.  The full decode is
+ * the current cost of GDSRecordFactory.expandRecord plus reading the XY and
+ * BGNSTR payloads.  Not part of the test suites, run it with the compiled
+ * tests and the resource bundles on the class path:
+ *   java com.ohrasys.cad.gds.GDSBufferCodecBenchmark [cells [elements]] */
+public class GDSBufferCodecBenchmark {
+  public static void main(String args[])
+    throws Exception {
+    int  cells    = (args.length > 0) ? Integer.parseInt(args[0]) : 2000;
+    int  elements = (args.length > 1) ? Integer.parseInt(args[1]) : 200;
+    File file     = GDSBenchmarkLibrary.write(cells, elements);
+    List<GDSRecord> raw = new ArrayList<GDSRecord>();
+    GDSRecordCursor cursor = new GDSRecordCursor(file);
+    while(cursor.next()) {
+      raw.add(cursor.toRecord());
+    }
+    cursor.close();
+    GDSRecord records[] = raw.toArray(new GDSRecord[raw.size()]);
+    System.out.printf("%d records, %.1f MB%n", records.length,
+      file.length() / 1e6);
+    for(int round = 0; round < 5; round++) {
+      long sum   = 0;
+      long start = System.nanoTime();
+      for(int i = 0; i < records.length; i++) {sum += decodeStream(records[i]);}
+      long stream = System.nanoTime() - start;
+      start = System.nanoTime();
+      for(int i = 0; i < records.length; i++) {sum -= decodeCodec(records[i]);}
+      long codec = System.nanoTime() - start;
+      start = System.nanoTime();
+      for(int i = 0; i < records.length; i++) {sum += encodeStream(records[i]);}
+      long streamOut = System.nanoTime() - start;
+      start = System.nanoTime();
+      for(int i = 0; i < records.length; i++) {sum -= encodeCodec(records[i]);}
+      long codecOut = System.nanoTime() - start;
+      start = System.nanoTime();
+      for(int i = 0; i < records.length; i++) {sum += expand(records[i]);}
+      long full = System.nanoTime() - start;
+      System.out.printf("decode stream %.1f codec %.1f | encode stream %.1f" +
+        " codec %.1f | full decode %.1f ns/record (%d)%n",
+        stream / (double)records.length, codec / (double)records.length,
+        streamOut / (double)records.length, codecOut / (double)records.length,
+        full / (double)records.length, sum);
+    }
+  }
+
+  private static long decodeStream(GDSRecord rec) {
+    byte data[] = rec.getData();
+    long sum    = 0;
+    if(rec.getDattype() == GDSRecord.INT_TYPE) {
+      ByteArrayInputStream in = new ByteArrayInputStream(data);
+      for(int i = 0; i < data.length / 4; i++) {
+        sum += GDSByteConverter.readInt(in);
+      }
+    } else if(rec.getDattype() == GDSRecord.SHORT_TYPE) {
+      ByteArrayInputStream in = new ByteArrayInputStream(data);
+      for(int i = 0; i < data.length / 2; i++) {
+        sum += GDSByteConverter.readShort(in);
+      }
+    }
+    return sum;
+  }
+
+  private static long decodeCodec(GDSRecord rec) {
+    byte data[] = rec.getData();
+    long sum    = 0;
+    if(rec.getDattype() == GDSRecord.INT_TYPE) {
+      int values[] = new int[data.length / 4];
+      GDSBufferCodec.getInt32s(data, 0, values);
+      for(int i = 0; i < values.length; i++) {sum += values[i];}
+    } else if(rec.getDattype() == GDSRecord.SHORT_TYPE) {
+      for(int i = 0; i < data.length / 2; i++) {
+        sum += GDSBufferCodec.getInt16(data, 2 * i);
+      }
+    }
+    return sum;
+  }
+
+  private static long encodeStream(GDSRecord rec) {
+    if(rec.getDattype() != GDSRecord.INT_TYPE) {return 0;}
+    byte data[] = rec.getData();
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    for(int i = 0; i < data.length / 4; i++) {
+      out = GDSByteConverter.fromInt(GDSBufferCodec.getInt32(data, 4 * i), out);
+    }
+    return out.toByteArray().length;
+  }
+
+  private static long encodeCodec(GDSRecord rec) {
+    if(rec.getDattype() != GDSRecord.INT_TYPE) {return 0;}
+    byte data[]   = rec.getData();
+    int  values[] = new int[data.length / 4];
+    GDSBufferCodec.getInt32s(data, 0, values);
+    return GDSBufferCodec.putInt32s(values, new byte[data.length], 0).length;
+  }
+
+  private static long expand(GDSRecord rec)
+    throws GDSRecordException {
+    GDSRecord result = GDSRecordFactory.expandRecord(rec);
+    if(result instanceof GDSXyRecord) {
+      return ((GDSXyRecord)result).getXyInts().length;
+    }
+    if(result instanceof GDSBgnstrRecord) {
+      return (((GDSBgnstrRecord)result).getModificationDate() != null) ? 1 : 0;
+    }
+    return 1;
+  }
+}
+
+/* This material is distributed under the GNU General Public License.
+ * For more information please go to http://www.gnu.org/copyleft/gpl.html */
@@ -0,0 +1,111 @@
+/* Copyright (C) 2004 Thomas N. Valine
+ * tvaline@users.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA
+ * 02111-1307, USA. */
+package com.ohrasys.cad.gds;
+import junit.framework.*;
+import java.io.*;
+import java.nio.*;
+import java.util.*;
+
+public class GDSBufferCodecTest
+  extends TestCase {
+  private static final int INTS[] = {0, 1, -1, 127, -128, 255, 256, -32768,
+    32767, 65535, 0x12345678, Integer.MIN_VALUE, Integer.MAX_VALUE};
+
+  public GDSBufferCodecTest(String testName) {super(testName);}
+
+  public static junit.framework.Test suite() {
+    junit.framework.TestSuite suite =
+      new junit.framework.TestSuite(GDSBufferCodecTest.class);
+    return suite;
+  }
+
+  public void testInt16()
+    throws Exception {
+    short values[] = {0, 1, -1, 255, -256, Short.MIN_VALUE, Short.MAX_VALUE};
+    for(int off = 0; off < 4; off++) {
+      for(int i = 0; i < values.length; i++) {
+        byte bytes[] = new byte[off + 3];
+        Arrays.fill(bytes, (byte)0x5A);
+        assertSame(bytes, GDSBufferCodec.putInt16(bytes, off, values[i]));
+        assertEquals(values[i], GDSBufferCodec.getInt16(bytes, off));
+        assertEquals(values[i],
+          GDSBufferCodec.getInt16(ByteBuffer.wrap(bytes), off));
+        assertEquals(values[i], ByteBuffer.wrap(bytes).getShort(off));
+        /* Neighbouring bytes are untouched */
+        for(int b = 0; b < off; b++) {assertEquals(0x5A, bytes[b]);}
+        assertEquals(0x5A, bytes[off + 2]);
+      }
+    }
+  }
+
+  public void testInt32()
+    throws Exception {
+    for(int off = 0; off < 5; off++) {
+      for(int i = 0; i < INTS.length; i++) {
+        byte bytes[] = new byte[off + 4];
+        GDSBufferCodec.putInt32(bytes, off, INTS[i]);
+        assertEquals(INTS[i], GDSBufferCodec.getInt32(bytes, off));
+        assertEquals(INTS[i],
+          GDSBufferCodec.getInt32(ByteBuffer.wrap(bytes), off));
+        assertEquals(INTS[i], ByteBuffer.wrap(bytes).getInt(off));
+        /* Matches the stream encoding the records used before */
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new DataOutputStream(out).writeInt(INTS[i]);
+        assertTrue(Arrays.equals(out.toByteArray(),
+          Arrays.copyOfRange(bytes, off, off + 4)));
+      }
+    }
+  }
+
+  public void testInt64()
+    throws Exception {
+    long values[] = {0L, -1L, 1L << 32, -(1L << 40) + 3,
+      Long.MIN_VALUE, Long.MAX_VALUE, 0x0123456789ABCDEFL};
+    for(int off = 0; off < 3; off++) {
+      for(int i = 0; i < values.length; i++) {
+        byte bytes[] = GDSBufferCodec.putInt64(new byte[off + 8], off,
+          values[i]);
+        assertEquals(values[i], GDSBufferCodec.getInt64(bytes, off));
+        assertEquals(values[i], ByteBuffer.wrap(bytes).getLong(off));
+      }
+    }
+  }
+
+  public void testBulk()
+    throws Exception {
+    for(int off = 0; off < 6; off++) {
+      byte bytes[] = new byte[off + (INTS.length * 4) + 2];
+      Arrays.fill(bytes, (byte)-1);
+      assertSame(bytes, GDSBufferCodec.putInt32s(INTS, bytes, off));
+      for(int i = 0; i < INTS.length; i++) {
+        assertEquals(INTS[i], GDSBufferCodec.getInt32(bytes, off + (i * 4)));
+      }
+      int array[]  = new int[INTS.length];
+      int buffer[] = new int[INTS.length];
+      GDSBufferCodec.getInt32s(bytes, off, array);
+      GDSBufferCodec.getInt32s(ByteBuffer.wrap(bytes), off, buffer);
+      assertTrue(Arrays.equals(INTS, array));
+      assertTrue(Arrays.equals(INTS, buffer));
+      assertEquals(-1, bytes[bytes.length - 1]);
+      assertEquals(-1, bytes[bytes.length - 2]);
+    }
+  }
+}
+
+/* This material is distributed under the GNU General Public License.
+ * For more information please go to http://www.gnu.org/copyleft/gpl.html */
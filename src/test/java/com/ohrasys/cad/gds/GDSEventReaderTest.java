@@ -0,0 +1,141 @@
+/* Copyright (C) 2004 Thomas N. Valine
+ * tvaline@users.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA
+ * 02111-1307, USA. */
+package com.ohrasys.cad.gds;
+import junit.framework.*;
+import java.io.*;
+import java.util.*;
+
+public class GDSEventReaderTest
+  extends TestCase {
+  public GDSEventReaderTest(String testName) {super(testName);}
+
+  public static junit.framework.Test suite() {
+    junit.framework.TestSuite suite =
+      new junit.framework.TestSuite(GDSEventReaderTest.class);
+    return suite;
+  }
+
+  public void testEvents()
+    throws Exception {
+    GDSEventReader reader =
+      new GDSEventReader(GDSTestLibrary.write(GDSTestLibrary.sample()));
+    assertEquals(0, reader.getEventType());
+    assertEquals(GDSEventReader.START_LIBRARY, reader.next());
+    assertEquals("SAMPLE", reader.getLibraryName());
+    assertEquals(0.001, reader.getUserUnits(), 0);
+    assertEquals(1e-9, reader.getMeterUnits(), 0);
+    assertEquals(0, reader.getOffset());
+
+    assertEquals(GDSEventReader.START_STRUCTURE, reader.next());
+    assertEquals("LEAF", reader.getStructureName());
+    assertEquals(GDSEventReader.ELEMENT, reader.next());
+    assertEquals(GDSRecord.BOUNDARY, reader.getElementKind());
+    assertEquals(1, reader.getLayer());
+    assertEquals(0, reader.getDatatype());
+    assertEquals(5, reader.getPointCount());
+    assertEquals(100, reader.getX(2));
+    assertEquals(50, reader.getY(2));
+    assertEquals(2, reader.getPropertyCount());
+    assertEquals(2, reader.getPropertyAttribute(1));
+    assertEquals("TWO", reader.getPropertyValue(1));
+    assertEquals(GDSEventReader.ELEMENT, reader.next());
+    assertEquals(GDSRecord.PATH, reader.getElementKind());
+    assertEquals(2, reader.getLayer());
+    assertEquals(3, reader.getDatatype());
+    assertEquals(10, reader.getWidth());
+    assertEquals(0, reader.getPropertyCount());
+    assertTrue(Arrays.equals(new int[] {0, 0, 0, 200, 300, 200},
+        Arrays.copyOf(reader.getXy(), 2 * reader.getPointCount())));
+    assertEquals(GDSEventReader.END_STRUCTURE, reader.next());
+
+    assertEquals(GDSEventReader.START_STRUCTURE, reader.next());
+    assertEquals("TOP", reader.getStructureName());
+    assertEquals(GDSEventReader.ELEMENT, reader.next());
+    assertEquals(GDSRecord.SREF, reader.getElementKind());
+    assertEquals("LEAF", reader.getStructureReference());
+    assertEquals(-1, reader.getLayer());
+    assertTrue(reader.isMirrored());
+    assertTrue(reader.isAbsoluteAngle());
+    assertFalse(reader.isAbsoluteMagnification());
+    assertEquals(2, reader.getMagnification(), 0);
+    assertEquals(90, reader.getAngle(), 0);
+    assertEquals(1000, reader.getX(0));
+    assertEquals(2000, reader.getY(0));
+    assertEquals(GDSEventReader.ELEMENT, reader.next());
+    assertEquals(GDSRecord.AREF, reader.getElementKind());
+    assertFalse(reader.isMirrored());
+    assertEquals(1, reader.getMagnification(), 0);
+    assertEquals(3, reader.getColumns());
+    assertEquals(2, reader.getRows());
+    assertEquals(3, reader.getPointCount());
+    assertEquals(GDSEventReader.ELEMENT, reader.next());
+    assertEquals(GDSRecord.TEXT, reader.getElementKind());
+    assertEquals(5, reader.getLayer());
+    assertEquals(7, reader.getDatatype());
+    assertEquals("HELLO", reader.getText());
+    assertNull(reader.getStructureReference());
+    assertEquals(GDSEventReader.END_STRUCTURE, reader.next());
+    assertTrue(reader.hasNext());
+    assertEquals(GDSEventReader.END_LIBRARY, reader.next());
+    assertFalse(reader.hasNext());
+    reader.close();
+  }
+
+  public void testMalformed()
+    throws Exception {
+    GDSRecord records[] = GDSTestLibrary.sample();
+    List<GDSRecord> broken = new ArrayList<GDSRecord>(Arrays.asList(records));
+    broken.remove(records.length - 3); /* the ENDEL of the text */
+    broken.remove(9); /* the XY record of the boundary */
+    GDSEventReader reader =
+      new GDSEventReader(GDSTestLibrary.write(
+          broken.toArray(new GDSRecord[0])));
+    int elements = 0;
+    boolean caught = false;
+    try {
+      while(reader.hasNext()) {
+        if(reader.next() == GDSEventReader.ELEMENT) {
+          elements++;
+        }
+      }
+    } catch(GDSRecordException ex) {
+      caught = true;
+    }
+    reader.close();
+    assertTrue(caught);
+    assertEquals(4, elements);
+
+    broken = new ArrayList<GDSRecord>(Arrays.asList(records));
+    broken.remove(records.length - 1);
+    reader = new GDSEventReader(GDSTestLibrary.write(
+          broken.toArray(new GDSRecord[0])));
+    caught = false;
+    try {
+      while(reader.hasNext()) {
+        reader.next();
+      }
+    } catch(GDSRecordException ex) {
+      caught = true;
+    }
+    reader.close();
+    assertTrue(caught);
+  }
+}
+
+/* This material is distributed under the GNU General Public License.
+ * For more information please go to http://www.gnu.org/copyleft/gpl.html */
@@ -0,0 +1,140 @@
+/* Copyright (C) 2004 Thomas N. Valine
+ * tvaline@users.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA
+ * 02111-1307, USA. */
+package com.ohrasys.cad.gds;
+import junit.framework.*;
+import java.io.*;
+import java.util.*;
+
+public class GDSIndexTest
+  extends TestCase {
+  public GDSIndexTest(String testName) {super(testName);}
+
+  public static junit.framework.Test suite() {
+    junit.framework.TestSuite suite =
+      new junit.framework.TestSuite(GDSIndexTest.class);
+    return suite;
+  }
+
+  public void testBuild()
+    throws Exception {
+    GDSIndex index = GDSIndex.build(sample());
+    assertEquals(2, index.getEntries().length);
+    GDSIndexEntry leaf = index.getEntry("LEAF" /*NOI18N*/);
+    assertEquals(1, leaf.getElementCount(GDSRecord.BOUNDARY));
+    assertEquals(1, leaf.getElementCount(GDSRecord.PATH));
+    assertEquals(0, leaf.getElementCount(GDSRecord.SREF));
+    assertTrue(Arrays.equals(new int[] {1, 2}, leaf.getLayers()));
+    assertEquals(1, leaf.getLayerCount(2));
+    assertEquals(0, leaf.getLayerCount(3));
+    assertEquals(0, leaf.getChildren().length);
+    assertTrue(Arrays.equals(new int[] {-5, 0, 300, 205}, leaf.getBounds()));
+    GDSIndexEntry top = index.getEntry("TOP" /*NOI18N*/);
+    assertTrue(Arrays.equals(new String[] {"LEAF" /*NOI18N*/},
+        top.getChildren()));
+    assertEquals(1, top.getElementCount(GDSRecord.AREF));
+    assertTrue(Arrays.equals(new int[] {-5, -5, -5, -5}, top.getBounds()));
+    assertEquals(leaf.getOffset() + leaf.getLength(), top.getOffset());
+    assertNull(index.getEntry("NONE" /*NOI18N*/));
+  }
+
+  public void testSidecar()
+    throws Exception {
+    File file = sample();
+    assertNull(GDSIndex.read(file));
+    GDSIndex built = GDSIndex.open(file);
+    assertTrue(GDSIndex.getIndexFile(file).isFile());
+    GDSIndex read = GDSIndex.read(file);
+    assertNotNull(read);
+    for(int i = 0; i < built.getEntries().length; i++) {
+      GDSIndexEntry a = built.getEntries()[i];
+      GDSIndexEntry b = read.getEntries()[i];
+      assertEquals(a.getName(), b.getName());
+      assertEquals(a.getOffset(), b.getOffset());
+      assertEquals(a.getLength(), b.getLength());
+      assertTrue(Arrays.equals(a.getLayers(), b.getLayers()));
+      assertTrue(Arrays.equals(a.getChildren(), b.getChildren()));
+      assertTrue(Arrays.equals(a.getBounds(), b.getBounds()));
+      assertEquals(a.getElementCount(GDSRecord.TEXT),
+        b.getElementCount(GDSRecord.TEXT));
+    }
+    assertTrue(file.setLastModified(file.lastModified() - 10000));
+    assertNull(GDSIndex.read(file));
+  }
+
+  public void testSeek()
+    throws Exception {
+    File     file  = sample();
+    GDSIndex index = GDSIndex.open(file);
+    GDSMappedReader mapped = new GDSMappedReader(file);
+    assertTrue(index.seek(mapped, "TOP" /*NOI18N*/));
+    assertEquals(GDSRecord.BGNSTR, mapped.readRecord().getRectype());
+    assertEquals("TOP" /*NOI18N*/,
+      ((GDSStrnameRecord)mapped.readRecord()).getStrname());
+    assertFalse(index.seek(mapped, "NONE" /*NOI18N*/));
+    mapped.close();
+    GDSInputStream in = new GDSInputStream(file);
+    assertTrue(index.seek(in, "LEAF" /*NOI18N*/));
+    assertEquals(GDSRecord.BGNSTR, in.readRecord().getRectype());
+    assertEquals("LEAF" /*NOI18N*/,
+      ((GDSStrnameRecord)in.readRecord()).getStrname());
+    in.close();
+  }
+
+  public void testBounds()
+    throws Exception {
+    GDSRecord head[] = GDSTestLibrary.sample();
+    Date      date   = new Date();
+    GDSRecord records[] = {
+        head[0], head[1], head[2], head[3],
+        new GDSBgnstrRecord(date, date),
+        new GDSStrnameRecord("PATHS" /*NOI18N*/),
+        new GDSPathRecord(), new GDSLayerRecord((short)1),
+        new GDSDatatypeRecord((short)0),
+        new GDSPathtypeRecord((short)2), new GDSWidthRecord(20),
+        new GDSXyRecord(new int[] {0, 0, 100, 0}), new GDSEndelRecord(),
+        new GDSPathRecord(), new GDSLayerRecord((short)1),
+        new GDSDatatypeRecord((short)0),
+        new GDSPathtypeRecord((short)4), new GDSWidthRecord(10),
+        new GDSBgnextnRecord(7), new GDSEndextnRecord(3),
+        new GDSXyRecord(new int[] {0, 50, 0, 150}), new GDSEndelRecord(),
+        new GDSEndstrRecord(),
+        new GDSBgnstrRecord(date, date),
+        new GDSStrnameRecord("REFS" /*NOI18N*/), new GDSSrefRecord(),
+        new GDSSnameRecord("PATHS" /*NOI18N*/),
+        new GDSXyRecord(new int[] {1000, 2000}), new GDSEndelRecord(),
+        new GDSEndstrRecord(), new GDSEndlibRecord()
+      };
+    GDSIndex index = GDSIndex.build(GDSTestLibrary.write(records));
+    /* Square ends reach half the width past the ends, pathtype 4 ends
+     * their own extensions */
+    assertTrue(Arrays.equals(new int[] {-10, -10, 110, 153},
+        index.getEntry("PATHS" /*NOI18N*/).getBounds()));
+    /* References are not local geometry */
+    assertNull(index.getEntry("REFS" /*NOI18N*/).getBounds());
+  }
+
+  private static File sample()
+    throws Exception {
+    File file = GDSTestLibrary.write(GDSTestLibrary.sample());
+    GDSIndex.getIndexFile(file).deleteOnExit();
+    return file;
+  }
+}
+
+/* This material is distributed under the GNU General Public License.
+ * For more information please go to http://www.gnu.org/copyleft/gpl.html */
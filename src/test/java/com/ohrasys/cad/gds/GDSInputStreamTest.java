@@ -0,0 +1,109 @@
+/* Copyright (C) 2004 Thomas N. Valine
+ * tvaline@users.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA
+ * 02111-1307, USA. */
+package com.ohrasys.cad.gds;
+import junit.framework.*;
+import java.io.*;
+import java.util.*;
+
+public class GDSInputStreamTest
+  extends TestCase {
+  public GDSInputStreamTest(String testName) {super(testName);}
+
+  public static junit.framework.Test suite() {
+    junit.framework.TestSuite suite =
+      new junit.framework.TestSuite(GDSInputStreamTest.class);
+    return suite;
+  }
+
+  public void testReadAhead()
+    throws Exception {
+    File file = GDSTestLibrary.write(GDSTestLibrary.sample());
+    List<String> expected = records(new GDSInputStream(file));
+    assertEquals(GDSTestLibrary.sample().length, expected.size());
+    /* Buffers smaller than a record force records across buffer boundaries */
+    int sizes[] = {1, 3, 7, 64, GDSInputStream.DEFAULT_READ_AHEAD};
+    for(int i = 0; i < sizes.length; i++) {
+      assertEquals(expected, records(new GDSInputStream(file, sizes[i])));
+    }
+  }
+
+  public void testAvailable()
+    throws Exception {
+    File           file = GDSTestLibrary.write(GDSTestLibrary.sample());
+    GDSInputStream in   = new GDSInputStream(file, 16);
+    assertEquals(file.length(), in.available());
+    assertEquals(4, in.skip(4));
+    assertEquals(file.length() - 4, in.available());
+    byte rest[] = new byte[(int)file.length()];
+    assertEquals(file.length() - 4, in.read(rest));
+    assertEquals(0, in.available());
+    assertEquals(-1, in.read());
+    in.close();
+  }
+
+  public void testParser()
+    throws Exception {
+    File      file   = GDSTestLibrary.write(GDSTestLibrary.sample());
+    GDSParser parser = new GDSParser(false);
+    parser.setReadAhead(32);
+    List      result = parser.parseDesign(file, null);
+    assertNotNull(result);
+    assertEquals(GDSTestLibrary.sample().length, result.size());
+  }
+
+  public void testParserFailureCloses()
+    throws Exception {
+    /* A structure before the library header fails the grammar at once */
+    GDSRecord sample[] = GDSTestLibrary.sample();
+    GDSRecord bad[]    = new GDSRecord[sample.length];
+    System.arraycopy(sample, 0, bad, 0, sample.length);
+    bad[0] = sample[4];
+    bad[4] = sample[0];
+    File      file   = GDSTestLibrary.write(bad);
+    GDSParser parser = new GDSParser(false);
+    /* Tiny buffers keep the background thread waiting for the consumer */
+    parser.setReadAhead(8);
+    int before = readAheadThreads();
+    assertNull(parser.parseDesign(file, null));
+    assertEquals(before, readAheadThreads());
+  }
+
+  private static int readAheadThreads() {
+    int count = 0;
+    for(Thread thread : Thread.getAllStackTraces().keySet()) {
+      if(thread.isAlive() && "GDSReadAhead".equals(thread.getName())) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  private static List<String> records(GDSInputStream in)
+    throws Exception {
+    List<String> result = new ArrayList<String>();
+    GDSRecord    rec;
+    while((rec = in.readRecord()) != null) {
+      result.add(rec.toString());
+    }
+    in.close();
+    return result;
+  }
+}
+
+/* This material is distributed under the GNU General Public License.
+ * For more information please go to http://www.gnu.org/copyleft/gpl.html */
@@ -0,0 +1,101 @@
+/* Copyright (C) 2004 Thomas N. Valine
+ * tvaline@users.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA
+ * 02111-1307, USA. */
+package com.ohrasys.cad.gds;
+import java.io.*;
+import java.util.*;
+
+/* Times writing a synthetic library through GDSOutputStream and through
+ * GDSLibraryWriter with one, two and four encoding threads, and checks
+ * that every output matches the sequential one byte for byte.  Not part
+ * of the test suites, run it with the compiled tests and the resource
+ * bundles on the class path:
+ *   java com.ohrasys.cad.gds.GDSLibraryWriterBenchmark [cells [elements]] */
+public class GDSLibraryWriterBenchmark {
+  private static final int THREADS[] = {1, 2, 4};
+
+  public static void main(String args[])
+    throws Exception {
+    final int cells    = (args.length > 0) ? Integer.parseInt(args[0]) : 2000;
+    final int elements = (args.length > 1) ? Integer.parseInt(args[1]) : 200;
+    File sequential = File.createTempFile("jgdsbench" /*NOI18N*/, ".gds" /*NOI18N*/);
+    File parallel   = File.createTempFile("jgdsbench" /*NOI18N*/, ".gds" /*NOI18N*/);
+    sequential.deleteOnExit();
+    parallel.deleteOnExit();
+    for(int round = 0; round < 3; round++) {
+      long start = System.nanoTime();
+      GDSOutputStream out = new GDSOutputStream(sequential);
+      GDSBenchmarkLibrary.header(out);
+      for(int c = 0; c < cells; c++) {
+        GDSBenchmarkLibrary.cell(c, cells, elements, out);
+      }
+      out.writeRecord(new GDSEndlibRecord());
+      out.close();
+      StringBuilder line = new StringBuilder();
+      line.append(rate("sequential" /*NOI18N*/, sequential, start));
+      for(int t = 0; t < THREADS.length; t++) {
+        start = System.nanoTime();
+        GDSLibraryWriter writer = new GDSLibraryWriter(parallel, THREADS[t]);
+        GDSBenchmarkLibrary.header(writer);
+        for(int c = 0; c < cells; c++) {
+          final int cell = c;
+          writer.writeStructure(new GDSStructureSource() {
+            public void writeStructure(GDSRecordSink sink)
+              throws IOException, GDSRecordException {
+              GDSBenchmarkLibrary.cell(cell, cells, elements, sink);
+            }
+          });
+        }
+        writer.writeRecord(new GDSEndlibRecord());
+        writer.close();
+        line.append(" | " /*NOI18N*/);
+        line.append(rate(THREADS[t] + " threads" /*NOI18N*/, parallel, start));
+        if(!same(sequential, parallel)) {
+          throw new IllegalStateException(THREADS[t] +
+            " threads wrote a different library" /*NOI18N*/);
+        }
+      }
+      System.out.println(line);
+    }
+  }
+
+  private static String rate(String name, File file, long start) {
+    double seconds = (System.nanoTime() - start) / 1e9;
+    return String.format("%s %.1f MB/s" /*NOI18N*/, name,
+      file.length() / 1e6 / seconds);
+  }
+
+  private static boolean same(File a, File b)
+    throws IOException {
+    if(a.length() != b.length()) {return false;}
+    InputStream left  = new BufferedInputStream(new FileInputStream(a));
+    InputStream right = new BufferedInputStream(new FileInputStream(b));
+    try {
+      int value;
+      while((value = left.read()) >= 0) {
+        if(value != right.read()) {return false;}
+      }
+      return true;
+    } finally {
+      left.close();
+      right.close();
+    }
+  }
+}
+
+/* This material is distributed under the GNU General Public License.
+ * For more information please go to http://www.gnu.org/copyleft/gpl.html */
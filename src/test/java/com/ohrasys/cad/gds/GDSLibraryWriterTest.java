@@ -0,0 +1,122 @@
+/* Copyright (C) 2004 Thomas N. Valine
+ * tvaline@users.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA
+ * 02111-1307, USA. */
+package com.ohrasys.cad.gds;
+import junit.framework.*;
+import java.io.*;
+import java.nio.file.Files;
+import java.util.*;
+
+public class GDSLibraryWriterTest
+  extends TestCase {
+  public GDSLibraryWriterTest(String testName) {super(testName);}
+
+  public static junit.framework.Test suite() {
+    junit.framework.TestSuite suite =
+      new junit.framework.TestSuite(GDSLibraryWriterTest.class);
+    return suite;
+  }
+
+  public void testSample()
+    throws Exception {
+    GDSRecord records[] = GDSTestLibrary.sample();
+    File      expected  = GDSTestLibrary.write(records);
+    for(int threads = 1; threads <= 4; threads++) {
+      File file = File.createTempFile("jgds" /*NOI18N*/, ".gds" /*NOI18N*/);
+      file.deleteOnExit();
+      GDSLibraryWriter out = new GDSLibraryWriter(file, threads);
+      for(int i = 0; i < 4; i++) {out.writeRecord(records[i]);}
+      out.writeStructure(Arrays.copyOfRange(records, 4, 22));
+      out.writeStructure(Arrays.copyOfRange(records, 22, 43));
+      out.writeRecord(new GDSNullRecord());
+      out.writeRecord(records[43]);
+      out.close();
+      byte written[] = Files.readAllBytes(file.toPath());
+      byte sequential[] = Files.readAllBytes(expected.toPath());
+      assertEquals(sequential.length + 2, written.length);
+      assertEquals(written.length, out.getPosition());
+      assertTrue(Arrays.equals(sequential,
+          concat(Arrays.copyOf(written, sequential.length - 4),
+            Arrays.copyOfRange(written, sequential.length - 2,
+              written.length))));
+    }
+  }
+
+  /* Many structures of different sizes keep their order whatever the timing */
+  public void testOrder()
+    throws Exception {
+    GDSRecord  records[] = GDSTestLibrary.sample();
+    List<GDSRecord> all  = new ArrayList<GDSRecord>();
+    File       file      = File.createTempFile("jgds" /*NOI18N*/, ".gds" /*NOI18N*/);
+    file.deleteOnExit();
+    GDSLibraryWriter out = new GDSLibraryWriter(file, 3);
+    for(int i = 0; i < 4; i++) {
+      out.writeRecord(records[i]);
+      all.add(records[i]);
+    }
+    for(int i = 0; i < 200; i++) {
+      final List<GDSRecord> cell = new ArrayList<GDSRecord>();
+      cell.add(records[4]);
+      cell.add(new GDSStrnameRecord("CELL" /*NOI18N*/ + i));
+      for(int j = 0; j < (i * 7) % 50; j++) {
+        cell.addAll(Arrays.asList(records).subList(6, 15));
+      }
+      cell.add(records[21]);
+      all.addAll(cell);
+      out.writeStructure(new GDSStructureSource() {
+          public void writeStructure(GDSRecordSink sink)
+            throws IOException {
+            for(GDSRecord rec : cell) {sink.writeRecord(rec);}
+          }
+        });
+    }
+    out.writeRecord(records[43]);
+    all.add(records[43]);
+    out.close();
+    File expected = GDSTestLibrary.write(all.toArray(new GDSRecord[0]));
+    assertTrue(Arrays.equals(Files.readAllBytes(expected.toPath()),
+        Files.readAllBytes(file.toPath())));
+  }
+
+  public void testFailure()
+    throws Exception {
+    File file = File.createTempFile("jgds" /*NOI18N*/, ".gds" /*NOI18N*/);
+    file.deleteOnExit();
+    GDSLibraryWriter out = new GDSLibraryWriter(file, 2);
+    try {
+      /* The failure surfaces from whichever call finds the task done */
+      out.writeStructure(new GDSStructureSource() {
+          public void writeStructure(GDSRecordSink sink)
+            throws GDSRecordException {
+            new GDSStrnameRecord("");
+          }
+        });
+      out.flush();
+      fail("Failed structure written" /*NOI18N*/);
+    } catch(GDSRecordException ex) {}
+    out.close();
+  }
+
+  private static byte[] concat(byte first[], byte second[]) {
+    byte result[] = Arrays.copyOf(first, first.length + second.length);
+    System.arraycopy(second, 0, result, first.length, second.length);
+    return result;
+  }
+}
+
+/* This material is distributed under the GNU General Public License.
+ * For more information please go to http://www.gnu.org/copyleft/gpl.html */
@@ -0,0 +1,223 @@
+/* Copyright (C) 2004 Thomas N. Valine
+ * tvaline@users.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA
+ * 02111-1307, USA. */
+package com.ohrasys.cad.gds;
+import junit.framework.*;
+import java.io.*;
+import java.util.*;
+
+public class GDSMappedReaderTest
+  extends TestCase {
+  public GDSMappedReaderTest(String testName) {super(testName);}
+
+  public static junit.framework.Test suite() {
+    junit.framework.TestSuite suite =
+      new junit.framework.TestSuite(GDSMappedReaderTest.class);
+    return suite;
+  }
+
+  public void testMatchesStream()
+    throws Exception {
+    File file = write(large());
+    assertTrue(file.length() > 4 * GDSMappedReader.MIN_WINDOW_SIZE);
+    List<GDSRecord> expected = records(new GDSInputStream(file));
+    /* The smallest window makes many records straddle a window end */
+    int windows[] = {1, GDSMappedReader.MIN_WINDOW_SIZE + 6,
+      GDSMappedReader.DEFAULT_WINDOW_SIZE};
+    for(int i = 0; i < windows.length; i++) {
+      GDSMappedReader in = new GDSMappedReader(file, windows[i]);
+      assertEquals(file.length(), in.getSize());
+      List<GDSRecord> actual = new ArrayList<GDSRecord>();
+      GDSRecord       rec;
+      while((rec = in.readRecord()) != null) {actual.add(rec);}
+      assertEquals(0, in.available());
+      in.close();
+      assertSameRecords(expected, actual);
+    }
+  }
+
+  public void testMaskedLength()
+    throws Exception {
+    /* 4100 points need 32804 bytes, which reads back as a negative short */
+    int xy[] = new int[8200];
+    for(int i = 0; i < xy.length; i++) {xy[i] = i - 4100;}
+    byte bytes[] = new GDSXyRecord(xy).toBytes();
+    assertTrue(GDSBufferCodec.getInt16(bytes, 0) < 0);
+    /* The record type of a masked record is ignored */
+    bytes[2] = GDSRecord.TEXT;
+    bytes[3] = GDSRecord.NO_DATA_TYPE;
+    File file = write(new byte[][] {bytes, new GDSEndelRecord().toBytes()});
+    List<GDSRecord> expected = records(new GDSInputStream(file));
+    assertEquals(2, expected.size());
+    GDSMappedReader in     = new GDSMappedReader(file, 1);
+    GDSRecord       actual = in.readRecord();
+    assertTrue(actual instanceof GDSXyRecord);
+    assertEquals(32804, actual.getLength());
+    assertTrue(Arrays.equals(xy, ((GDSXyRecord)actual).getXyInts()));
+    assertSameRecords(expected, Arrays.asList(actual, in.readRecord()));
+    assertNull(in.readRecord());
+    in.close();
+  }
+
+  public void testNullAndTrailingByte()
+    throws Exception {
+    /* A zero length is a two byte null record, a lone trailing byte is
+     * not a record at all */
+    File file = write(new byte[][] {new GDSEndelRecord().toBytes(),
+      new byte[] {0, 0}, new GDSEndelRecord().toBytes(), new byte[] {0}});
+    List<GDSRecord> expected = records(new GDSInputStream(file));
+    assertEquals(3, expected.size());
+    assertEquals(GDSRecord.NULL, expected.get(1).getRectype());
+    GDSMappedReader in = new GDSMappedReader(file);
+    assertSameRecords(expected, Arrays.asList(in.readRecord(),
+      in.readRecord(), in.readRecord()));
+    assertEquals(1, in.available());
+    assertNull(in.readRecord());
+    in.close();
+  }
+
+  public void testTruncated()
+    throws Exception {
+    byte endel[] = new GDSEndelRecord().toBytes();
+    byte xy[]    = new GDSXyRecord(new int[] {1, 2, 3, 4}).toBytes();
+    GDSMappedReader in =
+      new GDSMappedReader(write(new byte[][] {endel,
+        Arrays.copyOf(xy, xy.length - 3)}));
+    assertEquals(GDSRecord.ENDEL, in.readRecord().getRectype());
+    try {
+      in.readRecord();
+      fail("Truncated record accepted" /*NOI18N*/);
+    } catch(GDSRecordException ex) {}
+    in.close();
+  }
+
+  public void testShortLength()
+    throws Exception {
+    for(int length = 1; length < 4; length++) {
+      byte bad[] = new byte[4];
+      GDSBufferCodec.putInt16(bad, 0, length);
+      GDSMappedReader in = new GDSMappedReader(write(new byte[][] {bad}));
+      try {
+        in.readRecord();
+        fail("Record length " + length + " accepted" /*NOI18N*/);
+      } catch(GDSRecordException ex) {}
+      in.close();
+    }
+  }
+
+  public void testSeek()
+    throws Exception {
+    File            file      = write(large());
+    GDSMappedReader in        = new GDSMappedReader(file, 1);
+    List<Long>      positions = new ArrayList<Long>();
+    List<GDSRecord> records   = new ArrayList<GDSRecord>();
+    GDSRecord       rec;
+    positions.add(in.getPosition());
+    while((rec = in.readRecord()) != null) {
+      records.add(rec);
+      positions.add(in.getPosition());
+    }
+    assertEquals(file.length(), (long)positions.get(records.size()));
+    /* Visit the records backwards so every read maps a new window */
+    for(int i = records.size() - 1; i >= 0; i -= 7) {
+      in.seek(positions.get(i));
+      assertSameRecords(records.subList(i, i + 1),
+        Arrays.asList(in.readRecord()));
+      assertEquals((long)positions.get(i + 1), in.getPosition());
+    }
+    try {
+      in.seek(file.length() + 1);
+      fail("Seek past the end accepted" /*NOI18N*/);
+    } catch(IllegalArgumentException ex) {}
+    in.close();
+  }
+
+  public void testReader()
+    throws Exception {
+    File      file     = write(large());
+    GDSReader stream   = new GDSReader(file, false, false);
+    GDSReader mapped   = new GDSReader(file, false, true);
+    List<GDSRecord> expected = new ArrayList<GDSRecord>();
+    List<GDSRecord> actual   = new ArrayList<GDSRecord>();
+    Object rec;
+    while((rec = stream.readRecord()) != null) {expected.add((GDSRecord)rec);}
+    while((rec = mapped.readRecord()) != null) {actual.add((GDSRecord)rec);}
+    assertSameRecords(expected, actual);
+    assertEquals((int)file.length(), mapped.getSize());
+    assertEquals((int)file.length(), mapped.getRead());
+    assertEquals(0, mapped.getRemaining());
+    /* The mapped reader does not read characters from the file */
+    assertEquals(-1, mapped.read());
+    stream.close();
+    mapped.close();
+  }
+
+  /* The sample library followed by XY records of every size up to 600
+   * points, enough data to fill several of the smallest windows */
+  static byte[][] large()
+    throws GDSRecordException {
+    GDSRecord sample[] = GDSTestLibrary.sample();
+    List<byte[]> result = new ArrayList<byte[]>();
+    for(int i = 0; i < sample.length - 1; i++) {
+      result.add(sample[i].toBytes());
+    }
+    for(int points = 1; points <= 600; points += 3) {
+      int xy[] = new int[points * 2];
+      for(int i = 0; i < xy.length; i++) {xy[i] = (points * 31) - (i * 7);}
+      result.add(new GDSXyRecord(xy).toBytes());
+      result.add(new GDSEndelRecord().toBytes());
+    }
+    result.add(sample[sample.length - 1].toBytes());
+    return result.toArray(new byte[0][]);
+  }
+
+  static File write(byte records[][])
+    throws IOException {
+    File file = File.createTempFile("jgds" /*NOI18N*/, ".gds" /*NOI18N*/);
+    file.deleteOnExit();
+    OutputStream out = new BufferedOutputStream(new FileOutputStream(file));
+    for(int i = 0; i < records.length; i++) {out.write(records[i]);}
+    out.close();
+    return file;
+  }
+
+  static List<GDSRecord> records(GDSInputStream in)
+    throws Exception {
+    List<GDSRecord> result = new ArrayList<GDSRecord>();
+    GDSRecord       rec;
+    while((rec = in.readRecord()) != null) {result.add(rec);}
+    in.close();
+    return result;
+  }
+
+  static void assertSameRecords(List<GDSRecord> expected,
+    List<GDSRecord> actual) {
+    assertEquals(expected.size(), actual.size());
+    for(int i = 0; i < expected.size(); i++) {
+      GDSRecord want = expected.get(i);
+      GDSRecord got  = actual.get(i);
+      assertEquals(want.getClass(), got.getClass());
+      assertEquals(want.getLength(), got.getLength());
+      assertEquals(want.getRectype(), got.getRectype());
+      assertEquals(want.getDattype(), got.getDattype());
+      assertTrue(Arrays.equals(want.getData(), got.getData()));
+    }
+  }
+}
+
+/* This material is distributed under the GNU General Public License.
+ * For more information please go to http://www.gnu.org/copyleft/gpl.html */
@@ -0,0 +1,139 @@
+/* Copyright (C) 2004 Thomas N. Valine
+ * tvaline@users.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA
+ * 02111-1307, USA. */
+package com.ohrasys.cad.gds;
+import junit.framework.*;
+import java.io.*;
+import java.util.*;
+
+public class GDSRecordCursorTest
+  extends TestCase {
+  public GDSRecordCursorTest(String testName) {super(testName);}
+
+  public static junit.framework.Test suite() {
+    junit.framework.TestSuite suite =
+      new junit.framework.TestSuite(GDSRecordCursorTest.class);
+    return suite;
+  }
+
+  public void testAccessors()
+    throws Exception {
+    File file = GDSTestLibrary.write(GDSTestLibrary.sample());
+    GDSRecordCursor cursors[] = {new GDSRecordCursor(file),
+      new GDSRecordCursor(new GDSInputStream(file))};
+    for(int c = 0; c < cursors.length; c++) {
+      GDSRecordCursor cursor = cursors[c];
+      try {
+        cursor.rectype();
+        fail("Cursor read before next()" /*NOI18N*/);
+      } catch(IllegalStateException ex) {}
+      assertTrue(cursor.next());
+      assertEquals(GDSRecord.HEADER, cursor.rectype());
+      assertEquals(GDSRecord.SHORT_TYPE, cursor.dattype());
+      assertEquals(6, cursor.length());
+      assertEquals(2, cursor.dataLength());
+      assertEquals(0, cursor.offset());
+      assertEquals(600, cursor.int16(0));
+      try {
+        cursor.int16(1);
+        fail("Index past the record data accepted" /*NOI18N*/);
+      } catch(IndexOutOfBoundsException ex) {}
+      try {
+        cursor.int32(0);
+        fail("Value past the record data accepted" /*NOI18N*/);
+      } catch(IndexOutOfBoundsException ex) {}
+      assertTrue(cursor.next());
+      assertEquals(GDSRecord.BGNLIB, cursor.rectype());
+      assertEquals(6, cursor.offset());
+      assertTrue(cursor.next());
+      assertEquals(GDSRecord.LIBNAME, cursor.rectype());
+      assertEquals("SAMPLE" /*NOI18N*/, cursor.asciiString());
+      assertTrue(cursor.next());
+      assertEquals(GDSRecord.UNITS, cursor.rectype());
+      assertEquals(0.001, cursor.real8(0), 0);
+      assertEquals(1e-9, cursor.real8(1), 0);
+      while(cursor.next() && (cursor.rectype() != GDSRecord.XY)) {}
+      /* The LEAF boundary */
+      int xy[] = {0, 0, 100, 0, 100, 50, 0, 50, 0, 0};
+      assertEquals(xy.length * 4, cursor.dataLength());
+      for(int i = 0; i < xy.length; i++) {
+        assertEquals(xy[i], cursor.int32(i));
+      }
+      while(cursor.next() && (cursor.rectype() != GDSRecord.COLROW)) {}
+      assertEquals(3, cursor.int16(0));
+      assertEquals(2, cursor.int16(1));
+      while(cursor.next() && (cursor.rectype() != GDSRecord.TEXTTYPE)) {}
+      assertEquals(7, cursor.int16(0));
+      assertTrue(cursor.next());
+      assertEquals(GDSRecord.XY, cursor.rectype());
+      assertEquals(-5, cursor.int32(0));
+      assertEquals(-5, cursor.int32(1));
+      while(cursor.next()) {}
+      try {
+        cursor.length();
+        fail("Cursor read past the end" /*NOI18N*/);
+      } catch(IllegalStateException ex) {}
+      cursor.close();
+    }
+  }
+
+  public void testMatchesReader()
+    throws Exception {
+    File file = GDSMappedReaderTest.write(GDSMappedReaderTest.large());
+    List<GDSRecord> expected =
+      GDSMappedReaderTest.records(new GDSInputStream(file));
+    GDSRecordCursor cursors[] = {
+      new GDSRecordCursor(new GDSMappedReader(file, 1)),
+      new GDSRecordCursor(new FileInputStream(file))};
+    for(int c = 0; c < cursors.length; c++) {
+      GDSRecordCursor cursor = cursors[c];
+      List<GDSRecord> actual = new ArrayList<GDSRecord>();
+      long            offset = 0;
+      while(cursor.next()) {
+        assertEquals(offset, cursor.offset());
+        GDSRecord rec = expected.get(actual.size());
+        assertEquals(rec.getRectype(), cursor.rectype());
+        assertEquals(rec.getDattype(), cursor.dattype());
+        assertEquals(rec.getLength(), cursor.length());
+        actual.add(cursor.toRecord());
+        offset += cursor.length();
+      }
+      assertEquals(file.length(), offset);
+      cursor.close();
+      GDSMappedReaderTest.assertSameRecords(expected, actual);
+    }
+  }
+
+  public void testTruncated()
+    throws Exception {
+    byte xy[] = new GDSXyRecord(new int[] {1, 2, 3, 4}).toBytes();
+    File file = GDSMappedReaderTest.write(new byte[][] {
+      Arrays.copyOf(xy, xy.length - 3)});
+    GDSRecordCursor cursors[] = {new GDSRecordCursor(file),
+      new GDSRecordCursor(new FileInputStream(file))};
+    for(int c = 0; c < cursors.length; c++) {
+      try {
+        cursors[c].next();
+        fail("Truncated record accepted" /*NOI18N*/);
+      } catch(GDSRecordException ex) {}
+      cursors[c].close();
+    }
+  }
+}
+
+/* This material is distributed under the GNU General Public License.
+ * For more information please go to http://www.gnu.org/copyleft/gpl.html */
@@ -0,0 +1,153 @@
+/* Copyright (C) 2004 Thomas N. Valine
+ * tvaline@users.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA
+ * 02111-1307, USA. */
+package com.ohrasys.cad.gds;
+import junit.framework.*;
+import java.util.*;
+
+public class GDSSpecificDataConverterTest
+  extends TestCase {
+  public GDSSpecificDataConverterTest(String testName) {super(testName);}
+
+  public static junit.framework.Test suite() {
+    junit.framework.TestSuite suite =
+      new junit.framework.TestSuite(GDSSpecificDataConverterTest.class);
+    return suite;
+  }
+
+  public void testRoundTrip() {
+    Random random = new Random(0x6d5L);
+    for(int i = 0; i < 1000000; i++) {
+      long   bits     = random.nextLong();
+      int    exponent = (int)((bits >>> 52) & 0x7FF) - 1023;
+      if((exponent < -260) || (exponent > 251)) {
+        bits = (bits & 0x800FFFFFFFFFFFFFL) |
+          ((long)(random.nextInt(512) - 260 + 1023) << 52);
+      }
+      double value = Double.longBitsToDouble(bits);
+      long   real8 = GDSSpecificDataConverter.toReal8(value);
+      assertEquals(bits,
+        Double.doubleToRawLongBits(GDSSpecificDataConverter.toDouble(real8)));
+    }
+  }
+
+  public void testCommonValues() {
+    double values[] = {1, -1, 0.5, 90, 180, 270, 0.001, 1e-6, 1e-9, 2.5e-10};
+    for(int i = 0; i < values.length; i++) {
+      byte real8[] = GDSSpecificDataConverter.writeJavaDouble(values[i]);
+      assertEquals(values[i], GDSSpecificDataConverter.toDouble(real8), 0);
+    }
+    assertTrue(Arrays.equals(new byte[] {0x41, 0x10, 0, 0, 0, 0, 0, 0},
+        GDSSpecificDataConverter.writeJavaDouble(1)));
+    assertTrue(Arrays.equals(new byte[] {(byte)0xC1, 0x10, 0, 0, 0, 0, 0, 0},
+        GDSSpecificDataConverter.writeJavaDouble(-1)));
+    assertTrue(Arrays.equals(new byte[] {0x42, 0x5A, 0, 0, 0, 0, 0, 0},
+        GDSSpecificDataConverter.writeJavaDouble(90)));
+  }
+
+  public void testZero() {
+    assertEquals(0, GDSSpecificDataConverter.toReal8(0.0));
+    assertEquals(0, GDSSpecificDataConverter.toReal8(-0.0));
+    assertEquals(0L,
+      Double.doubleToRawLongBits(GDSSpecificDataConverter.toDouble(0L)));
+    assertEquals(0L,
+      Double.doubleToRawLongBits(
+        GDSSpecificDataConverter.toDouble(0x7F00000000000000L)));
+    assertEquals(Double.doubleToRawLongBits(-0.0),
+      Double.doubleToRawLongBits(
+        GDSSpecificDataConverter.toDouble(0x8000000000000000L)));
+  }
+
+  public void testRange() {
+    double smallest = Math.scalb(1.0, -260);
+    double largest  = Math.scalb(Math.nextDown(2.0), 251);
+    assertEquals(0x0010000000000000L,
+      GDSSpecificDataConverter.toReal8(smallest));
+    assertEquals(0x7FFFFFFFFFFFFFF8L,
+      GDSSpecificDataConverter.toReal8(largest));
+    assertEquals(smallest,
+      GDSSpecificDataConverter.toDouble(0x0010000000000000L), 0);
+    assertEquals(largest,
+      GDSSpecificDataConverter.toDouble(0x7FFFFFFFFFFFFFF8L), 0);
+    double outside[] = {
+        Math.scalb(1.0, 252), -Math.scalb(1.0, 252),
+        Math.nextDown(smallest), Double.MIN_VALUE, Double.MAX_VALUE,
+        Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY
+      };
+    for(int i = 0; i < outside.length; i++) {
+      boolean caught = false;
+      try {
+        GDSSpecificDataConverter.toReal8(outside[i]);
+      } catch(IllegalArgumentException ex) {
+        caught = true;
+      }
+      assertTrue(caught);
+    }
+  }
+
+  public void testRounding() {
+    /* 56 significant bits must round to the nearest double, ties to even */
+    assertEquals(8.0,
+      GDSSpecificDataConverter.toDouble(0x4180000000000004L), 0);
+    assertEquals(8.0 + Math.scalb(1.0, -48),
+      GDSSpecificDataConverter.toDouble(0x418000000000000CL), 0);
+    assertEquals(8.0 + Math.scalb(1.0, -49),
+      GDSSpecificDataConverter.toDouble(0x4180000000000009L), 0);
+    assertEquals(16.0,
+      GDSSpecificDataConverter.toDouble(0x41FFFFFFFFFFFFFFL), 0);
+    assertEquals(-16.0,
+      GDSSpecificDataConverter.toDouble(0xC1FFFFFFFFFFFFFFL), 0);
+  }
+
+  public void testUnnormalized() {
+    /* Mantissas of 53 bits or less, with or without leading zero digits */
+    Random random = new Random(0x56dL);
+    for(int i = 0; i < 100000; i++) {
+      long bits = random.nextLong();
+      bits &= 0xFF00000000000000L |
+        (0x001FFFFFFFFFFFFFL >>> (4 * random.nextInt(8)));
+      assertEquals(legacyToDouble(bits),
+        GDSSpecificDataConverter.toDouble(bits), 0);
+    }
+  }
+
+  public void testBulk() {
+    Random random   = new Random(0xd65L);
+    double values[] = new double[257];
+    for(int i = 0; i < values.length; i++) {
+      values[i] = (random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(20));
+    }
+    byte   real8[] =
+      GDSSpecificDataConverter.writeJavaDoubles(values, new byte[4 + (8 * values.length)], 4);
+    double result[] = new double[values.length];
+    GDSSpecificDataConverter.toDoubles(real8, 4, result);
+    for(int i = 0; i < values.length; i++) {
+      assertTrue(Arrays.equals(GDSSpecificDataConverter.writeJavaDouble(values[i]),
+          Arrays.copyOfRange(real8, 4 + (8 * i), 12 + (8 * i))));
+      assertEquals(values[i], result[i], 0);
+    }
+  }
+
+  private static double legacyToDouble(long bits) {
+    double mantissa = (bits & 0x00FFFFFFFFFFFFFFL) / Math.pow(2, 56);
+    double result   = mantissa * Math.pow(16, ((int)(bits >>> 56) & 0x7F) - 64);
+    return (bits < 0) ? -result : result;
+  }
+}
+
+/* This material is distributed under the GNU General Public License.
+ * For more information please go to http://www.gnu.org/copyleft/gpl.html */
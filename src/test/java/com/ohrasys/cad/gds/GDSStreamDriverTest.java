@@ -0,0 +1,165 @@
+/* Copyright (C) 2004 Thomas N. Valine
+ * tvaline@users.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA
+ * 02111-1307, USA. */
+package com.ohrasys.cad.gds;
+import junit.framework.*;
+import java.io.*;
+import java.util.*;
+import com.ohrasys.cad.gds.dao.Transform;
+
+public class GDSStreamDriverTest
+  extends TestCase {
+  public GDSStreamDriverTest(String testName) {super(testName);}
+
+  public static junit.framework.Test suite() {
+    junit.framework.TestSuite suite =
+      new junit.framework.TestSuite(GDSStreamDriverTest.class);
+    return suite;
+  }
+
+  public void testCallbacks()
+    throws Exception {
+    File        file     = GDSTestLibrary.write(GDSTestLibrary.sample());
+    LogHandler  mapped   = new LogHandler();
+    LogHandler  streamed = new LogHandler();
+    new GDSStreamDriver(mapped).parse(file);
+    new GDSStreamDriver(streamed).parse(new GDSInputStream(file));
+    String expected =
+      "lib SAMPLE 0.001\n" + "str LEAF\n" +
+      "boundary 1 0 [0, 0, 100, 0, 100, 50, 0, 50, 0, 0]\n" + "prop 1 ONE\n" +
+      "prop 2 TWO\n" + "path 2 3 0 10 [0, 0, 0, 200, 300, 200]\n" + "end\n" +
+      "str TOP\n" + "sref LEAF true false true 2.0 90.0 1000 2000\n" +
+      "aref LEAF 3 2 [0, 0, 600, 0, 0, 400]\n" + "text 5 7 HELLO -5 -5\n" +
+      "end\n" + "endlib\n";
+    assertEquals(expected, mapped.log.toString());
+    assertEquals(expected, streamed.log.toString());
+  }
+
+  public void testStatistics()
+    throws Exception {
+    GDSRecord     records[] = GDSTestLibrary.sample();
+    GDSStatistics expected  = new GDSStatistics();
+    for(int i = 0; i < records.length; i++) {
+      expected.record(records[i]);
+    }
+    GDSStatistics   stats  = new GDSStatistics();
+    LogHandler      log    = new LogHandler();
+    GDSStreamDriver driver = new GDSStreamDriver();
+    driver.addHandler(stats);
+    driver.addHandler(log);
+    driver.parse(GDSTestLibrary.write(records));
+    assertEquals(expected.toString(), stats.toString());
+    assertTrue(log.log.toString().endsWith("endlib\n"));
+    assertEquals(expected.getBytes(), stats.getBytes());
+    assertEquals(13, stats.getVertices());
+    assertEquals(13, expected.getVertices());
+    assertTrue(Arrays.deepEquals(expected.getElementCounts(),
+        stats.getElementCounts()));
+    assertEquals(1, stats.getElements(1, 0));
+    assertEquals(1, stats.getElements(2, 3));
+    assertEquals(1, stats.getElements(5, 7));
+    assertEquals(0, stats.getElements(1, 3));
+    assertEquals(3, stats.getElementCounts().length);
+  }
+
+  public void testMerge()
+    throws Exception {
+    GDSRecord     records[] = GDSTestLibrary.sample();
+    GDSStatistics whole     = new GDSStatistics();
+    GDSStatistics first     = new GDSStatistics();
+    GDSStatistics second    = new GDSStatistics();
+    long          bytes     = 0;
+    for(int i = 0; i < records.length; i++) {
+      whole.record(records[i]);
+      (i < 22 ? first : second).record(records[i]);
+      bytes += records[i].getLength();
+    }
+    first.merge(second);
+    assertEquals(whole.toString(), first.toString());
+    assertEquals(records.length, first.getRecords());
+    assertEquals(bytes, first.getBytes());
+    assertEquals(5, first.getRecords(GDSRecord.ENDEL));
+    assertEquals(whole.getBytes(GDSRecord.XY), first.getBytes(GDSRecord.XY));
+    assertEquals(5, first.getRecords(GDSRecord.XY, GDSRecord.INT_TYPE));
+    assertEquals(whole.getDattypeRecords(GDSRecord.SHORT_TYPE),
+      first.getDattypeRecords(GDSRecord.SHORT_TYPE));
+    assertTrue(Arrays.deepEquals(whole.getElementCounts(),
+        first.getElementCounts()));
+    first.clear();
+    assertEquals(0, first.getRecords());
+    assertEquals(0, first.getElementCounts().length);
+  }
+
+  private static class LogHandler
+    extends GDSDefaultHandler {
+    StringBuffer log = new StringBuffer();
+
+    public void startLibrary(String name, double userUnits, double meterUnits) {
+      log.append("lib " + name + " " + userUnits + "\n");
+    }
+
+    public void startStructure(String name) {
+      log.append("str " + name + "\n");
+    }
+
+    public void boundary(int layer, int datatype, int xy[], int points) {
+      log.append("boundary " + layer + " " + datatype + " " +
+        Arrays.toString(Arrays.copyOf(xy, 2 * points)) + "\n");
+    }
+
+    public void path(int layer, int datatype, int pathtype, int width,
+      int bgnextn, int endextn, int xy[], int points) {
+      log.append("path " + layer + " " + datatype + " " + pathtype + " " +
+        width + " " + Arrays.toString(Arrays.copyOf(xy, 2 * points)) + "\n");
+    }
+
+    public void sref(String sname, Transform transform, int x, int y) {
+      log.append("sref " + sname + " " + transform.isMirrored() + " " +
+        transform.isRelativeAngle() + " " +
+        transform.isRelativeMagnification() + " " +
+        transform.getMagnification() + " " + transform.getAngle() + " " + x +
+        " " + y + "\n");
+    }
+
+    public void aref(String sname, Transform transform, int columns, int rows,
+      int xy[]) {
+      log.append("aref " + sname + " " + columns + " " + rows + " " +
+        Arrays.toString(Arrays.copyOf(xy, 6)) + "\n");
+    }
+
+    public void text(int layer, int texttype, String string, int presentation,
+      Transform transform, int x, int y) {
+      log.append("text " + layer + " " + texttype + " " + string + " " + x +
+        " " + y + "\n");
+    }
+
+    public void property(int attribute, String value) {
+      log.append("prop " + attribute + " " + value + "\n");
+    }
+
+    public void endStructure() {
+      log.append("end\n");
+    }
+
+    public void endLibrary() {
+      log.append("endlib\n");
+    }
+  }
+}
+
+/* This material is distributed under the GNU General Public License.
+ * For more information please go to http://www.gnu.org/copyleft/gpl.html */
@@ -0,0 +1,77 @@
+/* Copyright (C) 2004 Thomas N. Valine
+ * tvaline@users.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA
+ * 02111-1307, USA. */
+package com.ohrasys.cad.gds;
+import java.io.*;
+import java.util.*;
+
+/* Writes small GDS libraries used as test fixtures */
+public class GDSTestLibrary {
+  public static File write(GDSRecord records[])
+    throws IOException {
+    File file = File.createTempFile("jgds" /*NOI18N*/, ".gds" /*NOI18N*/);
+    file.deleteOnExit();
+    GDSOutputStream out = new GDSOutputStream(file);
+    for(int i = 0; i < records.length; i++) {
+      out.writeRecord(records[i]);
+    }
+    out.close();
+    return file;
+  }
+
+  /* A library whose TOP cell references the LEAF cell twice:
+   *   LEAF: a boundary on 1/0 with two properties and a path on 2/3
+   *   TOP:  a mirrored sref to LEAF, a 3x2 aref of LEAF and a text on 5/7 */
+  public static GDSRecord[] sample()
+    throws GDSRecordException {
+    Date date = new Date(0);
+    return new GDSRecord[] {
+        new GDSHeaderRecord((short)600), new GDSBgnlibRecord(date, date),
+        new GDSLibnameRecord("SAMPLE" /*NOI18N*/),
+        new GDSUnitsRecord(0.001, 1e-9),
+        new GDSBgnstrRecord(date, date),
+        new GDSStrnameRecord("LEAF" /*NOI18N*/), new GDSBoundaryRecord(),
+        new GDSLayerRecord((short)1), new GDSDatatypeRecord((short)0),
+        new GDSXyRecord(new int[] {0, 0, 100, 0, 100, 50, 0, 50, 0, 0}),
+        new GDSPropattrRecord((short)1),
+        new GDSPropvalueRecord("ONE" /*NOI18N*/),
+        new GDSPropattrRecord((short)2),
+        new GDSPropvalueRecord("TWO" /*NOI18N*/), new GDSEndelRecord(),
+        new GDSPathRecord(), new GDSLayerRecord((short)2),
+        new GDSDatatypeRecord((short)3), new GDSWidthRecord(10),
+        new GDSXyRecord(new int[] {0, 0, 0, 200, 300, 200}),
+        new GDSEndelRecord(), new GDSEndstrRecord(),
+        new GDSBgnstrRecord(date, date),
+        new GDSStrnameRecord("TOP" /*NOI18N*/), new GDSSrefRecord(),
+        new GDSSnameRecord("LEAF" /*NOI18N*/),
+        new GDSStransRecord(true, false, true), new GDSMagRecord(2),
+        new GDSAngleRecord(90), new GDSXyRecord(new int[] {1000, 2000}),
+        new GDSEndelRecord(), new GDSArefRecord(),
+        new GDSSnameRecord("LEAF" /*NOI18N*/),
+        new GDSColrowRecord((short)3, (short)2),
+        new GDSXyRecord(new int[] {0, 0, 600, 0, 0, 400}), new GDSEndelRecord(),
+        new GDSTextRecord(), new GDSLayerRecord((short)5),
+        new GDSTexttypeRecord((short)7),
+        new GDSXyRecord(new int[] {-5, -5}),
+        new GDSStringRecord("HELLO" /*NOI18N*/), new GDSEndelRecord(),
+        new GDSEndstrRecord(), new GDSEndlibRecord()
+      };
+  }
+}
+
+/* This material is distributed under the GNU General Public License.
+ * For more information please go to http://www.gnu.org/copyleft/gpl.html */
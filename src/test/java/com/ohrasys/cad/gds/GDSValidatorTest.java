@@ -0,0 +1,174 @@
+/* Copyright (C) 2004 Thomas N. Valine
+ * tvaline@users.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA
+ * 02111-1307, USA. */
+package com.ohrasys.cad.gds;
+import junit.framework.*;
+import java.io.*;
+import java.util.*;
+import com.ohrasys.cad.gds.validator.Diagnostic;
+
+public class GDSValidatorTest
+  extends TestCase {
+  public GDSValidatorTest(String testName) {super(testName);}
+
+  public static junit.framework.Test suite() {
+    junit.framework.TestSuite suite =
+      new junit.framework.TestSuite(GDSValidatorTest.class);
+    return suite;
+  }
+
+  public void testValid()
+    throws Exception {
+    File file = GDSTestLibrary.write(GDSTestLibrary.sample());
+    assertTrue(new GDSValidator().validate(file).isEmpty());
+  }
+
+  /* The header rules must agree with the records built from the same header,
+   * the data holding values every record accepts */
+  public void testRules()
+    throws Exception {
+    int lengths[] = {0, 2, 4, 6, 8, 12, 16, 24, 44, 46, 88, 132, 176, 192, 194};
+    for(int rectype = 0; rectype <= GDSRecord.CONTACT; rectype++) {
+      for(int dattype = 0; dattype <= GDSRecord.STRING_TYPE; dattype++) {
+        for(int i = 0; i < lengths.length; i++) {
+          boolean expanded = true;
+          byte data[] = new byte[lengths[i]];
+          for(int j = 1; j < data.length; j += 2) {data[j] = 2;}
+          if(dattype == GDSRecord.STRING_TYPE) {Arrays.fill(data, (byte)'A');}
+          if(dattype == GDSRecord.DOUBLE_TYPE) {
+            Arrays.fill(data, (byte)0);
+            for(int j = 0; j + 1 < data.length; j += 8) {
+              data[j] = 0x41;
+              data[j + 1] = 0x10;
+            }
+          }
+          try {
+            GDSRecordFactory.expandRecord(new GDSRecord(lengths[i] + 4,
+                (byte)rectype, (byte)dattype, data));
+          } catch(GDSRecordException e) {expanded = false;}
+          String problem = GDSValidator.check((byte)rectype, (byte)dattype,
+              lengths[i] + 4);
+          assertEquals("0x" /*NOI18N*/ + Integer.toHexString(rectype) +
+            " " /*NOI18N*/ + dattype + " " /*NOI18N*/ + lengths[i], expanded,
+            problem == null);
+        }
+      }
+    }
+    assertNotNull(GDSValidator.check(GDSRecord.XY, GDSRecord.INT_TYPE, 16));
+    assertNotNull(GDSValidator.check((byte)0x70, GDSRecord.INT_TYPE, 8));
+    assertNotNull(GDSValidator.check(GDSRecord.LAYER, (byte)9, 6));
+    assertNotNull(GDSValidator.check(GDSRecord.LAYER, GDSRecord.SHORT_TYPE, 7));
+  }
+
+  public void testAllProblems()
+    throws Exception {
+    GDSRecord records[] = GDSTestLibrary.sample();
+    records[7] = new GDSRecord(8, GDSRecord.LAYER, GDSRecord.INT_TYPE,
+        new byte[4]);
+    records[18] = new GDSRecord(6, GDSRecord.WIDTH, GDSRecord.INT_TYPE,
+        new byte[2]);
+    List<GDSRecord> list = new ArrayList<GDSRecord>(Arrays.asList(records));
+    list.remove(20);
+    File file = GDSTestLibrary.write(list.toArray(new GDSRecord[0]));
+    long offsets[] = offsets(file);
+
+    GDSValidator validator = new GDSValidator();
+    List<Diagnostic> found = validator.validate(file);
+    assertEquals(3, found.size());
+    assertEquals(offsets[7], found.get(0).getOffset());
+    assertEquals(GDSRecord.LAYER, found.get(0).getFound());
+    assertEquals("LEAF" /*NOI18N*/, found.get(0).getStructure());
+    assertEquals(offsets[18], found.get(1).getOffset());
+    assertEquals(GDSRecord.WIDTH, found.get(1).getFound());
+    assertEquals(offsets[20], found.get(2).getOffset());
+    assertEquals(GDSRecord.ENDSTR, found.get(2).getFound());
+
+    validator.setMaxDiagnostics(1);
+    found = validator.validate(file);
+    assertEquals(1, found.size());
+    assertEquals(offsets[7], found.get(0).getOffset());
+  }
+
+  public void testRecovery()
+    throws Exception {
+    List<GDSRecord> list =
+      new ArrayList<GDSRecord>(Arrays.asList(GDSTestLibrary.sample()));
+    list.add(26, new GDSLayerRecord((short)1));
+    list.remove(21);
+    list.add(8, new GDSWidthRecord(5));
+    File file = GDSTestLibrary.write(list.toArray(new GDSRecord[0]));
+    long offsets[] = offsets(file);
+
+    GDSValidator validator = new GDSValidator();
+    assertFalse(validator.isRecovering());
+    assertEquals(1, validator.validate(file).size());
+    validator.setRecovering(true);
+    List<Diagnostic> found = validator.validate(file);
+    assertEquals(3, found.size());
+    assertEquals(offsets[8], found.get(0).getOffset());
+    assertEquals("LEAF" /*NOI18N*/, found.get(0).getStructure());
+    assertEquals(GDSRecord.WIDTH, found.get(0).getFound());
+    assertTrue(Arrays.equals(new int[] {GDSRecord.DATATYPE},
+        found.get(0).getExpected()));
+    assertEquals(offsets[22], found.get(1).getOffset());
+    assertEquals(GDSRecord.BGNSTR, found.get(1).getFound());
+    assertTrue(Arrays.binarySearch(found.get(1).getExpected(),
+        GDSRecord.ENDSTR) >= 0);
+    assertEquals(offsets[26], found.get(2).getOffset());
+    assertEquals("TOP" /*NOI18N*/, found.get(2).getStructure());
+    assertEquals(GDSRecord.LAYER, found.get(2).getFound());
+
+    validator.setMaxDiagnostics(2);
+    assertEquals(2, validator.validate(file).size());
+  }
+
+  public void testTruncated()
+    throws Exception {
+    GDSRecord records[] = GDSTestLibrary.sample();
+    File file = GDSTestLibrary.write(Arrays.copyOf(records, 30));
+    List<Diagnostic> found = new GDSValidator().validate(file);
+    assertEquals(1, found.size());
+    assertEquals(file.length(), found.get(0).getOffset());
+    assertEquals("TOP" /*NOI18N*/, found.get(0).getStructure());
+    assertEquals(-1, found.get(0).getFound());
+
+    RandomAccessFile raf = new RandomAccessFile(file, "rw" /*NOI18N*/);
+    raf.setLength(file.length() - 3);
+    raf.close();
+    found = new GDSValidator().validate(file);
+    assertEquals(1, found.size());
+    assertEquals(offsets(file)[29], found.get(0).getOffset());
+  }
+
+  /* The offset of every record header of a file */
+  private long[] offsets(File file)
+    throws Exception {
+    List<Long> list = new ArrayList<Long>();
+    GDSMappedReader in = new GDSMappedReader(file);
+    GDSRecordCursor cursor = new GDSRecordCursor(in);
+    try {
+      while(cursor.next()) {list.add(cursor.offset());}
+    } catch(GDSRecordException e) {list.add(in.getPosition());}
+    cursor.close();
+    long result[] = new long[list.size()];
+    for(int i = 0; i < result.length; i++) {result[i] = list.get(i);}
+    return result;
+  }
+}
+
+/* This material is distributed under the GNU General Public License.
+ * For more information please go to http://www.gnu.org/copyleft/gpl.html */
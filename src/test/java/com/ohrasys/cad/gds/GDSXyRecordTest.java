@@ -0,0 +1,97 @@
+/* Copyright (C) 2004 Thomas N. Valine
+ * tvaline@users.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA
+ * 02111-1307, USA. */
+package com.ohrasys.cad.gds;
+import junit.framework.*;
+import java.awt.Point;
+import java.util.*;
+
+public class GDSXyRecordTest
+  extends TestCase {
+  public GDSXyRecordTest(String testName) {super(testName);}
+
+  public static junit.framework.Test suite() {
+    junit.framework.TestSuite suite =
+      new junit.framework.TestSuite(GDSXyRecordTest.class);
+    return suite;
+  }
+
+  public void testLazyDecode()
+    throws Exception {
+    int         xy[]  = {0, 0, 100, 0, 100, 50, 0, 50, 0, 0};
+    GDSXyRecord eager = new GDSXyRecord(xy);
+    GDSRecord   read  = GDSRecordFactory.expandRecord(new GDSRecord(
+      eager.getLength(), eager.getRectype(), eager.getDattype(),
+      eager.getData()));
+    assertTrue(read instanceof GDSXyRecord);
+    GDSXyRecord lazy = (GDSXyRecord)read;
+    assertEquals(eager.toString(), lazy.toString());
+    assertTrue(Arrays.equals(eager.getXy(), lazy.getXy()));
+    assertEquals(new Point(100, 50), lazy.getXy()[2]);
+    assertTrue(lazy.isCoordConstraintMet(GDSRecord.BOUNDARY_ELEM_TYPE));
+    assertTrue(lazy.isCoordConstraintMet(GDSRecord.BOX_ELEM_TYPE));
+    assertFalse(lazy.isCoordConstraintMet(GDSRecord.TEXT_ELEM_TYPE));
+    /* The size check stays eager */
+    try {
+      new GDSXyRecord(16, GDSRecord.XY, GDSRecord.INT_TYPE, new byte[12]);
+      fail("Partial coordinate accepted" /*NOI18N*/);
+    } catch(GDSRecordException ex) {}
+  }
+
+  public void testInts()
+    throws Exception {
+    int         xy[] = {-7, 3, 2147483647, -2147483648, 0, 65536};
+    GDSXyRecord rec  = new GDSXyRecord(xy);
+    assertEquals(3, rec.getPointCount());
+    assertEquals(28, rec.getLength());
+    int copy[] = rec.getXyInts();
+    assertTrue(Arrays.equals(xy, copy));
+    /* The caller owns the decoded array */
+    copy[0] = 1;
+    assertEquals(-7, rec.getXyInts()[0]);
+    assertEquals(new Point(2147483647, -2147483648), rec.getXy()[1]);
+    rec.setXyInts(new int[] {5, 6});
+    assertEquals(1, rec.getPointCount());
+    assertEquals(12, rec.getLength());
+    assertTrue(Arrays.equals(new int[] {5, 6}, rec.getXyInts()));
+    /* Point and int forms encode the same bytes */
+    rec.setXy(new Point[] {new Point(-7, 3), new Point(0, 65536)});
+    assertTrue(Arrays.equals(new GDSXyRecord(new int[] {-7, 3, 0, 65536})
+      .toBytes(), rec.toBytes()));
+  }
+
+  public void testOddLength()
+    throws Exception {
+    GDSXyRecord rec = new GDSXyRecord(new int[] {1, 2});
+    try {
+      rec.setXyInts(new int[] {1, 2, 3});
+      fail("Odd coordinate list accepted" /*NOI18N*/);
+    } catch(GDSRecordException ex) {}
+    assertTrue(Arrays.equals(new int[] {1, 2}, rec.getXyInts()));
+    try {
+      new GDSXyRecord(new int[] {1, 2, 3, 4, 5});
+      fail("Odd coordinate list accepted" /*NOI18N*/);
+    } catch(GDSRecordException ex) {}
+    try {
+      new GDSXyRecord(new int[] {1});
+      fail("Single coordinate accepted" /*NOI18N*/);
+    } catch(GDSRecordException ex) {}
+  }
+}
+
+/* This material is distributed under the GNU General Public License.
+ * For more information please go to http://www.gnu.org/copyleft/gpl.html */
@@ -0,0 +1,81 @@
+/* Copyright (C) 2004 Thomas N. Valine
+ * tvaline@users.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA
+ * 02111-1307, USA. */
+package com.ohrasys.cad.gds.dao;
+import junit.framework.*;
+import java.awt.Point;
+import java.io.*;
+import java.util.*;
+import com.ohrasys.cad.gds.*;
+import com.ohrasys.cad.gds.validator.*;
+
+public class ElementTest
+  extends TestCase {
+  public ElementTest(String testName) {super(testName);}
+
+  public static junit.framework.Test suite() {
+    junit.framework.TestSuite suite =
+      new junit.framework.TestSuite(ElementTest.class);
+    return suite;
+  }
+
+  public void testXy() {
+    int      xy[]     = {0, 0, 10, -5, 10, 20, 0, 0};
+    Boundary boundary = new Boundary(3, xy);
+    assertSame(xy, boundary.getXy());
+    assertEquals(4, boundary.getPointCount());
+    Point points[] = boundary.getPoints();
+    assertEquals(4, points.length);
+    assertEquals(new Point(10, -5), points[1]);
+    /* The points are a copy */
+    points[1].x = 99;
+    assertEquals(10, boundary.getXy()[2]);
+    boundary.setPoints(points);
+    assertEquals(99, boundary.getXy()[2]);
+    assertTrue(Arrays.equals(points, boundary.getPoints()));
+    /* Point and int constructors agree */
+    Path path = new Path(1, 10, new Point[] {new Point(1, 2), new Point(3, 4)});
+    assertTrue(Arrays.equals(new int[] {1, 2, 3, 4}, path.getXy()));
+    assertEquals(path.toString(),
+      new Path(1, 10, new int[] {1, 2, 3, 4}).toString());
+    assertEquals(1, new Element().getPointCount());
+  }
+
+  public void testLoaded()
+    throws Exception {
+    File     file = GDSTestLibrary.write(GDSTestLibrary.sample());
+    Database db   = new DatabaseLoader().load(file);
+    Element  leaf[] = db.getStructures()[0].getElements();
+    assertTrue(Arrays.equals(new int[] {0, 0, 100, 0, 100, 50, 0, 50, 0, 0},
+      leaf[0].getXy()));
+    assertEquals(5, leaf[0].getPointCount());
+    assertTrue(Arrays.equals(new int[] {0, 0, 0, 200, 300, 200},
+      leaf[1].getXy()));
+    Element top[] = db.getStructures()[1].getElements();
+    assertTrue(Arrays.equals(new int[] {1000, 2000}, top[0].getXy()));
+    assertTrue(Arrays.equals(new int[] {0, 0, 600, 0, 0, 400},
+      top[1].getXy()));
+    assertTrue(Arrays.equals(new int[] {-5, -5}, top[2].getXy()));
+    /* Writing the coordinates back gives the original record */
+    GDSXyRecord rec = new GDSXyRecord(leaf[1].getXy());
+    assertTrue(Arrays.equals(GDSTestLibrary.sample()[19].toBytes(),
+      rec.toBytes()));
+  }
+}
+
+/* This material is distributed under the GNU General Public License.
+ * For more information please go to http://www.gnu.org/copyleft/gpl.html */
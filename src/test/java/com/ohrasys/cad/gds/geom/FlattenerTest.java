@@ -0,0 +1,249 @@
+/* Copyright (C) 2004 Thomas N. Valine
+ * tvaline@users.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA
+ * 02111-1307, USA. */
+package com.ohrasys.cad.gds.geom;
+import junit.framework.*;
+import java.awt.Point;
+import java.io.*;
+import java.util.*;
+import com.ohrasys.cad.gds.*;
+import com.ohrasys.cad.gds.dao.*;
+import com.ohrasys.cad.gds.validator.DatabaseLoader;
+
+public class FlattenerTest
+  extends TestCase {
+  public FlattenerTest(String testName) {super(testName);}
+
+  public static junit.framework.Test suite() {
+    junit.framework.TestSuite suite =
+      new junit.framework.TestSuite(FlattenerTest.class);
+    return suite;
+  }
+
+  /* TOP places LEAF mirrored, doubled and turned a quarter at 1000,2000,
+   * then as a 3x2 array of pitch 200 at the origin, then holds a text */
+  public void testSample()
+    throws Exception {
+    File      file      = GDSTestLibrary.write(GDSTestLibrary.sample());
+    Database  db        = new DatabaseLoader().load(file);
+    Flattener flattener = new Flattener(db);
+    List<Element> shapes = new ArrayList<Element>();
+    flattener.flatten(db.getStructures()[1], collect(shapes));
+    assertEquals(15, shapes.size());
+
+    Boundary boundary = (Boundary)shapes.get(0);
+    assertEquals(1, boundary.getLayer());
+    assertTrue(Arrays.equals(new int[] {1000, 2000, 1000, 2200, 1100, 2200,
+        1100, 2000, 1000, 2000}, boundary.getXy()));
+    Path path = (Path)shapes.get(1);
+    assertEquals(20, path.getWidth());
+    assertTrue(Arrays.equals(new int[] {1000, 2000, 1400, 2000, 1400, 2600},
+        path.getXy()));
+
+    /* The array row by row */
+    assertTrue(Arrays.equals(new int[] {200, 0}, first(shapes.get(4))));
+    assertTrue(Arrays.equals(new int[] {0, 200}, first(shapes.get(8))));
+    assertTrue(Arrays.equals(new int[] {400, 200}, first(shapes.get(12))));
+
+    Text text = (Text)shapes.get(14);
+    assertEquals("HELLO" /*NOI18N*/, text.getValue());
+    assertTrue(Arrays.equals(new int[] {-5, -5}, text.getXy()));
+
+    List<Element> parallel = new ArrayList<Element>();
+    flattener.flatten(db.getStructures()[1], collect(parallel), 3);
+    assertEquals(describe(shapes), describe(parallel));
+  }
+
+  public void testAbsoluteAngle()
+    throws Exception {
+    Structure leaf = new Structure("LEAF" /*NOI18N*/, new Element[] {
+          new Boundary(false, false, 0, 1, 0,
+            new int[] {0, 0, 10, 0, 10, 5, 0, 5, 0, 0})});
+    Structure mid = new Structure("MID" /*NOI18N*/, new Element[] {
+          new StructureReference("LEAF" /*NOI18N*/,
+            new Transform(0, 1, false, false, true),
+            new Point[] {new Point(10, 0)})});
+    Structure top = new Structure("TOP" /*NOI18N*/, new Element[] {
+          new StructureReference("MID" /*NOI18N*/,
+            new Transform(90, 1, false, true, true),
+            new Point[] {new Point(0, 0)})});
+    List<Element> shapes = new ArrayList<Element>();
+    new Flattener(new Structure[] {top, mid, leaf}).flatten(top,
+      collect(shapes));
+    assertTrue(Arrays.equals(new int[] {0, 10, 10, 10, 10, 15, 0, 15, 0, 10},
+        shapes.get(0).getXy()));
+  }
+
+  /* A child with both absolute flags keeps its own angle and magnification
+   * under a turned and doubled parent, a child without STRANS does not */
+  public void testAbsoluteBoth()
+    throws Exception {
+    Date date = new Date(0);
+    File file = GDSTestLibrary.write(new GDSRecord[] {
+        new GDSHeaderRecord((short)600), new GDSBgnlibRecord(date, date),
+        new GDSLibnameRecord("ABS" /*NOI18N*/),
+        new GDSUnitsRecord(0.001, 1e-9),
+        new GDSBgnstrRecord(date, date),
+        new GDSStrnameRecord("LEAF" /*NOI18N*/), new GDSBoundaryRecord(),
+        new GDSLayerRecord((short)1), new GDSDatatypeRecord((short)0),
+        new GDSXyRecord(new int[] {0, 0, 10, 0, 10, 5, 0, 5, 0, 0}),
+        new GDSEndelRecord(), new GDSEndstrRecord(),
+        new GDSBgnstrRecord(date, date),
+        new GDSStrnameRecord("MID" /*NOI18N*/), new GDSSrefRecord(),
+        new GDSSnameRecord("LEAF" /*NOI18N*/),
+        new GDSStransRecord(false, true, true),
+        new GDSXyRecord(new int[] {10, 0}), new GDSEndelRecord(),
+        new GDSSrefRecord(), new GDSSnameRecord("LEAF" /*NOI18N*/),
+        new GDSXyRecord(new int[] {0, 0}), new GDSEndelRecord(),
+        new GDSEndstrRecord(),
+        new GDSBgnstrRecord(date, date),
+        new GDSStrnameRecord("TOP" /*NOI18N*/), new GDSSrefRecord(),
+        new GDSSnameRecord("MID" /*NOI18N*/),
+        new GDSStransRecord(false, false, false), new GDSMagRecord(2),
+        new GDSAngleRecord(90), new GDSXyRecord(new int[] {0, 0}),
+        new GDSEndelRecord(), new GDSEndstrRecord(), new GDSEndlibRecord()
+      });
+    Database db = new DatabaseLoader().load(file);
+    List<Element> shapes = new ArrayList<Element>();
+    new Flattener(db).flatten(db.getStructures()[2], collect(shapes));
+    assertEquals(2, shapes.size());
+    assertTrue(Arrays.equals(new int[] {0, 20, 10, 20, 10, 25, 0, 25, 0, 20},
+        shapes.get(0).getXy()));
+    assertTrue(Arrays.equals(new int[] {0, 0, 0, 20, -10, 20, -10, 0, 0, 0},
+        shapes.get(1).getXy()));
+  }
+
+  /* The pool must give the order of a single thread, and the shapes must be
+   * the ones the window query finds over everything */
+  public void testParallel()
+    throws Exception {
+    Random    random  = new Random(5);
+    Structure cells[] = new Structure[4];
+    for(int c = cells.length - 1; c >= 0; c--) {
+      List<Element> elements = new ArrayList<Element>();
+      for(int i = 0; i < 10; i++) {
+        int x = random.nextInt(1000);
+        int y = random.nextInt(1000);
+        elements.add(new Path(false, false, 0, random.nextInt(2), 0, 0,
+            4, 0, 0, new int[] {x, y, x + 30, y, x + 30, y + 40}));
+      }
+      for(int i = 0; (c < cells.length - 1) && (i < 4); i++) {
+        String    name = "C" /*NOI18N*/ + (c + 1 + random.nextInt(
+              cells.length - c - 1));
+        Transform transform = new Transform(random.nextInt(360),
+            1 + random.nextInt(3), random.nextBoolean(), true, true);
+        int x = random.nextInt(10000);
+        int y = random.nextInt(10000);
+        int columns = 1 + random.nextInt(4);
+        int rows    = 1 + random.nextInt(4);
+        elements.add(new ArrayReference(false, false, 0, name, transform,
+            columns, rows, new Point[] {new Point(x, y),
+              new Point(x + columns * 1500, y + 100 * columns),
+              new Point(x, y + rows * 1700)}));
+      }
+      cells[c] = new Structure("C" /*NOI18N*/ + c,
+          elements.toArray(new Element[0]));
+    }
+
+    Flattener     flattener = new Flattener(cells);
+    List<Element> expected  = new ArrayList<Element>();
+    flattener.flatten(cells[0], collect(expected));
+    assertTrue(expected.size() > 1000);
+    for(int threads = 2; threads <= 4; threads++) {
+      List<Element> found = new ArrayList<Element>();
+      flattener.flatten(cells[0], collect(found), threads);
+      assertEquals(describe(expected), describe(found));
+    }
+
+    final List<Element> windowed = new ArrayList<Element>();
+    new WindowQuery(new StructureExtents(cells), new SpatialIndex(cells)).query(
+      "C0" /*NOI18N*/, Integer.MIN_VALUE, Integer.MIN_VALUE, Integer.MAX_VALUE,
+      Integer.MAX_VALUE, new ShapeVisitor() {
+        public void visit(Element element, Placement placement) {
+          windowed.add(Flattener.place(element, placement));
+        }
+      });
+    List<String> sorted = describe(expected);
+    List<String> others = describe(windowed);
+    Collections.sort(sorted);
+    Collections.sort(others);
+    assertEquals(sorted, others);
+  }
+
+  public void testFailures()
+    throws Exception {
+    Structure loop = new Structure("LOOP" /*NOI18N*/);
+    loop.setElements(new Element[] {
+        new Boundary(1, new int[] {0, 0, 1, 0, 1, 1, 0, 0}),
+        new StructureReference("LOOP" /*NOI18N*/,
+          new Point[] {new Point(5, 5)})});
+    Flattener flattener = new Flattener(new Structure[] {loop});
+    for(int threads = 1; threads <= 2; threads++) {
+      try {
+        flattener.flatten(loop, collect(new ArrayList<Element>()), threads);
+        fail("Cycle accepted" /*NOI18N*/);
+      } catch(IllegalArgumentException ex) {}
+    }
+
+    /* A failing sink stops the tasks */
+    Structure leaf = new Structure("LEAF" /*NOI18N*/, new Element[] {
+          new Boundary(1, new int[] {0, 0, 1, 0, 1, 1, 0, 0})});
+    Element refs[] = new Element[100];
+    for(int i = 0; i < refs.length; i++) {
+      refs[i] = new ArrayReference(false, false, 0, "LEAF" /*NOI18N*/,
+          new Transform(0, 1, false, true, true), 100, 100, new Point[] {
+            new Point(0, 0), new Point(1000, 0), new Point(0, 1000)});
+    }
+    Structure top = new Structure("TOP" /*NOI18N*/, refs);
+    final int written[] = new int[1];
+    try {
+      new Flattener(new Structure[] {top, leaf}).flatten(top, new ShapeSink() {
+          public void write(Element shape)
+            throws IOException {
+            if(++written[0] == 5000) {throw new IOException();}
+          }
+        }, 2);
+      fail("Sink failure lost" /*NOI18N*/);
+    } catch(IOException ex) {}
+    assertEquals(5000, written[0]);
+  }
+
+  private static int[] first(Element element) {
+    return Arrays.copyOf(element.getXy(), 2);
+  }
+
+  private static List<String> describe(List<Element> shapes) {
+    List<String> result = new ArrayList<String>();
+    for(int i = 0; i < shapes.size(); i++) {
+      Element shape = shapes.get(i);
+      result.add(shape.getClass().getName() + " " /*NOI18N*/ +
+        ((GeometryElement)shape).getLayer() + " " /*NOI18N*/ +
+        Arrays.toString(shape.getXy()) + ((shape instanceof Path)
+          ? " " /*NOI18N*/ + ((Path)shape).getWidth() : "" /*NOI18N*/));
+    }
+    return result;
+  }
+
+  private ShapeSink collect(final List<Element> shapes) {
+    return new ShapeSink() {
+        public void write(Element shape) {shapes.add(shape);}
+      };
+  }
+}
+
+/* This material is distributed under the GNU General Public License.
+ * For more information please go to http://www.gnu.org/copyleft/gpl.html */
@@ -0,0 +1,96 @@
+/* Copyright (C) 2004 Thomas N. Valine
+ * tvaline@users.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA
+ * 02111-1307, USA. */
+package com.ohrasys.cad.gds.geom;
+import com.ohrasys.cad.gds.dao.Transform;
+import java.util.*;
+
+/* Times placing points through a Placement.  The Manhattan case runs the
+ * integer bulk transform, the same placement one point at a time through
+ * transformX and transformY, the general case the double bulk transform,
+ * and the last column re-derives the trigonometry from a dao.Transform for
+ * every point as callers did before Placement.  Not part of the test
+ * suites, run it with
+ *   java com.ohrasys.cad.gds.geom.PlacementBenchmark [millions of points] */
+public class PlacementBenchmark {
+  private static final int COUNT = 1 << 20;
+
+  public static void main(String args[]) {
+    int    millions      = (args.length > 0) ? Integer.parseInt(args[0]) : 100;
+    int    source[]      = new int[2 * COUNT];
+    int    destination[] = new int[2 * COUNT];
+    Random random        = new Random(1);
+    for(int i = 0; i < source.length; i++) {
+      source[i] = random.nextInt(2000000) - 1000000;
+    }
+    int       reps      = (int)(millions * 1000000L / COUNT) + 1;
+    double    points    = (double)reps * COUNT;
+    Transform transform = new Transform(270, 1, true, true, true);
+    Placement manhattan = new Placement(transform, 1234, -5678);
+    Placement general   = new Placement(new Transform(30, 1.5, true, true,
+      true), 1234.5, -5678);
+    for(int round = 0; round < 3; round++) {
+      long sum   = 0;
+      long start = System.nanoTime();
+      for(int k = 0; k < reps; k++) {
+        manhattan.transform(source, 0, destination, 0, COUNT);
+      }
+      long bulk = System.nanoTime() - start;
+      sum += destination[7];
+      start = System.nanoTime();
+      for(int k = 0; k < reps; k++) {
+        for(int i = 0; i < source.length; i += 2) {
+          destination[i]     = (int)Math.round(manhattan.transformX(source[i],
+            source[i + 1]));
+          destination[i + 1] = (int)Math.round(manhattan.transformY(source[i],
+            source[i + 1]));
+        }
+      }
+      long doubles = System.nanoTime() - start;
+      sum -= destination[7];
+      start = System.nanoTime();
+      for(int k = 0; k < reps; k++) {
+        general.transform(source, 0, destination, 0, COUNT);
+      }
+      long generic = System.nanoTime() - start;
+      sum += destination[7];
+      start = System.nanoTime();
+      for(int k = 0; k < reps; k++) {
+        for(int i = 0; i < source.length; i += 2) {
+          double radians = Math.toRadians(transform.getAngle());
+          double mag     = transform.getMagnification();
+          double x       = source[i];
+          double y       = transform.isMirrored() ? -source[i + 1]
+                                                  : source[i + 1];
+          destination[i]     = (int)Math.round((mag * ((x * Math.cos(radians)) -
+            (y * Math.sin(radians)))) + 1234);
+          destination[i + 1] = (int)Math.round((mag * ((x * Math.sin(radians)) +
+            (y * Math.cos(radians)))) - 5678);
+        }
+      }
+      long trig = System.nanoTime() - start;
+      sum -= destination[7];
+      System.out.printf("%.0f Mpoints: manhattan bulk %.2f | per point %.2f" +
+        " | general bulk %.2f | trig per point %.2f ns/point (%d)%n",
+        points / 1e6, bulk / points, doubles / points, generic / points,
+        trig / points, sum);
+    }
+  }
+}
+
+/* This material is distributed under the GNU General Public License.
+ * For more information please go to http://www.gnu.org/copyleft/gpl.html */
@@ -0,0 +1,147 @@
+/* Copyright (C) 2004 Thomas N. Valine
+ * tvaline@users.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA
+ * 02111-1307, USA. */
+package com.ohrasys.cad.gds.geom;
+import junit.framework.*;
+import java.util.*;
+import com.ohrasys.cad.gds.dao.*;
+
+public class PlacementTest
+  extends TestCase {
+  public PlacementTest(String testName) {super(testName);}
+
+  public static junit.framework.Test suite() {
+    junit.framework.TestSuite suite =
+      new junit.framework.TestSuite(PlacementTest.class);
+    return suite;
+  }
+
+  /* The integer path must agree with the matrix for the eight orientations */
+  public void testManhattan() {
+    Random random = new Random(3);
+    int    xy[]   = new int[200];
+    for(int i = 0; i < xy.length; i++) {xy[i] = random.nextInt(2000000) - 1000000;}
+    for(int orientation = 0; orientation < 8; orientation++) {
+      Placement placement = new Placement(90 * orientation, 1,
+          orientation >= 4, -123, 4567, false, false);
+      assertTrue(placement.isManhattan());
+      int placed[] = new int[xy.length + 2];
+      placement.transform(xy, 2, placed, 4, 98);
+      for(int i = 2; i < 198; i += 2) {
+        assertEquals(Math.round(placement.transformX(xy[i], xy[i + 1])),
+          placed[i + 2]);
+        assertEquals(Math.round(placement.transformY(xy[i], xy[i + 1])),
+          placed[i + 3]);
+      }
+      int copy[] = xy.clone();
+      placement.transform(copy, 2, 98);
+      assertTrue(Arrays.equals(Arrays.copyOfRange(placed, 4, 200),
+          Arrays.copyOfRange(copy, 2, 198)));
+      assertEquals(xy[0], copy[0]);
+    }
+
+    Placement turned = new Placement(90, 1, false, 10, 20, false, false);
+    int point[] = {1, 2};
+    turned.transform(point, 0, 1);
+    assertTrue(Arrays.equals(new int[] {8, 21}, point));
+    Placement mirrored = new Placement(0, 1, true, 0, 0, false, false);
+    mirrored.transform(point, 0, 1);
+    assertTrue(Arrays.equals(new int[] {8, -21}, point));
+
+    assertFalse(new Placement(30, 1, false, 0, 0, false, false).isManhattan());
+    assertFalse(new Placement(90, 2, false, 0, 0, false, false).isManhattan());
+    assertFalse(new Placement(90, 1, false, 0.5, 0, false, false)
+      .isManhattan());
+    Placement tilted = new Placement(45, 2, false, 0.5, 0, false, false);
+    point = new int[] {10, 0};
+    tilted.transform(point, 0, 1);
+    assertTrue(Arrays.equals(new int[] {15, 14}, point));
+  }
+
+  public void testComposeAndInverse() {
+    Random random = new Random(9);
+    for(int i = 0; i < 100; i++) {
+      Placement placement = new Placement(random.nextInt(360) +
+          random.nextDouble(), 0.5 + random.nextInt(4), random.nextBoolean(),
+          random.nextInt(10000), random.nextInt(10000), false, false);
+      Placement child = new Placement(random.nextInt(8) * 45, 1,
+          random.nextBoolean(), random.nextInt(100), random.nextInt(100),
+          false, false);
+      Placement both = placement.compose(child);
+      Placement back = both.inverse();
+      double x = random.nextInt(1000);
+      double y = random.nextInt(1000);
+      double cx = child.transformX(x, y);
+      double cy = child.transformY(x, y);
+      assertEquals(placement.transformX(cx, cy), both.transformX(x, y), 1e-6);
+      assertEquals(placement.transformY(cx, cy), both.transformY(x, y), 1e-6);
+      assertEquals(x, back.transformX(both.transformX(x, y),
+          both.transformY(x, y)), 1e-6);
+      assertEquals(y, back.transformY(both.transformX(x, y),
+          both.transformY(x, y)), 1e-6);
+    }
+    Placement manhattan = new Placement(270, 1, true, 5, -7, false, false);
+    assertTrue(manhattan.inverse().isManhattan());
+    assertTrue(manhattan.compose(manhattan.inverse()).isManhattan());
+    assertEquals(0.0, manhattan.compose(manhattan.inverse()).getAngle());
+  }
+
+  public void testTransformFlags() {
+    Placement parent = new Placement(90, 3, true, 0, 0, false, false);
+    Placement absolute = new Placement(new Transform(30, 2, false, false,
+          true), 1, 1);
+    assertTrue(absolute.isAbsoluteAngle());
+    assertFalse(absolute.isAbsoluteMagnification());
+    Placement placed = parent.compose(absolute);
+    assertEquals(30.0, placed.getAngle());
+    assertEquals(6.0, placed.getMagnification());
+    assertTrue(placed.isMirrored());
+    assertEquals(3.0, placed.getX(), 1e-9);
+    assertEquals(3.0, placed.getY(), 1e-9);
+
+    /* The flags are read as they are, a reference without STRANS has a
+     * relative transform or none */
+    Placement both = new Placement(new Transform(30, 2, false, false,
+          false), 1, 1);
+    assertTrue(both.isAbsoluteAngle());
+    assertTrue(both.isAbsoluteMagnification());
+    Placement plain = new Placement(new StructureReference().getTransform(),
+        0, 0);
+    assertFalse(plain.isAbsoluteAngle());
+    assertFalse(plain.isAbsoluteMagnification());
+    assertTrue(plain.isManhattan());
+    assertFalse(new Placement(null, 0, 0).isAbsoluteAngle());
+
+    Transform transform = placed.toTransform();
+    assertEquals(30.0, transform.getAngle());
+    assertEquals(6.0, transform.getMagnification());
+    assertTrue(transform.isMirrored());
+    assertTrue(transform.isRelativeAngle());
+
+    /* Both absolute under a turned and magnified parent */
+    Placement turned = new Placement(90, 2, false, 10, 0, false, false)
+      .compose(both);
+    assertEquals(30.0, turned.getAngle());
+    assertEquals(2.0, turned.getMagnification());
+    assertFalse(turned.isMirrored());
+    assertEquals(8.0, turned.getX(), 1e-9);
+    assertEquals(2.0, turned.getY(), 1e-9);
+  }
+}
+
+/* This material is distributed under the GNU General Public License.
+ * For more information please go to http://www.gnu.org/copyleft/gpl.html */
@@ -0,0 +1,96 @@
+/* Copyright (C) 2004 Thomas N. Valine
+ * tvaline@users.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA
+ * 02111-1307, USA. */
+package com.ohrasys.cad.gds.geom;
+import junit.framework.*;
+import java.awt.Point;
+import java.io.*;
+import java.util.*;
+import com.ohrasys.cad.gds.*;
+import com.ohrasys.cad.gds.dao.*;
+import com.ohrasys.cad.gds.validator.DatabaseLoader;
+
+public class StructureExtentsTest
+  extends TestCase {
+  public StructureExtentsTest(String testName) {super(testName);}
+
+  public static junit.framework.Test suite() {
+    junit.framework.TestSuite suite =
+      new junit.framework.TestSuite(StructureExtentsTest.class);
+    return suite;
+  }
+
+  /* LEAF holds a box and a bent path of width 10, TOP places LEAF mirrored,
+   * doubled and turned a quarter at 1000,2000 and as a 3x2 array of pitch
+   * 200 at the origin, next to a text at -5,-5 */
+  public void testSample()
+    throws Exception {
+    File             file    = GDSTestLibrary.write(GDSTestLibrary.sample());
+    Database         db      = new DatabaseLoader().load(file);
+    StructureExtents extents = new StructureExtents(db);
+    assertTrue(Arrays.equals(new int[] {-5, 0, 300, 205},
+        extents.getExtent("LEAF" /*NOI18N*/)));
+    assertTrue(Arrays.equals(new int[] {-5, -5, 1410, 2600},
+        extents.getExtent("TOP" /*NOI18N*/)));
+    Element top[] = extents.getStructure("TOP" /*NOI18N*/).getElements();
+    assertTrue(Arrays.equals(new int[] {1000, 1990, 1410, 2600},
+        extents.getExtent(top[0])));
+    assertTrue(Arrays.equals(new int[] {-5, 0, 700, 405},
+        extents.getExtent(top[1])));
+    assertNull(extents.getExtent("MISSING" /*NOI18N*/));
+
+    /* Callers get their own copy */
+    extents.getExtent("LEAF" /*NOI18N*/)[0] = 42;
+    assertEquals(-5, extents.getExtent("LEAF" /*NOI18N*/)[0]);
+  }
+
+  public void testPathEnds() {
+    StructureExtents extents = new StructureExtents(new Structure[0]);
+    int xy[] = {0, 0, 100, 0};
+    assertTrue(Arrays.equals(new int[] {0, -5, 100, 5},
+        extents.getExtent(new Path(false, false, 0, 1, 0, 0, 10, 0, 0, xy))));
+    assertTrue(Arrays.equals(new int[] {-5, -5, 105, 5},
+        extents.getExtent(new Path(false, false, 0, 1, 0, 2, 10, 0, 0, xy))));
+    assertTrue(Arrays.equals(new int[] {-5, -5, 105, 5},
+        extents.getExtent(new Path(false, false, 0, 1, 0, 1, 10, 0, 0, xy))));
+    assertTrue(Arrays.equals(new int[] {-20, -5, 130, 5},
+        extents.getExtent(new Path(false, false, 0, 1, 0, 4, 10, 20, 30, xy))));
+  }
+
+  public void testEmptyAndCycle() {
+    Structure empty = new Structure("EMPTY" /*NOI18N*/, new Element[0]);
+    Structure a     = new Structure("A" /*NOI18N*/);
+    Structure b     = new Structure("B" /*NOI18N*/);
+    a.setElements(new Element[] {reference("B" /*NOI18N*/)});
+    b.setElements(new Element[] {
+        reference("EMPTY" /*NOI18N*/), reference("A" /*NOI18N*/)});
+    StructureExtents extents =
+      new StructureExtents(new Structure[] {empty, a, b});
+    assertNull(extents.getExtent(empty));
+    try {
+      extents.getExtent(a);
+      fail("Cycle accepted" /*NOI18N*/);
+    } catch(IllegalArgumentException ex) {}
+  }
+
+  private Element reference(String name) {
+    return new StructureReference(name, new Point[] {new Point(0, 0)});
+  }
+}
+
+/* This material is distributed under the GNU General Public License.
+ * For more information please go to http://www.gnu.org/copyleft/gpl.html */
@@ -0,0 +1,114 @@
+/* Copyright (C) 2004 Thomas N. Valine
+ * tvaline@users.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA
+ * 02111-1307, USA. */
+package com.ohrasys.cad.gds.geom;
+import junit.framework.*;
+import java.io.*;
+import java.util.*;
+import com.ohrasys.cad.gds.*;
+import com.ohrasys.cad.gds.dao.*;
+import com.ohrasys.cad.gds.validator.DatabaseLoader;
+
+public class StructureIndexTest
+  extends TestCase {
+  public StructureIndexTest(String testName) {super(testName);}
+
+  public static junit.framework.Test suite() {
+    junit.framework.TestSuite suite =
+      new junit.framework.TestSuite(StructureIndexTest.class);
+    return suite;
+  }
+
+  public void testSample()
+    throws Exception {
+    File         file  = GDSTestLibrary.write(GDSTestLibrary.sample());
+    SpatialIndex index = new SpatialIndex(new DatabaseLoader().load(file));
+    StructureIndex leaf = index.getIndex("LEAF" /*NOI18N*/);
+    assertSame(leaf, index.getIndex("LEAF" /*NOI18N*/));
+    assertTrue(Arrays.deepEquals(new int[][] {{1, 0}, {2, 3}},
+        leaf.getLayers()));
+    assertTrue(Arrays.equals(new int[] {-5, 0, 300, 205},
+        leaf.getBounds(2, 3)));
+    assertEquals(1, count(leaf, 1, 0, 60, 30, 50, 25));
+    assertEquals(0, count(leaf, 1, 0, 200, 200, 300, 300));
+    assertEquals(0, count(leaf, 1, 3, 50, 25, 60, 30));
+    assertEquals(1, count(leaf, 2, 3, 295, 195, 310, 210));
+    assertEquals(1, count(leaf, 1, 0, 100, 50, 120, 70));
+
+    /* References are not indexed, the text is */
+    StructureIndex top = index.getIndex("TOP" /*NOI18N*/);
+    assertTrue(Arrays.deepEquals(new int[][] {{5, 7}}, top.getLayers()));
+    assertEquals(1, count(top, 5, 7, -10, -10, 0, 0));
+    assertNull(index.getIndex("MISSING" /*NOI18N*/));
+  }
+
+  /* The tree must find what a plain scan finds, over several levels */
+  public void testAgainstScan()
+    throws Exception {
+    Random  random     = new Random(7);
+    Element elements[] = new Element[5000];
+    for(int i = 0; i < elements.length; i++) {
+      int x = random.nextInt(100000) - 50000;
+      int y = random.nextInt(100000) - 50000;
+      int w = random.nextInt(500);
+      int h = random.nextInt(500);
+      elements[i] = new Boundary(false, false, 0, random.nextInt(3), 0,
+          new int[] {x, y, x + w, y, x + w, y + h, x, y + h, x, y});
+    }
+    Structure    structure = new Structure("RANDOM" /*NOI18N*/, elements);
+    SpatialIndex index = new SpatialIndex(new Structure[] {structure});
+    index.build(2);
+    StructureIndex tree = index.getIndex(structure);
+    assertEquals(5000, tree.getCount(0, 0) + tree.getCount(1, 0) +
+      tree.getCount(2, 0));
+
+    for(int q = 0; q < 200; q++) {
+      int layer = random.nextInt(3);
+      int x1 = random.nextInt(120000) - 60000;
+      int y1 = random.nextInt(120000) - 60000;
+      int x2 = x1 + random.nextInt(20000);
+      int y2 = y1 + random.nextInt(20000);
+      final Set<Element> found = new HashSet<Element>();
+      tree.query(layer, 0, x2, y2, x1, y1, new ElementVisitor() {
+          public void visit(Element element) {
+            assertTrue(found.add(element));
+          }
+        });
+      Set<Element> expected = new HashSet<Element>();
+      for(int i = 0; i < elements.length; i++) {
+        int xy[] = elements[i].getXy();
+        if((((GeometryElement)elements[i]).getLayer() == layer) &&
+          (xy[0] <= x2) && (xy[4] >= x1) && (xy[1] <= y2) && (xy[5] >= y1)) {
+          expected.add(elements[i]);
+        }
+      }
+      assertEquals(expected, found);
+    }
+  }
+
+  private int count(StructureIndex index, int layer, int datatype, int x1,
+    int y1, int x2, int y2) {
+    final int count[] = new int[1];
+    index.query(layer, datatype, x1, y1, x2, y2, new ElementVisitor() {
+        public void visit(Element element) {count[0]++;}
+      });
+    return count[0];
+  }
+}
+
+/* This material is distributed under the GNU General Public License.
+ * For more information please go to http://www.gnu.org/copyleft/gpl.html */
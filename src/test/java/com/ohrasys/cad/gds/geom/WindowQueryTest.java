@@ -0,0 +1,238 @@
+/* Copyright (C) 2004 Thomas N. Valine
+ * tvaline@users.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA
+ * 02111-1307, USA. */
+package com.ohrasys.cad.gds.geom;
+import junit.framework.*;
+import java.awt.Point;
+import java.io.*;
+import java.util.*;
+import com.ohrasys.cad.gds.*;
+import com.ohrasys.cad.gds.dao.*;
+import com.ohrasys.cad.gds.validator.DatabaseLoader;
+
+public class WindowQueryTest
+  extends TestCase {
+  public WindowQueryTest(String testName) {super(testName);}
+
+  public static junit.framework.Test suite() {
+    junit.framework.TestSuite suite =
+      new junit.framework.TestSuite(WindowQueryTest.class);
+    return suite;
+  }
+
+  /* TOP places LEAF mirrored, doubled and turned a quarter at 1000,2000 and
+   * as a 3x2 array of pitch 200 at the origin */
+  public void testSample()
+    throws Exception {
+    File        file  = GDSTestLibrary.write(GDSTestLibrary.sample());
+    WindowQuery query = new WindowQuery(new DatabaseLoader().load(file));
+    List<Placement> found = new ArrayList<Placement>();
+    assertEquals(15, query(query, -10000, -10000, 10000, 10000, found));
+
+    /* One box of the array, the paths of its column neighbour reach it */
+    found.clear();
+    query.query("TOP" /*NOI18N*/, 1, 0, 450, 220, 460, 230, collect(found));
+    assertEquals(1, found.size());
+    assertEquals(400.0, found.get(0).getX());
+    assertEquals(200.0, found.get(0).getY());
+    assertEquals(3, query(query, 450, 220, 460, 230, found));
+
+    found.clear();
+    query.query("TOP" /*NOI18N*/, 1, 0, 1060, 2110, 1050, 2100, collect(found));
+    assertEquals(1, found.size());
+    Placement placement = found.get(0);
+    assertTrue(placement.isMirrored());
+    assertEquals(90.0, placement.getAngle());
+    assertEquals(2.0, placement.getMagnification());
+    assertEquals(1050.0, placement.transformX(50, 25));
+    assertEquals(2100.0, placement.transformY(50, 25));
+
+    assertEquals(0, query(query, 2000, 3000, 2100, 3100, found));
+    found.clear();
+    query.query("MISSING" /*NOI18N*/, 0, 0, 1, 1, collect(found));
+    assertTrue(found.isEmpty());
+  }
+
+  /* The walk must find what a full expansion finds */
+  public void testAgainstExpansion() {
+    Random      random = new Random(11);
+    Structure   cells[] = new Structure[4];
+    for(int c = cells.length - 1; c >= 0; c--) {
+      List<Element> elements = new ArrayList<Element>();
+      for(int i = 0; i < 30; i++) {
+        int x = random.nextInt(2000);
+        int y = random.nextInt(2000);
+        elements.add(new Boundary(false, false, 0, random.nextInt(2), 0,
+            new int[] {x, y, x + 50, y, x + 50, y + 20, x, y + 20, x, y}));
+      }
+      for(int i = 0; (c < cells.length - 1) && (i < 6); i++) {
+        String   name = "C" /*NOI18N*/ + (c + 1 + random.nextInt(
+              cells.length - c - 1));
+        Transform transform = new Transform(90 * random.nextInt(4), 1,
+            random.nextBoolean(), true, true);
+        int x = random.nextInt(10000) - 5000;
+        int y = random.nextInt(10000) - 5000;
+        if(random.nextBoolean()) {
+          elements.add(new StructureReference(name, transform,
+              new Point[] {new Point(x, y)}));
+        } else {
+          int columns = 1 + random.nextInt(8);
+          int rows    = 1 + random.nextInt(8);
+          int skew    = random.nextInt(3) * 100;
+          elements.add(new ArrayReference(false, false, 0, name, transform,
+              columns, rows, new Point[] {new Point(x, y),
+                new Point(x + columns * 2500, y + skew * columns),
+                new Point(x - skew * rows, y + rows * 2300)}));
+        }
+      }
+      cells[c] = new Structure("C" /*NOI18N*/ + c,
+          elements.toArray(new Element[0]));
+    }
+
+    WindowQuery query = new WindowQuery(new StructureExtents(cells),
+        new SpatialIndex(cells));
+    int total = 0;
+    for(int q = 0; q < 50; q++) {
+      int x1 = random.nextInt(40000) - 20000;
+      int y1 = random.nextInt(40000) - 20000;
+      int x2 = x1 + random.nextInt(8000);
+      int y2 = y1 + random.nextInt(8000);
+      final List<String> found = new ArrayList<String>();
+      query.query("C0" /*NOI18N*/, 1, 0, x1, y1, x2, y2, new ShapeVisitor() {
+          public void visit(Element element, Placement placement) {
+            found.add(describe(element, placement));
+          }
+        });
+      List<String> expected = new ArrayList<String>();
+      expand(cells, cells[0], Placement.IDENTITY, new int[] {x1, y1, x2, y2},
+        expected);
+      Collections.sort(found);
+      Collections.sort(expected);
+      assertEquals(expected, found);
+      total += found.size();
+    }
+    assertTrue(total > 100);
+  }
+
+  /* TOP halves A, which holds B at an absolute magnification, so B is twice
+   * as large as the extent of A placed in TOP */
+  public void testAbsoluteGrandchild() {
+    Structure b = new Structure("B" /*NOI18N*/, new Element[] {
+          new Boundary(false, false, 0, 1, 0,
+            new int[] {0, 0, 100, 0, 100, 100, 0, 100, 0, 0})});
+    Structure a = new Structure("A" /*NOI18N*/, new Element[] {
+          new StructureReference("B" /*NOI18N*/,
+            new Transform(0, 1, false, true, false),
+            new Point[] {new Point(0, 0)})});
+    Structure top = new Structure("TOP" /*NOI18N*/, new Element[] {
+          new StructureReference("A" /*NOI18N*/,
+            new Transform(0, 0.5, false, true, true),
+            new Point[] {new Point(0, 0)}),
+          new ArrayReference(false, false, 0, "A" /*NOI18N*/,
+            new Transform(90, 0.5, false, true, true), 2, 1, new Point[] {
+              new Point(1000, 0), new Point(3000, 0), new Point(1000, 1000)})});
+    Structure cells[] = {top, a, b};
+    StructureExtents extents = new StructureExtents(cells);
+    assertTrue(extents.isAbsolute(top));
+    assertTrue(extents.isAbsolute(a));
+    assertFalse(extents.isAbsolute(b));
+
+    WindowQuery query = new WindowQuery(extents, new SpatialIndex(cells));
+    int windows[][] = {
+        {60, 60, 80, 80}, {910, 60, 940, 90}, {1910, 60, 1940, 90},
+        {1010, 60, 1040, 90}
+      };
+    int counts[] = {1, 1, 1, 0};
+    for(int w = 0; w < windows.length; w++) {
+      int window[] = windows[w];
+      List<Placement> found = new ArrayList<Placement>();
+      assertEquals(counts[w],
+        query(query, window[0], window[1], window[2], window[3], found));
+      List<String> expected = new ArrayList<String>();
+      expand(cells, top, Placement.IDENTITY, window, expected);
+      assertEquals(counts[w], expected.size());
+    }
+  }
+
+  private void expand(Structure cells[], Structure cell, Placement placement,
+    int window[], List<String> result) {
+    Element elements[] = cell.getElements();
+    for(int i = 0; i < elements.length; i++) {
+      if(elements[i] instanceof ReferenceElement) {
+        ReferenceElement reference = (ReferenceElement)elements[i];
+        Structure child = null;
+        for(int c = 0; c < cells.length; c++) {
+          if(cells[c].getName().equals(reference.getName())) {child = cells[c];}
+        }
+        int xy[] = reference.getXy();
+        int columns = 1;
+        int rows = 1;
+        if(reference instanceof ArrayReference) {
+          columns = ((ArrayReference)reference).getColumns();
+          rows = ((ArrayReference)reference).getRows();
+        }
+        for(int col = 0; col < columns; col++) {
+          for(int row = 0; row < rows; row++) {
+            double x = xy[0];
+            double y = xy[1];
+            if(reference instanceof ArrayReference) {
+              x += col * (xy[2] - xy[0]) / (double)columns +
+                row * (xy[4] - xy[0]) / (double)rows;
+              y += col * (xy[3] - xy[1]) / (double)columns +
+                row * (xy[5] - xy[1]) / (double)rows;
+            }
+            expand(cells, child, placement.compose(new Placement(
+                  reference.getTransform(), x, y)), window, result);
+          }
+        }
+      } else if(((GeometryElement)elements[i]).getLayer() == 1) {
+        int xy[] = elements[i].getXy();
+        double box[] = {xy[0], xy[1], xy[4], xy[5]};
+        placement.transformBox(box, box);
+        if((box[0] <= window[2]) && (box[2] >= window[0]) &&
+          (box[1] <= window[3]) && (box[3] >= window[1])) {
+          result.add(describe(elements[i], placement));
+        }
+      }
+    }
+  }
+
+  private static String describe(Element element, Placement placement) {
+    return System.identityHashCode(element) + " " /*NOI18N*/ +
+      Math.round(placement.getX()) + " " /*NOI18N*/ +
+      Math.round(placement.getY()) + " " /*NOI18N*/ + placement.getAngle() +
+      " " /*NOI18N*/ + placement.isMirrored();
+  }
+
+  private int query(WindowQuery query, int x1, int y1, int x2, int y2,
+    List<Placement> found) {
+    found.clear();
+    query.query("TOP" /*NOI18N*/, x1, y1, x2, y2, collect(found));
+    return found.size();
+  }
+
+  private ShapeVisitor collect(final List<Placement> found) {
+    return new ShapeVisitor() {
+        public void visit(Element element, Placement placement) {
+          found.add(placement);
+        }
+      };
+  }
+}
+
+/* This material is distributed under the GNU General Public License.
+ * For more information please go to http://www.gnu.org/copyleft/gpl.html */
@@ -0,0 +1,130 @@
+/* Copyright (C) 2004 Thomas N. Valine
+ * tvaline@users.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA
+ * 02111-1307, USA. */
+package com.ohrasys.cad.gds.validator;
+import junit.framework.*;
+import java.util.*;
+import com.ohrasys.cad.bnf.*;
+import com.ohrasys.cad.gds.*;
+
+public class CompiledValidatorTest
+  extends TestCase {
+  public CompiledValidatorTest(String testName) {super(testName);}
+
+  public static junit.framework.Test suite() {
+    junit.framework.TestSuite suite =
+      new junit.framework.TestSuite(CompiledValidatorTest.class);
+    return suite;
+  }
+
+  public void testDatabase()
+    throws Exception {
+    compare(DatabaseValidator.class, tokens(GDSRecord.HEADER, GDSRecord.ENDLIB));
+  }
+
+  public void testStructure()
+    throws Exception {
+    compare(StructureValidator.class, tokens(GDSRecord.BGNSTR, GDSRecord.ENDSTR));
+  }
+
+  public void testValidSample()
+    throws Exception {
+    BNFAutomaton automaton = new BNFCompiler().compile(new DatabaseValidator());
+    int          tokens[]  = tokens(GDSRecord.HEADER, GDSRecord.ENDLIB);
+    for(int i = 0; i < tokens.length - 1; i++) {
+      assertEquals(BNFTestResult.UNFINISHED, automaton.test(tokens[i]));
+    }
+    assertEquals(BNFTestResult.FINISHED,
+      automaton.test(tokens[tokens.length - 1]));
+  }
+
+  /* Feeds the same valid and mutated token streams to fresh trees, to the
+   * automaton and to the fast path of a reused tree and compares the result
+   * of every token */
+  private void compare(Class<? extends BNFTestImplementor> type, int valid[])
+    throws Exception {
+    BNFAutomaton    automaton = new BNFCompiler().compile(type.newInstance());
+    BNFAbstractTest fast      = (BNFAbstractTest)type.newInstance();
+    Random       random    = new Random(1);
+    for(int n = 0; n < 500; n++) {
+      List<Integer> stream = new ArrayList<Integer>();
+      for(int i = 0; i < valid.length; i++) {stream.add(valid[i]);}
+      for(int m = (n == 0) ? 0 : random.nextInt(3) + 1; m > 0; m--) {
+        int at = random.nextInt(stream.size());
+        switch(random.nextInt(3)) {
+          case 0:
+            stream.remove(at);
+            break;
+          case 1:
+            stream.add(at, random.nextInt(0x3C));
+            break;
+          default:
+            stream.add(at, stream.get(at));
+        }
+        if(stream.isEmpty()) {stream.add(0);}
+      }
+      BNFTestImplementor tree = type.newInstance();
+      tree.setCollecting(false);
+      automaton.reset();
+      fast.reset();
+      for(int i = 0; i < stream.size(); i++) {
+        BNFTestResult expected = tree.test(new Token(stream.get(i)));
+        int           actual   = automaton.test(stream.get(i));
+        String        where    = stream + "@" + i;
+        assertEquals(where, expected.isFinished(),
+          actual == BNFTestResult.FINISHED);
+        assertEquals(where, expected.isFailed(),
+          actual == BNFTestResult.FAILED);
+        assertEquals(where, expected.getReplayableTokens().size(),
+          automaton.getReplayCount());
+        assertEquals(where, actual, fast.test(stream.get(i)));
+        assertEquals(where, automaton.getReplayCount(), fast.getReplayCount());
+        if(!expected.isUnfinished()) {break;}
+      }
+    }
+  }
+
+  /* The record types of the sample library, with a format and masks added,
+   * from the first record of one type to the next record of another */
+  private static int[] tokens(byte first, byte last)
+    throws GDSRecordException {
+    List<GDSRecord> records =
+      new ArrayList<GDSRecord>(Arrays.asList(GDSTestLibrary.sample()));
+    records.add(3, new GDSFormatRecord((short)1));
+    records.add(4, new GDSMaskRecord("1" /*NOI18N*/));
+    records.add(5, new GDSEndmasksRecord());
+    int start = 0;
+    while(records.get(start).getRectype() != first) {start++;}
+    int end = start;
+    while(records.get(end).getRectype() != last) {end++;}
+    int result[] = new int[end - start + 1];
+    for(int i = 0; i < result.length; i++) {
+      result[i] = records.get(start + i).getRectype();
+    }
+    return result;
+  }
+
+  private static class Token
+    extends BNFTestableObject {
+    public Token(Integer token) {super(token);}
+
+    public int getToken() {return ((Integer)getData()).intValue();}
+  }
+}
+
+/* This material is distributed under the GNU General Public License.
+ * For more information please go to http://www.gnu.org/copyleft/gpl.html */
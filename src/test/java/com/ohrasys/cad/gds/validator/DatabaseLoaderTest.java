@@ -0,0 +1,217 @@
+/* Copyright (C) 2004 Thomas N. Valine
+ * tvaline@users.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA
+ * 02111-1307, USA. */
+package com.ohrasys.cad.gds.validator;
+import junit.framework.*;
+import java.io.*;
+import java.util.*;
+import com.ohrasys.cad.gds.*;
+import com.ohrasys.cad.gds.dao.*;
+
+public class DatabaseLoaderTest
+  extends TestCase {
+  public DatabaseLoaderTest(String testName) {super(testName);}
+
+  public static junit.framework.Test suite() {
+    junit.framework.TestSuite suite =
+      new junit.framework.TestSuite(DatabaseLoaderTest.class);
+    return suite;
+  }
+
+  public void testMatchesParser()
+    throws Exception {
+    File      file   = GDSTestLibrary.write(GDSTestLibrary.sample());
+    GDSParser parser = new GDSParser(false);
+    parser.setCollecting(true);
+    Database  expected = (Database)parser.parseDesign(file, null).get(0);
+    Database  loaded   = new DatabaseLoader().load(file);
+    assertEquals(dump(expected), dump(loaded));
+    assertEquals(2, loaded.getStructures().length);
+    Element leaf[] = loaded.getStructures()[0].getElements();
+    assertEquals(2, leaf[0].getProperties().length);
+    assertEquals("TWO" /*NOI18N*/, leaf[0].getProperties()[1].getValue());
+    Element top[] = loaded.getStructures()[1].getElements();
+    assertTrue(((StructureReference)top[0]).getTransform().isMirrored());
+    assertEquals(90.0, ((StructureReference)top[0]).getTransform().getAngle());
+  }
+
+  public void testReuse()
+    throws Exception {
+    File           file   = GDSTestLibrary.write(GDSTestLibrary.sample());
+    DatabaseLoader loader = new DatabaseLoader();
+    assertEquals(dump(loader.load(file)), dump(loader.load(file)));
+  }
+
+  public void testParallel()
+    throws Exception {
+    File file = GDSTestLibrary.write(GDSTestLibrary.sample());
+    String expected = dump(new DatabaseLoader().load(file));
+    for(int threads = 1; threads <= 4; threads++) {
+      assertEquals(expected, dump(new DatabaseLoader().load(file, threads)));
+    }
+    List<GDSRecord> records =
+      new ArrayList<GDSRecord>(Arrays.asList(GDSTestLibrary.sample()));
+    records.remove(records.size() - 2);
+    try {
+      new DatabaseLoader().load(GDSTestLibrary.write(
+          records.toArray(new GDSRecord[0])), 2);
+      fail("Unterminated structure accepted" /*NOI18N*/);
+    } catch(GDSRecordException ex) {}
+  }
+
+  public void testLazy()
+    throws Exception {
+    File     file     = GDSTestLibrary.write(GDSTestLibrary.sample());
+    Database expected = new DatabaseLoader().load(file);
+    Database lazy     = new DatabaseLoader().loadLazy(file, 1 << 20);
+    StructureCache cache =
+      ((LazyStructure)lazy.getStructures()[0]).getCache();
+    assertEquals(0, cache.getMisses());
+    assertEquals("TOP" /*NOI18N*/, lazy.getStructures()[1].getName());
+    assertEquals(0, cache.getMisses());
+    assertEquals(dump(expected), dump(lazy));
+    assertEquals(2, cache.getMisses());
+    dump(lazy);
+    assertEquals(2, cache.getMisses());
+    /* A cache holding one structure at most evicts on every switch */
+    LazyStructure leaf = (LazyStructure)lazy.getStructures()[0];
+    LazyStructure top  = (LazyStructure)lazy.getStructures()[1];
+    Database one = new DatabaseLoader().loadLazy(file,
+        Math.max(leaf.getLength(), top.getLength()));
+    leaf  = (LazyStructure)one.getStructures()[0];
+    top   = (LazyStructure)one.getStructures()[1];
+    cache = leaf.getCache();
+    leaf.getElements();
+    assertEquals(leaf.getLength(), cache.getSize());
+    top.getElements();
+    assertEquals(top.getLength(), cache.getSize());
+    leaf.getElements();
+    assertEquals(3, cache.getMisses());
+    assertEquals(dump(expected), dump(new DatabaseLoader().loadLazy(file, 0)));
+  }
+
+  public void testLazyConcurrent()
+    throws Exception {
+    File           file   = GDSTestLibrary.write(GDSTestLibrary.sample());
+    Database       lazy   = new DatabaseLoader().loadLazy(file, 1 << 20);
+    final Structure leaf  = lazy.getStructures()[0];
+    final Element  seen[][] = new Element[8][];
+    final Throwable failure[] = new Throwable[1];
+    Thread threads[] = new Thread[seen.length];
+    for(int i = 0; i < threads.length; i++) {
+      final int slot = i;
+      threads[i] = new Thread() {
+        public void run() {
+          try {
+            seen[slot] = leaf.getElements();
+          } catch(Throwable ex) {failure[0] = ex;}
+        }
+      };
+    }
+    for(int i = 0; i < threads.length; i++) {threads[i].start();}
+    for(int i = 0; i < threads.length; i++) {threads[i].join();}
+    assertNull(failure[0]);
+    /* Concurrent misses share a single decode */
+    assertEquals(1, ((LazyStructure)leaf).getCache().getMisses());
+    for(int i = 1; i < seen.length; i++) {assertSame(seen[0], seen[i]);}
+    /* A failed decode is not remembered */
+    Structure top = lazy.getStructures()[1];
+    assertTrue(file.delete());
+    for(int i = 0; i < 2; i++) {
+      try {
+        top.getElements();
+        fail("Missing file accepted" /*NOI18N*/);
+      } catch(RuntimeException ex) {}
+    }
+    assertSame(seen[0], leaf.getElements());
+  }
+
+  public void testStatistics()
+    throws Exception {
+    GDSRecord     records[] = GDSTestLibrary.sample();
+    File          file      = GDSTestLibrary.write(records);
+    GDSStatistics expected  = new GDSStatistics();
+    for(int i = 0; i < records.length; i++) {expected.record(records[i]);}
+    DatabaseLoader loader = new DatabaseLoader();
+    assertNull(loader.getStatistics());
+    for(int threads = 1; threads <= 3; threads++) {
+      GDSStatistics stats = new GDSStatistics();
+      loader.setStatistics(stats);
+      loader.load(file, threads);
+      assertEquals(expected.toString(), stats.toString());
+      assertEquals(expected.getVertices(), stats.getVertices());
+      assertTrue(Arrays.deepEquals(expected.getElementCounts(),
+          stats.getElementCounts()));
+    }
+    GDSStatistics stats = new GDSStatistics();
+    loader.setStatistics(stats);
+    loader.loadLazy(file, 0);
+    assertEquals(expected.toString(), stats.toString());
+    assertEquals(expected.getBytes(), stats.getBytes());
+    assertTrue(Arrays.deepEquals(expected.getElementCounts(),
+        stats.getElementCounts()));
+  }
+
+  public void testLoadStructure()
+    throws Exception {
+    File     file   = GDSTestLibrary.write(GDSTestLibrary.sample());
+    GDSIndex index  = GDSIndex.build(file);
+    Database loaded = new DatabaseLoader().load(file);
+    Structure top = new DatabaseLoader().loadStructure(file, index, "TOP" /*NOI18N*/);
+    assertEquals(loaded.getStructures()[1].getInfo(), top.getInfo());
+    assertEquals(3, top.getElements().length);
+    assertNull(new DatabaseLoader().loadStructure(file, index, "NONE" /*NOI18N*/));
+  }
+
+  public void testMalformed()
+    throws Exception {
+    List<GDSRecord> records =
+      new ArrayList<GDSRecord>(Arrays.asList(GDSTestLibrary.sample()));
+    records.remove(records.size() - 1);
+    try {
+      new DatabaseLoader().load(GDSTestLibrary.write(
+          records.toArray(new GDSRecord[0])));
+      fail("Truncated library accepted" /*NOI18N*/);
+    } catch(GDSRecordException ex) {}
+    records = new ArrayList<GDSRecord>(Arrays.asList(GDSTestLibrary.sample()));
+    records.add(6, new GDSWidthRecord(5));
+    try {
+      new DatabaseLoader().load(GDSTestLibrary.write(
+          records.toArray(new GDSRecord[0])));
+      fail("Width in a boundary accepted" /*NOI18N*/);
+    } catch(GDSRecordException ex) {}
+  }
+
+  private static String dump(Database db) {
+    StringBuffer result = new StringBuffer(db.getInfo());
+    for(int i = 0; i < db.getStructures().length; i++) {
+      Structure struct = db.getStructures()[i];
+      result.append(struct.getInfo());
+      for(int j = 0; j < struct.getElements().length; j++) {
+        Element element = struct.getElements()[j];
+        result.append(element.getClass().getName()).append(element.getInfo());
+        for(int k = 0; k < element.getProperties().length; k++) {
+          result.append(element.getProperties()[k].getInfo());
+        }
+      }
+    }
+    return result.toString();
+  }
+}
+
+/* This material is distributed under the GNU General Public License.
+ * For more information please go to http://www.gnu.org/copyleft/gpl.html */
@@ -0,0 +1,83 @@
+/* Copyright (C) 2004 Thomas N. Valine
+ * tvaline@users.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA
+ * 02111-1307, USA. */
+package com.ohrasys.cad.gds.validator;
+import com.ohrasys.cad.bnf.*;
+import com.ohrasys.cad.gds.*;
+import java.io.*;
+import java.util.*;
+
+/* Times the database grammar over the record types of a synthetic
+ * library.  The object path wraps every token in a BNFTestableObject as
+ * GDSParser did before the int path existed, the int path calls test(int)
+ * on the same grammar and the automaton path runs the BNFCompiler table.
+ * Not part of the test suites, run it with the compiled tests and the
+ * resource bundles on the class path:
+ *   java com.ohrasys.cad.gds.validator.DatabaseValidatorBenchmark
+ *     [cells [elements]] */
+public class DatabaseValidatorBenchmark {
+  public static void main(String args[])
+    throws Exception {
+    int  cells    = (args.length > 0) ? Integer.parseInt(args[0]) : 2000;
+    int  elements = (args.length > 1) ? Integer.parseInt(args[1]) : 200;
+    File file     = GDSBenchmarkLibrary.write(cells, elements);
+    int  tokens[] = new int[0x10000];
+    int  count    = 0;
+    GDSRecordCursor cursor = new GDSRecordCursor(file);
+    while(cursor.next()) {
+      if(count == tokens.length) {
+        tokens = Arrays.copyOf(tokens, 2 * count);
+      }
+      tokens[count++] = cursor.rectype();
+    }
+    cursor.close();
+    System.out.printf("%d tokens%n", count);
+    BNFAutomaton automaton = new BNFCompiler().compile(new DatabaseValidator());
+    for(int round = 0; round < 5; round++) {
+      DatabaseValidator objects = new DatabaseValidator();
+      objects.setCollecting(false);
+      BNFTestResult result = null;
+      long start = System.nanoTime();
+      for(int i = 0; i < count; i++) {
+        final int token = tokens[i];
+        result = objects.test(new BNFTestableObject(null) {
+          public int getToken() {return token;}
+        });
+      }
+      long object = System.nanoTime() - start;
+      DatabaseValidator ints = new DatabaseValidator();
+      ints.setCollecting(false);
+      int status = 0;
+      start = System.nanoTime();
+      for(int i = 0; i < count; i++) {status = ints.test(tokens[i]);}
+      long fast = System.nanoTime() - start;
+      int state = 0;
+      automaton.reset();
+      start = System.nanoTime();
+      for(int i = 0; i < count; i++) {state = automaton.test(tokens[i]);}
+      long table = System.nanoTime() - start;
+      System.out.printf("object %.2f (%s) | int %.2f (%s) | automaton %.2f" +
+        " (%s) Mtokens/s%n",
+        count * 1e3 / object, result.isFinished(),
+        count * 1e3 / fast, status == BNFTestResult.FINISHED,
+        count * 1e3 / table, state == BNFTestResult.FINISHED);
+    }
+  }
+}
+
+/* This material is distributed under the GNU General Public License.
+ * For more information please go to http://www.gnu.org/copyleft/gpl.html */
@@ -0,0 +1,134 @@
+/* Copyright (C) 2004 Thomas N. Valine
+ * tvaline@users.sourceforge.net
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA
+ * 02111-1307, USA. */
+package com.ohrasys.cad.gds.validator;
+import junit.framework.*;
+import java.io.*;
+import java.util.*;
+import com.ohrasys.cad.gds.*;
+
+public class ParallelValidatorTest
+  extends TestCase {
+  public ParallelValidatorTest(String testName) {super(testName);}
+
+  public static junit.framework.Test suite() {
+    junit.framework.TestSuite suite =
+      new junit.framework.TestSuite(ParallelValidatorTest.class);
+    return suite;
+  }
+
+  public void testValid()
+    throws Exception {
+    File file = GDSTestLibrary.write(GDSTestLibrary.sample());
+    for(int threads = 1; threads <= 4; threads++) {
+      assertTrue(new ParallelValidator().validate(file, threads).isEmpty());
+    }
+  }
+
+  public void testStructureErrors()
+    throws Exception {
+    List<GDSRecord> records =
+      new ArrayList<GDSRecord>(Arrays.asList(GDSTestLibrary.sample()));
+    records.add(25, new GDSWidthRecord(5));
+    records.add(7, new GDSWidthRecord(5));
+    File file = GDSTestLibrary.write(records.toArray(new GDSRecord[0]));
+    GDSParser parser = new GDSParser(false);
+    assertNull(parser.parseDesign(file, null));
+    for(int threads = 1; threads <= 4; threads++) {
+      List<Diagnostic> found = new ParallelValidator().validate(file, threads);
+      assertEquals(2, found.size());
+      assertEquals("LEAF" /*NOI18N*/, found.get(0).getStructure());
+      assertEquals("TOP" /*NOI18N*/, found.get(1).getStructure());
+      assertEquals(GDSRecord.WIDTH, found.get(0).getFound());
+      assertEquals(GDSRecord.WIDTH, found.get(1).getFound());
+      assertTrue(found.get(0).getOffset() < found.get(1).getOffset());
+    }
+  }
+
+  /* Only the structure names are decoded: a bad layer number passes the
+   * grammar, a bad structure name is reported against its structure */
+  public void testPayloads()
+    throws Exception {
+    File file  = GDSTestLibrary.write(GDSTestLibrary.sample());
+    byte bytes[] = read(file);
+    int  layer = find(bytes, new byte[] {0, 6, GDSRecord.LAYER,
+          GDSRecord.SHORT_TYPE});
+    bytes[layer + 4] = 1;
+    bytes[layer + 5] = 44;
+    write(file, bytes);
+    assertNull(new GDSParser(false).parseDesign(file, null));
+    assertTrue(new ParallelValidator().validate(file, 2).isEmpty());
+
+    int name = find(bytes, "LEAF" /*NOI18N*/.getBytes("US-ASCII" /*NOI18N*/));
+    bytes[name + 2] = '@';
+    write(file, bytes);
+    List<Diagnostic> found = new ParallelValidator().validate(file, 2);
+    assertEquals(1, found.size());
+    assertEquals("LE@F" /*NOI18N*/, found.get(0).getStructure());
+    assertEquals(GDSRecord.STRNAME, found.get(0).getFound());
+    assertEquals(name - 4, found.get(0).getOffset());
+  }
+
+  public void testTruncated()
+    throws Exception {
+    List<GDSRecord> records =
+      new ArrayList<GDSRecord>(Arrays.asList(GDSTestLibrary.sample()));
+    records.remove(records.size() - 1);
+    records.remove(21);
+    File file = GDSTestLibrary.write(records.toArray(new GDSRecord[0]));
+    List<Diagnostic> found = new ParallelValidator().validate(file, 2);
+    assertEquals(2, found.size());
+    assertEquals("LEAF" /*NOI18N*/, found.get(0).getStructure());
+    assertEquals(-1, found.get(0).getFound());
+    assertNull(found.get(1).getStructure());
+    assertEquals(file.length(), found.get(1).getOffset());
+  }
+
+  private static int find(byte bytes[], byte pattern[]) {
+    for(int i = 0; i + pattern.length <= bytes.length; i++) {
+      int j = 0;
+      while((j < pattern.length) && (bytes[i + j] == pattern[j])) {j++;}
+      if(j == pattern.length) {return i;}
+    }
+    throw new IllegalArgumentException();
+  }
+
+  private static byte[] read(File file)
+    throws IOException {
+    byte result[] = new byte[(int)file.length()];
+    DataInputStream in = new DataInputStream(new FileInputStream(file));
+    try {
+      in.readFully(result);
+    } finally {
+      in.close();
+    }
+    return result;
+  }
+
+  private static void write(File file, byte bytes[])
+    throws IOException {
+    OutputStream out = new FileOutputStream(file);
+    try {
+      out.write(bytes);
+    } finally {
+      out.close();
+    }
+  }
+}
+
+/* This material is distributed under the GNU General Public License.
+ * For more information please go to http://www.gnu.org/copyleft/gpl.html */